@@ -0,0 +1,141 @@
+package de.htwg.in.wete.backend.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * JwtDecoder, der bereits validierte Tokens bis zu ihrem Ablauf ({@code exp})
+ * im Speicher hält.
+ *
+ * Die SPA schickt dasselbe Access-Token hunderte Male; statt jedes Mal die
+ * RS256-Signatur zu prüfen und die Claims zu validieren, kostet ein
+ * wiederholtes Token nur einen SHA-256-Hash und einen Lookup. Schlüssel ist
+ * der Hash, bei einem Treffer wird das Token zusätzlich in konstanter Zeit
+ * mit dem gespeicherten verglichen. Ungültige Tokens und Tokens ohne
+ * {@code exp} werden nie gecached.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final Clock clock;
+    private final Cache<String, Jwt> validated;
+
+    private final LongAdder verifications = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public CachingJwtDecoder(JwtDecoder delegate, long maxSize) {
+        this(delegate, maxSize, Clock.systemUTC());
+    }
+
+    public CachingJwtDecoder(JwtDecoder delegate, long maxSize, Clock clock) {
+        this.delegate = delegate;
+        this.clock = clock;
+        this.validated = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilExpiresAt())
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        if (token == null) {
+            throw new JwtException("Kein Token");
+        }
+        String key = hash(token);
+        Jwt cached = validated.getIfPresent(key);
+        if (cached != null && MessageDigest.isEqual(
+                cached.getTokenValue().getBytes(StandardCharsets.US_ASCII),
+                token.getBytes(StandardCharsets.US_ASCII))) {
+            return cached;
+        }
+
+        verifications.increment();
+        Jwt jwt;
+        try {
+            jwt = delegate.decode(token);
+        } catch (JwtException e) {
+            rejected.increment();
+            throw e;
+        }
+        Instant expiresAt = jwt.getExpiresAt();
+        // Auch innerhalb der Clock-Skew des Validators: abgelaufene Tokens nicht cachen
+        if (expiresAt != null && expiresAt.isAfter(clock.instant())) {
+            validated.put(key, jwt);
+        }
+        return jwt;
+    }
+
+    /**
+     * Verwirft alle validierten Tokens (z.B. wenn ein Signaturschlüssel entfernt wurde).
+     */
+    public void invalidateAll() {
+        validated.invalidateAll();
+    }
+
+    /**
+     * Hit/Miss-Statistik; "verifications" zählt die tatsächlichen Signaturprüfungen.
+     */
+    public Map<String, Object> stats() {
+        CacheStats stats = validated.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", validated.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("verifications", verifications.sum());
+        result.put("rejected", rejected.sum());
+        result.put("evictions", stats.evictionCount());
+        return result;
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Jeder Eintrag lebt bis zum {@code exp} seines Tokens.
+     */
+    private final class UntilExpiresAt implements Expiry<String, Jwt> {
+
+        @Override
+        public long expireAfterCreate(String key, Jwt jwt, long currentTime) {
+            Duration remaining = Duration.between(clock.instant(), jwt.getExpiresAt());
+            return Math.max(0, remaining.toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, jwt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package de.htwg.in.wete.backend.config;
+
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestOperations;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+
+/**
+ * Hält die öffentlichen Schlüssel (JWKS) des Auth0-Tenants im Speicher.
+ *
+ * Die Schlüssel werden beim Start und danach periodisch im Hintergrund
+ * geladen, damit kein Request auf einen JWKS-Abruf wartet. Nur wenn ein Token
+ * eine unbekannte Key-ID hat (Schlüsselrotation) oder noch gar nichts geladen
+ * ist, wird synchron nachgeladen - höchstens einmal pro
+ * {@code min-refetch-interval}, damit gefälschte Key-IDs den Tenant nicht
+ * mit Abrufen fluten.
+ */
+@Component
+public class JwkSetCache implements JWKSource<SecurityContext> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JwkSetCache.class);
+
+    private final Supplier<JWKSet> loader;
+    private final long minRefetchNanos;
+    private final ReentrantLock fetchLock = new ReentrantLock();
+
+    private volatile JWKSet keys;
+    // Nur Abrufe wegen unbekannter Key-IDs zählen für den Mindestabstand
+    private volatile long lastOnDemandFetchNanos;
+    private volatile Instant lastSuccess;
+    private volatile Runnable keysRemovedListener = () -> { };
+
+    private final AtomicLong fetches = new AtomicLong();
+    private final AtomicLong failedFetches = new AtomicLong();
+    private final AtomicLong unknownKeyFetches = new AtomicLong();
+
+    @Autowired
+    public JwkSetCache(RestTemplateBuilder restTemplateBuilder,
+            @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri:${okta.oauth2.issuer}.well-known/jwks.json}")
+            String jwkSetUri,
+            @Value("${casellese.security.jwks.timeout-ms:5000}") long timeoutMillis,
+            @Value("${casellese.security.jwks.min-refetch-interval-ms:30000}") long minRefetchMillis) {
+        this(fetchFrom(restTemplateBuilder
+                .connectTimeout(Duration.ofMillis(timeoutMillis))
+                .readTimeout(Duration.ofMillis(timeoutMillis))
+                .build(), jwkSetUri), Duration.ofMillis(minRefetchMillis));
+    }
+
+    /**
+     * @param loader lädt das aktuelle JWKS (wirft bei Fehlern eine RuntimeException)
+     */
+    public JwkSetCache(Supplier<JWKSet> loader, Duration minRefetchInterval) {
+        this.loader = loader;
+        this.minRefetchNanos = minRefetchInterval.toNanos();
+        // Der erste Abruf ist sofort erlaubt
+        this.lastOnDemandFetchNanos = System.nanoTime() - minRefetchNanos - 1;
+    }
+
+    private static Supplier<JWKSet> fetchFrom(RestOperations rest, String jwkSetUri) {
+        return () -> {
+            String body = rest.getForObject(jwkSetUri, String.class);
+            try {
+                return JWKSet.parse(body);
+            } catch (ParseException e) {
+                throw new IllegalStateException("Ungültiges JWKS von " + jwkSetUri, e);
+            }
+        };
+    }
+
+    /**
+     * Wird aufgerufen, wenn ein Refresh Schlüssel entfernt hat (z.B. um bereits
+     * validierte Tokens zu verwerfen).
+     */
+    public void onKeysRemoved(Runnable listener) {
+        this.keysRemovedListener = listener;
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector selector, SecurityContext context) throws KeySourceException {
+        JWKSet current = keys;
+        if (current != null) {
+            List<JWK> matches = selector.select(current);
+            if (!matches.isEmpty()) {
+                return matches;
+            }
+        }
+        // Unbekannte Key-ID oder noch nichts geladen: einmal synchron nachladen
+        JWKSet refreshed;
+        try {
+            refreshed = fetchIfUnchanged(current);
+        } catch (RuntimeException e) {
+            throw new KeySourceException("JWKS konnte nicht geladen werden", e);
+        }
+        return refreshed == null ? List.of() : selector.select(refreshed);
+    }
+
+    /**
+     * Periodischer Refresh (und Prefetch beim Start) im Hintergrund. Fehler
+     * werden nur geloggt, die bisherigen Schlüssel bleiben gültig.
+     */
+    @Scheduled(initialDelayString = "${casellese.security.jwks.initial-delay-ms:0}",
+            fixedDelayString = "${casellese.security.jwks.refresh-interval-ms:300000}")
+    public void refresh() {
+        fetchLock.lock();
+        try {
+            fetch();
+        } catch (RuntimeException e) {
+            LOG.warn("JWKS refresh failed, keeping {} known keys: {}", keyCount(), e.getMessage());
+        } finally {
+            fetchLock.unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("keys", keyCount());
+        result.put("fetches", fetches.get());
+        result.put("failedFetches", failedFetches.get());
+        result.put("unknownKeyFetches", unknownKeyFetches.get());
+        result.put("lastSuccess", lastSuccess);
+        return result;
+    }
+
+    private int keyCount() {
+        JWKSet current = keys;
+        return current == null ? 0 : current.getKeys().size();
+    }
+
+    private JWKSet fetchIfUnchanged(JWKSet seen) {
+        fetchLock.lock();
+        try {
+            JWKSet current = keys;
+            if (current != seen) {
+                // Ein anderer Thread hat inzwischen geladen
+                return current;
+            }
+            if (System.nanoTime() - lastOnDemandFetchNanos < minRefetchNanos) {
+                return current;
+            }
+            lastOnDemandFetchNanos = System.nanoTime();
+            unknownKeyFetches.incrementAndGet();
+            return fetch();
+        } finally {
+            fetchLock.unlock();
+        }
+    }
+
+    // Nur unter fetchLock
+    private JWKSet fetch() {
+        fetches.incrementAndGet();
+        JWKSet loaded;
+        try {
+            loaded = loader.get();
+        } catch (RuntimeException e) {
+            failedFetches.incrementAndGet();
+            throw e;
+        }
+        JWKSet previous = keys;
+        keys = loaded;
+        lastSuccess = Instant.now();
+        if (previous != null && !keyIds(loaded).containsAll(keyIds(previous))) {
+            LOG.info("JWKS refresh removed keys, now {}", keyIds(loaded));
+            keysRemovedListener.run();
+        }
+        return loaded;
+    }
+
+    private static Set<String> keyIds(JWKSet set) {
+        Set<String> ids = new HashSet<>();
+        for (JWK key : set.getKeys()) {
+            ids.add(key.getKeyID());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,79 @@
+package de.htwg.in.wete.backend.config;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Lese-Replikat ({@code casellese.datasource.replica.enabled=true}): zwei
+ * Hikari-Pools, die primäre Datenbank aus {@code spring.datasource.*} und das
+ * Replikat aus {@code casellese.datasource.replica.*} (jdbc-url, username,
+ * password, maximum-pool-size, ...), verteilt über
+ * {@link ReadWriteRoutingDataSource}.
+ *
+ * Ohne die Property bleibt es bei der einen DataSource der Autokonfiguration.
+ */
+@Configuration
+@ConditionalOnProperty(name = "casellese.datasource.replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        return primary;
+    }
+
+    @Bean
+    @ConfigurationProperties("casellese.datasource.replica")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties) {
+        // Treiber und Zugangsdaten wie bei der primären DB, sofern nicht eigens gesetzt
+        HikariDataSource replica = new HikariDataSource();
+        replica.setDriverClassName(properties.determineDriverClassName());
+        replica.setUsername(properties.determineUsername());
+        replica.setPassword(properties.determinePassword());
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(@Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${casellese.datasource.read-your-writes-ms:2000}") long readYourWritesMillis) {
+        return new ReadWriteRoutingDataSource(primary, replica, Duration.ofMillis(readYourWritesMillis));
+    }
+
+    /**
+     * Die DataSource für JPA und JDBC: holt die echte Connection erst beim
+     * ersten Statement, wenn readOnly der Transaktion feststeht.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer replicaConnectionHandlingCustomizer() {
+        // Open-in-View hielte sonst die erste Connection (evtl. die des Replikats) für den ganzen Request
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
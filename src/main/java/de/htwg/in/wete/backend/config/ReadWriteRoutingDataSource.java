@@ -0,0 +1,152 @@
+package de.htwg.in.wete.backend.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Verteilt Connections zwischen primärer Datenbank und Lese-Replikat.
+ *
+ * Ans Replikat gehen nur Transaktionen mit {@code readOnly = true}; alles
+ * andere (Schreibtransaktionen, Zugriffe ohne Transaktion, DDL) geht an die
+ * primäre Datenbank. Die Entscheidung fällt beim ersten Statement, dafür
+ * steht ein {@code LazyConnectionDataSourceProxy} davor ({@link ReadReplicaConfig}).
+ *
+ * Read-your-writes: nach einer Transaktion ohne readOnly (ob sie wirklich
+ * geschrieben hat, ist beim Routing nicht bekannt) liest derselbe User für
+ * das konfigurierte Fenster auch readOnly von der primären Datenbank und
+ * sieht seine Änderung trotz Replikationsverzögerung. Threads ohne
+ * SecurityContext (Hintergrundjobs, Startup) teilen sich ein gemeinsames
+ * Fenster, anonyme Besucher lesen immer vom Replikat. Schreibt jemand
+ * stellvertretend für einen User (Write-Behind), meldet er das über
+ * {@link #markWritten(String)}.
+ *
+ * Leser, die nie einen veralteten Stand sehen dürfen (z.B. der
+ * Katalog-Snapshot), laufen in {@link #onPrimary(Supplier)}.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target {
+        PRIMARY, REPLICA
+    }
+
+    /** Schreiber ohne SecurityContext */
+    private static final String BACKGROUND = "";
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private final Duration readYourWritesWindow;
+    // Wer innerhalb des Fensters geschrieben hat
+    private final Cache<String, Boolean> recentWriters;
+
+    private final LongAdder primaryConnections = new LongAdder();
+    private final LongAdder replicaConnections = new LongAdder();
+    private final LongAdder readYourWrites = new LongAdder();
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, Duration readYourWritesWindow) {
+        this.readYourWritesWindow = readYourWritesWindow;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(readYourWritesWindow)
+                .maximumSize(100_000)
+                .build();
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    /**
+     * Führt {@code action} aus; alle Connections, die dabei geholt werden,
+     * kommen von der primären Datenbank. Ohne Replikat ohne Wirkung.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = FORCE_PRIMARY.get();
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                FORCE_PRIMARY.remove();
+            }
+        }
+    }
+
+    /**
+     * Startet das Read-your-writes-Fenster für einen User, dessen Änderung
+     * ein anderer Thread geschrieben hat (nach dem Commit aufrufen).
+     */
+    public void markWritten(String oauthId) {
+        recordWrite(oauthId);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive() || FORCE_PRIMARY.get() != null) {
+            primaryConnections.increment();
+            return Target.PRIMARY;
+        }
+        String writer = currentWriter();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            recordWrite(writer);
+            if (writer != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+                // Das Fenster zählt ab Transaktionsende, nicht ab dem ersten Statement
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        recordWrite(writer);
+                    }
+                });
+            }
+            primaryConnections.increment();
+            return Target.PRIMARY;
+        }
+        if (writer != null && recentWriters.getIfPresent(writer) != null) {
+            readYourWrites.increment();
+            primaryConnections.increment();
+            return Target.PRIMARY;
+        }
+        replicaConnections.increment();
+        return Target.REPLICA;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", true);
+        result.put("readYourWritesMillis", readYourWritesWindow.toMillis());
+        result.put("primaryConnections", primaryConnections.sum());
+        result.put("replicaConnections", replicaConnections.sum());
+        result.put("readYourWrites", readYourWrites.sum());
+        result.put("recentWriters", recentWriters.estimatedSize());
+        return result;
+    }
+
+    private void recordWrite(String writer) {
+        if (writer != null) {
+            recentWriters.put(writer, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Name des eingeloggten Users (bei JWTs die oauthId), {@link #BACKGROUND}
+     * ohne SecurityContext, {@code null} für anonyme Besucher.
+     */
+    private static String currentWriter() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return BACKGROUND;
+        }
+        return authentication instanceof AnonymousAuthenticationToken ? null : authentication.getName();
+    }
+}
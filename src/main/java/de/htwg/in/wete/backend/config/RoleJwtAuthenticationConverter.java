@@ -0,0 +1,43 @@
+package de.htwg.in.wete.backend.config;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.stereotype.Component;
+
+import de.htwg.in.wete.backend.service.UserRoleService;
+
+/**
+ * Wandelt ein validiertes JWT in ein Authentication-Objekt um.
+ *
+ * Zusätzlich zu den Scopes (SCOPE_...) wird die Rolle aus unserer User-Tabelle
+ * als ROLE_ADMIN bzw. ROLE_REGULAR vergeben. Die Rolle kommt aus dem
+ * gecachten {@link UserRoleService}, nicht direkt aus der Datenbank.
+ */
+@Component
+public class RoleJwtAuthenticationConverter implements Converter<Jwt, AbstractAuthenticationToken> {
+
+    private final JwtGrantedAuthoritiesConverter scopesConverter = new JwtGrantedAuthoritiesConverter();
+    private final UserRoleService userRoleService;
+
+    public RoleJwtAuthenticationConverter(UserRoleService userRoleService) {
+        this.userRoleService = userRoleService;
+    }
+
+    @Override
+    public AbstractAuthenticationToken convert(Jwt jwt) {
+        Collection<GrantedAuthority> scopes = scopesConverter.convert(jwt);
+        List<GrantedAuthority> authorities = new ArrayList<>(scopes != null ? scopes : List.of());
+        userRoleService.resolveRole(jwt.getSubject())
+                .ifPresent(role -> authorities.add(new SimpleGrantedAuthority("ROLE_" + role.name())));
+        return new JwtAuthenticationToken(jwt, authorities, jwt.getSubject());
+    }
+}
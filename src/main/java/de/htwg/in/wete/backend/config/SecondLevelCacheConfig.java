@@ -0,0 +1,93 @@
+package de.htwg.in.wete.backend.config;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+import de.htwg.in.wete.backend.model.CacheRegions;
+
+/**
+ * Hibernate Second-Level-Cache: lokaler JCache-CacheManager mit Caffeine.
+ *
+ * Jede Region bekommt Größe und TTL aus
+ * {@code casellese.jpa.cache.regions.<name>.max-entries / ttl-seconds}
+ * (0 = unbegrenzt). Die übrigen Hibernate-Einstellungen stehen in der
+ * application.properties.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SecondLevelCacheConfig.class);
+
+    /** Alle Regionen, die Hibernate verwenden darf (missing_cache_strategy=fail) */
+    public static final List<String> REGIONS = List.of(
+            CacheRegions.PRODUCT,
+            CacheRegions.RECIPE,
+            CacheRegions.USER,
+            CacheRegions.PRODUCT_RECIPES,
+            CacheRegions.USER_BY_OAUTH_ID,
+            CacheRegions.QUERY_RESULTS,
+            CacheRegions.UPDATE_TIMESTAMPS);
+
+    /** Größe und TTL einer Region */
+    public record RegionSettings(long maxEntries, long ttlSeconds) {
+    }
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(Environment environment) {
+        Map<String, RegionSettings> settings = Binder.get(environment)
+                .bind("casellese.jpa.cache.regions", Bindable.mapOf(String.class, RegionSettings.class))
+                .orElse(Map.of());
+
+        // Eigene URI pro Kontext: Testkontexte teilen sich sonst denselben CacheManager
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("casellese-hibernate-" + System.identityHashCode(this)),
+                        getClass().getClassLoader());
+
+        for (String region : REGIONS) {
+            // Die Timestamps-Region darf nie verdrängt werden, sonst liefert der Query-Cache Veraltetes
+            RegionSettings regionSettings = CacheRegions.UPDATE_TIMESTAMPS.equals(region)
+                    ? new RegionSettings(0, 0)
+                    : settings.getOrDefault(region, new RegionSettings(1000, 600));
+            cacheManager.createCache(region, configuration(regionSettings));
+            LOG.debug("Created second-level cache region {} with {}", region, regionSettings);
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private static CaffeineConfiguration<Object, Object> configuration(RegionSettings settings) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        // Hibernate legt eigene, unveränderliche Cache-Einträge ab: keine Kopie nötig
+        configuration.setStoreByValue(false);
+        if (settings.maxEntries() > 0) {
+            configuration.setMaximumSize(OptionalLong.of(settings.maxEntries()));
+        }
+        if (settings.ttlSeconds() > 0) {
+            configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(settings.ttlSeconds())));
+        }
+        return configuration;
+    }
+}
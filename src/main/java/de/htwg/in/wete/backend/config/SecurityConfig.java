@@ -2,13 +2,29 @@ package de.htwg.in.wete.backend.config;
 
 import static org.springframework.security.config.Customizer.withDefaults;
 
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.jwt.JwtClaimValidator;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.web.SecurityFilterChain;
 
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.DefaultJOSEObjectTypeVerifier;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+
 /**
  * Spring Security Konfiguration für Auth0 JWT-Authentifizierung.
  * 
@@ -21,10 +37,53 @@ import org.springframework.security.web.SecurityFilterChain;
  * Die Konfiguration dafür erfolgt in application.properties:
  *   - okta.oauth2.issuer
  *   - okta.oauth2.audience
+ *
+ * Die Rolle des Users (ADMIN/REGULAR) wird vom {@link RoleJwtAuthenticationConverter}
+ * als Authority ergänzt.
+ *
+ * Der JwtDecoder ersetzt den von Okta: Schlüssel kommen aus dem im
+ * Hintergrund aktualisierten {@link JwkSetCache}, validierte Tokens hält der
+ * {@link CachingJwtDecoder} bis zu ihrem Ablauf.
  */
 @Configuration
 public class SecurityConfig {
 
+    private final RoleJwtAuthenticationConverter roleJwtAuthenticationConverter;
+
+    public SecurityConfig(RoleJwtAuthenticationConverter roleJwtAuthenticationConverter) {
+        this.roleJwtAuthenticationConverter = roleJwtAuthenticationConverter;
+    }
+
+    /**
+     * RS256-Prüfung gegen das gecachte JWKS plus dieselben Validierungen wie
+     * bei Okta (Ablauf, Issuer, Audience), davor der Cache validierter Tokens.
+     */
+    @Bean
+    public CachingJwtDecoder jwtDecoder(JwkSetCache jwkSetCache,
+            @Value("${okta.oauth2.issuer}") String issuer,
+            @Value("${okta.oauth2.audience}") String audience,
+            @Value("${casellese.security.jwt-cache.max-size:10000}") long maxSize) {
+        CachingJwtDecoder decoder = new CachingJwtDecoder(verifyingDecoder(jwkSetCache, issuer, audience), maxSize);
+        // Wurde ein Signaturschlüssel entfernt, gelten damit signierte Tokens auch im Cache nicht mehr
+        jwkSetCache.onKeysRemoved(decoder::invalidateAll);
+        return decoder;
+    }
+
+    public static NimbusJwtDecoder verifyingDecoder(JWKSource<SecurityContext> keys, String issuer, String audience) {
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, keys));
+        processor.setJWSTypeVerifier(new DefaultJOSEObjectTypeVerifier<>(
+                JOSEObjectType.JWT, new JOSEObjectType("at+jwt"), null));
+        // Claims prüfen die Spring-Validatoren unten
+        processor.setJWTClaimsSetVerifier((claims, context) -> { });
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(processor);
+        decoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(
+                JwtValidators.createDefaultWithIssuer(issuer),
+                new JwtClaimValidator<List<String>>(JwtClaimNames.AUD,
+                        aud -> aud != null && aud.contains(audience))));
+        return decoder;
+    }
+
     /**
      * Separate Security-Chain für H2-Console (ohne JWT-Validierung)
      */
@@ -67,6 +126,9 @@ public class SecurityConfig {
                         // User-Verwaltung erfordert Authentifizierung (Admin-Check im Controller)
                         .requestMatchers("/api/users", "/api/users/**").authenticated()
                         
+                        // Admin-Diagnose erfordert Authentifizierung (Admin-Check im Controller)
+                        .requestMatchers("/api/admin/**").authenticated()
+                        
                         // Favoriten-Endpoints erfordern Authentifizierung
                         .requestMatchers("/api/favorites/**").authenticated()
                         
@@ -93,14 +155,18 @@ public class SecurityConfig {
                         // Kategorie-Endpoints sind öffentlich
                         .requestMatchers("/api/category", "/api/category/**").permitAll()
                         
+                        // Volltextsuche und Autovervollständigung sind öffentlich
+                        .requestMatchers(HttpMethod.GET, "/api/search", "/api/suggest").permitAll()
+                        
                         // Alle anderen API-Endpoints sind öffentlich
                         .requestMatchers("/api/**").permitAll()
                 )
                 
                 // JWT Resource Server konfigurieren
-                // Die Validierung erfolgt automatisch gegen den Auth0 Issuer
+                // Die Validierung erfolgt automatisch gegen den Auth0 Issuer,
+                // die Rolle wird über den gecachten Converter aufgelöst
                 .oauth2ResourceServer(oauth2 -> oauth2
-                        .jwt(withDefaults()))
+                        .jwt(jwt -> jwt.jwtAuthenticationConverter(roleJwtAuthenticationConverter)))
                 
                 .build();
     }
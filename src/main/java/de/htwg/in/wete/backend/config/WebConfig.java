@@ -1,6 +1,10 @@
 package de.htwg.in.wete.backend.config;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -16,6 +20,26 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 @EnableWebMvc
 public class WebConfig implements WebMvcConfigurer {
 
+    private final AsyncTaskExecutor taskExecutor;
+    private final long asyncTimeoutMillis;
+
+    public WebConfig(@Qualifier("applicationTaskExecutor") AsyncTaskExecutor taskExecutor,
+            @Value("${casellese.web.async-timeout-seconds:600}") long asyncTimeoutSeconds) {
+        this.taskExecutor = taskExecutor;
+        this.asyncTimeoutMillis = asyncTimeoutSeconds * 1000;
+    }
+
+    /**
+     * Gestreamte Antworten (StreamingResponseBody, z.B. Favoriten-Export) laufen
+     * auf dem gemeinsamen Task-Executor statt auf je einem neuen Thread.
+     * Wegen @EnableWebMvc greift die Spring-Boot-Konfiguration dafür nicht.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(taskExecutor);
+        configurer.setDefaultTimeout(asyncTimeoutMillis);
+    }
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/api/**")
@@ -0,0 +1,175 @@
+package de.htwg.in.wete.backend.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.*;
+
+import de.htwg.in.wete.backend.config.CachingJwtDecoder;
+import de.htwg.in.wete.backend.config.JwkSetCache;
+import de.htwg.in.wete.backend.config.ReadWriteRoutingDataSource;
+import de.htwg.in.wete.backend.search.FullTextIndex;
+import de.htwg.in.wete.backend.search.ProductTitleIndex;
+import de.htwg.in.wete.backend.search.FuzzyIndex;
+import de.htwg.in.wete.backend.search.SuggestIndex;
+import de.htwg.in.wete.backend.service.CatalogImportService;
+import de.htwg.in.wete.backend.service.CatalogReadModel;
+import de.htwg.in.wete.backend.service.CatalogResponseCache;
+import de.htwg.in.wete.backend.service.FavoriteIdCache;
+import de.htwg.in.wete.backend.service.FavoriteWriteBehind;
+import de.htwg.in.wete.backend.service.RecipePopularity;
+import de.htwg.in.wete.backend.service.RelatedRecipes;
+import de.htwg.in.wete.backend.service.SecondLevelCacheStats;
+import de.htwg.in.wete.backend.service.TrendingRecipes;
+import de.htwg.in.wete.backend.service.UserProvisioningService;
+import de.htwg.in.wete.backend.service.UserRoleService;
+
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Controller für Admin-Diagnose (Cache-Statistiken usw.).
+ * Nur Admins dürfen die Werte einsehen.
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AdminController.class);
+
+    @Autowired
+    private UserRoleService userRoleService;
+
+    @Autowired
+    private UserProvisioningService userProvisioningService;
+
+    @Autowired
+    private CachingJwtDecoder jwtDecoder;
+
+    @Autowired
+    private JwkSetCache jwkSetCache;
+
+    @Autowired
+    private CatalogResponseCache responseCache;
+
+    @Autowired
+    private CatalogReadModel catalogReadModel;
+
+    @Autowired
+    private FavoriteIdCache favoriteIdCache;
+
+    @Autowired
+    private SecondLevelCacheStats secondLevelCacheStats;
+
+    @Autowired
+    private ProductTitleIndex productTitleIndex;
+
+    @Autowired
+    private FullTextIndex fullTextIndex;
+
+    @Autowired
+    private SuggestIndex suggestIndex;
+
+    @Autowired
+    private FuzzyIndex fuzzyIndex;
+
+    @Autowired
+    private RecipePopularity recipePopularity;
+
+    @Autowired
+    private TrendingRecipes trendingRecipes;
+
+    @Autowired
+    private RelatedRecipes relatedRecipes;
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Autowired
+    private FavoriteWriteBehind favoriteWriteBehind;
+
+    // Nur mit casellese.datasource.replica.enabled=true
+    @Autowired(required = false)
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    /**
+     * GET /api/admin/stats - Cache- und Laufzeitstatistiken (nur Admin)
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats(@AuthenticationPrincipal Jwt jwt) {
+        LOG.info("getStats called by: {}", jwt.getSubject());
+
+        if (!userRoleService.isAdmin(jwt)) {
+            LOG.warn("Access denied - user is not admin");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("roleCache", userRoleService.stats());
+        stats.put("userProvisioning", userProvisioningService.stats());
+        stats.put("jwtCache", jwtDecoder.stats());
+        stats.put("jwks", jwkSetCache.stats());
+        stats.put("catalogSnapshot", catalogReadModel.stats());
+        stats.put("responseCache", responseCache.stats());
+        stats.put("favoriteIdCache", favoriteIdCache.stats());
+        stats.put("secondLevelCache", secondLevelCacheStats.stats());
+        stats.put("productTitleIndex", productTitleIndex.stats());
+        stats.put("fullTextIndex", fullTextIndex.stats());
+        stats.put("suggestIndex", suggestIndex.stats());
+        stats.put("fuzzyIndex", fuzzyIndex.stats());
+        stats.put("popularity", recipePopularity.stats());
+        stats.put("trending", trendingRecipes.stats());
+        stats.put("related", relatedRecipes.stats());
+        stats.put("favoriteWriteBehind", favoriteWriteBehind.stats());
+        stats.put("dataSourceRouting", routingDataSource != null ? routingDataSource.stats() : Map.of("enabled", false));
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * POST /api/admin/import?format=ndjson|csv - Produkte mit Rezepten aus dem
+     * Request-Body importieren (gestreamt, nur Admin). Antwort mit Zählern und
+     * Fehlern pro Zeile; ungültige Zeilen brechen den Import nicht ab.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<?> importCatalog(@AuthenticationPrincipal Jwt jwt,
+            @RequestParam(defaultValue = "ndjson") String format, InputStream body) {
+        LOG.info("importCatalog ({}) called by: {}", format, jwt.getSubject());
+
+        if (!userRoleService.isAdmin(jwt)) {
+            LOG.warn("Access denied - user is not admin");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        CatalogImportService.Format importFormat;
+        try {
+            importFormat = CatalogImportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Unbekanntes Format (ndjson oder csv)"));
+        }
+
+        try {
+            return ResponseEntity.ok(catalogImportService.importCatalog(importFormat, body));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/admin/import - Fortschritt des laufenden bzw. letzten Imports (nur Admin)
+     */
+    @GetMapping("/import")
+    public ResponseEntity<Map<String, Object>> getImportStatus(@AuthenticationPrincipal Jwt jwt) {
+        if (!userRoleService.isAdmin(jwt)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(catalogImportService.status());
+    }
+}
@@ -1,8 +1,12 @@
 package de.htwg.in.wete.backend.controller;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import de.htwg.in.wete.backend.model.Category;
+import de.htwg.in.wete.backend.service.CatalogResponseCache;
 
 import java.util.Arrays;
 import java.util.List;
@@ -12,8 +16,17 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/category")
 public class CategoryController {
 
+    @Autowired
+    private CatalogResponseCache responseCache;
+
     @GetMapping
-    public List<CategoryDTO> getCategories() {
+    public ResponseEntity<byte[]> getCategories(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return responseCache.respond("category", this::categoryList, ifNoneMatch, acceptEncoding);
+    }
+
+    private List<CategoryDTO> categoryList() {
         return Arrays.stream(Category.values())
                 .map(cat -> new CategoryDTO(cat.name(), cat.getGermanName()))
                 .collect(Collectors.toList());
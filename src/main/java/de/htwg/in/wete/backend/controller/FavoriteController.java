@@ -3,23 +3,38 @@ package de.htwg.in.wete.backend.controller;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import de.htwg.in.wete.backend.model.Favorite;
 import de.htwg.in.wete.backend.model.Recipe;
-import de.htwg.in.wete.backend.model.Role;
 import de.htwg.in.wete.backend.model.User;
 import de.htwg.in.wete.backend.repository.FavoriteRepository;
+import de.htwg.in.wete.backend.repository.FavoriteRepository.AdminFavoriteView;
+import de.htwg.in.wete.backend.repository.FavoriteRepository.FavoriteView;
 import de.htwg.in.wete.backend.repository.RecipeRepository;
 import de.htwg.in.wete.backend.repository.UserRepository;
-
+import de.htwg.in.wete.backend.service.FavoriteBatchService;
+import de.htwg.in.wete.backend.service.FavoriteChangedEvent;
+import de.htwg.in.wete.backend.service.FavoriteExportService;
+import de.htwg.in.wete.backend.service.FavoriteIdCache;
+import de.htwg.in.wete.backend.service.FavoriteWriteBehind;
+import de.htwg.in.wete.backend.service.UserProvisioningService;
+import de.htwg.in.wete.backend.service.UserRoleService;
+
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -30,56 +45,67 @@ public class FavoriteController {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(FavoriteController.class);
 
+    /** Maximale Anzahl Rezept-IDs pro Bulk-Check */
+    private static final int MAX_BULK_CHECK = 1000;
+
+    /** Maximale Anzahl Rezept-IDs (add + remove) pro Batch-Änderung */
+    private static final int MAX_BATCH_ITEMS = 500;
+
     @Autowired
     private FavoriteRepository favoriteRepository;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserRoleService userRoleService;
+
+    @Autowired
+    private FavoriteIdCache favoriteIdCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Autowired
     private RecipeRepository recipeRepository;
 
+    @Autowired
+    private FavoriteExportService favoriteExportService;
+
+    @Autowired
+    private FavoriteBatchService favoriteBatchService;
+
+    @Autowired
+    private FavoriteWriteBehind favoriteWriteBehind;
+
+    @Autowired
+    private UserProvisioningService userProvisioningService;
+
+    // Schreibpfade: erst offene Write-Behind-Änderungen schreiben, dann die Transaktion öffnen
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     // ========================================
     // HILFSMETHODEN
     // ========================================
 
     /**
-     * Findet oder erstellt einen User basierend auf JWT.
-     * Verhindert doppelte User-Einträge durch Suche nach oauthId UND Email.
+     * Findet oder erstellt einen User basierend auf JWT (siehe UserProvisioningService).
      */
     private User findOrCreateUser(Jwt jwt) {
-        String oauthId = jwt.getSubject();
-        String emailFromJwt = jwt.getClaimAsString("email");
-        
-        // 1. Zuerst nach oauthId suchen
-        return userRepository.findByOauthId(oauthId)
-                .orElseGet(() -> {
-                    // 2. Falls nicht gefunden, nach Email suchen
-                    if (emailFromJwt != null) {
-                        return userRepository.findByEmail(emailFromJwt)
-                                .map(existingUser -> {
-                                    // User per Email gefunden - aktualisiere oauthId
-                                    LOGGER.info("Found existing user by email={}, updating oauthId", emailFromJwt);
-                                    existingUser.setOauthId(oauthId);
-                                    return userRepository.save(existingUser);
-                                })
-                                .orElseGet(() -> createNewUser(oauthId, jwt));
-                    }
-                    return createNewUser(oauthId, jwt);
-                });
+        return userProvisioningService.findOrCreate(jwt);
     }
 
     /**
-     * Erstellt einen neuen User mit REGULAR-Rolle.
+     * Write-Behind-Warteschlange voll oder Flush fehlgeschlagen: der Client
+     * soll es gleich noch einmal versuchen.
      */
-    private User createNewUser(String oauthId, Jwt jwt) {
-        LOGGER.info("Creating new user with oauthId: {}", oauthId);
-        User newUser = new User();
-        newUser.setOauthId(oauthId);
-        newUser.setName(jwt.getClaimAsString("name"));
-        newUser.setEmail(jwt.getClaimAsString("email"));
-        newUser.setRole(Role.REGULAR);
-        return userRepository.save(newUser);
+    @ExceptionHandler(FavoriteWriteBehind.UnavailableException.class)
+    public ResponseEntity<Map<String, String>> writeBehindUnavailable(FavoriteWriteBehind.UnavailableException e) {
+        LOGGER.warn("Favorite write-behind unavailable: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", e.getMessage()));
     }
 
     // ========================================
@@ -90,9 +116,7 @@ public class FavoriteController {
      * Prüft ob der eingeloggte User ein Admin ist.
      */
     private boolean isAdmin(Jwt jwt) {
-        String oauthId = jwt.getSubject();
-        Optional<User> userOpt = userRepository.findByOauthId(oauthId);
-        return userOpt.map(user -> user.getRole() == Role.ADMIN).orElse(false);
+        return userRoleService.isAdmin(jwt);
     }
 
     /**
@@ -108,9 +132,8 @@ public class FavoriteController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         
-        List<Favorite> favorites = favoriteRepository.findAllByOrderByCreatedAtDesc();
-        
-        List<AdminFavoriteDTO> favoriteDTOs = favorites.stream()
+        // Eine Join-Query statt Lazy-Loading von User, Rezept und Produkt pro Favorit
+        List<AdminFavoriteDTO> favoriteDTOs = favoriteRepository.findAllAdminViews().stream()
             .map(this::toAdminDTO)
             .collect(Collectors.toList());
         
@@ -118,6 +141,47 @@ public class FavoriteController {
         return ResponseEntity.ok(favoriteDTOs);
     }
 
+    /**
+     * ADMIN: Alle Favoriten als Datei-Export, zeilenweise gestreamt
+     * (format=ndjson, eine JSON-Zeile pro Favorit, oder format=csv).
+     * Speicherbedarf unabhängig von der Anzahl der Favoriten.
+     */
+    @GetMapping("/admin/export")
+    public ResponseEntity<StreamingResponseBody> exportFavoritesAdmin(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        LOGGER.info("exportFavoritesAdmin ({}) called by: {}", format, jwt.getSubject());
+
+        if (!isAdmin(jwt)) {
+            LOGGER.warn("Access denied - user is not admin");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        FavoriteExportService.Format exportFormat;
+        try {
+            exportFormat = FavoriteExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            // Rückgabetyp muss StreamingResponseBody sein, damit Spring asynchron streamt
+            byte[] error = ("{\"error\":\"Unbekanntes Format (ndjson oder csv)\"}").getBytes(StandardCharsets.UTF_8);
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> out.write(error));
+        }
+
+        StreamingResponseBody body = out -> {
+            long rows = favoriteExportService.export(exportFormat, out);
+            LOGGER.info("Exported {} favorites as {}", rows, exportFormat);
+        };
+        String filename = "favorites." + exportFormat.name().toLowerCase(Locale.ROOT);
+        return ResponseEntity.ok()
+                .contentType(exportFormat == FavoriteExportService.Format.CSV
+                        ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
     /**
      * ADMIN: Statistiken über Favoriten abrufen
      */
@@ -144,25 +208,21 @@ public class FavoriteController {
     /**
      * DTO für Admin-Ansicht mit User-Informationen
      */
-    private AdminFavoriteDTO toAdminDTO(Favorite favorite) {
+    private AdminFavoriteDTO toAdminDTO(AdminFavoriteView view) {
         AdminFavoriteDTO dto = new AdminFavoriteDTO();
-        dto.id = favorite.getId();
-        dto.recipeId = favorite.getRecipe().getId();
-        dto.recipeTitle = favorite.getRecipe().getTitle();
-        dto.createdAt = favorite.getCreatedAt().toString();
+        dto.id = view.getId();
+        dto.recipeId = view.getRecipeId();
+        dto.recipeTitle = view.getRecipeTitle();
+        dto.createdAt = view.getCreatedAt().toString();
         
         // User Info für Admin
-        if (favorite.getUser() != null) {
-            dto.userId = favorite.getUser().getId();
-            dto.userName = favorite.getUser().getName();
-            dto.userEmail = favorite.getUser().getEmail();
-        }
+        dto.userId = view.getUserId();
+        dto.userName = view.getUserName();
+        dto.userEmail = view.getUserEmail();
         
         // Product Info falls vorhanden
-        if (favorite.getRecipe().getProduct() != null) {
-            dto.productId = favorite.getRecipe().getProduct().getId();
-            dto.productTitle = favorite.getRecipe().getProduct().getTitle();
-        }
+        dto.productId = view.getProductId();
+        dto.productTitle = view.getProductTitle();
         
         return dto;
     }
@@ -193,10 +253,11 @@ public class FavoriteController {
     public ResponseEntity<List<FavoriteDTO>> getFavorites(@AuthenticationPrincipal Jwt jwt) {
         String oauthId = jwt.getSubject();
         LOGGER.info("getFavorites called for user: {}", oauthId);
+        // Offene Toggles (Write-Behind) vor dem Lesen aus der Datenbank schreiben
+        favoriteWriteBehind.flushUser(oauthId);
 
-        List<Favorite> favorites = favoriteRepository.findByUserOauthIdOrderByCreatedAtDesc(oauthId);
-        
-        List<FavoriteDTO> favoriteDTOs = favorites.stream()
+        // Eine Join-Query statt Lazy-Loading von Rezept und Produkt pro Favorit
+        List<FavoriteDTO> favoriteDTOs = favoriteRepository.findViewsByUserOauthId(oauthId).stream()
             .map(this::toDTO)
             .collect(Collectors.toList());
 
@@ -205,45 +266,94 @@ public class FavoriteController {
 
     /**
      * Alle Rezept-IDs abrufen, die der User als Favorit markiert hat
+     * (aus dem In-Memory-Bitmap-Cache, aufsteigend sortiert)
      */
     @GetMapping("/ids")
-    public ResponseEntity<List<Long>> getFavoriteIds(@AuthenticationPrincipal Jwt jwt) {
+    public ResponseEntity<long[]> getFavoriteIds(@AuthenticationPrincipal Jwt jwt) {
         String oauthId = jwt.getSubject();
-        LOGGER.info("getFavoriteIds called for user: {}", oauthId);
+        LOGGER.debug("getFavoriteIds called for user: {}", oauthId);
 
-        List<Long> recipeIds = favoriteRepository.findRecipeIdsByUserOauthId(oauthId);
-        return ResponseEntity.ok(recipeIds);
+        return ResponseEntity.ok(favoriteIdCache.ids(oauthId));
     }
 
     /**
-     * Prüfen ob ein bestimmtes Rezept ein Favorit ist
+     * Prüfen ob ein bestimmtes Rezept ein Favorit ist (aus dem Bitmap-Cache)
      */
     @GetMapping("/check/{recipeId}")
     public ResponseEntity<Map<String, Boolean>> checkFavorite(
             @AuthenticationPrincipal Jwt jwt,
             @PathVariable Long recipeId) {
         String oauthId = jwt.getSubject();
-        LOGGER.info("checkFavorite called for user: {} and recipe: {}", oauthId, recipeId);
+        LOGGER.debug("checkFavorite called for user: {} and recipe: {}", oauthId, recipeId);
 
-        Optional<Favorite> favorite = favoriteRepository.findByUserOauthIdAndRecipeId(oauthId, recipeId);
-        
-        Map<String, Boolean> response = new HashMap<>();
-        response.put("isFavorite", favorite.isPresent());
-        
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(Map.of("isFavorite", favoriteIdCache.contains(oauthId, recipeId)));
+    }
+
+    /**
+     * Bulk-Check: welche der übergebenen Rezept-IDs sind Favoriten des Users?
+     * Body: JSON-Array mit Rezept-IDs, z.B. [1, 2, 3]
+     */
+    @PostMapping("/check")
+    public ResponseEntity<?> checkFavorites(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestBody List<Long> recipeIds) {
+        String oauthId = jwt.getSubject();
+        LOGGER.debug("checkFavorites called for user: {} with {} ids", oauthId, recipeIds.size());
+
+        if (recipeIds.size() > MAX_BULK_CHECK) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Maximal " + MAX_BULK_CHECK + " Rezept-IDs pro Anfrage"));
+        }
+
+        return ResponseEntity.ok(Map.of("favoriteIds", favoriteIdCache.filterFavorites(oauthId, recipeIds)));
+    }
+
+    /**
+     * Mehrere Favoriten auf einmal hinzufügen und entfernen (eine Transaktion).
+     * Body: {"add": [1, 2], "remove": [3]} - Antwort mit Status pro Rezept-ID
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> batchFavorites(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestBody BatchRequest request) {
+        String oauthId = jwt.getSubject();
+        int items = size(request.add()) + size(request.remove());
+        LOGGER.info("batchFavorites called for user: {} with {} ids", oauthId, items);
+
+        if (items > MAX_BATCH_ITEMS) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Maximal " + MAX_BATCH_ITEMS + " Rezept-IDs pro Anfrage"));
+        }
+
+        favoriteWriteBehind.flushUser(oauthId);
+        return transactionTemplate.execute(status -> {
+            User user = findOrCreateUser(jwt);
+            try {
+                return ResponseEntity.ok(favoriteBatchService.apply(user, request.add(), request.remove()));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        });
+    }
+
+    private static int size(List<Long> recipeIds) {
+        return recipeIds == null ? 0 : recipeIds.size();
     }
 
     /**
      * Rezept zu Favoriten hinzufügen
      */
     @PostMapping("/{recipeId}")
-    @Transactional
     public ResponseEntity<?> addFavorite(
             @AuthenticationPrincipal Jwt jwt,
             @PathVariable Long recipeId) {
         String oauthId = jwt.getSubject();
         LOGGER.info("addFavorite called for user: {} and recipe: {}", oauthId, recipeId);
+        favoriteWriteBehind.flushUser(oauthId);
+        return transactionTemplate.execute(status -> addFavorite(jwt, oauthId, recipeId));
+    }
 
+    private ResponseEntity<?> addFavorite(Jwt jwt, String oauthId, Long recipeId) {
         // User finden oder erstellen (mit Duplikat-Schutz)
         User user = findOrCreateUser(jwt);
 
@@ -257,16 +367,17 @@ public class FavoriteController {
 
         Recipe recipe = recipeOpt.get();
 
-        // Prüfen ob bereits Favorit
-        Optional<Favorite> existingFavorite = favoriteRepository.findByUserAndRecipe(user, recipe);
-        if (existingFavorite.isPresent()) {
+        // Ein Upsert-Statement statt SELECT + INSERT, parallele Requests kollidieren nicht
+        Favorite favorite = new Favorite(user, recipe);
+        if (!favoriteRepository.insertIfAbsent(favorite)) {
             LOGGER.info("Recipe already in favorites");
-            return ResponseEntity.ok(toDTO(existingFavorite.get()));
+            // Bestehenden Favoriten nur für die Antwort nachladen; inzwischen wieder entfernt -> 409
+            return favoriteRepository.findByUserAndRecipe(user, recipe)
+                    .<ResponseEntity<?>>map(existing -> ResponseEntity.ok(toDTO(existing)))
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT)
+                            .body(Map.of("error", "Favorit wurde gleichzeitig entfernt")));
         }
-
-        // Neuen Favoriten erstellen
-        Favorite favorite = new Favorite(user, recipe);
-        favorite = favoriteRepository.save(favorite);
+        eventPublisher.publishEvent(new FavoriteChangedEvent(oauthId, recipeId, true));
         
         LOGGER.info("Favorite added successfully: {}", favorite.getId());
         return ResponseEntity.status(HttpStatus.CREATED).body(toDTO(favorite));
@@ -276,22 +387,24 @@ public class FavoriteController {
      * Rezept aus Favoriten entfernen
      */
     @DeleteMapping("/{recipeId}")
-    @Transactional
     public ResponseEntity<?> removeFavorite(
             @AuthenticationPrincipal Jwt jwt,
             @PathVariable Long recipeId) {
         String oauthId = jwt.getSubject();
         LOGGER.info("removeFavorite called for user: {} and recipe: {}", oauthId, recipeId);
+        favoriteWriteBehind.flushUser(oauthId);
+        return transactionTemplate.execute(status -> removeFavorite(oauthId, recipeId));
+    }
 
-        Optional<Favorite> favorite = favoriteRepository.findByUserOauthIdAndRecipeId(oauthId, recipeId);
-        
-        if (favorite.isEmpty()) {
+    private ResponseEntity<?> removeFavorite(String oauthId, Long recipeId) {
+        // Ein DELETE-Statement, die Anzahl gelöschter Zeilen sagt, ob es den Favoriten gab
+        if (favoriteRepository.deleteByUserOauthIdAndRecipeId(oauthId, recipeId) == 0) {
             LOGGER.warn("Favorite not found for user: {} and recipe: {}", oauthId, recipeId);
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("error", "Favorit nicht gefunden"));
         }
 
-        favoriteRepository.delete(favorite.get());
+        eventPublisher.publishEvent(new FavoriteChangedEvent(oauthId, recipeId, false));
         LOGGER.info("Favorite removed successfully");
         
         return ResponseEntity.ok(Map.of("message", "Favorit entfernt"));
@@ -299,42 +412,79 @@ public class FavoriteController {
 
     /**
      * Favoriten-Status umschalten (Toggle)
+     *
+     * Ohne vorheriges SELECT: erst löschen, und nur wenn es nichts zu löschen
+     * gab, per Upsert einfügen. Der neue Status ergibt sich aus der Anzahl
+     * betroffener Zeilen; parallele Toggles desselben Paars führen nie zu
+     * einer Constraint-Verletzung. Events nur bei tatsächlicher Änderung.
      */
     @PostMapping("/toggle/{recipeId}")
-    @Transactional
     public ResponseEntity<?> toggleFavorite(
             @AuthenticationPrincipal Jwt jwt,
             @PathVariable Long recipeId) {
         String oauthId = jwt.getSubject();
         LOGGER.info("toggleFavorite called for user: {} and recipe: {}", oauthId, recipeId);
 
-        Optional<Favorite> existingFavorite = favoriteRepository.findByUserOauthIdAndRecipeId(oauthId, recipeId);
-        
-        if (existingFavorite.isPresent()) {
-            // Entfernen
-            favoriteRepository.delete(existingFavorite.get());
+        if (favoriteWriteBehind.isEnabled()) {
+            // Auf Platz in der Warteschlange warten, bevor der Request eine Connection hält
+            favoriteWriteBehind.awaitCapacity(oauthId, recipeId);
+            return toggleWriteBehind(jwt, recipeId);
+        }
+
+        // Nach dem Abschalten können noch Änderungen offen sein
+        favoriteWriteBehind.flushUser(oauthId);
+        return transactionTemplate.execute(status -> toggleFavorite(jwt, oauthId, recipeId));
+    }
+
+    private ResponseEntity<?> toggleFavorite(Jwt jwt, String oauthId, Long recipeId) {
+        if (favoriteRepository.deleteByUserOauthIdAndRecipeId(oauthId, recipeId) > 0) {
+            // Entfernt
+            eventPublisher.publishEvent(new FavoriteChangedEvent(oauthId, recipeId, false));
             return ResponseEntity.ok(Map.of(
                 "isFavorite", false,
                 "message", "Aus Favoriten entfernt"
             ));
-        } else {
-            // Hinzufügen - User finden oder erstellen (mit Duplikat-Schutz)
-            User user = findOrCreateUser(jwt);
+        }
 
-            Optional<Recipe> recipeOpt = recipeRepository.findById(recipeId);
-            if (recipeOpt.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body(Map.of("error", "Rezept nicht gefunden"));
-            }
+        // Hinzufügen - User finden oder erstellen (mit Duplikat-Schutz)
+        User user = findOrCreateUser(jwt);
 
-            Favorite favorite = new Favorite(user, recipeOpt.get());
-            favoriteRepository.save(favorite);
-            
-            return ResponseEntity.ok(Map.of(
-                "isFavorite", true,
-                "message", "Zu Favoriten hinzugefügt"
-            ));
+        Optional<Recipe> recipeOpt = recipeRepository.findById(recipeId);
+        if (recipeOpt.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Rezept nicht gefunden"));
+        }
+
+        // false: ein paralleler Request hat das Paar gerade angelegt - Ergebnis ist dasselbe
+        if (favoriteRepository.insertIfAbsent(new Favorite(user, recipeOpt.get()))) {
+            eventPublisher.publishEvent(new FavoriteChangedEvent(oauthId, recipeId, true));
+        }
+
+        return ResponseEntity.ok(Map.of(
+            "isFavorite", true,
+            "message", "Zu Favoriten hinzugefügt"
+        ));
+    }
+
+    /**
+     * Toggle im Write-Behind-Modus: Status aus dem ID-Cache, Änderung nur im
+     * Speicher, geschrieben wird gebündelt im Hintergrund. Ohne Transaktion.
+     */
+    private ResponseEntity<?> toggleWriteBehind(Jwt jwt, Long recipeId) {
+        String oauthId = jwt.getSubject();
+        User user = findOrCreateUser(jwt);
+        if (recipeRepository.findById(recipeId).isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Rezept nicht gefunden"));
         }
+
+        // Backpressure: volle Warteschlange -> UnavailableException (503)
+        boolean isFavorite = favoriteWriteBehind.toggle(oauthId, user.getId(), recipeId,
+                () -> favoriteIdCache.contains(oauthId, recipeId));
+        return ResponseEntity.ok(Map.of(
+            "isFavorite", isFavorite,
+            "message", isFavorite ? "Zu Favoriten hinzugefügt" : "Aus Favoriten entfernt"
+        ));
     }
 
     /**
@@ -343,7 +493,7 @@ public class FavoriteController {
     @GetMapping("/count")
     public ResponseEntity<Map<String, Long>> getFavoriteCount(@AuthenticationPrincipal Jwt jwt) {
         String oauthId = jwt.getSubject();
-        long count = favoriteRepository.countByUserOauthId(oauthId);
+        long count = favoriteIdCache.count(oauthId);
         return ResponseEntity.ok(Map.of("count", count));
     }
 
@@ -369,6 +519,29 @@ public class FavoriteController {
         return dto;
     }
 
+    private FavoriteDTO toDTO(FavoriteView view) {
+        FavoriteDTO dto = new FavoriteDTO();
+        dto.id = view.getId();
+        dto.recipeId = view.getRecipeId();
+        dto.recipeTitle = view.getRecipeTitle();
+        dto.recipeText = view.getRecipeText();
+        dto.recipePdfUrl = view.getRecipePdfUrl();
+        dto.createdAt = view.getCreatedAt().toString();
+        
+        // Product Info falls vorhanden (LEFT JOIN -> sonst null)
+        dto.productId = view.getProductId();
+        dto.productTitle = view.getProductTitle();
+        dto.productImageUrl = view.getProductImageUrl();
+        
+        return dto;
+    }
+
+    /**
+     * Request-Body für POST /api/favorites/batch (beide Listen optional)
+     */
+    public record BatchRequest(List<Long> add, List<Long> remove) {
+    }
+
     /**
      * DTO Klasse für JSON Response
      */
@@ -9,18 +9,35 @@ import org.springframework.web.bind.annotation.*;
 
 import de.htwg.in.wete.backend.model.Category;
 import de.htwg.in.wete.backend.model.Product;
-import de.htwg.in.wete.backend.model.Role;
-import de.htwg.in.wete.backend.model.User;
+import de.htwg.in.wete.backend.repository.KeysetCursor;
+import de.htwg.in.wete.backend.repository.KeysetPage;
 import de.htwg.in.wete.backend.repository.ProductRepository;
-import de.htwg.in.wete.backend.repository.UserRepository;
+import de.htwg.in.wete.backend.repository.ProductSummary;
+import de.htwg.in.wete.backend.repository.SortKey;
+import de.htwg.in.wete.backend.search.FuzzyIndex;
+import de.htwg.in.wete.backend.search.ProductTitleIndex;
+import de.htwg.in.wete.backend.service.CatalogReadModel;
+import de.htwg.in.wete.backend.service.CatalogResponseCache;
+import de.htwg.in.wete.backend.service.CatalogSnapshot;
+import de.htwg.in.wete.backend.service.ETags;
+import de.htwg.in.wete.backend.service.KeysetPaging;
+import de.htwg.in.wete.backend.service.UserRoleService;
 
 import jakarta.validation.Valid;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
 
 import java.util.List;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/product")
@@ -28,12 +45,31 @@ public class ProductController {
 
     private static final Logger LOG = LoggerFactory.getLogger(ProductController.class);
 
+    private static final Set<SortKey> SORT_KEYS = EnumSet.of(SortKey.ID, SortKey.TITLE, SortKey.PRICE);
+
+    private static final String EXPAND_RECIPES = "recipes";
+
     @Autowired
-    private UserRepository userRepository;
+    private UserRoleService userRoleService;
 
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private CatalogResponseCache responseCache;
+
+    @Autowired
+    private CatalogReadModel catalog;
+
+    @Autowired
+    private ProductTitleIndex productTitleIndex;
+
+    @Autowired
+    private FuzzyIndex fuzzyIndex;
+
+    @Autowired
+    private KeysetPaging paging;
+
     /**
      * Checks if the user identified by the JWT has ADMIN role.
      * @param jwt The JWT token from the authenticated user
@@ -44,32 +80,136 @@ public class ProductController {
             LOG.warn("JWT or subject is null");
             return false;
         }
-        Optional<User> user = userRepository.findByOauthId(jwt.getSubject());
-        if (!user.isPresent() || user.get().getRole() != Role.ADMIN) {
-            LOG.warn("Unauthorized access by " + user.map(u -> "user with oauthId " + u.getOauthId())
-                    .orElse("unknown user"));
+        if (!userRoleService.isAdmin(jwt)) {
+            LOG.warn("Unauthorized access by user with oauthId " + jwt.getSubject());
             return false;
         }
         return true;
     }
 
+    /**
+     * Öffentliche Produktliste. Die Antwort wird pro Variante (name/category)
+     * fertig serialisiert im {@link CatalogResponseCache} abgelegt; der ETag
+     * basiert auf der Katalogversion.
+     *
+     * Listen enthalten {@link ProductSummary}-Einträge (inkl. Rezeptanzahl). Mit
+     * expand=recipes kommen die vollständigen Produkte samt Rezepten. Alles kommt
+     * aus dem {@link CatalogSnapshot}, ohne Datenbankzugriff.
+     *
+     * Mit sort (id, title, price; optional ",desc"), size oder cursor kommt eine
+     * Seite mit nextCursor zurück, ohne diese Parameter die bisherige Liste
+     * (begrenzt auf casellese.paging.unpaged-limit Einträge). Die Namenssuche
+     * findet in beiden Fällen dieselben Produkte (Titelindex, sonst unscharf).
+     */
     @GetMapping
-    public List<Product> getProducts(
+    public ResponseEntity<?> getProducts(
             @RequestParam(required = false) String name,
-            @RequestParam(required = false) Category category) {
-        
-        if (name != null && category != null) {
+            @RequestParam(required = false) Category category,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String expand,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        if (expand != null && !EXPAND_RECIPES.equals(expand)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "expand unterstützt nur 'recipes'"));
+        }
+        boolean withRecipes = expand != null;
+        String variant = (name != null ? name.toLowerCase(Locale.ROOT) : "") + "|" + category
+                + (withRecipes ? "|" + EXPAND_RECIPES : "");
+        if (!paging.isPaged(sort, size, cursor)) {
+            return responseCache.respond("product|" + variant, () -> findProducts(name, category, withRecipes),
+                    ifNoneMatch, acceptEncoding);
+        }
+
+        KeysetCursor start;
+        int pageSize;
+        try {
+            start = paging.start(sort, cursor, SORT_KEYS);
+            pageSize = paging.pageSize(size);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        String key = "product-page|" + variant + "|" + start.encode() + "|" + pageSize;
+        return responseCache.respond(key,
+                () -> name == null
+                        ? page(catalog.current(), category, name, start, pageSize, withRecipes)
+                        : searchPage(catalog.current(), name, category, start, pageSize, withRecipes),
+                ifNoneMatch, acceptEncoding);
+    }
+
+    /**
+     * Seite der Namenssuche: Treffer wie bei {@link #findProducts}, aber in der
+     * Sortierung des Cursors.
+     */
+    private KeysetPage<?> searchPage(CatalogSnapshot snapshot, String name, Category category,
+            KeysetCursor cursor, int limit, boolean withRecipes) {
+        Optional<List<Long>> ids = productTitleIndex.search(name, category);
+        KeysetCursor first = KeysetCursor.first(SortKey.ID, false);
+        boolean anyMatch = ids.isPresent()
+                ? !ids.get().isEmpty()
+                // Index wird gerade (neu) aufgebaut -> Titel im Snapshot durchsuchen
+                : !snapshot.productSummaries(category, name, first, 1).items().isEmpty();
+        if (!anyMatch) {
+            // Kein exakter Teiltreffer -> tippfehlertolerant über Titel und Zutaten
+            return pageOfIds(snapshot, category, Set.copyOf(fuzzyIndex.productIds(name, category)), cursor, limit,
+                    withRecipes);
+        }
+        return ids.isPresent()
+                ? pageOfIds(snapshot, category, Set.copyOf(ids.get()), cursor, limit, withRecipes)
+                : page(snapshot, category, name, cursor, limit, withRecipes);
+    }
+
+    private List<?> findProducts(String name, Category category, boolean withRecipes) {
+        CatalogSnapshot snapshot = catalog.current();
+        int limit = paging.unpagedLimit();
+        KeysetCursor first = KeysetCursor.first(SortKey.ID, false);
+        if (name == null) {
+            if (category != null) {
+                LOG.info("Filtering products by category '{}'", category);
+            }
+            return page(snapshot, category, null, first, limit, withRecipes).items();
+        }
+
+        List<?> products;
+        Optional<List<Long>> ids = productTitleIndex.search(name, category);
+        if (ids.isPresent()) {
+            LOG.debug("Title index matched {} products for '{}' / {}", ids.get().size(), name, category);
+            products = byIds(snapshot, limit(ids.get(), limit), withRecipes);
+        } else {
+            // Index wird gerade (neu) aufgebaut -> Titel im Snapshot durchsuchen
             LOG.info("Searching products by name '{}' and category '{}'", name, category);
-            return productRepository.findByTitleContainingIgnoreCaseAndCategory(name, category);
-        } else if (name != null) {
-            LOG.info("Searching products by name '{}'", name);
-            return productRepository.findByTitleContainingIgnoreCase(name);
-        } else if (category != null) {
-            LOG.info("Filtering products by category '{}'", category);
-            return productRepository.findByCategory(category);
-        }
-        
-        return productRepository.findAll();
+            products = page(snapshot, category, name, first, limit, withRecipes).items();
+        }
+        if (products.isEmpty()) {
+            // Kein exakter Teiltreffer -> tippfehlertolerant über Titel und Zutaten
+            List<Long> fuzzyIds = fuzzyIndex.productIds(name, category);
+            LOG.debug("Fuzzy index matched {} products for '{}' / {}", fuzzyIds.size(), name, category);
+            return byIds(snapshot, limit(fuzzyIds, limit), withRecipes);
+        }
+        return products;
+    }
+
+    private static KeysetPage<?> page(CatalogSnapshot snapshot, Category category, String name,
+            KeysetCursor cursor, int limit, boolean withRecipes) {
+        return withRecipes
+                ? snapshot.products(category, name, cursor, limit)
+                : snapshot.productSummaries(category, name, cursor, limit);
+    }
+
+    private static KeysetPage<?> pageOfIds(CatalogSnapshot snapshot, Category category, Set<Long> ids,
+            KeysetCursor cursor, int limit, boolean withRecipes) {
+        return withRecipes
+                ? snapshot.products(category, ids, cursor, limit)
+                : snapshot.productSummaries(category, ids, cursor, limit);
+    }
+
+    private static List<?> byIds(CatalogSnapshot snapshot, List<Long> ids, boolean withRecipes) {
+        return withRecipes ? snapshot.products(ids) : snapshot.productSummaries(ids);
+    }
+
+    private static <T> List<T> limit(List<T> list, int limit) {
+        return list.size() > limit ? list.subList(0, limit) : list;
     }
 
     @PostMapping
@@ -90,7 +230,8 @@ public class ProductController {
 
     @PutMapping("/{id}")
     public ResponseEntity<Product> updateProduct(@AuthenticationPrincipal Jwt jwt, 
-            @PathVariable Long id, @Valid @RequestBody Product productDetails) {
+            @PathVariable Long id, @Valid @RequestBody Product productDetails,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         if (!userFromJwtIsAdmin(jwt)) {
             return ResponseEntity.status(403).build();
         }
@@ -100,6 +241,10 @@ public class ProductController {
             return ResponseEntity.notFound().build();
         }
         Product product = opt.get();
+        if (ifMatch != null && !ETags.ifMatchHits(ifMatch, ETags.of(product))) {
+            LOG.warn("If-Match {} does not match current version of product {}", ifMatch, id);
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).eTag(ETags.of(product)).build();
+        }
         product.setCategory(productDetails.getCategory());
         product.setDescription(productDetails.getDescription());
         product.setImageUrl(productDetails.getImageUrl());
@@ -107,9 +252,15 @@ public class ProductController {
         product.setIngredients(productDetails.getIngredients());
         //product.setPrice(productDetails.getPrice());
         product.setTitle(productDetails.getTitle());
-        Product updatedProduct = productRepository.save(product);
+        Product updatedProduct;
+        try {
+            updatedProduct = productRepository.save(product);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            LOG.warn("Concurrent update of product {}", id);
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
         LOG.info("Updated product with id " + updatedProduct.getId());
-        return ResponseEntity.ok(updatedProduct);
+        return ResponseEntity.ok().eTag(ETags.of(updatedProduct)).body(updatedProduct);
     }
 
     @DeleteMapping("/{id}")
@@ -127,11 +278,22 @@ public class ProductController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Einzelnes Produkt (aus dem Snapshot) mit ETag (Version) und Last-Modified.
+     * Passt If-None-Match, antwortet Spring mit 304 ohne den Body zu serialisieren.
+     */
     @GetMapping("/{id}")
     public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-        Optional<Product> opt = productRepository.findById(id);
+        Optional<Product> opt = catalog.current().product(id);
         if (opt.isPresent()) {
-            return ResponseEntity.ok(opt.get());
+            Product product = opt.get();
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                    .eTag(ETags.of(product))
+                    .cacheControl(CacheControl.noCache());
+            if (product.getUpdatedAt() != null) {
+                builder.lastModified(product.getUpdatedAt());
+            }
+            return builder.body(product);
         } else {
             return ResponseEntity.notFound().build();
         }
@@ -8,9 +8,9 @@ import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.ResponseEntity;
 
-import de.htwg.in.wete.backend.model.Role;
 import de.htwg.in.wete.backend.model.User;
 import de.htwg.in.wete.backend.repository.UserRepository;
+import de.htwg.in.wete.backend.service.UserProvisioningService;
 
 import jakarta.validation.Valid;
 
@@ -23,6 +23,9 @@ public class ProfileController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserProvisioningService userProvisioningService;
+
     @GetMapping
     public ResponseEntity<User> getProfile(@AuthenticationPrincipal Jwt jwt) {
         String oauthId = jwt.getSubject();
@@ -34,45 +37,11 @@ public class ProfileController {
             return ResponseEntity.badRequest().build();
         }
         
-        // Suche nach existierendem User:
-        // 1. Zuerst per oauthId (primärer Identifier)
-        // 2. Falls nicht gefunden, per Email (für vom DataLoader erstellte User)
-        // 3. Falls immer noch nicht gefunden, erstelle neuen User
-        String emailFromJwt = jwt.getClaimAsString("email");
-        
-        User user = userRepository.findByOauthId(oauthId)
-                .orElseGet(() -> {
-                    // Versuche per Email zu finden (wichtig für DataLoader-User!)
-                    if (emailFromJwt != null) {
-                        return userRepository.findByEmail(emailFromJwt)
-                                .map(existingUser -> {
-                                    // User per Email gefunden - aktualisiere oauthId
-                                    LOGGER.info("Found existing user by email={}, updating oauthId from {} to {}", 
-                                            emailFromJwt, existingUser.getOauthId(), oauthId);
-                                    existingUser.setOauthId(oauthId);
-                                    return userRepository.save(existingUser);
-                                })
-                                .orElseGet(() -> createNewUser(oauthId, jwt));
-                    }
-                    return createNewUser(oauthId, jwt);
-                });
-        
+        // Per oauthId, sonst per Email (für vom DataLoader erstellte User), sonst neu anlegen
+        User user = userProvisioningService.findOrCreate(jwt);
         return ResponseEntity.ok(user);
     }
 
-    /**
-     * Erstellt einen neuen User mit REGULAR-Rolle.
-     */
-    private User createNewUser(String oauthId, Jwt jwt) {
-        LOGGER.info("Creating new user with oauthId: {}", oauthId);
-        User newUser = new User();
-        newUser.setOauthId(oauthId);
-        newUser.setName(jwt.getClaimAsString("name"));
-        newUser.setEmail(jwt.getClaimAsString("email"));
-        newUser.setRole(Role.REGULAR);
-        return userRepository.save(newUser);
-    }
-
     /**
      * Aktualisiert das Profil des eingeloggten Benutzers.
      * Benutzer können ihren Namen und ihre E-Mail ändern.
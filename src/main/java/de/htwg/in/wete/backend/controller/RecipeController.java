@@ -3,23 +3,38 @@ package de.htwg.in.wete.backend.controller;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
 
 import de.htwg.in.wete.backend.model.Recipe;
-import de.htwg.in.wete.backend.model.Role;
-import de.htwg.in.wete.backend.model.User;
+import de.htwg.in.wete.backend.repository.KeysetCursor;
 import de.htwg.in.wete.backend.repository.ProductRepository;
 import de.htwg.in.wete.backend.repository.RecipeRepository;
-import de.htwg.in.wete.backend.repository.UserRepository;
+import de.htwg.in.wete.backend.repository.SortKey;
+import de.htwg.in.wete.backend.service.CatalogReadModel;
+import de.htwg.in.wete.backend.service.CatalogResponseCache;
+import de.htwg.in.wete.backend.service.ETags;
+import de.htwg.in.wete.backend.service.KeysetPaging;
+import de.htwg.in.wete.backend.service.RecipePopularity;
+import de.htwg.in.wete.backend.service.RelatedRecipes;
+import de.htwg.in.wete.backend.service.TrendingCounters;
+import de.htwg.in.wete.backend.service.TrendingRecipes;
+import de.htwg.in.wete.backend.service.UserRoleService;
 
 import jakarta.validation.Valid;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api")
@@ -27,11 +42,34 @@ public class RecipeController {
 
     private static final Logger LOG = LoggerFactory.getLogger(RecipeController.class);
 
+    private static final Set<SortKey> SORT_KEYS = EnumSet.of(SortKey.ID, SortKey.TITLE);
+
     private final RecipeRepository recipeRepository;
     private final ProductRepository productRepository;
     
     @Autowired
-    private UserRepository userRepository;
+    private UserRoleService userRoleService;
+
+    @Autowired
+    private CatalogResponseCache responseCache;
+
+    @Autowired
+    private CatalogReadModel catalog;
+
+    @Autowired
+    private KeysetPaging paging;
+
+    @Autowired
+    private RecipePopularity popularity;
+
+    @Autowired
+    private TrendingRecipes trending;
+
+    @Autowired
+    private RelatedRecipes relatedRecipes;
+
+    @Value("${casellese.popularity.max-limit:100}")
+    private int maxPopularLimit;
 
     public RecipeController(RecipeRepository recipeRepository, ProductRepository productRepository) {
         this.recipeRepository = recipeRepository;
@@ -46,37 +84,112 @@ public class RecipeController {
             LOG.warn("JWT or subject is null");
             return false;
         }
-        Optional<User> user = userRepository.findByOauthId(jwt.getSubject());
-        if (!user.isPresent() || user.get().getRole() != Role.ADMIN) {
-            LOG.warn("Unauthorized access by " + user.map(u -> "user with oauthId " + u.getOauthId())
-                    .orElse("unknown user"));
+        if (!userRoleService.isAdmin(jwt)) {
+            LOG.warn("Unauthorized access by user with oauthId " + jwt.getSubject());
             return false;
         }
         return true;
     }
 
-    // GET all recipes
+    // GET all recipes (aus dem Katalog-Snapshot, fertig serialisiert im CatalogResponseCache, ETag = Katalogversion).
+    // Mit sort (id, title), size oder cursor seitenweise, sonst höchstens unpaged-limit Rezepte.
     @GetMapping("/recipes")
-    public List<Recipe> getAllRecipes() {
-        return recipeRepository.findAll();
+    public ResponseEntity<?> getAllRecipes(
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        if (!paging.isPaged(sort, size, cursor)) {
+            return responseCache.respond("recipes", () -> catalog.current()
+                    .recipes(KeysetCursor.first(SortKey.ID, false), paging.unpagedLimit()).items(),
+                    ifNoneMatch, acceptEncoding);
+        }
+
+        KeysetCursor start;
+        int pageSize;
+        try {
+            start = paging.start(sort, cursor, SORT_KEYS);
+            pageSize = paging.pageSize(size);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        return responseCache.respond("recipes-page|" + start.encode() + "|" + pageSize,
+                () -> catalog.current().recipes(start, pageSize), ifNoneMatch, acceptEncoding);
+    }
+
+    // GET die beliebtesten Rezepte (meiste Favoriten zuerst), direkt aus den In-Memory-Zählern
+    @GetMapping("/recipes/popular")
+    public ResponseEntity<?> getPopularRecipes(@RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > maxPopularLimit) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "limit muss zwischen 1 und " + maxPopularLimit + " liegen"));
+        }
+        List<RecipePopularity.PopularRecipe> popular = popularity.top(limit);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(popular);
+    }
+
+    // GET Trending-Rezepte im Zeitfenster (hour, day, week), zeitlich abklingend gewichtet
+    @GetMapping("/recipes/trending")
+    public ResponseEntity<?> getTrendingRecipes(
+            @RequestParam(defaultValue = "day") String window,
+            @RequestParam(defaultValue = "10") int limit) {
+        TrendingCounters.Window parsed;
+        try {
+            parsed = TrendingCounters.Window.parse(window);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        if (limit < 1 || limit > trending.maxLimit()) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "limit muss zwischen 1 und " + trending.maxLimit() + " liegen"));
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(trending.top(parsed, limit));
     }
 
-    // GET recipe by id
+    // GET recipe by id aus dem Snapshot (ETag = Version, 304 ohne Serialisierung bei passendem If-None-Match)
     @GetMapping("/recipes/{id}")
     public ResponseEntity<Recipe> getRecipeById(@PathVariable Long id) {
-        return recipeRepository.findById(id)
-                .map(ResponseEntity::ok)
+        return catalog.current().recipe(id)
+                .map(recipe -> {
+                    ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                            .eTag(ETags.of(recipe))
+                            .cacheControl(CacheControl.noCache());
+                    if (recipe.getUpdatedAt() != null) {
+                        builder.lastModified(recipe.getUpdatedAt());
+                    }
+                    return builder.body(recipe);
+                })
                 .orElse(ResponseEntity.notFound().build());
     }
 
-    // GET recipes by product id
+    // GET "Wer dieses Rezept favorisiert hat, mag auch ..." (vorberechnete Top-K-Nachbarn)
+    @GetMapping("/recipes/{id}/related")
+    public ResponseEntity<?> getRelatedRecipes(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > relatedRecipes.topK()) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "limit muss zwischen 1 und " + relatedRecipes.topK() + " liegen"));
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(relatedRecipes.related(id, limit));
+    }
+
+    // GET recipes by product id (Snapshot)
     @GetMapping("/products/{productId}/recipes")
-    public ResponseEntity<List<Recipe>> getRecipesByProductId(@PathVariable Long productId) {
-        if (!productRepository.existsById(productId)) {
+    public ResponseEntity<byte[]> getRecipesByProductId(
+            @PathVariable Long productId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        ResponseEntity<byte[]> notModified = responseCache.checkNotModified(ifNoneMatch, acceptEncoding);
+        if (notModified != null) {
+            return notModified;
+        }
+        Optional<List<Recipe>> recipes = catalog.current().recipesOfProduct(productId);
+        if (recipes.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
-        List<Recipe> recipes = recipeRepository.findByProductId(productId);
-        return ResponseEntity.ok(recipes);
+        return responseCache.get("product-recipes|" + productId, recipes::get).toResponse(acceptEncoding);
     }
 
     // POST new recipe for a product (Admin only)
@@ -99,25 +212,36 @@ public class RecipeController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
-    // PUT update recipe (Admin only)
+    // PUT update recipe (Admin only, optional mit If-Match auf die aktuelle Version)
     @PutMapping("/recipes/{id}")
     public ResponseEntity<Recipe> updateRecipe(
             @AuthenticationPrincipal Jwt jwt,
             @PathVariable Long id, 
-            @Valid @RequestBody Recipe recipeDetails) {
+            @Valid @RequestBody Recipe recipeDetails,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         if (!userFromJwtIsAdmin(jwt)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         
         return recipeRepository.findById(id)
                 .map(recipe -> {
+                    if (ifMatch != null && !ETags.ifMatchHits(ifMatch, ETags.of(recipe))) {
+                        LOG.warn("If-Match {} does not match current version of recipe {}", ifMatch, id);
+                        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).eTag(ETags.of(recipe)).<Recipe>build();
+                    }
                     recipe.setTitle(recipeDetails.getTitle());
                     recipe.setText(recipeDetails.getText());
                     recipe.setPdfUrl(recipeDetails.getPdfUrl());
                     recipe.setYoutubeUrl(recipeDetails.getYoutubeUrl());
-                    Recipe updatedRecipe = recipeRepository.save(recipe);
+                    Recipe updatedRecipe;
+                    try {
+                        updatedRecipe = recipeRepository.save(recipe);
+                    } catch (ObjectOptimisticLockingFailureException e) {
+                        LOG.warn("Concurrent update of recipe {}", id);
+                        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).<Recipe>build();
+                    }
                     LOG.info("Updated recipe with id " + updatedRecipe.getId());
-                    return ResponseEntity.ok(updatedRecipe);
+                    return ResponseEntity.ok().eTag(ETags.of(updatedRecipe)).body(updatedRecipe);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -0,0 +1,70 @@
+package de.htwg.in.wete.backend.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import de.htwg.in.wete.backend.search.FullTextIndex;
+import de.htwg.in.wete.backend.search.SearchService;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Volltextsuche über Produkte und Rezepte (öffentlich).
+ *
+ * GET /api/search?q=...&type=product|recipe&size=20 liefert die erste Seite,
+ * GET /api/search?cursor=... die folgenden Seiten derselben Rangliste.
+ */
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SearchController.class);
+
+    @Autowired
+    private SearchService searchService;
+
+    @GetMapping
+    public ResponseEntity<?> search(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String type,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor) {
+        if (!searchService.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(Map.of("error", "Suchindex wird aufgebaut"));
+        }
+
+        if (cursor != null) {
+            return searchService.next(cursor)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.badRequest()
+                            .body(Map.of("error", "Cursor ungültig oder abgelaufen")));
+        }
+
+        if (q == null || q.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Suchbegriff q fehlt"));
+        }
+        if (size < 1 || size > SearchService.MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "size muss zwischen 1 und " + SearchService.MAX_PAGE_SIZE + " liegen"));
+        }
+        FullTextIndex.DocType docType = null;
+        if (type != null) {
+            try {
+                docType = FullTextIndex.DocType.valueOf(type.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Unbekannter Typ: " + type));
+            }
+        }
+
+        LOG.debug("Full-text search for '{}' (type {})", q, docType);
+        return ResponseEntity.ok(searchService.search(q, docType, size));
+    }
+}
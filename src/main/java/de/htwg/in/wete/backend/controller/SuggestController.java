@@ -0,0 +1,38 @@
+package de.htwg.in.wete.backend.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import de.htwg.in.wete.backend.search.SuggestIndex;
+import de.htwg.in.wete.backend.search.Suggestion;
+
+import java.util.List;
+
+/**
+ * Autovervollständigung für das Suchfeld (öffentlich).
+ *
+ * GET /api/suggest?q=cac&limit=5 liefert die beliebtesten Produkte und Rezepte,
+ * deren Titel (oder ein Wort darin) mit q beginnt.
+ */
+@RestController
+@RequestMapping("/api/suggest")
+public class SuggestController {
+
+    /** Längere Eingaben sind keine Präfixe mehr, sondern Suchen */
+    private static final int MAX_PREFIX_LENGTH = 100;
+
+    @Autowired
+    private SuggestIndex suggestIndex;
+
+    @GetMapping
+    public ResponseEntity<List<Suggestion>> suggest(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit) {
+        if (q.length() > MAX_PREFIX_LENGTH) {
+            return ResponseEntity.badRequest().build();
+        }
+        int max = limit == null ? suggestIndex.topN() : Math.max(0, limit);
+        return ResponseEntity.ok(suggestIndex.suggest(q, max));
+    }
+}
@@ -11,11 +11,17 @@ import org.springframework.web.bind.annotation.*;
 
 import de.htwg.in.wete.backend.model.Role;
 import de.htwg.in.wete.backend.model.User;
+import de.htwg.in.wete.backend.repository.KeysetCursor;
+import de.htwg.in.wete.backend.repository.KeysetPage;
+import de.htwg.in.wete.backend.repository.SortKey;
 import de.htwg.in.wete.backend.repository.UserRepository;
+import de.htwg.in.wete.backend.service.KeysetPaging;
+import de.htwg.in.wete.backend.service.UserRoleService;
 
 import jakarta.validation.Valid;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Controller für die Admin-Nutzerverwaltung.
@@ -30,30 +36,50 @@ public class UserController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserRoleService userRoleService;
+
+    @Autowired
+    private KeysetPaging paging;
+
     /**
      * Prüft ob der eingeloggte User ein Admin ist.
      */
     private boolean isAdmin(Jwt jwt) {
-        String oauthId = jwt.getSubject();
-        Optional<User> userOpt = userRepository.findByOauthId(oauthId);
-        return userOpt.map(user -> user.getRole() == Role.ADMIN).orElse(false);
+        return userRoleService.isAdmin(jwt);
     }
 
     /**
      * GET /api/users - Alle Nutzer auflisten (nur Admin)
+     * Mit size oder cursor seitenweise (nach ID), sonst höchstens unpaged-limit Nutzer.
      */
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers(@AuthenticationPrincipal Jwt jwt) {
+    public ResponseEntity<?> getAllUsers(@AuthenticationPrincipal Jwt jwt,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor) {
         LOG.info("getAllUsers called by: {}", jwt.getSubject());
         
         if (!isAdmin(jwt)) {
             LOG.warn("Access denied - user is not admin");
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
-        
-        List<User> users = userRepository.findAll();
-        LOG.info("Returning {} users", users.size());
-        return ResponseEntity.ok(users);
+
+        if (!paging.isPaged(sort, size, cursor)) {
+            List<User> users = userRepository
+                    .findPage(KeysetCursor.first(SortKey.ID, false), paging.unpagedLimit()).items();
+            LOG.info("Returning {} users", users.size());
+            return ResponseEntity.ok(users);
+        }
+
+        try {
+            KeysetCursor start = paging.start(sort, cursor, Set.of(SortKey.ID));
+            KeysetPage<User> page = userRepository.findPage(start, paging.pageSize(size));
+            LOG.info("Returning page of {} users", page.size());
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     /**
@@ -109,6 +135,8 @@ public class UserController {
                     }
                     
                     User updatedUser = userRepository.save(user);
+                    // Rollen-Cache sofort invalidieren, damit die neue Rolle gilt
+                    userRoleService.evict(updatedUser.getOauthId());
                     LOG.info("User {} updated successfully", id);
                     return ResponseEntity.ok(updatedUser);
                 })
@@ -0,0 +1,23 @@
+package de.htwg.in.wete.backend.model;
+
+/**
+ * Namen der Hibernate Second-Level-Cache-Regionen.
+ *
+ * Größe und TTL pro Region werden unter {@code casellese.jpa.cache.regions.<name>}
+ * konfiguriert (siehe application.properties).
+ */
+public final class CacheRegions {
+
+    public static final String PRODUCT = "product";
+    public static final String RECIPE = "recipe";
+    public static final String USER = "user";
+    public static final String PRODUCT_RECIPES = "product-recipes";
+    public static final String USER_BY_OAUTH_ID = "user-by-oauth-id";
+
+    // Standardregionen von Hibernate für den Query-Cache
+    public static final String QUERY_RESULTS = "default-query-results-region";
+    public static final String UPDATE_TIMESTAMPS = "default-update-timestamps-region";
+
+    private CacheRegions() {
+    }
+}
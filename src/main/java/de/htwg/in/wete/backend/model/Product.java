@@ -1,25 +1,51 @@
 package de.htwg.in.wete.backend.model;
 
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.constraints.Size;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.Instant;
 import java.util.List;
 import java.util.ArrayList;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import de.htwg.in.wete.backend.service.CatalogEntityListener;
 
 @Entity
+@EntityListeners(CatalogEntityListener.class)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.PRODUCT)
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+// Sortierfelder der Keyset-Pagination (+ ID als Tie-Breaker) und Kategorie-Filter
+@Table(indexes = {
+    @Index(name = "idx_product_title", columnList = "title, id"),
+    @Index(name = "idx_product_price", columnList = "price, id"),
+    @Index(name = "idx_product_category", columnList = "category, id")
+})
 public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -47,9 +73,26 @@ public class Product {
     @Size(max = 2000, message = "Zutaten dürfen maximal 2000 Zeichen lang sein")
     private String ingredients;
 
+    // Inverse Seite: Hibernate verwirft den Collection-Cache auch bei Änderungen an
+    // Recipe.product (hibernate.cache.auto_evict_collection_cache).
+    // Nachladen für bis zu 50 Produkte gemeinsam (GET /api/product?expand=recipes)
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.PRODUCT_RECIPES)
     private List<Recipe> recipes = new ArrayList<>();
 
+    // Optimistic Locking + Basis für ETag / If-Match (wird nur vom Server gesetzt)
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
+    // Zeitpunkt der letzten Änderung (Basis für Last-Modified)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Instant updatedAt;
+
     // Getters and setters
     public Long getId() {
         return id;
@@ -91,6 +134,16 @@ public class Product {
         this.price = price;
     }
 
+    // Preis ohne Ersatzwert (null = nicht angegeben), sortiert wie in der Datenbank
+    @JsonIgnore
+    public Double getPriceOrNull() {
+        return price;
+    }
+
+    public void setPriceOrNull(Double price) {
+        this.price = price;
+    }
+
     public String getImageUrl() {
         return imageUrl;
     }
@@ -133,6 +186,28 @@ public class Product {
         recipe.setProduct(null);
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void touchUpdatedAt() {
+        this.updatedAt = Instant.now();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
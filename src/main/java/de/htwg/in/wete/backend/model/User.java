@@ -5,6 +5,11 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import de.htwg.in.wete.backend.service.UserRoleCacheListener;
+
 /**
  * User Entity für die Benutzerverwaltung.
  * 
@@ -12,6 +17,8 @@ import jakarta.validation.constraints.Size;
  * Die Rolle bestimmt die Berechtigungen (ADMIN oder REGULAR).
  */
 @Entity
+@EntityListeners(UserRoleCacheListener.class)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.USER)
 @Table(name = "app_user", indexes = {
     @Index(name = "idx_user_oauth_id", columnList = "oauthId", unique = true),
     @Index(name = "idx_user_email", columnList = "email")
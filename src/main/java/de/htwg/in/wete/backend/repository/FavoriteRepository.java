@@ -1,19 +1,28 @@
 package de.htwg.in.wete.backend.repository;
 
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import de.htwg.in.wete.backend.model.Favorite;
 import de.htwg.in.wete.backend.model.Recipe;
 import de.htwg.in.wete.backend.model.User;
 
+import jakarta.persistence.QueryHint;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
+public interface FavoriteRepository extends JpaRepository<Favorite, Long>, FavoriteRepositoryCustom {
     
     // Alle Favoriten eines Users finden
     List<Favorite> findByUserOrderByCreatedAtDesc(User user);
@@ -22,6 +31,31 @@ public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
     @Query("SELECT f FROM Favorite f WHERE f.user.oauthId = :oauthId ORDER BY f.createdAt DESC")
     List<Favorite> findByUserOauthIdOrderByCreatedAtDesc(@Param("oauthId") String oauthId);
     
+    /**
+     * Favoriten eines Users samt Rezept- und Produktdaten in einer Join-Query
+     * (neueste zuerst), ohne Entities und Lazy-Loading. Liest vom Replikat,
+     * sofern eines konfiguriert ist.
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT f.id AS id, r.id AS recipeId, r.title AS recipeTitle, r.text AS recipeText, "
+            + "r.pdfUrl AS recipePdfUrl, p.id AS productId, p.title AS productTitle, "
+            + "p.imageUrl AS productImageUrl, f.createdAt AS createdAt "
+            + "FROM Favorite f JOIN f.recipe r LEFT JOIN r.product p "
+            + "WHERE f.user.oauthId = :oauthId ORDER BY f.createdAt DESC, f.id DESC")
+    List<FavoriteView> findViewsByUserOauthId(@Param("oauthId") String oauthId);
+
+    interface FavoriteView {
+        Long getId();
+        Long getRecipeId();
+        String getRecipeTitle();
+        String getRecipeText();
+        String getRecipePdfUrl();
+        Long getProductId();
+        String getProductTitle();
+        String getProductImageUrl();
+        LocalDateTime getCreatedAt();
+    }
+
     // Prüfen ob ein Rezept bereits Favorit ist
     Optional<Favorite> findByUserAndRecipe(User user, Recipe recipe);
     
@@ -33,9 +67,21 @@ public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
     @Query("SELECT f.recipe.id FROM Favorite f WHERE f.user.oauthId = :oauthId")
     List<Long> findRecipeIdsByUserOauthId(@Param("oauthId") String oauthId);
     
-    // Favorit löschen über oauthId und recipeId
-    @Query("DELETE FROM Favorite f WHERE f.user.oauthId = :oauthId AND f.recipe.id = :recipeId")
-    void deleteByUserOauthIdAndRecipeId(@Param("oauthId") String oauthId, @Param("recipeId") Long recipeId);
+    // Favorit löschen über oauthId und recipeId, ohne vorheriges SELECT (Anzahl gelöschter Zeilen: 0 oder 1)
+    @Modifying
+    @Query("DELETE FROM Favorite f WHERE f.recipe.id = :recipeId "
+            + "AND f.user.id IN (SELECT u.id FROM User u WHERE u.oauthId = :oauthId)")
+    int deleteByUserOauthIdAndRecipeId(@Param("oauthId") String oauthId, @Param("recipeId") Long recipeId);
+    
+    // Welche der Rezept-IDs sind bereits Favoriten des Users? (Batch-Endpoint)
+    @Query("SELECT f.recipe.id FROM Favorite f WHERE f.user = :user AND f.recipe.id IN :recipeIds")
+    List<Long> findRecipeIdsByUserAndRecipeIdIn(@Param("user") User user,
+            @Param("recipeIds") Collection<Long> recipeIds);
+
+    // Mehrere Favoriten eines Users mit einem Statement löschen (Batch-Endpoint)
+    @Modifying
+    @Query("DELETE FROM Favorite f WHERE f.user = :user AND f.recipe.id IN :recipeIds")
+    int deleteByUserAndRecipeIdIn(@Param("user") User user, @Param("recipeIds") Collection<Long> recipeIds);
     
     // Anzahl der Favoriten eines Users
     @Query("SELECT COUNT(f) FROM Favorite f WHERE f.user.oauthId = :oauthId")
@@ -57,4 +103,81 @@ public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
      */
     @Query("SELECT f FROM Favorite f WHERE f.user.id = :userId ORDER BY f.createdAt DESC")
     List<Favorite> findByUserIdOrderByCreatedAtDesc(@Param("userId") Long userId);
+
+    /**
+     * Alle Favoriten mit User-, Rezept- und Produktdaten in einer Join-Query
+     * (neueste zuerst), ohne Entities zu laden. Liest vom Replikat, sofern
+     * eines konfiguriert ist.
+     */
+    @Transactional(readOnly = true)
+    @Query(ADMIN_VIEW_QUERY)
+    List<AdminFavoriteView> findAllAdminViews();
+
+    /**
+     * Wie {@link #findAllAdminViews()}, aber zeilenweise aus dem ResultSet
+     * (Export). Muss innerhalb einer Transaktion vollständig gelesen und
+     * geschlossen werden.
+     */
+    @Query(ADMIN_VIEW_QUERY)
+    @QueryHints({
+        @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<AdminFavoriteView> streamAllAdminViews();
+
+    String ADMIN_VIEW_QUERY = "SELECT f.id AS id, u.id AS userId, u.name AS userName, u.email AS userEmail, "
+            + "r.id AS recipeId, r.title AS recipeTitle, p.id AS productId, p.title AS productTitle, "
+            + "f.createdAt AS createdAt "
+            + "FROM Favorite f JOIN f.user u JOIN f.recipe r LEFT JOIN r.product p "
+            + "ORDER BY f.createdAt DESC, f.id DESC";
+
+    interface AdminFavoriteView {
+        Long getId();
+        Long getUserId();
+        String getUserName();
+        String getUserEmail();
+        Long getRecipeId();
+        String getRecipeTitle();
+        Long getProductId();
+        String getProductTitle();
+        LocalDateTime getCreatedAt();
+    }
+
+    // ========================================
+    // Aggregate für Popularität
+    // ========================================
+
+    /**
+     * Anzahl Favoriten pro Rezept (nur Rezepte mit mindestens einem Favoriten)
+     */
+    @Query("SELECT f.recipe.id AS recipeId, COUNT(f) AS favorites FROM Favorite f GROUP BY f.recipe.id")
+    List<RecipeFavoriteCount> countFavoritesPerRecipe();
+
+    interface RecipeFavoriteCount {
+        Long getRecipeId();
+        long getFavorites();
+    }
+
+    /**
+     * Alle Favoriten als (oauthId, recipeId), nach User gruppiert - Grundlage
+     * der Co-Occurrence-Matrix für ähnliche Rezepte.
+     */
+    @Query("SELECT u.oauthId AS oauthId, f.recipe.id AS recipeId FROM Favorite f JOIN f.user u "
+            + "WHERE u.oauthId IS NOT NULL ORDER BY u.id")
+    List<UserRecipe> findAllUserRecipes();
+
+    /**
+     * Favoriten einzelner User zu einzelnen Rezepten als (oauthId, recipeId);
+     * Obermenge der gesuchten Paare, der Aufrufer filtert.
+     */
+    @Query("SELECT u.oauthId AS oauthId, f.recipe.id AS recipeId FROM Favorite f JOIN f.user u "
+            + "WHERE u.oauthId IN :oauthIds AND f.recipe.id IN :recipeIds")
+    List<UserRecipe> findUserRecipesIn(@Param("oauthIds") Collection<String> oauthIds,
+            @Param("recipeIds") Collection<Long> recipeIds);
+
+    interface UserRecipe {
+        String getOauthId();
+        Long getRecipeId();
+    }
 }
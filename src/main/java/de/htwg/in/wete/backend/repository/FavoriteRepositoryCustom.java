@@ -0,0 +1,22 @@
+package de.htwg.in.wete.backend.repository;
+
+import de.htwg.in.wete.backend.model.Favorite;
+
+/**
+ * Schreibzugriffe auf Favoriten, die als natives SQL laufen.
+ */
+public interface FavoriteRepositoryCustom {
+
+    /**
+     * Fügt den (neuen, noch nicht persistierten) Favoriten mit einem einzigen
+     * Statement ein, falls es das Paar (User, Rezept) noch nicht gibt: MERGE auf
+     * H2, INSERT IGNORE auf MariaDB/MySQL. Kein vorheriges SELECT und keine
+     * Constraint-Verletzung, wenn parallele Requests dasselbe Paar anlegen.
+     *
+     * User und Rezept müssen existieren (MariaDB ignoriert auch Fremdschlüssel-Fehler).
+     * Der Favorit wird nicht in den Persistence Context übernommen.
+     *
+     * @return true wenn eingefügt (ID ist dann gesetzt), false wenn schon vorhanden
+     */
+    boolean insertIfAbsent(Favorite favorite);
+}
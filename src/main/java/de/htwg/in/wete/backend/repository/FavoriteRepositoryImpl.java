@@ -0,0 +1,115 @@
+package de.htwg.in.wete.backend.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.hibernate.JDBCException;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.Generator;
+import org.springframework.transaction.annotation.Transactional;
+
+import de.htwg.in.wete.backend.model.Favorite;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+class FavoriteRepositoryImpl implements FavoriteRepositoryCustom {
+
+    // Ein Treffer auf (user_id, recipe_id) -> nichts tun, sonst einfügen
+    private static final String H2_UPSERT = "MERGE INTO favorite f "
+            + "USING (SELECT CAST(? AS BIGINT) AS id, CAST(? AS BIGINT) AS user_id, "
+            + "CAST(? AS BIGINT) AS recipe_id, CAST(? AS TIMESTAMP(6)) AS created_at) s "
+            + "ON f.user_id = s.user_id AND f.recipe_id = s.recipe_id "
+            + "WHEN NOT MATCHED THEN INSERT (id, user_id, recipe_id, created_at) "
+            + "VALUES (s.id, s.user_id, s.recipe_id, s.created_at)";
+
+    // Nur ein Duplikat wird zum No-op (anders als INSERT IGNORE, das auch FK-Fehler schluckt). Mit dem
+    // Standard des Treibers (found rows) zählt das No-op wie ein INSERT; LAST_INSERT_ID liefert dann
+    // die ID der bestehenden Zeile als generierten Schlüssel
+    private static final String MYSQL_UPSERT = "INSERT INTO favorite (id, user_id, recipe_id, created_at) "
+            + "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE id = LAST_INSERT_ID(id)";
+
+    // Andere Datenbanken: einfaches INSERT, ein Duplikat meldet der Unique-Constraint
+    private static final String PLAIN_INSERT = "INSERT INTO favorite (id, user_id, recipe_id, created_at) "
+            + "VALUES (?, ?, ?, ?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public boolean insertIfAbsent(Favorite favorite) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        // Ein gerade angelegter User muss vor dem nativen INSERT in der Datenbank stehen
+        session.flush();
+
+        Long userId = favorite.getUser().getId();
+        Long recipeId = favorite.getRecipe().getId();
+        // ID aus demselben (gepoolten) Generator wie bei persist(), meist ohne Datenbankzugriff
+        Long id = (Long) generator(session).generate(session, favorite, null, EventType.INSERT);
+
+        Dialect dialect = session.getJdbcServices().getDialect();
+        boolean mysql = dialect instanceof MySQLDialect;
+        String sql = dialect instanceof H2Dialect ? H2_UPSERT
+                : mysql ? MYSQL_UPSERT
+                : PLAIN_INSERT;
+
+        JdbcCoordinator jdbc = session.getJdbcCoordinator();
+        PreparedStatement statement = mysql
+                ? jdbc.getStatementPreparer().prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                : jdbc.getStatementPreparer().prepareStatement(sql);
+        try {
+            statement.setLong(1, id);
+            statement.setLong(2, userId);
+            statement.setLong(3, recipeId);
+            statement.setObject(4, favorite.getCreatedAt());
+            if (statement.executeUpdate() == 0 || mysql && existingKey(statement, id)) {
+                return false;
+            }
+            favorite.setId(id);
+            return true;
+        } catch (SQLException e) {
+            // Direkt über den Dialekt übersetzt: der erwartete Duplikat-Fall soll nicht als SQL-Fehler geloggt werden
+            JDBCException converted = dialect.buildSQLExceptionConversionDelegate()
+                    .convert(e, "Favorit einfügen", sql);
+            // Paralleles Einfügen desselben Paars (H2 MERGE ist nicht atomar) oder einfaches INSERT
+            if (converted instanceof ConstraintViolationException violation
+                    && violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE) {
+                return false;
+            }
+            throw converted != null ? converted
+                    : session.getJdbcServices().getSqlExceptionHelper().convert(e, "Favorit einfügen", sql);
+        } finally {
+            jdbc.getLogicalConnection().getResourceRegistry().release(statement);
+            jdbc.afterStatementExecution();
+        }
+    }
+
+    /**
+     * true, wenn das Upsert auf eine bestehende Zeile getroffen ist (deren ID
+     * steht dann als generierter Schlüssel da).
+     */
+    private static boolean existingKey(PreparedStatement statement, long id) throws SQLException {
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+            if (!keys.next()) {
+                return false;
+            }
+            long key = keys.getLong(1);
+            return key != 0 && key != id;
+        }
+    }
+
+    private static BeforeExecutionGenerator generator(SharedSessionContractImplementor session) {
+        Generator generator = session.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(Favorite.class).getGenerator();
+        return (BeforeExecutionGenerator) generator;
+    }
+}
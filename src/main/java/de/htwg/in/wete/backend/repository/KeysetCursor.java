@@ -0,0 +1,73 @@
+package de.htwg.in.wete.backend.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Position in einer sortierten Liste: Sortierfeld, Richtung und die Werte
+ * (Sortierwert + ID) des letzten gelieferten Elements. Die nächste Seite
+ * beginnt direkt dahinter ("WHERE (title, id) > (?, ?)") statt mit OFFSET.
+ *
+ * Nach außen wird der Cursor nur als undurchsichtiges Token weitergegeben.
+ */
+public record KeysetCursor(SortKey key, boolean descending, String lastValue, Long lastId) {
+
+    private static final String VERSION = "k1";
+    private static final char NULL_VALUE = '-';
+    private static final char VALUE = '=';
+
+    /**
+     * Anfang der Liste (noch kein Element geliefert).
+     */
+    public static KeysetCursor first(SortKey key, boolean descending) {
+        return new KeysetCursor(key, descending, null, null);
+    }
+
+    public boolean isFirst() {
+        return lastId == null;
+    }
+
+    /**
+     * Cursor direkt hinter dem Element mit diesem Sortierwert und dieser ID.
+     */
+    public KeysetCursor after(Object value, long id) {
+        return new KeysetCursor(key, descending, value != null ? value.toString() : null, id);
+    }
+
+    public String encode() {
+        String plain = VERSION + "|" + key.name() + "|" + (descending ? "d" : "a") + "|" + lastId + "|"
+                + (lastValue == null ? NULL_VALUE : VALUE + lastValue);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(plain.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Liest ein Token aus {@link #encode()}, leer wenn es nicht gültig ist.
+     */
+    public static Optional<KeysetCursor> decode(String token) {
+        try {
+            String plain = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = plain.split("\\|", 5);
+            if (parts.length != 5 || !VERSION.equals(parts[0]) || parts[4].isEmpty()) {
+                return Optional.empty();
+            }
+            SortKey key = SortKey.valueOf(parts[1]);
+            boolean descending = "d".equals(parts[2]);
+            long lastId = Long.parseLong(parts[3]);
+            String value = null;
+            if (parts[4].charAt(0) == VALUE) {
+                value = parts[4].substring(1);
+                key.parse(value);
+            } else if (parts[4].charAt(0) != NULL_VALUE || !key.isNullable()) {
+                return Optional.empty();
+            }
+            if (key == SortKey.ID && value != null && Long.parseLong(value) != lastId) {
+                return Optional.empty();
+            }
+            return Optional.of(new KeysetCursor(key, descending, value, lastId));
+        } catch (IllegalArgumentException e) {
+            // Base64, Zahlen und unbekannte Sortierfelder
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package de.htwg.in.wete.backend.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Keyset-Pagination über sortierte Listen im Speicher, mit derselben
+ * Reihenfolge und denselben Cursorn wie {@link KeysetQueries}: Sortierfeld +
+ * ID als Tie-Breaker, NULL-Werte aufsteigend vorne und absteigend hinten.
+ * Der Einstieg hinter dem Cursor ist eine binäre Suche.
+ */
+public final class KeysetLists {
+
+    private KeysetLists() {
+    }
+
+    /**
+     * Die Elemente aufsteigend nach {@code key} (+ ID) sortiert, unveränderlich.
+     */
+    public static <T> List<T> sorted(Collection<T> items, SortKey key, Function<T, Object> sortValue,
+            ToLongFunction<T> id) {
+        List<T> list = new ArrayList<>(items);
+        list.sort(comparator(key, sortValue, id));
+        return List.copyOf(list);
+    }
+
+    /**
+     * Seite aus einer mit {@link #sorted} für {@code cursor.key()} sortierten
+     * Liste, nur Elemente, die {@code filter} erfüllen.
+     */
+    public static <T> KeysetPage<T> page(List<T> ascending, KeysetCursor cursor, int limit, Predicate<T> filter,
+            Function<T, Object> sortValue, ToLongFunction<T> id) {
+        SortKey key = cursor.key();
+        int index;
+        if (cursor.isFirst()) {
+            index = cursor.descending() ? ascending.size() - 1 : 0;
+        } else {
+            Object lastValue = key == SortKey.ID || cursor.lastValue() == null ? null
+                    : key.parse(cursor.lastValue());
+            // Erstes Element hinter dem Cursor (aufsteigend)
+            int low = 0;
+            int high = ascending.size();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                T item = ascending.get(middle);
+                if (compare(key, sortValue.apply(item), id.applyAsLong(item), lastValue, cursor.lastId()) <= 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            if (cursor.descending()) {
+                // Letztes Element vor dem Cursor: das Cursor-Element selbst überspringen
+                index = low - 1;
+                if (index >= 0 && id.applyAsLong(ascending.get(index)) == cursor.lastId()) {
+                    index--;
+                }
+            } else {
+                index = low;
+            }
+        }
+
+        int step = cursor.descending() ? -1 : 1;
+        // Ein Element mehr sammeln: zeigt an, ob es eine nächste Seite gibt
+        List<T> rows = new ArrayList<>(Math.min(limit + 1, ascending.size()));
+        for (; index >= 0 && index < ascending.size() && rows.size() <= limit; index += step) {
+            T item = ascending.get(index);
+            if (filter.test(item)) {
+                rows.add(item);
+            }
+        }
+        if (rows.size() <= limit) {
+            return new KeysetPage<>(List.copyOf(rows), rows.size(), null);
+        }
+        List<T> items = List.copyOf(rows.subList(0, limit));
+        T last = items.get(limit - 1);
+        return new KeysetPage<>(items, limit, cursor.after(sortValue.apply(last), id.applyAsLong(last)).encode());
+    }
+
+    private static <T> Comparator<T> comparator(SortKey key, Function<T, Object> sortValue, ToLongFunction<T> id) {
+        return (a, b) -> compare(key, key == SortKey.ID ? null : sortValue.apply(a), id.applyAsLong(a),
+                key == SortKey.ID ? null : sortValue.apply(b), id.applyAsLong(b));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(SortKey key, Object value, long id, Object otherValue, long otherId) {
+        if (key != SortKey.ID) {
+            if (value == null || otherValue == null) {
+                // NULL zuerst (nur nullable Felder)
+                if (value != otherValue) {
+                    return value == null ? -1 : 1;
+                }
+            } else {
+                int result = ((Comparable) value).compareTo(otherValue);
+                if (result != 0) {
+                    return result;
+                }
+            }
+        }
+        return Long.compare(id, otherId);
+    }
+}
@@ -0,0 +1,10 @@
+package de.htwg.in.wete.backend.repository;
+
+import java.util.List;
+
+/**
+ * Eine Seite einer Keyset-paginierten Liste. {@code nextCursor} ist null auf
+ * der letzten Seite.
+ */
+public record KeysetPage<T>(List<T> items, int size, String nextCursor) {
+}
@@ -0,0 +1,111 @@
+package de.htwg.in.wete.backend.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceUnitUtil;
+import jakarta.persistence.TypedQuery;
+
+/**
+ * Baut Keyset-Abfragen ("Seek-Methode"): Sortierung nach Feld + ID und eine
+ * Bedingung, die direkt hinter dem letzten Element der vorigen Seite
+ * einsetzt. Die Datenbank kann dafür den Index auf dem Sortierfeld nutzen,
+ * der Aufwand ist unabhängig davon, wie weit geblättert wurde.
+ *
+ * NULL-Werte (nur Preis) stehen aufsteigend vorne und absteigend hinten.
+ */
+final class KeysetQueries {
+
+    private KeysetQueries() {
+    }
+
+    /**
+     * Seite von Entities vom Typ {@code type}.
+     *
+     * @param where zusätzliche Filter auf Alias {@code e} (oder leer)
+     */
+    static <T> KeysetPage<T> find(EntityManager entityManager, Class<T> type, String where,
+            Map<String, Object> parameters, KeysetCursor cursor, int limit) {
+        // Sortierwert direkt aus dem Mapping lesen: Getter wie Product.getPrice() ersetzen NULL
+        EntityPersister persister = entityManager.unwrap(SessionImplementor.class).getFactory()
+                .getMappingMetamodel().getEntityDescriptor(type);
+        PersistenceUnitUtil util = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        return find(entityManager, type, "e", type, where, parameters, cursor, limit,
+                entity -> cursor.key() == SortKey.ID ? util.getIdentifier(entity)
+                        : persister.getPropertyValue(entity, cursor.key().getProperty()),
+                entity -> (Long) util.getIdentifier(entity));
+    }
+
+    /**
+     * Seite mit beliebiger Select-Klausel über {@code entity}.
+     *
+     * @param select Select-Klausel auf Alias {@code e}
+     * @param sortValue liest den Sortierwert eines Ergebnisses für den nächsten Cursor
+     */
+    private static <R> KeysetPage<R> find(EntityManager entityManager, Class<?> entity, String select,
+            Class<R> resultType, String where, Map<String, Object> parameters, KeysetCursor cursor, int limit,
+            Function<R, Object> sortValue, Function<R, Long> id) {
+        List<String> conditions = new ArrayList<>();
+        if (!where.isEmpty()) {
+            conditions.add(where);
+        }
+        if (!cursor.isFirst()) {
+            conditions.add(seek(cursor));
+        }
+        String jpql = "SELECT " + select + " FROM " + entity.getSimpleName() + " e"
+                + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+                + " ORDER BY " + orderBy(cursor);
+
+        TypedQuery<R> query = entityManager.createQuery(jpql, resultType);
+        parameters.forEach(query::setParameter);
+        if (!cursor.isFirst()) {
+            query.setParameter("lastId", cursor.lastId());
+            if (cursor.key() != SortKey.ID && cursor.lastValue() != null) {
+                query.setParameter("lastValue", cursor.key().parse(cursor.lastValue()));
+            }
+        }
+        // Ein Element mehr laden: zeigt an, ob es eine nächste Seite gibt
+        List<R> rows = query.setMaxResults(limit + 1).getResultList();
+        if (rows.size() <= limit) {
+            return new KeysetPage<>(rows, rows.size(), null);
+        }
+        List<R> items = rows.subList(0, limit);
+        R last = items.get(limit - 1);
+        String next = cursor.after(sortValue.apply(last), id.apply(last)).encode();
+        return new KeysetPage<>(List.copyOf(items), limit, next);
+    }
+
+    private static String orderBy(KeysetCursor cursor) {
+        String direction = cursor.descending() ? "DESC" : "ASC";
+        if (cursor.key() == SortKey.ID) {
+            return "e.id " + direction;
+        }
+        String nulls = cursor.key().isNullable() ? (cursor.descending() ? " NULLS LAST" : " NULLS FIRST") : "";
+        return "e." + cursor.key().getProperty() + " " + direction + nulls + ", e.id " + direction;
+    }
+
+    private static String seek(KeysetCursor cursor) {
+        String after = cursor.descending() ? "<" : ">";
+        if (cursor.key() == SortKey.ID) {
+            return "e.id " + after + " :lastId";
+        }
+        String property = "e." + cursor.key().getProperty();
+        if (cursor.lastValue() == null) {
+            // Letztes Element hatte keinen Wert: restliche NULLs, aufsteigend danach alle Werte
+            String nulls = "(" + property + " IS NULL AND e.id " + after + " :lastId)";
+            return cursor.descending() ? nulls : "(" + nulls + " OR " + property + " IS NOT NULL)";
+        }
+        String seek = property + " " + after + " :lastValue OR (" + property + " = :lastValue AND e.id "
+                + after + " :lastId)";
+        if (cursor.key().isNullable() && cursor.descending()) {
+            seek += " OR " + property + " IS NULL";
+        }
+        return "(" + seek + ")";
+    }
+}
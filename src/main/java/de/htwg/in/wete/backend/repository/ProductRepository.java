@@ -1,6 +1,7 @@
 package de.htwg.in.wete.backend.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import de.htwg.in.wete.backend.model.Category;
@@ -16,6 +17,16 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByTitleContainingIgnoreCase(String name);
     
     List<Product> findByTitleContainingIgnoreCaseAndCategory(String name, Category category);
+
+    // Nur ID, Titel und Kategorie aller Produkte (Aufbau des Titel-Index)
+    @Query("SELECT p.id AS id, p.title AS title, p.category AS category FROM Product p")
+    List<TitleView> findAllTitles();
+
+    interface TitleView {
+        Long getId();
+        String getTitle();
+        Category getCategory();
+    }
 }
 
 // Iteration 8: 3 neue Suchmethoden
\ No newline at end of file
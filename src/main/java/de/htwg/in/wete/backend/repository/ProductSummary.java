@@ -0,0 +1,26 @@
+package de.htwg.in.wete.backend.repository;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import de.htwg.in.wete.backend.model.Category;
+
+/**
+ * Schlanke Sicht auf ein Produkt für Listen: ohne Beschreibung, Zutaten und
+ * Rezepte, dafür mit der Anzahl Rezepte. Wird im Katalog-Snapshot aus den
+ * Produkten gebaut.
+ *
+ * @param priceOrNull Preis wie in der Datenbank (null = nicht angegeben),
+ *                    Sortierwert der Keyset-Pagination
+ */
+@JsonPropertyOrder({"id", "title", "category", "price", "imageUrl", "recipeCount"})
+public record ProductSummary(Long id, String title, Category category, @JsonIgnore Double priceOrNull,
+        String imageUrl, long recipeCount) {
+
+    /** Preis wie {@code Product#getPrice()}: 0.0, wenn nicht angegeben */
+    @JsonProperty("price")
+    public double price() {
+        return priceOrNull != null ? priceOrNull : 0.0;
+    }
+}
@@ -1,11 +1,28 @@
 package de.htwg.in.wete.backend.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import de.htwg.in.wete.backend.model.Recipe;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface RecipeRepository extends JpaRepository<Recipe, Long> {
     List<Recipe> findByProductId(Long productId);
+
+    // Nur ID, Titel und Produkt-ID aller Rezepte (Aufbau der Autovervollständigung)
+    @Query("SELECT r.id AS id, r.title AS title, r.product.id AS productId FROM Recipe r")
+    List<TitleView> findAllTitles();
+
+    // Welche der IDs gibt es? (eine IN-Query für Batch-Operationen)
+    @Query("SELECT r.id FROM Recipe r WHERE r.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    interface TitleView {
+        Long getId();
+        String getTitle();
+        Long getProductId();
+    }
 }
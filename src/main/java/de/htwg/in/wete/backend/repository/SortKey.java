@@ -0,0 +1,38 @@
+package de.htwg.in.wete.backend.repository;
+
+import java.util.function.Function;
+
+/**
+ * Erlaubte Sortierfelder für Keyset-Pagination. Die ID ist immer zusätzlicher
+ * Tie-Breaker, damit die Reihenfolge auch bei gleichen Werten stabil ist.
+ */
+public enum SortKey {
+    ID("id", false, Long::valueOf),
+    TITLE("title", false, value -> value),
+    PRICE("price", true, Double::valueOf);
+
+    private final String property;
+    private final boolean nullable;
+    private final Function<String, Object> parser;
+
+    SortKey(String property, boolean nullable, Function<String, Object> parser) {
+        this.property = property;
+        this.nullable = nullable;
+        this.parser = parser;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public boolean isNullable() {
+        return nullable;
+    }
+
+    /**
+     * Wandelt den im Cursor gespeicherten Wert zurück in den Typ des Felds.
+     */
+    Object parse(String value) {
+        return parser.apply(value);
+    }
+}
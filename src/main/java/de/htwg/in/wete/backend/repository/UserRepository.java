@@ -1,13 +1,25 @@
 package de.htwg.in.wete.backend.repository;
 
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+
+import de.htwg.in.wete.backend.model.CacheRegions;
 import de.htwg.in.wete.backend.model.User;
+import jakarta.persistence.QueryHint;
 
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
+
+    // Häufigste User-Abfrage (jeder authentifizierte Request) -> Query-Cache
+    @QueryHints({
+        @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = CacheRegions.USER_BY_OAUTH_ID)
+    })
     Optional<User> findByOauthId(String oauthId);
+
     Optional<User> findByEmail(String email);
-}
\ No newline at end of file
+}
@@ -0,0 +1,31 @@
+package de.htwg.in.wete.backend.repository;
+
+import de.htwg.in.wete.backend.model.User;
+
+/**
+ * Zusätzliche User-Abfragen, die nicht als abgeleitete Query abbildbar sind.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Eine Seite User in Keyset-Reihenfolge (nur nach ID sortierbar).
+     */
+    KeysetPage<User> findPage(KeysetCursor cursor, int limit);
+
+    /**
+     * Legt den (neuen, noch nicht persistierten) User beim ersten Login mit
+     * einem einzigen Statement an oder verknüpft einen bestehenden: Gibt es die
+     * oauthId schon, passiert nichts. Gibt es einen User mit derselben Email
+     * (z.B. vom DataLoader angelegt), bekommt dieser die oauthId. Sonst wird
+     * der User mit Rolle REGULAR eingefügt. MERGE auf H2, INSERT ... ON
+     * DUPLICATE KEY UPDATE auf MariaDB/MySQL, andere Datenbanken nur INSERT
+     * (ohne Email-Verknüpfung).
+     *
+     * Parallele Aufrufe für dieselbe oauthId führen zu keiner Constraint-Verletzung.
+     * Der User wird nicht in den Persistence Context übernommen, der
+     * Second-Level-Cache für User wird nach der Transaktion invalidiert.
+     *
+     * @return ID des Users, dem die oauthId danach gehört (im User gesetzt, wenn neu eingefügt)
+     */
+    long insertOrLinkByOauthId(User user);
+}
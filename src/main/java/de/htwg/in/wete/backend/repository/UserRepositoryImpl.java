@@ -0,0 +1,135 @@
+package de.htwg.in.wete.backend.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+
+import org.hibernate.JDBCException;
+import org.hibernate.action.internal.BulkOperationCleanupAction;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.transaction.annotation.Transactional;
+
+import de.htwg.in.wete.backend.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+class UserRepositoryImpl implements UserRepositoryCustom {
+
+    // Ziel ist höchstens eine Zeile: die mit der oauthId, sonst der älteste User mit der Email
+    private static final String H2_UPSERT = "MERGE INTO app_user u "
+            + "USING (SELECT CAST(? AS BIGINT) AS id, CAST(? AS VARCHAR(255)) AS oauth_id, "
+            + "CAST(? AS VARCHAR(255)) AS email, CAST(? AS VARCHAR(255)) AS name, "
+            + "CAST(? AS VARCHAR(255)) AS role, "
+            + "COALESCE((SELECT x.id FROM app_user x WHERE x.oauth_id = ?), "
+            + "(SELECT MIN(x.id) FROM app_user x WHERE x.email = ?)) AS target_id) s "
+            + "ON u.id = s.target_id "
+            + "WHEN MATCHED AND u.oauth_id <> s.oauth_id THEN UPDATE SET oauth_id = s.oauth_id "
+            + "WHEN NOT MATCHED THEN INSERT (id, oauth_id, email, name, role) "
+            + "VALUES (s.id, s.oauth_id, s.email, s.name, s.role)";
+
+    // Email-Treffer kollidiert auf dem Primärschlüssel, vorhandene oauthId auf ihrem Unique-Index
+    private static final String MYSQL_UPSERT = "INSERT INTO app_user (id, oauth_id, email, name, role) "
+            + "SELECT COALESCE((SELECT MIN(x.id) FROM app_user x WHERE x.email = ?), ?), ?, ?, ?, ? FROM DUAL "
+            + "ON DUPLICATE KEY UPDATE oauth_id = VALUES(oauth_id)";
+
+    // Andere Datenbanken: einfaches INSERT, eine vorhandene oauthId meldet der Unique-Constraint
+    private static final String PLAIN_INSERT = "INSERT INTO app_user (id, oauth_id, email, name, role) "
+            + "VALUES (?, ?, ?, ?, ?)";
+
+    private static final String SELECT_ID = "SELECT id FROM app_user WHERE oauth_id = ?";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<User> findPage(KeysetCursor cursor, int limit) {
+        if (cursor.key() != SortKey.ID) {
+            throw new IllegalArgumentException("User sind nur nach ID sortierbar");
+        }
+        return KeysetQueries.find(entityManager, User.class, "", Map.of(), cursor, limit);
+    }
+
+    @Override
+    @Transactional
+    public long insertOrLinkByOauthId(User user) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(User.class);
+        // ID aus demselben Generator wie bei persist(); bei Verknüpfung bleibt sie ungenutzt
+        Long id = (Long) ((BeforeExecutionGenerator) persister.getGenerator())
+                .generate(session, user, null, EventType.INSERT);
+
+        Dialect dialect = session.getJdbcServices().getDialect();
+        String role = user.getRole().name();
+        if (dialect instanceof H2Dialect) {
+            execute(session, H2_UPSERT, id, user.getOauthId(), user.getEmail(), user.getName(), role,
+                    user.getOauthId(), user.getEmail());
+        } else if (dialect instanceof MySQLDialect) {
+            execute(session, MYSQL_UPSERT, user.getEmail(), id, user.getOauthId(), user.getEmail(),
+                    user.getName(), role);
+        } else {
+            execute(session, PLAIN_INSERT, id, user.getOauthId(), user.getEmail(), user.getName(), role);
+        }
+        // Natives SQL an Hibernate vorbei: User-Region und gecachte findByOauthId-Ergebnisse verwerfen
+        BulkOperationCleanupAction.schedule(session, persister);
+
+        Long resolved = selectId(session, user.getOauthId());
+        if (resolved == null) {
+            throw new IllegalStateException("User " + user.getOauthId() + " konnte nicht angelegt werden");
+        }
+        if (resolved.equals(id)) {
+            user.setId(id);
+        }
+        return resolved;
+    }
+
+    private static void execute(SharedSessionContractImplementor session, String sql, Object... parameters) {
+        JdbcCoordinator jdbc = session.getJdbcCoordinator();
+        PreparedStatement statement = jdbc.getStatementPreparer().prepareStatement(sql);
+        try {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            Dialect dialect = session.getJdbcServices().getDialect();
+            // Direkt über den Dialekt übersetzt: der erwartete Duplikat-Fall soll nicht als SQL-Fehler geloggt werden
+            JDBCException converted = dialect.buildSQLExceptionConversionDelegate()
+                    .convert(e, "User anlegen", sql);
+            // Paralleler erster Login auf einem anderen Knoten (H2 MERGE ist nicht atomar): der User existiert
+            if (converted instanceof ConstraintViolationException violation
+                    && violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE) {
+                return;
+            }
+            throw converted != null ? converted
+                    : session.getJdbcServices().getSqlExceptionHelper().convert(e, "User anlegen", sql);
+        } finally {
+            jdbc.getLogicalConnection().getResourceRegistry().release(statement);
+            jdbc.afterStatementExecution();
+        }
+    }
+
+    private static Long selectId(SharedSessionContractImplementor session, String oauthId) {
+        JdbcCoordinator jdbc = session.getJdbcCoordinator();
+        PreparedStatement statement = jdbc.getStatementPreparer().prepareStatement(SELECT_ID);
+        try {
+            statement.setString(1, oauthId);
+            ResultSet resultSet = jdbc.getResultSetReturn().extract(statement, SELECT_ID);
+            return resultSet.next() ? resultSet.getLong(1) : null;
+        } catch (SQLException e) {
+            throw session.getJdbcServices().getSqlExceptionHelper().convert(e, "User-ID lesen", SELECT_ID);
+        } finally {
+            jdbc.getLogicalConnection().getResourceRegistry().release(statement);
+            jdbc.afterStatementExecution();
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package de.htwg.in.wete.backend.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.util.HtmlUtils;
+
+import de.htwg.in.wete.backend.model.Product;
+import de.htwg.in.wete.backend.model.Recipe;
+import de.htwg.in.wete.backend.repository.ProductRepository;
+import de.htwg.in.wete.backend.repository.RecipeRepository;
+import de.htwg.in.wete.backend.service.CatalogChangedEvent;
+
+/**
+ * Eingebetteter invertierter Index über Produkte (Titel, Beschreibung, Zutaten)
+ * und Rezepte (Titel, Text) mit BM25-Ranking.
+ *
+ * Texte werden mit dem {@link GermanAnalyzer} zerlegt, Titel zählen
+ * {@value #TITLE_WEIGHT}-fach. Der Index wird nach dem Start im Hintergrund
+ * aufgebaut und danach über {@link CatalogChangedEvent}s inkrementell
+ * gepflegt; Änderungen während eines Neuaufbaus werden nachgezogen.
+ */
+@Service
+public class FullTextIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FullTextIndex.class);
+
+    // Übliche BM25-Parameter
+    static final double K1 = 1.2;
+    static final double B = 0.75;
+    static final int TITLE_WEIGHT = 3;
+
+    private static final int SNIPPET_LENGTH = 160;
+    private static final int SNIPPET_LEAD = 40;
+
+    public enum DocType {
+        PRODUCT, RECIPE
+    }
+
+    public record DocKey(DocType type, long id) {
+    }
+
+    /** Ein Treffer mit BM25-Score (noch ohne Snippet) */
+    public record ScoredDoc(DocKey key, double score) {
+    }
+
+    private final ProductRepository productRepository;
+    private final RecipeRepository recipeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor taskExecutor;
+
+    // Leser teilen sich die Lesesperre, Änderungen (selten) sind exklusiv
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private Postings postings = new Postings();
+    private boolean rebuilding;
+    private final List<CatalogChangedEvent> pending = new ArrayList<>();
+    private volatile boolean ready;
+
+    public FullTextIndex(ProductRepository productRepository, RecipeRepository recipeRepository,
+            TransactionTemplate transactionTemplate,
+            @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+        this.productRepository = productRepository;
+        this.recipeRepository = recipeRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.taskExecutor = taskExecutor;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Die besten {@code limit} Dokumente zur Anfrage, absteigend nach Score.
+     * {@code type} null sucht in Produkten und Rezepten.
+     */
+    public List<ScoredDoc> search(String query, DocType type, int limit) {
+        Set<String> terms = new LinkedHashSet<>(GermanAnalyzer.terms(query));
+        lock.readLock().lock();
+        try {
+            return postings.search(terms, type, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Baut den Treffer zu {@code key} mit hervorgehobenem Snippet, null wenn das
+     * Dokument inzwischen gelöscht wurde.
+     */
+    public SearchHit hit(ScoredDoc scored, Set<String> queryTerms) {
+        lock.readLock().lock();
+        try {
+            Doc doc = postings.docs.get(scored.key());
+            if (doc == null) {
+                return null;
+            }
+            return new SearchHit(scored.key().type().name().toLowerCase(Locale.ROOT), scored.key().id(), doc.title,
+                    doc.productId, scored.score(), snippet(doc, queryTerms));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildAsync() {
+        taskExecutor.execute(this::rebuild);
+    }
+
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                rebuilding = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            long start = System.nanoTime();
+            Postings fresh = transactionTemplate.execute(status -> {
+                Postings building = new Postings();
+                productRepository.findAll().forEach(product -> building.put(Doc.of(product)));
+                recipeRepository.findAll().forEach(recipe -> building.put(Doc.of(recipe)));
+                return building;
+            });
+            lock.writeLock().lock();
+            try {
+                pending.forEach(fresh::apply);
+                pending.clear();
+                postings = fresh;
+                rebuilding = false;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            LOG.info("Full-text index built: {} documents, {} terms in {} ms", fresh.docs.size(),
+                    fresh.terms.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            LOG.warn("Full-text index rebuild failed", e);
+            lock.writeLock().lock();
+            try {
+                pending.clear();
+                rebuilding = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.isReload()) {
+            rebuildAsync();
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (rebuilding) {
+                pending.add(event);
+            } else {
+                postings.apply(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("ready", ready);
+            result.put("documents", postings.docs.size());
+            result.put("terms", postings.terms.size());
+            result.put("averageLength", postings.averageLength());
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ausschnitt um die erste Fundstelle im Feld mit den meisten Treffern,
+     * HTML-escaped, Treffer in {@code <mark>}.
+     */
+    static String snippet(Doc doc, Set<String> queryTerms) {
+        String best = null;
+        List<GermanAnalyzer.Token> bestMatches = List.of();
+        for (String field : doc.bodies.isEmpty() ? List.of(Objects.toString(doc.title, "")) : doc.bodies) {
+            List<GermanAnalyzer.Token> matches = GermanAnalyzer.tokens(field).stream()
+                    .filter(token -> token.term() != null && queryTerms.contains(token.term()))
+                    .toList();
+            if (best == null || matches.size() > bestMatches.size()) {
+                best = field;
+                bestMatches = matches;
+            }
+        }
+        if (best == null || best.isEmpty()) {
+            return "";
+        }
+
+        int from = bestMatches.isEmpty() ? 0 : Math.max(0, bestMatches.get(0).start() - SNIPPET_LEAD);
+        // Nicht mitten im Wort beginnen
+        while (from > 0 && !Character.isWhitespace(best.charAt(from - 1))) {
+            from--;
+        }
+        int to = Math.min(best.length(), from + SNIPPET_LENGTH);
+
+        StringBuilder snippet = new StringBuilder(SNIPPET_LENGTH + 32);
+        if (from > 0) {
+            snippet.append('…');
+        }
+        int position = from;
+        for (GermanAnalyzer.Token match : bestMatches) {
+            if (match.start() < from) {
+                continue;
+            }
+            if (match.end() > to) {
+                break;
+            }
+            snippet.append(escape(best.substring(position, match.start())))
+                    .append("<mark>")
+                    .append(escape(best.substring(match.start(), match.end())))
+                    .append("</mark>");
+            position = match.end();
+        }
+        snippet.append(escape(best.substring(position, to)));
+        if (to < best.length()) {
+            snippet.append('…');
+        }
+        return snippet.toString();
+    }
+
+    // Nur die HTML-Sonderzeichen escapen, Umlaute bleiben lesbar (Antwort ist UTF-8)
+    private static String escape(String text) {
+        return HtmlUtils.htmlEscape(text, StandardCharsets.UTF_8.name());
+    }
+
+    /**
+     * Ein indexiertes Dokument: Anzeigedaten, Texte für Snippets und Termhäufigkeiten.
+     */
+    static final class Doc {
+        final DocKey key;
+        final String title;
+        final Long productId;
+        final List<String> bodies;
+        final Map<String, Integer> termFrequencies = new HashMap<>();
+        int length;
+
+        Doc(DocKey key, String title, Long productId, List<String> bodies) {
+            this.key = key;
+            this.title = title;
+            this.productId = productId;
+            this.bodies = bodies;
+            for (String term : GermanAnalyzer.terms(title)) {
+                termFrequencies.merge(term, TITLE_WEIGHT, Integer::sum);
+                length += TITLE_WEIGHT;
+            }
+            for (String body : bodies) {
+                for (String term : GermanAnalyzer.terms(body)) {
+                    termFrequencies.merge(term, 1, Integer::sum);
+                    length++;
+                }
+            }
+        }
+
+        static Doc of(Product product) {
+            List<String> bodies = new ArrayList<>(2);
+            addIfPresent(bodies, product.getDescription());
+            addIfPresent(bodies, product.getIngredients());
+            return new Doc(new DocKey(DocType.PRODUCT, product.getId()), product.getTitle(), product.getId(), bodies);
+        }
+
+        static Doc of(Recipe recipe) {
+            List<String> bodies = new ArrayList<>(1);
+            addIfPresent(bodies, recipe.getText());
+            Long productId = recipe.getProduct() == null ? null : recipe.getProduct().getId();
+            return new Doc(new DocKey(DocType.RECIPE, recipe.getId()), recipe.getTitle(), productId, bodies);
+        }
+
+        private static void addIfPresent(List<String> bodies, String text) {
+            if (text != null && !text.isBlank()) {
+                bodies.add(text);
+            }
+        }
+    }
+
+    /**
+     * Dokumente plus invertierte Listen (Term -> Dokument -> Häufigkeit).
+     * Nicht threadsicher, Zugriff nur unter der Sperre des Index.
+     */
+    private static final class Postings {
+        final Map<DocKey, Doc> docs = new HashMap<>();
+        final Map<String, Map<DocKey, Integer>> terms = new HashMap<>();
+        long totalLength;
+
+        void apply(CatalogChangedEvent event) {
+            boolean deleted = event.change() == CatalogChangedEvent.Change.DELETED;
+            if (event.product() != null && event.product().getId() != null) {
+                Product product = event.product();
+                if (deleted) {
+                    remove(new DocKey(DocType.PRODUCT, product.getId()));
+                } else {
+                    put(Doc.of(product));
+                }
+            } else if (event.recipe() != null && event.recipe().getId() != null) {
+                Recipe recipe = event.recipe();
+                if (deleted) {
+                    remove(new DocKey(DocType.RECIPE, recipe.getId()));
+                } else {
+                    put(Doc.of(recipe));
+                }
+            }
+        }
+
+        void put(Doc doc) {
+            remove(doc.key);
+            docs.put(doc.key, doc);
+            totalLength += doc.length;
+            doc.termFrequencies.forEach((term, frequency) ->
+                    terms.computeIfAbsent(term, t -> new HashMap<>()).put(doc.key, frequency));
+        }
+
+        void remove(DocKey key) {
+            Doc old = docs.remove(key);
+            if (old == null) {
+                return;
+            }
+            totalLength -= old.length;
+            for (String term : old.termFrequencies.keySet()) {
+                Map<DocKey, Integer> list = terms.get(term);
+                if (list != null) {
+                    list.remove(key);
+                    if (list.isEmpty()) {
+                        terms.remove(term);
+                    }
+                }
+            }
+        }
+
+        double averageLength() {
+            return docs.isEmpty() ? 0 : (double) totalLength / docs.size();
+        }
+
+        List<ScoredDoc> search(Set<String> queryTerms, DocType type, int limit) {
+            int documentCount = docs.size();
+            double averageLength = Math.max(1, averageLength());
+            Map<DocKey, Double> scores = new HashMap<>();
+            for (String term : queryTerms) {
+                Map<DocKey, Integer> list = terms.get(term);
+                if (list == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (documentCount - list.size() + 0.5) / (list.size() + 0.5));
+                list.forEach((key, frequency) -> {
+                    if (type != null && key.type() != type) {
+                        return;
+                    }
+                    double norm = K1 * (1 - B + B * docs.get(key).length / averageLength);
+                    double score = idf * frequency * (K1 + 1) / (frequency + norm);
+                    scores.merge(key, score, Double::sum);
+                });
+            }
+
+            // Top-K über einen Min-Heap statt alles zu sortieren
+            Comparator<ScoredDoc> order = Comparator.comparingDouble(ScoredDoc::score)
+                    .thenComparing(scored -> -scored.key().id());
+            PriorityQueue<ScoredDoc> heap = new PriorityQueue<>(order);
+            scores.forEach((key, score) -> {
+                heap.add(new ScoredDoc(key, score));
+                if (heap.size() > limit) {
+                    heap.poll();
+                }
+            });
+            List<ScoredDoc> result = new ArrayList<>(heap);
+            result.sort(order.reversed());
+            return result;
+        }
+    }
+}
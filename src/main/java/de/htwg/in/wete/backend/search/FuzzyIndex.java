@@ -0,0 +1,264 @@
+package de.htwg.in.wete.backend.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import de.htwg.in.wete.backend.model.Category;
+import de.htwg.in.wete.backend.model.Product;
+import de.htwg.in.wete.backend.model.Recipe;
+import de.htwg.in.wete.backend.repository.ProductRepository;
+import de.htwg.in.wete.backend.repository.RecipeRepository;
+import de.htwg.in.wete.backend.service.CatalogChangedEvent;
+
+/**
+ * Tippfehler-tolerante Suche über Produkttitel, Zutaten und Rezepttitel.
+ *
+ * Alle Wörter werden mit {@link GermanAnalyzer#normalize(String)} vereinheitlicht
+ * ("Käse" = "Kaese" = "kase") und in ein {@link SymSpellDictionary} mit
+ * Edit-Distanz 2 übernommen. Zu jedem Wort ist bekannt, in welchen Produkten es
+ * vorkommt. Damit liefert der Index
+ * <ul>
+ * <li>Produkte, deren Titel oder Zutaten zu allen Suchwörtern ein ähnliches Wort
+ * enthalten (Fallback von GET /api/product?name= ohne exakten Treffer) und</li>
+ * <li>"Meinten Sie ..."-Vorschläge für /api/search.</li>
+ * </ul>
+ * Aufbau wie beim {@link SuggestIndex}: im Hintergrund nach Katalogänderungen,
+ * danach atomarer Austausch.
+ */
+@Service
+public class FuzzyIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FuzzyIndex.class);
+
+    static final int MAX_DISTANCE = 2;
+    static final int PREFIX_LENGTH = 7;
+    private static final int MAX_DID_YOU_MEAN = 3;
+
+    private final ProductRepository productRepository;
+    private final RecipeRepository recipeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor taskExecutor;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile long lastRebuildMillis = -1;
+
+    public FuzzyIndex(ProductRepository productRepository, RecipeRepository recipeRepository,
+            TransactionTemplate transactionTemplate,
+            @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+        this.productRepository = productRepository;
+        this.recipeRepository = recipeRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * Erlaubte Edit-Distanz je nach Wortlänge: kurze Wörter sonst zu mehrdeutig.
+     */
+    static int allowedDistance(String word) {
+        if (word.length() <= 2) {
+            return 0;
+        }
+        return word.length() <= 4 ? 1 : MAX_DISTANCE;
+    }
+
+    /**
+     * IDs (aufsteigend) der Produkte, die zu jedem Suchwort ein ähnliches Wort
+     * in Titel oder Zutaten haben, optional nur in {@code category}. Je Suchwort
+     * zählen nur die Wörter mit der kleinsten gefundenen Distanz.
+     */
+    public List<Long> productIds(String query, Category category) {
+        Snapshot current = snapshot;
+        List<String> words = GermanAnalyzer.words(query);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        Roaring64Bitmap result = null;
+        for (String word : words) {
+            Roaring64Bitmap matching = new Roaring64Bitmap();
+            List<SymSpellDictionary.Match> matches = current.dictionary.lookup(word, allowedDistance(word));
+            for (SymSpellDictionary.Match match : matches) {
+                if (match.distance() > matches.get(0).distance()) {
+                    // Nur die nächstgelegenen Wörter, sonst wird "salmi" auch zu "salz"
+                    break;
+                }
+                Roaring64Bitmap products = current.productsByTerm.get(match.term());
+                if (products != null) {
+                    matching.or(products);
+                }
+            }
+            if (result == null) {
+                result = matching;
+            } else {
+                result.and(matching);
+            }
+            if (result.isEmpty()) {
+                return List.of();
+            }
+        }
+        List<Long> ids = new ArrayList<>();
+        LongIterator iterator = result.getLongIterator();
+        while (iterator.hasNext()) {
+            long id = iterator.next();
+            if (category == null || current.categories.get(id) == category) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Korrigierte Schreibweisen der Anfrage ("Meinten Sie ..."), leer wenn
+     * alle Wörter bekannt sind oder es keine Korrektur gibt. Die erste
+     * Variante nimmt für jedes Wort die beste Korrektur.
+     */
+    public List<String> didYouMean(String query) {
+        Snapshot current = snapshot;
+        List<String> words = GermanAnalyzer.words(query);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        List<List<SymSpellDictionary.Match>> corrections = new ArrayList<>(words.size());
+        boolean changed = false;
+        for (String word : words) {
+            List<SymSpellDictionary.Match> matches = current.dictionary.lookup(word, allowedDistance(word));
+            if (matches.isEmpty()) {
+                return List.of();
+            }
+            corrections.add(matches);
+            changed |= matches.get(0).distance() > 0;
+        }
+        if (!changed) {
+            return List.of();
+        }
+
+        // Beste Variante plus Alternativen für das erste unsichere Wort
+        List<String> variants = new ArrayList<>();
+        int uncertain = 0;
+        while (uncertain < words.size() && corrections.get(uncertain).get(0).distance() == 0) {
+            uncertain++;
+        }
+        List<SymSpellDictionary.Match> alternatives = corrections.get(uncertain);
+        for (int a = 0; a < alternatives.size() && variants.size() < MAX_DID_YOU_MEAN; a++) {
+            StringJoiner variant = new StringJoiner(" ");
+            for (int i = 0; i < words.size(); i++) {
+                String term = i == uncertain ? alternatives.get(a).term() : corrections.get(i).get(0).term();
+                variant.add(current.spelling(term));
+            }
+            variants.add(variant.toString());
+        }
+        return variants;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void requestRebuild() {
+        if (rebuildQueued.compareAndSet(false, true)) {
+            taskExecutor.execute(() -> {
+                rebuildQueued.set(false);
+                rebuild();
+            });
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        requestRebuild();
+    }
+
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            long start = System.nanoTime();
+            Snapshot fresh = transactionTemplate.execute(status -> {
+                Map<String, Long> frequencies = new HashMap<>();
+                Map<String, String> spellings = new HashMap<>();
+                Map<String, Roaring64Bitmap> productsByTerm = new HashMap<>();
+                Map<Long, Category> categories = new HashMap<>();
+                for (Product product : productRepository.findAll()) {
+                    categories.put(product.getId(), product.getCategory());
+                    List<String> words = new ArrayList<>();
+                    collectWords(product.getTitle(), words, spellings);
+                    collectWords(product.getIngredients(), words, spellings);
+                    for (String word : words) {
+                        frequencies.merge(word, 1L, Long::sum);
+                        productsByTerm.computeIfAbsent(word, w -> new Roaring64Bitmap()).addLong(product.getId());
+                    }
+                }
+                for (Recipe recipe : recipeRepository.findAll()) {
+                    List<String> words = new ArrayList<>();
+                    collectWords(recipe.getTitle(), words, spellings);
+                    for (String word : words) {
+                        frequencies.merge(word, 1L, Long::sum);
+                    }
+                }
+                productsByTerm.values().forEach(Roaring64Bitmap::runOptimize);
+                return new Snapshot(SymSpellDictionary.build(frequencies, MAX_DISTANCE, PREFIX_LENGTH),
+                        spellings, productsByTerm, categories);
+            });
+            snapshot = fresh;
+            lastRebuildMillis = (System.nanoTime() - start) / 1_000_000;
+            LOG.info("Fuzzy index built: {} terms, {} deletes in {} ms", fresh.dictionary.size(),
+                    fresh.dictionary.deleteCount(), lastRebuildMillis);
+        } catch (RuntimeException e) {
+            LOG.warn("Fuzzy index rebuild failed, keeping previous index", e);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Normalisierte Wörter des Texts; merkt sich zu jedem Wort die erste
+     * Originalschreibung (klein, mit Umlauten) für die Anzeige.
+     */
+    private static void collectWords(String text, List<String> words, Map<String, String> spellings) {
+        for (GermanAnalyzer.Token token : GermanAnalyzer.tokens(text)) {
+            if (token.term() == null) {
+                continue;
+            }
+            String spelling = text.substring(token.start(), token.end()).toLowerCase(Locale.GERMAN);
+            String word = GermanAnalyzer.normalize(spelling);
+            spellings.putIfAbsent(word, spelling);
+            words.add(word);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Snapshot current = snapshot;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("terms", current.dictionary.size());
+        result.put("deletes", current.dictionary.deleteCount());
+        result.put("products", current.categories.size());
+        result.put("lastRebuildMillis", lastRebuildMillis);
+        return result;
+    }
+
+    private record Snapshot(SymSpellDictionary dictionary, Map<String, String> spellings,
+            Map<String, Roaring64Bitmap> productsByTerm, Map<Long, Category> categories) {
+
+        static final Snapshot EMPTY = new Snapshot(SymSpellDictionary.EMPTY, Map.of(), Map.of(), Map.of());
+
+        String spelling(String term) {
+            return spellings.getOrDefault(term, term);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package de.htwg.in.wete.backend.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Zerlegt deutschen Text in Suchterme: Wörter klein schreiben, Umlaute und ß
+ * falten (ä -> a, ß -> ss), Stoppwörter entfernen und mit einem leichten
+ * Stemmer (angelehnt an CISTEM) auf ihren Stamm kürzen.
+ *
+ * Beispiel: "Käse-Brötchen mit Tomaten" -> [kas, brotch, toma]
+ */
+public final class GermanAnalyzer {
+
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "aber", "alle", "als", "am", "an", "auch", "auf", "aus", "bei", "bis", "da", "das",
+            "dass", "dem", "den", "der", "des", "die", "dies", "diese", "dieser", "doch", "du",
+            "ein", "eine", "einem", "einen", "einer", "eines", "er", "es", "fur", "hat", "im",
+            "in", "ist", "ja", "je", "man", "mit", "nach", "nicht", "noch", "nur", "oder", "ohne",
+            "sich", "sie", "sind", "so", "um", "und", "uber", "unter", "vom", "von", "vor", "war",
+            "was", "wie", "wir", "wird", "zu", "zum", "zur");
+
+    private GermanAnalyzer() {
+    }
+
+    /**
+     * Ein Wort des Originaltexts mit seiner Position und dem daraus gebildeten Term.
+     * {@code term} ist null für Stoppwörter.
+     */
+    public record Token(String term, int start, int end) {
+    }
+
+    /**
+     * Alle Terme des Texts in Reihenfolge (ohne Stoppwörter).
+     */
+    public static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        for (Token token : tokens(text)) {
+            if (token.term() != null) {
+                terms.add(token.term());
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Alle Wörter des Texts mit Offsets (für das Hervorheben in Snippets).
+     */
+    public static List<Token> tokens(String text) {
+        List<Token> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        Matcher matcher = WORD.matcher(text);
+        while (matcher.find()) {
+            String word = fold(matcher.group());
+            String term = STOPWORDS.contains(word) ? null : stem(word);
+            tokens.add(new Token(term, matcher.start(), matcher.end()));
+        }
+        return tokens;
+    }
+
+    /**
+     * Kleinschreibung plus Faltung von Umlauten und ß.
+     */
+    public static String fold(String word) {
+        String lower = word.toLowerCase(Locale.GERMAN);
+        StringBuilder folded = new StringBuilder(lower.length());
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            switch (c) {
+                case 'ä' -> folded.append('a');
+                case 'ö' -> folded.append('o');
+                case 'ü' -> folded.append('u');
+                case 'ß' -> folded.append("ss");
+                default -> folded.append(c);
+            }
+        }
+        return folded.toString();
+    }
+
+    /**
+     * Wie {@link #fold(String)}, zusätzlich werden die Ersatzschreibungen ae, oe
+     * und ue (nicht nach q) auf den Vokal reduziert. "Käse", "Kaese" und "kase"
+     * ergeben so alle "kase" - passend zu Category.KAESE / "Käse".
+     */
+    public static String normalize(String word) {
+        String folded = fold(word);
+        StringBuilder normalized = new StringBuilder(folded.length());
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (c == 'e' && i > 0) {
+                char previous = folded.charAt(i - 1);
+                boolean digraph = previous == 'a' || previous == 'o'
+                        || (previous == 'u' && (i < 2 || folded.charAt(i - 2) != 'q'));
+                if (digraph) {
+                    continue;
+                }
+            }
+            normalized.append(c);
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Alle Wörter des Texts normalisiert ({@link #normalize(String)}), ohne Stoppwörter
+     * und ohne Stemming - Grundlage der Tippfehler-Toleranz.
+     */
+    public static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return words;
+        }
+        Matcher matcher = WORD.matcher(text);
+        while (matcher.find()) {
+            String word = fold(matcher.group());
+            if (!STOPWORDS.contains(word)) {
+                words.add(normalize(word));
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Kürzt typische Flexionsendungen ab, solange mehr als drei Zeichen übrig bleiben.
+     */
+    static String stem(String word) {
+        String stem = word;
+        while (stem.length() > 3) {
+            if (stem.length() > 5 && (stem.endsWith("em") || stem.endsWith("er") || stem.endsWith("nd"))) {
+                stem = stem.substring(0, stem.length() - 2);
+            } else if (stem.endsWith("e") || stem.endsWith("s") || stem.endsWith("n") || stem.endsWith("t")) {
+                stem = stem.substring(0, stem.length() - 1);
+            } else {
+                break;
+            }
+        }
+        return stem;
+    }
+}
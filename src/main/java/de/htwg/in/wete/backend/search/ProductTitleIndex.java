@@ -0,0 +1,333 @@
+package de.htwg.in.wete.backend.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import de.htwg.in.wete.backend.model.Category;
+import de.htwg.in.wete.backend.model.Product;
+import de.htwg.in.wete.backend.repository.ProductRepository;
+import de.htwg.in.wete.backend.service.CatalogChangedEvent;
+
+/**
+ * In-Memory N-Gramm-Index über Product.title, partitioniert nach Kategorie.
+ *
+ * Pro Kategorie wird jedes 1-, 2- und 3-Gramm der (kleingeschriebenen) Titel
+ * auf eine Bitmap der Produkt-IDs abgebildet. Suchbegriffe bis 3 Zeichen sind
+ * damit ein einziger Lookup, längere Begriffe die Schnittmenge ihrer Trigramme
+ * mit anschließender Prüfung auf den echten Teilstring. Das ersetzt das
+ * {@code LIKE '%x%'} von findByTitleContainingIgnoreCase(AndCategory).
+ *
+ * Der Index wird nach dem Start (und nach {@link CatalogChangedEvent#reloaded()})
+ * im Hintergrund aufgebaut und danach über Produkt-Events inkrementell
+ * gepflegt. Solange er nicht bereit ist, liefert {@link #search} nichts und
+ * der Aufrufer fragt die Datenbank.
+ */
+@Service
+public class ProductTitleIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductTitleIndex.class);
+
+    static final int MAX_GRAM = 3;
+
+    private final ProductRepository productRepository;
+    private final TaskExecutor taskExecutor;
+
+    private volatile Index index;
+    private volatile boolean ready;
+
+    // Schützt rebuilding/pending; Änderungen sind selten, Leser sperren nie
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // Serialisiert komplette Neuaufbauten
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private boolean rebuilding;
+    private final List<Product> pending = new ArrayList<>();
+    private final List<Long> pendingRemovals = new ArrayList<>();
+
+    private final LongAdder queries = new LongAdder();
+    private volatile long lastRebuildMillis = -1;
+
+    public ProductTitleIndex(ProductRepository productRepository,
+            @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+        this.productRepository = productRepository;
+        this.taskExecutor = taskExecutor;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * IDs (aufsteigend) aller Produkte, deren Titel {@code name} enthält
+     * (Groß-/Kleinschreibung egal), optional nur in {@code category}.
+     * Leer, solange der Index nicht bereit ist.
+     */
+    public Optional<List<Long>> search(String name, Category category) {
+        Index current = index;
+        if (!ready || current == null) {
+            return Optional.empty();
+        }
+        queries.increment();
+        return Optional.of(current.search(normalize(name), category));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildAsync() {
+        taskExecutor.execute(this::rebuild);
+    }
+
+    /**
+     * Baut den Index komplett aus der Datenbank neu auf. Änderungen, die
+     * währenddessen eintreffen, werden gesammelt und danach nachgezogen.
+     */
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            setRebuilding();
+            long start = System.nanoTime();
+            Index fresh = Index.build(productRepository.findAllTitles());
+            writeLock.lock();
+            try {
+                pendingRemovals.forEach(fresh::remove);
+                pending.forEach(fresh::put);
+                pendingRemovals.clear();
+                pending.clear();
+                index = fresh;
+                rebuilding = false;
+                ready = true;
+            } finally {
+                writeLock.unlock();
+            }
+            lastRebuildMillis = (System.nanoTime() - start) / 1_000_000;
+            LOG.info("Product title index built: {} products in {} ms", fresh.docs.size(), lastRebuildMillis);
+        } catch (RuntimeException e) {
+            LOG.warn("Product title index rebuild failed, falling back to database search", e);
+            writeLock.lock();
+            try {
+                pending.clear();
+                pendingRemovals.clear();
+                rebuilding = false;
+            } finally {
+                writeLock.unlock();
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.isReload()) {
+            rebuildAsync();
+            return;
+        }
+        Product product = event.product();
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        boolean removed = event.change() == CatalogChangedEvent.Change.DELETED;
+        writeLock.lock();
+        try {
+            if (rebuilding) {
+                // Löschen verwirft vorherige Änderungen desselben Produkts (IDs werden nicht wiederverwendet)
+                if (removed) {
+                    pendingRemovals.add(product.getId());
+                    pending.removeIf(p -> p.getId().equals(product.getId()));
+                } else {
+                    pending.add(product);
+                }
+            } else if (index != null) {
+                if (removed) {
+                    index.remove(product.getId());
+                } else {
+                    index.put(product);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Index current = index;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("ready", ready);
+        result.put("products", current == null ? 0 : current.docs.size());
+        result.put("grams", current == null ? 0 : current.gramCount());
+        result.put("queries", queries.sum());
+        result.put("lastRebuildMillis", lastRebuildMillis);
+        return result;
+    }
+
+    private void setRebuilding() {
+        writeLock.lock();
+        try {
+            rebuilding = true;
+            ready = false;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Alle unterschiedlichen Teilstrings der Länge 0 bis {@value #MAX_GRAM}. Das
+     * leere Gramm enthält jedes Produkt der Partition (für leere Suchbegriffe).
+     */
+    static Set<String> grams(String title) {
+        Set<String> grams = new LinkedHashSet<>();
+        grams.add("");
+        for (int length = 1; length <= MAX_GRAM; length++) {
+            for (int i = 0; i + length <= title.length(); i++) {
+                grams.add(title.substring(i, i + length));
+            }
+        }
+        return grams;
+    }
+
+    private record Doc(String title, Category category) {
+    }
+
+    /**
+     * Der eigentliche Index. Posting-Bitmaps werden bei Änderungen kopiert
+     * (Copy-on-Write), Leser sehen daher immer eine konsistente Bitmap.
+     */
+    private static final class Index {
+
+        final Map<Long, Doc> docs = new ConcurrentHashMap<>();
+        final Map<Category, Map<String, Roaring64Bitmap>> partitions = new EnumMap<>(Category.class);
+
+        Index() {
+            for (Category category : Category.values()) {
+                partitions.put(category, new ConcurrentHashMap<>());
+            }
+        }
+
+        static Index build(List<ProductRepository.TitleView> products) {
+            Map<Category, Map<String, Roaring64Bitmap>> building = new EnumMap<>(Category.class);
+            Index index = new Index();
+            for (ProductRepository.TitleView product : products) {
+                if (product.getCategory() == null) {
+                    continue;
+                }
+                String title = normalize(product.getTitle());
+                index.docs.put(product.getId(), new Doc(title, product.getCategory()));
+                Map<String, Roaring64Bitmap> partition =
+                        building.computeIfAbsent(product.getCategory(), c -> new HashMap<>());
+                for (String gram : grams(title)) {
+                    partition.computeIfAbsent(gram, g -> new Roaring64Bitmap()).addLong(product.getId());
+                }
+            }
+            building.forEach((category, postings) -> {
+                postings.values().forEach(Roaring64Bitmap::runOptimize);
+                index.partitions.get(category).putAll(postings);
+            });
+            return index;
+        }
+
+        void put(Product product) {
+            remove(product.getId());
+            if (product.getCategory() == null) {
+                return;
+            }
+            long id = product.getId();
+            String title = normalize(product.getTitle());
+            Map<String, Roaring64Bitmap> partition = partitions.get(product.getCategory());
+            for (String gram : grams(title)) {
+                partition.compute(gram, (g, current) -> {
+                    Roaring64Bitmap copy = current == null ? new Roaring64Bitmap() : current.clone();
+                    copy.addLong(id);
+                    return copy;
+                });
+            }
+            docs.put(id, new Doc(title, product.getCategory()));
+        }
+
+        void remove(Long id) {
+            Doc old = docs.remove(id);
+            if (old == null) {
+                return;
+            }
+            Map<String, Roaring64Bitmap> partition = partitions.get(old.category());
+            for (String gram : grams(old.title())) {
+                partition.computeIfPresent(gram, (g, current) -> {
+                    Roaring64Bitmap copy = current.clone();
+                    copy.removeLong(id);
+                    return copy.isEmpty() ? null : copy;
+                });
+            }
+        }
+
+        List<Long> search(String query, Category category) {
+            Roaring64Bitmap result = new Roaring64Bitmap();
+            if (category != null) {
+                result.or(searchPartition(partitions.get(category), query));
+            } else {
+                for (Map<String, Roaring64Bitmap> partition : partitions.values()) {
+                    result.or(searchPartition(partition, query));
+                }
+            }
+            List<Long> ids = new ArrayList<>((int) result.getLongCardinality());
+            LongIterator iterator = result.getLongIterator();
+            while (iterator.hasNext()) {
+                long id = iterator.next();
+                Doc doc = docs.get(id);
+                // Bei Trigramm-Schnittmengen (und laufenden Änderungen) den echten Titel prüfen
+                if (doc != null && doc.title().contains(query) && (category == null || doc.category() == category)) {
+                    ids.add(id);
+                }
+            }
+            return ids;
+        }
+
+        private static Roaring64Bitmap searchPartition(Map<String, Roaring64Bitmap> partition, String query) {
+            if (query.length() <= MAX_GRAM) {
+                Roaring64Bitmap postings = partition.get(query);
+                return postings == null ? new Roaring64Bitmap() : postings;
+            }
+            Roaring64Bitmap[] postings = new Roaring64Bitmap[query.length() - MAX_GRAM + 1];
+            for (int i = 0; i < postings.length; i++) {
+                postings[i] = partition.get(query.substring(i, i + MAX_GRAM));
+                if (postings[i] == null) {
+                    return new Roaring64Bitmap();
+                }
+            }
+            // Kleinste Liste zuerst, dann schrumpft die Schnittmenge am schnellsten
+            Arrays.sort(postings, (a, b) -> Long.compare(a.getLongCardinality(), b.getLongCardinality()));
+            Roaring64Bitmap candidates = postings[0].clone();
+            for (int i = 1; i < postings.length && !candidates.isEmpty(); i++) {
+                candidates.and(postings[i]);
+            }
+            return candidates;
+        }
+
+        long gramCount() {
+            return partitions.values().stream().mapToLong(Map::size).sum();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package de.htwg.in.wete.backend.search;
+
+/**
+ * Ein Treffer der Volltextsuche.
+ *
+ * @param type      "product" oder "recipe"
+ * @param id        ID des Produkts bzw. Rezepts
+ * @param title     Titel zur Anzeige
+ * @param productId zugehöriges Produkt (bei Rezepten, sonst die eigene ID)
+ * @param score     BM25-Score
+ * @param snippet   HTML-escaped Textausschnitt, Treffer in {@code <mark>}
+ */
+public record SearchHit(String type, long id, String title, Long productId, double score, String snippet) {
+}
@@ -0,0 +1,12 @@
+package de.htwg.in.wete.backend.search;
+
+import java.util.List;
+
+/**
+ * Eine Seite Suchergebnisse. {@code nextCursor} liefert die nächste Seite
+ * derselben Rangliste (null auf der letzten Seite). {@code didYouMean} enthält
+ * korrigierte Schreibweisen, wenn die Anfrage nichts gefunden hat.
+ */
+public record SearchPage(String query, int total, List<SearchHit> results, String nextCursor,
+        List<String> didYouMean) {
+}
@@ -0,0 +1,112 @@
+package de.htwg.in.wete.backend.search;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Volltextsuche mit Blättern über Cursor.
+ *
+ * Die erste Anfrage berechnet die Rangliste (höchstens {@code max-results}
+ * Treffer) einmal und legt sie unter einer zufälligen ID ab. Der Cursor
+ * verweist auf diese Rangliste plus Position; weitere Seiten werden nur noch
+ * herausgeschnitten und mit Snippets versehen, ohne die Suche neu auszuführen.
+ */
+@Service
+public class SearchService {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final FullTextIndex index;
+    private final FuzzyIndex fuzzyIndex;
+    private final int maxResults;
+    private final Cache<String, RankedResult> results;
+    private final SecureRandom random = new SecureRandom();
+
+    public SearchService(FullTextIndex index, FuzzyIndex fuzzyIndex,
+            @Value("${casellese.search.max-results:1000}") int maxResults,
+            @Value("${casellese.search.cursor-ttl-minutes:10}") long cursorTtlMinutes,
+            @Value("${casellese.search.max-cursors:10000}") long maxCursors) {
+        this.index = index;
+        this.fuzzyIndex = fuzzyIndex;
+        this.maxResults = maxResults;
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maxCursors)
+                .expireAfterAccess(cursorTtlMinutes, TimeUnit.MINUTES)
+                .build();
+    }
+
+    public boolean isReady() {
+        return index.isReady();
+    }
+
+    /**
+     * Führt die Suche aus und liefert die erste Seite. Ohne Treffer werden
+     * "Meinten Sie ..."-Vorschläge aus dem {@link FuzzyIndex} mitgeliefert.
+     */
+    public SearchPage search(String query, FullTextIndex.DocType type, int size) {
+        List<FullTextIndex.ScoredDoc> ranked = index.search(query, type, maxResults);
+        RankedResult result = new RankedResult(query, new LinkedHashSet<>(GermanAnalyzer.terms(query)), ranked);
+        String id = Long.toString(random.nextLong() & Long.MAX_VALUE, 36);
+        if (ranked.size() > size) {
+            // Nur merken, wenn es überhaupt eine zweite Seite gibt
+            results.put(id, result);
+        }
+        SearchPage page = page(id, result, 0, size);
+        if (ranked.isEmpty()) {
+            return new SearchPage(page.query(), 0, page.results(), null, fuzzyIndex.didYouMean(query));
+        }
+        return page;
+    }
+
+    /**
+     * Nächste Seite zu einem Cursor aus einer vorherigen Antwort,
+     * leer wenn der Cursor ungültig oder abgelaufen ist.
+     */
+    public Optional<SearchPage> next(String cursor) {
+        String[] parts = cursor.split("\\.");
+        if (parts.length != 3) {
+            return Optional.empty();
+        }
+        RankedResult result = results.getIfPresent(parts[0]);
+        if (result == null) {
+            return Optional.empty();
+        }
+        try {
+            int offset = Integer.parseInt(parts[1]);
+            int size = Integer.parseInt(parts[2]);
+            if (offset < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+                return Optional.empty();
+            }
+            return Optional.of(page(parts[0], result, offset, size));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    private SearchPage page(String id, RankedResult result, int offset, int size) {
+        int end = Math.min(result.ranked().size(), offset + size);
+        List<SearchHit> hits = new ArrayList<>(Math.max(0, end - offset));
+        for (int i = offset; i < end; i++) {
+            SearchHit hit = index.hit(result.ranked().get(i), result.terms());
+            if (hit != null) {
+                hits.add(hit);
+            }
+        }
+        String nextCursor = end < result.ranked().size() ? id + "." + end + "." + size : null;
+        return new SearchPage(result.query(), result.ranked().size(), hits, nextCursor, List.of());
+    }
+
+    private record RankedResult(String query, Set<String> terms, List<FullTextIndex.ScoredDoc> ranked) {
+    }
+}
@@ -0,0 +1,331 @@
+package de.htwg.in.wete.backend.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import de.htwg.in.wete.backend.repository.FavoriteRepository;
+import de.htwg.in.wete.backend.repository.ProductRepository;
+import de.htwg.in.wete.backend.repository.RecipeRepository;
+import de.htwg.in.wete.backend.service.CatalogChangedEvent;
+
+/**
+ * Autovervollständigung über Produkt- und Rezepttitel mit einem kompakten,
+ * unveränderlichen Präfix-Baum (Trie).
+ *
+ * Jeder Titel wird ab jedem Wortanfang eingefügt ("Caciocavallo Silano" ist
+ * über "cac..." und "sil..." auffindbar). Jeder Knoten kennt bereits seine
+ * besten {@code top-n} Vervollständigungen nach Popularität (Anzahl
+ * Favoriten), eine Anfrage ist daher nur ein Abstieg über die Zeichen des
+ * Präfixes und allokiert nichts außer der Ergebnisliste.
+ *
+ * Nach Katalogänderungen wird der Trie im Hintergrund neu gebaut und atomar
+ * ausgetauscht; mehrere Änderungen kurz hintereinander lösen nur einen
+ * Neuaufbau aus. Die Popularität ist die zum Zeitpunkt des Aufbaus.
+ */
+@Service
+public class SuggestIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SuggestIndex.class);
+
+    private final ProductRepository productRepository;
+    private final RecipeRepository recipeRepository;
+    private final FavoriteRepository favoriteRepository;
+    private final TaskExecutor taskExecutor;
+    private final int topN;
+    private final int maxDepth;
+
+    private volatile Trie trie = Trie.EMPTY;
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile long lastRebuildMillis = -1;
+
+    public SuggestIndex(ProductRepository productRepository, RecipeRepository recipeRepository,
+            FavoriteRepository favoriteRepository,
+            @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+            @Value("${casellese.suggest.top-n:10}") int topN,
+            @Value("${casellese.suggest.max-depth:32}") int maxDepth) {
+        this.productRepository = productRepository;
+        this.recipeRepository = recipeRepository;
+        this.favoriteRepository = favoriteRepository;
+        this.taskExecutor = taskExecutor;
+        this.topN = topN;
+        this.maxDepth = maxDepth;
+    }
+
+    public int topN() {
+        return topN;
+    }
+
+    /**
+     * Die besten {@code limit} Vervollständigungen für {@code prefix}
+     * (Groß-/Kleinschreibung und Umlaute egal).
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return trie.suggest(GermanAnalyzer.fold(prefix.strip()), Math.min(limit, topN));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void requestRebuild() {
+        // Höchstens ein Neuaufbau in der Warteschlange, weitere Änderungen fallen mit ihm zusammen
+        if (rebuildQueued.compareAndSet(false, true)) {
+            taskExecutor.execute(() -> {
+                // Ab hier lösen neue Änderungen wieder einen eigenen Neuaufbau aus
+                rebuildQueued.set(false);
+                rebuild();
+            });
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        requestRebuild();
+    }
+
+    /**
+     * Baut den Trie synchron neu auf und tauscht ihn aus.
+     */
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            long start = System.nanoTime();
+            Map<Long, Long> recipeFavorites = new HashMap<>();
+            favoriteRepository.countFavoritesPerRecipe()
+                    .forEach(count -> recipeFavorites.put(count.getRecipeId(), count.getFavorites()));
+
+            List<Entry> entries = new ArrayList<>();
+            Map<Long, Long> productFavorites = new HashMap<>();
+            for (RecipeRepository.TitleView recipe : recipeRepository.findAllTitles()) {
+                long favorites = recipeFavorites.getOrDefault(recipe.getId(), 0L);
+                entries.add(new Entry(new Suggestion("recipe", recipe.getId(), recipe.getTitle()), favorites));
+                if (recipe.getProductId() != null) {
+                    // Ein Produkt ist so beliebt wie seine Rezepte zusammen
+                    productFavorites.merge(recipe.getProductId(), favorites, Long::sum);
+                }
+            }
+            for (ProductRepository.TitleView product : productRepository.findAllTitles()) {
+                entries.add(new Entry(new Suggestion("product", product.getId(), product.getTitle()),
+                        productFavorites.getOrDefault(product.getId(), 0L)));
+            }
+
+            Trie fresh = Trie.build(entries, topN, maxDepth);
+            trie = fresh;
+            lastRebuildMillis = (System.nanoTime() - start) / 1_000_000;
+            LOG.info("Suggest trie built: {} titles, {} nodes in {} ms", entries.size(), fresh.nodeCount(),
+                    lastRebuildMillis);
+        } catch (RuntimeException e) {
+            LOG.warn("Suggest trie rebuild failed, keeping previous trie", e);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Trie current = trie;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("titles", current.suggestions.length);
+        result.put("nodes", current.nodeCount());
+        result.put("lastRebuildMillis", lastRebuildMillis);
+        return result;
+    }
+
+    private record Entry(Suggestion suggestion, long popularity) {
+    }
+
+    /**
+     * Unveränderlicher Trie in flachen Arrays. Die Kinder eines Knotens liegen
+     * zusammenhängend und nach Zeichen sortiert (binäre Suche), die Top-N eines
+     * Knotens als Indizes in {@code suggestions}.
+     */
+    static final class Trie {
+
+        static final Trie EMPTY = new Trie(new char[1], new int[1], new int[1], new int[2], new int[0],
+                new Suggestion[0], 0);
+
+        private final char[] label;
+        private final int[] firstChild;
+        private final int[] childCount;
+        // Top-N von Knoten i: topIds[topStart[i] .. topStart[i + 1])
+        private final int[] topStart;
+        private final int[] topIds;
+        private final Suggestion[] suggestions;
+        private final int maxDepth;
+
+        private Trie(char[] label, int[] firstChild, int[] childCount, int[] topStart, int[] topIds,
+                Suggestion[] suggestions, int maxDepth) {
+            this.label = label;
+            this.firstChild = firstChild;
+            this.childCount = childCount;
+            this.topStart = topStart;
+            this.topIds = topIds;
+            this.suggestions = suggestions;
+            this.maxDepth = maxDepth;
+        }
+
+        int nodeCount() {
+            return label.length;
+        }
+
+        List<Suggestion> suggest(String prefix, int limit) {
+            if (prefix.isEmpty() || limit <= 0) {
+                return List.of();
+            }
+            int depth = Math.min(prefix.length(), maxDepth);
+            int node = 0;
+            for (int i = 0; i < depth; i++) {
+                node = child(node, prefix.charAt(i));
+                if (node < 0) {
+                    return List.of();
+                }
+            }
+            int from = topStart[node];
+            int to = topStart[node + 1];
+            List<Suggestion> result = new ArrayList<>(Math.min(limit, to - from));
+            for (int i = from; i < to && result.size() < limit; i++) {
+                Suggestion suggestion = suggestions[topIds[i]];
+                // Präfixe länger als der Baum tief ist: Rest am Titel prüfen
+                if (depth == prefix.length() || GermanAnalyzer.fold(suggestion.title()).contains(prefix)) {
+                    result.add(suggestion);
+                }
+            }
+            return result;
+        }
+
+        private int child(int node, char c) {
+            int low = firstChild[node];
+            int high = low + childCount[node] - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char midLabel = label[mid];
+                if (midLabel < c) {
+                    low = mid + 1;
+                } else if (midLabel > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+
+        static Trie build(List<Entry> entries, int topN, int maxDepth) {
+            // Beliebteste zuerst: dann sind die ersten N Einträge eines Knotens seine Top-N
+            List<Entry> sorted = new ArrayList<>(entries);
+            sorted.sort(Comparator.comparingLong(Entry::popularity).reversed()
+                    .thenComparingInt(entry -> entry.suggestion().title().length())
+                    .thenComparing(entry -> entry.suggestion().title()));
+
+            Suggestion[] suggestions = new Suggestion[sorted.size()];
+            BuildNode root = new BuildNode();
+            for (int index = 0; index < sorted.size(); index++) {
+                Suggestion suggestion = sorted.get(index).suggestion();
+                suggestions[index] = suggestion;
+                String key = GermanAnalyzer.fold(suggestion.title());
+                for (int start = 0; start < key.length(); start++) {
+                    if (start == 0 || !Character.isLetterOrDigit(key.charAt(start - 1))) {
+                        if (Character.isLetterOrDigit(key.charAt(start))) {
+                            insert(root, key, start, index, topN, maxDepth);
+                        }
+                    }
+                }
+            }
+            return freeze(root, suggestions, maxDepth);
+        }
+
+        private static void insert(BuildNode root, String key, int start, int index, int topN, int maxDepth) {
+            BuildNode node = root;
+            int end = Math.min(key.length(), start + maxDepth);
+            for (int i = start; i < end; i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), c -> new BuildNode());
+                node.addTop(index, topN);
+            }
+        }
+
+        // Breitensuche, damit die Kinder jedes Knotens zusammenhängend liegen
+        private static Trie freeze(BuildNode root, Suggestion[] suggestions, int maxDepth) {
+            List<BuildNode> order = new ArrayList<>();
+            List<Character> labels = new ArrayList<>();
+            order.add(root);
+            labels.add('\0');
+            Deque<Integer> queue = new ArrayDeque<>();
+            queue.add(0);
+            int[] firstChildTmp = new int[16];
+            int[] childCountTmp = new int[16];
+            while (!queue.isEmpty()) {
+                int index = queue.poll();
+                BuildNode node = order.get(index);
+                if (index >= firstChildTmp.length) {
+                    firstChildTmp = Arrays.copyOf(firstChildTmp, firstChildTmp.length * 2);
+                    childCountTmp = Arrays.copyOf(childCountTmp, childCountTmp.length * 2);
+                }
+                firstChildTmp[index] = order.size();
+                childCountTmp[index] = node.children.size();
+                for (Map.Entry<Character, BuildNode> child : node.children.entrySet()) {
+                    queue.add(order.size());
+                    order.add(child.getValue());
+                    labels.add(child.getKey());
+                }
+            }
+
+            int nodes = order.size();
+            char[] label = new char[nodes];
+            int[] topStart = new int[nodes + 1];
+            int totalTop = 0;
+            for (int i = 0; i < nodes; i++) {
+                label[i] = labels.get(i);
+                topStart[i] = totalTop;
+                totalTop += order.get(i).topCount;
+            }
+            topStart[nodes] = totalTop;
+            int[] topIds = new int[totalTop];
+            for (int i = 0; i < nodes; i++) {
+                BuildNode node = order.get(i);
+                System.arraycopy(node.top, 0, topIds, topStart[i], node.topCount);
+            }
+            return new Trie(label, Arrays.copyOf(firstChildTmp, nodes), Arrays.copyOf(childCountTmp, nodes),
+                    topStart, topIds, suggestions, maxDepth);
+        }
+    }
+
+    private static final class BuildNode {
+        // TreeMap: Kinder sortiert nach Zeichen (für die binäre Suche)
+        final TreeMap<Character, BuildNode> children = new TreeMap<>();
+        int[] top = new int[2];
+        int topCount;
+
+        void addTop(int index, int topN) {
+            // Einträge kommen nach Rang sortiert; derselbe Titel kann über mehrere Wortanfänge kommen
+            if (topCount >= topN || (topCount > 0 && top[topCount - 1] == index)) {
+                return;
+            }
+            for (int i = 0; i < topCount; i++) {
+                if (top[i] == index) {
+                    return;
+                }
+            }
+            if (topCount == top.length) {
+                top = Arrays.copyOf(top, Math.min(topN, top.length * 2));
+            }
+            top[topCount++] = index;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package de.htwg.in.wete.backend.search;
+
+/**
+ * Ein Vorschlag der Autovervollständigung.
+ *
+ * @param type  "product" oder "recipe"
+ * @param id    ID des Produkts bzw. Rezepts
+ * @param title Titel zur Anzeige
+ */
+public record Suggestion(String type, long id, String title) {
+}
@@ -0,0 +1,182 @@
+package de.htwg.in.wete.backend.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Unveränderliches Wörterbuch für Tippfehler-Korrektur nach dem
+ * Symmetric-Delete-Verfahren (SymSpell).
+ *
+ * Beim Aufbau werden für jedes Wort alle Varianten mit bis zu
+ * {@code maxDistance} gelöschten Zeichen vorberechnet und auf das Wort
+ * abgebildet. Eine Abfrage erzeugt dieselben Löschvarianten für die Eingabe
+ * und schlägt sie nach - der Aufwand hängt nur von der Wortlänge ab, nicht von
+ * der Größe des Wörterbuchs. Kandidaten werden anschließend mit der echten
+ * Damerau-Levenshtein-Distanz geprüft.
+ *
+ * Wie in SymSpell werden Löschvarianten nur über die ersten
+ * {@code prefixLength} Zeichen gebildet; das spart den Großteil des Speichers.
+ */
+public final class SymSpellDictionary {
+
+    public static final SymSpellDictionary EMPTY = build(Map.of(), 2, 7);
+
+    /** Ein Wort aus dem Wörterbuch mit Distanz zur Eingabe und Häufigkeit */
+    public record Match(String term, int distance, long frequency) {
+    }
+
+    private static final Comparator<Match> BEST_FIRST = Comparator.comparingInt(Match::distance)
+            .thenComparing(Comparator.comparingLong(Match::frequency).reversed())
+            .thenComparing(Match::term);
+
+    private final String[] terms;
+    private final long[] frequencies;
+    private final Map<String, int[]> deletes;
+    private final int maxDistance;
+    private final int prefixLength;
+
+    private SymSpellDictionary(String[] terms, long[] frequencies, Map<String, int[]> deletes,
+            int maxDistance, int prefixLength) {
+        this.terms = terms;
+        this.frequencies = frequencies;
+        this.deletes = deletes;
+        this.maxDistance = maxDistance;
+        this.prefixLength = prefixLength;
+    }
+
+    /**
+     * @param termFrequencies normalisierte Wörter mit ihrer Häufigkeit
+     */
+    public static SymSpellDictionary build(Map<String, Long> termFrequencies, int maxDistance, int prefixLength) {
+        String[] terms = termFrequencies.keySet().toArray(String[]::new);
+        Arrays.sort(terms);
+        long[] frequencies = new long[terms.length];
+        Map<String, List<Integer>> building = new HashMap<>();
+        for (int id = 0; id < terms.length; id++) {
+            frequencies[id] = termFrequencies.get(terms[id]);
+            for (String delete : deletes(prefix(terms[id], prefixLength), maxDistance)) {
+                building.computeIfAbsent(delete, d -> new ArrayList<>(2)).add(id);
+            }
+        }
+        Map<String, int[]> deletes = new HashMap<>(building.size() * 4 / 3 + 1);
+        building.forEach((delete, ids) -> deletes.put(delete, ids.stream().mapToInt(Integer::intValue).toArray()));
+        return new SymSpellDictionary(terms, frequencies, deletes, maxDistance, prefixLength);
+    }
+
+    public int size() {
+        return terms.length;
+    }
+
+    public int deleteCount() {
+        return deletes.size();
+    }
+
+    public boolean contains(String term) {
+        return Arrays.binarySearch(terms, term) >= 0;
+    }
+
+    /**
+     * Alle Wörter mit höchstens {@code distance} Änderungen zu {@code word}
+     * (bereits normalisiert), beste zuerst.
+     */
+    public List<Match> lookup(String word, int distance) {
+        int limit = Math.min(distance, maxDistance);
+        List<Match> matches = new ArrayList<>();
+        if (word.isEmpty()) {
+            return matches;
+        }
+        Set<Integer> seen = new HashSet<>();
+        for (String delete : deletes(prefix(word, prefixLength), limit)) {
+            int[] candidates = this.deletes.get(delete);
+            if (candidates == null) {
+                continue;
+            }
+            for (int id : candidates) {
+                if (!seen.add(id)) {
+                    continue;
+                }
+                String term = terms[id];
+                if (Math.abs(term.length() - word.length()) > limit) {
+                    continue;
+                }
+                int actual = distance(word, term, limit);
+                if (actual <= limit) {
+                    matches.add(new Match(term, actual, frequencies[id]));
+                }
+            }
+        }
+        matches.sort(BEST_FIRST);
+        return matches;
+    }
+
+    private static String prefix(String word, int prefixLength) {
+        return word.length() > prefixLength ? word.substring(0, prefixLength) : word;
+    }
+
+    /**
+     * Das Wort selbst plus alle Varianten mit 1..maxDistance gelöschten Zeichen.
+     */
+    static Set<String> deletes(String word, int maxDistance) {
+        Set<String> result = new HashSet<>();
+        result.add(word);
+        List<String> current = List.of(word);
+        for (int d = 0; d < maxDistance; d++) {
+            List<String> next = new ArrayList<>();
+            for (String variant : current) {
+                for (int i = 0; i < variant.length(); i++) {
+                    String delete = variant.substring(0, i) + variant.substring(i + 1);
+                    if (result.add(delete)) {
+                        next.add(delete);
+                    }
+                }
+            }
+            current = next;
+        }
+        return result;
+    }
+
+    /**
+     * Damerau-Levenshtein-Distanz (benachbarte Vertauschungen zählen einfach),
+     * bricht ab sobald {@code limit} sicher überschritten ist (dann limit + 1).
+     */
+    static int distance(String a, String b, int limit) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > limit) {
+            return limit + 1;
+        }
+        int[] previousPrevious = new int[m + 1];
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= m; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previousPrevious[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] swap = previousPrevious;
+            previousPrevious = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[m];
+    }
+}
@@ -0,0 +1,53 @@
+package de.htwg.in.wete.backend.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+/**
+ * Laden von Cache-Einträgen im aufrufenden Thread, aber außerhalb der Sperre
+ * der Map.
+ *
+ * {@code Cache.get(key, loader)} führt den Loader innerhalb von
+ * {@code ConcurrentHashMap.compute} aus, also in einem
+ * {@code synchronized}-Block. Ein virtueller Thread, der dort auf die
+ * Datenbank wartet, blockiert seinen Carrier-Thread. Hier wird stattdessen
+ * ein unfertiges Future eingetragen und danach ohne Sperre geladen;
+ * gleichzeitige Aufrufer für denselben Key warten auf dieses Future
+ * (single-flight). Der Loader läuft weiter im Thread des Aufrufers und damit
+ * ggf. in dessen Transaktion und auf dessen Connection.
+ */
+final class CallerRunsLoads {
+
+    private CallerRunsLoads() {
+    }
+
+    static <K, V> V get(AsyncCache<K, V> cache, K key, Function<? super K, ? extends V> loader) {
+        CompletableFuture<V> current = cache.getIfPresent(key);
+        if (current == null) {
+            CompletableFuture<V> loading = new CompletableFuture<>();
+            current = cache.asMap().putIfAbsent(key, loading);
+            if (current == null) {
+                try {
+                    loading.complete(loader.apply(key));
+                } catch (RuntimeException | Error e) {
+                    // Fehlgeschlagene Futures entfernt Caffeine selbst
+                    loading.completeExceptionally(e);
+                    throw e;
+                }
+                // Während des Ladens eingetroffene Änderungen hängen am Future im Cache
+                current = cache.asMap().getOrDefault(key, loading);
+            }
+        }
+        try {
+            return current.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
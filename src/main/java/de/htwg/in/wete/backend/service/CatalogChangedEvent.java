@@ -0,0 +1,37 @@
+package de.htwg.in.wete.backend.service;
+
+import de.htwg.in.wete.backend.model.Product;
+import de.htwg.in.wete.backend.model.Recipe;
+
+/**
+ * Wird veröffentlicht, wenn sich der Katalog (Produkte oder Rezepte) geändert hat.
+ *
+ * {@code entity} ist das geänderte Product bzw. Recipe. Bei {@link Change#RELOADED}
+ * ist {@code entity} null und Listener müssen ihren kompletten Stand neu aufbauen
+ * (z.B. nach einem Bulk-Import).
+ */
+public record CatalogChangedEvent(Change change, Object entity) {
+
+    public enum Change {
+        CREATED,
+        UPDATED,
+        DELETED,
+        RELOADED
+    }
+
+    public static CatalogChangedEvent reloaded() {
+        return new CatalogChangedEvent(Change.RELOADED, null);
+    }
+
+    public boolean isReload() {
+        return change == Change.RELOADED;
+    }
+
+    public Product product() {
+        return entity instanceof Product product ? product : null;
+    }
+
+    public Recipe recipe() {
+        return entity instanceof Recipe recipe ? recipe : null;
+    }
+}
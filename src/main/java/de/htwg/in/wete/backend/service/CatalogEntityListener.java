@@ -0,0 +1,64 @@
+package de.htwg.in.wete.backend.service;
+
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA Entity-Listener für Product und Recipe.
+ *
+ * Jede Änderung am Katalog - egal ob über die Controller, den DataLoader oder
+ * direkt über ein Repository - wird als {@link CatalogChangedEvent} veröffentlicht.
+ * Listener reagieren mit @TransactionalEventListener erst nach dem Commit.
+ *
+ * Bulk-Operationen können die Einzel-Events mit {@link #withoutEvents(Supplier)}
+ * unterdrücken und stattdessen einmal {@link CatalogChangedEvent#reloaded()}
+ * veröffentlichen.
+ */
+public class CatalogEntityListener {
+
+    private static final ThreadLocal<Boolean> SUPPRESSED = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Führt {@code action} aus, ohne dass Änderungen dieses Threads einzelne
+     * Events auslösen.
+     */
+    public static <T> T withoutEvents(Supplier<T> action) {
+        boolean previous = SUPPRESSED.get();
+        SUPPRESSED.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            SUPPRESSED.set(previous);
+        }
+    }
+
+    @PostPersist
+    public void afterPersist(Object entity) {
+        publish(CatalogChangedEvent.Change.CREATED, entity);
+    }
+
+    @PostUpdate
+    public void afterUpdate(Object entity) {
+        publish(CatalogChangedEvent.Change.UPDATED, entity);
+    }
+
+    @PostRemove
+    public void afterRemove(Object entity) {
+        publish(CatalogChangedEvent.Change.DELETED, entity);
+    }
+
+    private void publish(CatalogChangedEvent.Change change, Object entity) {
+        if (!SUPPRESSED.get()) {
+            eventPublisher.publishEvent(new CatalogChangedEvent(change, entity));
+        }
+    }
+}
@@ -0,0 +1,471 @@
+package de.htwg.in.wete.backend.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.htwg.in.wete.backend.model.Category;
+import de.htwg.in.wete.backend.model.Product;
+import de.htwg.in.wete.backend.model.Recipe;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Bulk-Import von Produkten samt Rezepten für Admins, als NDJSON oder CSV.
+ *
+ * Die Eingabe wird Zeile für Zeile gelesen und nie komplett gepuffert. Jedes
+ * Produkt wird mit den Bean-Validation-Constraints der Entities geprüft;
+ * ungültige Zeilen landen mit Zeilennummer in der Fehlerliste, der Rest wird
+ * trotzdem importiert. Gespeichert wird in Transaktionen zu je
+ * {@code batch-size} Produkten mit JDBC-Batching ({@code jdbc-batch-size});
+ * IDs kommen aus dem gepoolten Sequenz-Generator (ein Sequenz-Aufruf pro 50
+ * IDs). Statt eines Events pro Entity gibt es am Ende ein einziges
+ * {@link CatalogChangedEvent#reloaded()}.
+ *
+ * NDJSON: ein Produkt-Objekt pro Zeile (Felder wie bei POST /api/product),
+ * Rezepte optional im Array {@code recipes}.
+ *
+ * CSV: Kopfzeile mit den Spalten aus {@link #CSV_PRODUCT_COLUMNS} und
+ * {@link #CSV_RECIPE_COLUMNS}, eine Zeile pro Rezept. Aufeinanderfolgende
+ * Zeilen mit gleichem {@code title} gehören zum selben Produkt, leere
+ * Rezeptspalten bedeuten ein Produkt ohne Rezept.
+ *
+ * Ein CSV-Datensatz darf höchstens {@code max-record-chars} Zeichen lang
+ * sein, ein Produkt höchstens {@code max-group-rows} Zeilen umfassen; sonst
+ * bricht der Import mit {@link LimitExceededException} ab (bereits
+ * gespeicherte Batches bleiben).
+ *
+ * Es läuft höchstens ein Import gleichzeitig.
+ */
+@Service
+public class CatalogImportService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogImportService.class);
+
+    static final List<String> CSV_PRODUCT_COLUMNS = List.of(
+            "title", "description", "category", "price", "imageUrl", "imageUrlDetails", "ingredients");
+    static final List<String> CSV_RECIPE_COLUMNS = List.of(
+            "recipeTitle", "recipeText", "recipePdfUrl", "recipeYoutubeUrl");
+
+    /** Höchstens so viele Zeilenfehler werden einzeln zurückgegeben (gezählt werden alle) */
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    /** Eingabe sprengt eine der Obergrenzen, der Import wird abgebrochen */
+    public static class LimitExceededException extends IllegalArgumentException {
+
+        public LimitExceededException(String message) {
+            super(message);
+        }
+    }
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    /** Fehler einer Eingabezeile (NDJSON-Zeile bzw. CSV-Datensatz, ab 1) */
+    public record RowError(long row, List<String> messages) {
+    }
+
+    public record ImportResult(long rows, long products, long recipes, long failedRows,
+            List<RowError> errors, long millis, long rowsPerMinute) {
+    }
+
+    /** Ein geparstes Produkt mit allen Eingabezeilen, aus denen es besteht */
+    private record ParsedRow(long firstRow, long rows, Product product, List<String> errors) {
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final int jdbcBatchSize;
+    private final int maxRecordChars;
+    private final int maxGroupRows;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Progress progress;
+
+    public CatalogImportService(TransactionTemplate transactionTemplate, Validator validator,
+            ObjectMapper objectMapper, ApplicationEventPublisher eventPublisher,
+            @Value("${casellese.import.batch-size:1000}") int batchSize,
+            @Value("${casellese.import.jdbc-batch-size:100}") int jdbcBatchSize,
+            @Value("${casellese.import.max-record-chars:1000000}") int maxRecordChars,
+            @Value("${casellese.import.max-group-rows:1000}") int maxGroupRows) {
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = Math.max(1, batchSize);
+        this.jdbcBatchSize = Math.max(1, jdbcBatchSize);
+        this.maxRecordChars = Math.max(1, maxRecordChars);
+        this.maxGroupRows = Math.max(1, maxGroupRows);
+    }
+
+    /**
+     * Importiert alle Produkte aus {@code in} und liefert das Ergebnis mit
+     * den Zeilenfehlern.
+     *
+     * @throws IllegalStateException wenn bereits ein Import läuft
+     * @throws IllegalArgumentException bei unbrauchbarer CSV-Kopfzeile
+     * @throws LimitExceededException wenn die Eingabe eine Obergrenze sprengt
+     */
+    public ImportResult importCatalog(Format format, InputStream in) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Es läuft bereits ein Import");
+        }
+        Progress current = new Progress(format);
+        progress = current;
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+            Importer importer = new Importer(current);
+            CatalogEntityListener.withoutEvents(() -> {
+                try {
+                    if (format == Format.CSV) {
+                        readCsv(reader, importer);
+                    } else {
+                        readNdjson(reader, importer);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } finally {
+                    importer.flush();
+                }
+                return null;
+            });
+            current.finish("DONE");
+            LOG.info("Catalog import finished: {}", current.snapshot());
+            return current.result();
+        } catch (RuntimeException e) {
+            current.finish("FAILED");
+            LOG.warn("Catalog import failed after {} rows", current.rows.get(), e);
+            throw e;
+        } finally {
+            running.set(false);
+            if (current.products.get() > 0) {
+                // Ein Event statt einem pro Entity: Indizes und Caches bauen einmal neu auf
+                eventPublisher.publishEvent(CatalogChangedEvent.reloaded());
+            }
+        }
+    }
+
+    /**
+     * Stand des laufenden bzw. letzten Imports (leer, wenn es noch keinen gab).
+     */
+    public Map<String, Object> status() {
+        Progress current = progress;
+        return current == null ? Map.of("state", "NONE") : current.snapshot();
+    }
+
+    private void readNdjson(BufferedReader reader, Importer importer) throws IOException {
+        long row = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            row++;
+            if (line.isBlank()) {
+                continue;
+            }
+            Product product;
+            try {
+                product = objectMapper.readValue(line, Product.class);
+            } catch (JsonProcessingException e) {
+                importer.accept(new ParsedRow(row, 1, null, List.of("Ungültiges JSON: " + e.getOriginalMessage())));
+                continue;
+            }
+            if (product == null) {
+                importer.accept(new ParsedRow(row, 1, null, List.of("Zeile enthält kein Produkt")));
+                continue;
+            }
+            for (Recipe recipe : product.getRecipes()) {
+                recipe.setProduct(product);
+            }
+            importer.accept(new ParsedRow(row, 1, product, List.of()));
+        }
+    }
+
+    private void readCsv(BufferedReader reader, Importer importer) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader, maxRecordChars);
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim(), i);
+        }
+        if (!columns.containsKey("title")) {
+            throw new IllegalArgumentException("CSV-Kopfzeile braucht mindestens die Spalte 'title'");
+        }
+
+        long row = 0;
+        ParsedRow open = null;
+        List<String> record;
+        while (true) {
+            try {
+                record = csv.next();
+            } catch (LimitExceededException e) {
+                throw e;
+            } catch (IllegalArgumentException e) {
+                // Rest der Datei ist nicht mehr sinnvoll zu trennen
+                row++;
+                if (open != null) {
+                    importer.accept(open);
+                }
+                importer.accept(new ParsedRow(row, 1, null, List.of(e.getMessage())));
+                return;
+            }
+            if (record == null) {
+                break;
+            }
+            row++;
+            String title = field(record, columns, "title");
+            if (open != null && open.product() != null && title != null
+                    && title.equals(open.product().getTitle())) {
+                if (open.rows() >= maxGroupRows) {
+                    throw new LimitExceededException("Produkt '" + title + "' ab Zeile " + open.firstRow()
+                            + " hat mehr als " + maxGroupRows + " Zeilen");
+                }
+                List<String> errors = new ArrayList<>(open.errors());
+                addCsvRecipe(open.product(), record, columns, row, errors);
+                open = new ParsedRow(open.firstRow(), open.rows() + 1, open.product(), errors);
+                continue;
+            }
+            if (open != null) {
+                importer.accept(open);
+            }
+            List<String> errors = new ArrayList<>();
+            Product product = csvProduct(record, columns, row, errors);
+            addCsvRecipe(product, record, columns, row, errors);
+            open = new ParsedRow(row, 1, product, errors);
+        }
+        if (open != null) {
+            importer.accept(open);
+        }
+    }
+
+    private static Product csvProduct(List<String> record, Map<String, Integer> columns, long row,
+            List<String> errors) {
+        Product product = new Product();
+        product.setTitle(field(record, columns, "title"));
+        product.setDescription(field(record, columns, "description"));
+        product.setImageUrl(field(record, columns, "imageUrl"));
+        product.setImageUrlDetails(field(record, columns, "imageUrlDetails"));
+        product.setIngredients(field(record, columns, "ingredients"));
+        String category = field(record, columns, "category");
+        if (category != null) {
+            try {
+                product.setCategory(Category.valueOf(category.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                errors.add("Zeile " + row + ": unbekannte Kategorie " + category);
+            }
+        }
+        String price = field(record, columns, "price");
+        if (price != null) {
+            try {
+                product.setPrice(Double.parseDouble(price.trim()));
+            } catch (NumberFormatException e) {
+                errors.add("Zeile " + row + ": ungültiger Preis " + price);
+            }
+        }
+        return product;
+    }
+
+    private static void addCsvRecipe(Product product, List<String> record, Map<String, Integer> columns, long row,
+            List<String> errors) {
+        String title = field(record, columns, "recipeTitle");
+        String text = field(record, columns, "recipeText");
+        String pdfUrl = field(record, columns, "recipePdfUrl");
+        String youtubeUrl = field(record, columns, "recipeYoutubeUrl");
+        if (title == null && text == null && pdfUrl == null && youtubeUrl == null) {
+            return;
+        }
+        if (title == null) {
+            errors.add("Zeile " + row + ": Rezeptspalten ohne recipeTitle");
+            return;
+        }
+        product.addRecipe(new Recipe(title, text, pdfUrl, youtubeUrl));
+    }
+
+    /** Wert der Spalte, null wenn die Spalte fehlt oder leer ist */
+    private static String field(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size() || record.get(index).isEmpty()) {
+            return null;
+        }
+        return record.get(index);
+    }
+
+    /**
+     * Validiert Produkte und sammelt gültige für den nächsten Batch.
+     */
+    private final class Importer {
+
+        private final Progress progress;
+        private final List<ParsedRow> batch = new ArrayList<>();
+
+        Importer(Progress progress) {
+            this.progress = progress;
+        }
+
+        void accept(ParsedRow parsed) {
+            progress.rows.addAndGet(parsed.rows());
+            List<String> errors = new ArrayList<>(parsed.errors());
+            if (parsed.product() != null) {
+                validate(parsed.product(), errors);
+            }
+            if (!errors.isEmpty()) {
+                progress.fail(parsed.firstRow(), parsed.rows(), errors);
+                return;
+            }
+            Product product = parsed.product();
+            product.setId(null);
+            product.getRecipes().forEach(recipe -> recipe.setId(null));
+            batch.add(parsed);
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private void validate(Product product, List<String> errors) {
+            addViolations(validator.validate(product), "", errors);
+            List<Recipe> recipes = product.getRecipes();
+            for (int i = 0; i < recipes.size(); i++) {
+                addViolations(validator.validate(recipes.get(i)), "recipes[" + i + "].", errors);
+            }
+        }
+
+        private static <T> void addViolations(Set<ConstraintViolation<T>> violations, String prefix,
+                List<String> errors) {
+            violations.stream()
+                    .map(violation -> prefix + violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .forEach(errors::add);
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<ParsedRow> rows = List.copyOf(batch);
+            batch.clear();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    Session session = entityManager.unwrap(Session.class);
+                    session.setJdbcBatchSize(jdbcBatchSize);
+                    // Importierte Entities nicht einzeln in den L2-Cache legen
+                    session.setCacheMode(CacheMode.IGNORE);
+                    for (ParsedRow row : rows) {
+                        entityManager.persist(row.product());
+                    }
+                    entityManager.flush();
+                    entityManager.clear();
+                });
+            } catch (RuntimeException e) {
+                LOG.warn("Catalog import batch starting at row {} failed", rows.get(0).firstRow(), e);
+                String message = "Speichern fehlgeschlagen: " + e.getMessage();
+                rows.forEach(row -> progress.fail(row.firstRow(), row.rows(), List.of(message)));
+                return;
+            }
+            long recipes = rows.stream().mapToLong(row -> row.product().getRecipes().size()).sum();
+            progress.products.addAndGet(rows.size());
+            progress.recipes.addAndGet(recipes);
+            progress.batches.incrementAndGet();
+            LOG.debug("Catalog import: {} rows read, {} products stored", progress.rows.get(),
+                    progress.products.get());
+        }
+    }
+
+    /**
+     * Zähler eines Imports, während des Imports von GET /api/admin/import lesbar.
+     */
+    private static final class Progress {
+
+        private final Format format;
+        private final long startNanos = System.nanoTime();
+        private final AtomicLong rows = new AtomicLong();
+        private final AtomicLong products = new AtomicLong();
+        private final AtomicLong recipes = new AtomicLong();
+        private final AtomicLong batches = new AtomicLong();
+        private final AtomicLong failedRows = new AtomicLong();
+        // Nur vom importierenden Thread geschrieben
+        private final List<RowError> errors = new ArrayList<>();
+        private volatile int reportedErrors;
+        private volatile String state = "RUNNING";
+        private volatile long millis = -1;
+
+        Progress(Format format) {
+            this.format = format;
+        }
+
+        void fail(long firstRow, long rowCount, List<String> messages) {
+            failedRows.addAndGet(rowCount);
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(firstRow, List.copyOf(messages)));
+                reportedErrors = errors.size();
+            }
+        }
+
+        void finish(String finalState) {
+            millis = elapsedMillis();
+            state = finalState;
+        }
+
+        private long elapsedMillis() {
+            return (System.nanoTime() - startNanos) / 1_000_000;
+        }
+
+        private long rowsPerMinute(long elapsed) {
+            return elapsed > 0 ? rows.get() * 60_000 / elapsed : rows.get();
+        }
+
+        ImportResult result() {
+            return new ImportResult(rows.get(), products.get(), recipes.get(), failedRows.get(),
+                    List.copyOf(errors), millis, rowsPerMinute(millis));
+        }
+
+        Map<String, Object> snapshot() {
+            long elapsed = millis >= 0 ? millis : elapsedMillis();
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("state", state);
+            result.put("format", format);
+            result.put("rows", rows.get());
+            result.put("products", products.get());
+            result.put("recipes", recipes.get());
+            result.put("batches", batches.get());
+            result.put("failedRows", failedRows.get());
+            result.put("reportedErrors", reportedErrors);
+            result.put("millis", elapsed);
+            result.put("rowsPerMinute", rowsPerMinute(elapsed));
+            return result;
+        }
+    }
+}
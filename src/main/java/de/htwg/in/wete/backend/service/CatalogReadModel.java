@@ -0,0 +1,262 @@
+package de.htwg.in.wete.backend.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import de.htwg.in.wete.backend.config.ReadWriteRoutingDataSource;
+import de.htwg.in.wete.backend.model.Product;
+import de.htwg.in.wete.backend.model.Recipe;
+import de.htwg.in.wete.backend.repository.ProductRepository;
+import de.htwg.in.wete.backend.repository.RecipeRepository;
+
+/**
+ * Hält den aktuellen {@link CatalogSnapshot}, aus dem alle öffentlichen
+ * Katalog-GETs ohne Datenbank und ohne Sperren bedient werden.
+ *
+ * Der Snapshot wird beim Start einmal aus der Datenbank geladen. Jede
+ * Transaktion mit Katalogänderungen ({@link CatalogChangedEvent}) erzeugt nach
+ * dem Commit genau eine geänderte Kopie, die über eine volatile Referenz
+ * veröffentlicht wird (Copy-on-Write); ein Produkt samt seiner Rezepte zu
+ * löschen baut den Snapshot also einmal und nicht pro Entity neu.
+ * {@link CatalogChangedEvent#reloaded()} lädt komplett neu.
+ * Schreiber sind über eine Sperre serialisiert, Leser nie.
+ *
+ * Erst nach dem Veröffentlichen wird die {@link CatalogVersion} erhöht: wer
+ * eine Version sieht, liest mindestens den Snapshot dieser Version. Die
+ * Version des Snapshots ist daher gleich der Katalogversion.
+ */
+@Service
+public class CatalogReadModel {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogReadModel.class);
+
+    private final ProductRepository productRepository;
+    private final RecipeRepository recipeRepository;
+    private final CatalogVersion catalogVersion;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile CatalogSnapshot snapshot;
+
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder updates = new LongAdder();
+    private volatile long lastLoadMillis = -1;
+
+    public CatalogReadModel(ProductRepository productRepository, RecipeRepository recipeRepository,
+            CatalogVersion catalogVersion, PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.recipeRepository = recipeRepository;
+        this.catalogVersion = catalogVersion;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Der aktuelle Snapshot. Nur vor dem ersten Laden (oder nach einem
+     * fehlgeschlagenen Update) wird hier aus der Datenbank geladen.
+     */
+    public CatalogSnapshot current() {
+        CatalogSnapshot current = snapshot;
+        return current != null ? current : loadIfMissing();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        current();
+    }
+
+    /**
+     * Lädt den Katalog neu, z.B. nachdem er an der Anwendung vorbei in der
+     * Datenbank geändert wurde.
+     */
+    public void reload() {
+        writeLock.lock();
+        try {
+            publish(load(catalogVersion.current() + 1));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Sammelt die Events einer Transaktion und wendet sie nach dem Commit
+     * gemeinsam an; ohne Transaktion sofort.
+     */
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update(List.of(event));
+            return;
+        }
+        // Über die Synchronisationen gesucht: die werden bei REQUIRES_NEW mit ausgesetzt
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingChanges pending && pending.owner() == this) {
+                pending.events().add(event);
+                return;
+            }
+        }
+        List<CatalogChangedEvent> events = new ArrayList<>();
+        events.add(event);
+        TransactionSynchronizationManager.registerSynchronization(new PendingChanges(this, events));
+    }
+
+    /** Katalog-Events einer Transaktion, nach dem Commit einmal angewendet */
+    private record PendingChanges(CatalogReadModel owner, List<CatalogChangedEvent> events)
+            implements TransactionSynchronization {
+
+        @Override
+        public void afterCommit() {
+            owner.update(events);
+        }
+    }
+
+    private void update(List<CatalogChangedEvent> events) {
+        writeLock.lock();
+        try {
+            long version = catalogVersion.current() + 1;
+            CatalogSnapshot current = snapshot;
+            try {
+                if (events.stream().anyMatch(CatalogChangedEvent::isReload)) {
+                    publish(load(version));
+                } else if (current != null) {
+                    publish(apply(current, events, version));
+                } else {
+                    // Noch nie geladen: der erste Zugriff lädt den Stand inklusive dieser Änderungen
+                    catalogVersion.increment();
+                }
+            } catch (RuntimeException e) {
+                LOG.warn("Catalog snapshot update failed ({} changes), reloading on next access", events.size(), e);
+                snapshot = null;
+                catalogVersion.increment();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        CatalogSnapshot current = snapshot;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("version", current != null ? current.version() : null);
+        result.put("products", current != null ? current.productCount() : 0);
+        result.put("recipes", current != null ? current.recipeCount() : 0);
+        result.put("loads", loads.sum());
+        result.put("updates", updates.sum());
+        result.put("lastLoadMillis", lastLoadMillis);
+        return result;
+    }
+
+    private CatalogSnapshot loadIfMissing() {
+        writeLock.lock();
+        try {
+            CatalogSnapshot current = snapshot;
+            if (current == null) {
+                current = load(catalogVersion.current());
+                snapshot = current;
+            }
+            return current;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Nur unter writeLock
+    private void publish(CatalogSnapshot next) {
+        snapshot = next;
+        catalogVersion.increment();
+    }
+
+    private CatalogSnapshot load(long version) {
+        long start = System.nanoTime();
+        // Immer von der primären DB: ein verzögertes Replikat hielte den Snapshot bis zur nächsten Änderung alt
+        CatalogSnapshot loaded = ReadWriteRoutingDataSource.onPrimary(() -> readOnlyTransaction.execute(status -> {
+            List<Product> products = productRepository.findAll().stream().map(CatalogSnapshot::copyOf).toList();
+            List<Recipe> recipes = recipeRepository.findAll().stream().map(CatalogSnapshot::copyOf).toList();
+            Map<Long, Long> productIdByRecipe = new HashMap<>();
+            for (RecipeRepository.TitleView view : recipeRepository.findAllTitles()) {
+                if (view.getProductId() != null) {
+                    productIdByRecipe.put(view.getId(), view.getProductId());
+                }
+            }
+            return CatalogSnapshot.build(version, products, recipes, productIdByRecipe);
+        }));
+        loads.increment();
+        lastLoadMillis = (System.nanoTime() - start) / 1_000_000;
+        LOG.info("Catalog snapshot {} loaded: {} products, {} recipes in {} ms", version, loaded.productCount(),
+                loaded.recipeCount(), lastLoadMillis);
+        return loaded;
+    }
+
+    private CatalogSnapshot apply(CatalogSnapshot current, List<CatalogChangedEvent> events, long version) {
+        Map<Long, Product> products = new HashMap<>(current.productMap());
+        Map<Long, Recipe> recipes = new HashMap<>(current.recipeMap());
+        Map<Long, Long> productIdByRecipe = new HashMap<>(current.productIdByRecipe());
+        for (CatalogChangedEvent event : events) {
+            apply(event, products, recipes, productIdByRecipe);
+        }
+        updates.increment();
+        return CatalogSnapshot.build(version, products.values(), recipes.values(), productIdByRecipe);
+    }
+
+    private static void apply(CatalogChangedEvent event, Map<Long, Product> products, Map<Long, Recipe> recipes,
+            Map<Long, Long> productIdByRecipe) {
+        boolean deleted = event.change() == CatalogChangedEvent.Change.DELETED;
+
+        Product product = event.product();
+        Recipe recipe = event.recipe();
+        if (product != null && product.getId() != null) {
+            Long id = product.getId();
+            if (deleted) {
+                // Rezepte werden mit dem Produkt gelöscht (orphanRemoval)
+                products.remove(id);
+                productIdByRecipe.entrySet().removeIf(entry -> {
+                    boolean own = id.equals(entry.getValue());
+                    if (own) {
+                        recipes.remove(entry.getKey());
+                    }
+                    return own;
+                });
+            } else if (isNewer(product.getVersion(), products.get(id) == null ? null : products.get(id).getVersion())) {
+                products.put(id, CatalogSnapshot.copyOf(product));
+            }
+        } else if (recipe != null && recipe.getId() != null) {
+            Long id = recipe.getId();
+            if (deleted) {
+                recipes.remove(id);
+                productIdByRecipe.remove(id);
+            } else if (isNewer(recipe.getVersion(), recipes.get(id) == null ? null : recipes.get(id).getVersion())) {
+                recipes.put(id, CatalogSnapshot.copyOf(recipe));
+                // Die ID eines Lazy-Proxys ist ohne Session lesbar
+                Long productId = recipe.getProduct() != null ? recipe.getProduct().getId() : null;
+                if (productId != null) {
+                    productIdByRecipe.put(id, productId);
+                } else {
+                    productIdByRecipe.remove(id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Events kommen nach dem Commit, bei parallelen Schreibern nicht
+     * zwingend in Versionsreihenfolge: ältere Stände nicht übernehmen.
+     */
+    private static boolean isNewer(Long version, Long known) {
+        return known == null || version == null || version >= known;
+    }
+}
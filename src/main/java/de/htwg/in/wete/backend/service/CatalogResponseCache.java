@@ -0,0 +1,204 @@
+package de.htwg.in.wete.backend.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Cache für fertig serialisierte Antworten der öffentlichen Katalog-Endpoints
+ * (/api/product, /api/recipes, /api/category).
+ *
+ * Jede Variante (Endpoint + Parameter) wird einmal als kompaktes JSON und
+ * zusätzlich gzip-komprimiert abgelegt. Folgeanfragen schreiben nur noch das
+ * gecachte Byte-Array - ohne Query, ohne Jackson, ohne neue Objekte.
+ *
+ * Einträge gehören zu einer {@link CatalogVersion}; nach einer Katalogänderung
+ * passen sie nicht mehr und werden beim nächsten Zugriff neu gebaut. Die
+ * Katalogversion ist gleichzeitig der ETag, passende If-None-Match-Anfragen
+ * werden ohne Query mit 304 beantwortet.
+ */
+@Service
+public class CatalogResponseCache {
+
+    private final Cache<String, Entry> entries;
+    private final ObjectWriter writer;
+    private final CatalogVersion catalogVersion;
+
+    public CatalogResponseCache(ObjectMapper objectMapper, CatalogVersion catalogVersion,
+            @Value("${casellese.catalog.response-cache.max-entries:500}") long maxEntries) {
+        // Kompakte Ausgabe, unabhängig von spring.jackson.serialization.indent-output
+        this.writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        this.catalogVersion = catalogVersion;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Beantwortet eine Listen-Anfrage: 304 bei passendem If-None-Match, sonst die
+     * gecachte (oder frisch serialisierte) Antwort mit ETag.
+     */
+    public ResponseEntity<byte[]> respond(String key, Supplier<?> loader,
+            String ifNoneMatch, String acceptEncoding) {
+        ResponseEntity<byte[]> notModified = checkNotModified(ifNoneMatch, acceptEncoding);
+        if (notModified != null) {
+            return notModified;
+        }
+        return get(key, loader).toResponse(acceptEncoding);
+    }
+
+    /**
+     * Liefert eine 304-Antwort, wenn der Client die aktuelle Katalogversion schon hat,
+     * sonst null.
+     */
+    public ResponseEntity<byte[]> checkNotModified(String ifNoneMatch, String acceptEncoding) {
+        if (ifNoneMatch == null) {
+            return null;
+        }
+        String etag = catalogVersion.listETag(catalogVersion.current(), acceptsGzip(acceptEncoding));
+        if (!ETags.noneMatchHits(ifNoneMatch, etag)) {
+            return null;
+        }
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .build();
+    }
+
+    /**
+     * Liefert die gecachte Antwort für {@code key} oder serialisiert das Ergebnis
+     * von {@code loader} und legt es ab.
+     */
+    public Entry get(String key, Supplier<?> loader) {
+        // Version vor dem Laden merken: der Inhalt ist mindestens so neu wie diese Version
+        long version = catalogVersion.current();
+        Entry cached = entries.getIfPresent(key);
+        if (cached != null && cached.version() == version) {
+            return cached;
+        }
+        Entry entry = serialize(loader.get(), version);
+        entries.put(key, entry);
+        return entry;
+    }
+
+    public void invalidateAll() {
+        entries.invalidateAll();
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats stats = entries.stats();
+        long bytes = entries.asMap().values().stream()
+                .mapToLong(e -> e.plain().length + e.gzip().length)
+                .sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("entries", entries.estimatedSize());
+        result.put("bytes", bytes);
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("catalogVersion", catalogVersion.current());
+        return result;
+    }
+
+    private Entry serialize(Object body, long version) {
+        try {
+            byte[] plain = writer.writeValueAsBytes(body);
+            return new Entry(plain, gzip(plain), version,
+                    catalogVersion.listETag(version, false), catalogVersion.listETag(version, true));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] plain) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, plain.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(plain);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Eine gecachte Antwort: JSON-Bytes, gzip-Bytes, Katalogversion und ETags.
+     */
+    public record Entry(byte[] plain, byte[] gzip, long version, String etag, String gzipETag) {
+
+        /**
+         * Baut die Antwort; gzip nur, wenn der Client es im Accept-Encoding anbietet.
+         */
+        public ResponseEntity<byte[]> toResponse(String acceptEncoding) {
+            boolean useGzip = acceptsGzip(acceptEncoding);
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .eTag(useGzip ? gzipETag : etag)
+                    .cacheControl(CacheControl.noCache())
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (useGzip) {
+                builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            return builder.body(useGzip ? gzip : plain);
+        }
+    }
+
+    /**
+     * Ob {@code Accept-Encoding} gzip erlaubt: ein eigener Eintrag "gzip"
+     * (bzw. "x-gzip") hat Vorrang vor "*", {@code q=0} schließt aus.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String entry : acceptEncoding.split(",")) {
+            int semicolon = entry.indexOf(';');
+            String coding = (semicolon < 0 ? entry : entry.substring(0, semicolon)).trim();
+            boolean accepted = semicolon < 0 || quality(entry.substring(semicolon + 1)) > 0;
+            if (coding.equalsIgnoreCase("gzip") || coding.equalsIgnoreCase("x-gzip")) {
+                return accepted;
+            }
+            if (coding.equals("*")) {
+                wildcard = accepted;
+            }
+        }
+        return Boolean.TRUE.equals(wildcard);
+    }
+
+    /** Wert von {@code q=} aus den Parametern eines Eintrags; ohne Angabe 1, ungültig 0 */
+    private static double quality(String parameters) {
+        for (String parameter : parameters.split(";")) {
+            int equals = parameter.indexOf('=');
+            if (equals > 0 && parameter.substring(0, equals).trim().equalsIgnoreCase("q")) {
+                try {
+                    return Double.parseDouble(parameter.substring(equals + 1).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,293 @@
+package de.htwg.in.wete.backend.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import de.htwg.in.wete.backend.model.Category;
+import de.htwg.in.wete.backend.model.Product;
+import de.htwg.in.wete.backend.model.Recipe;
+import de.htwg.in.wete.backend.repository.KeysetCursor;
+import de.htwg.in.wete.backend.repository.KeysetLists;
+import de.htwg.in.wete.backend.repository.KeysetPage;
+import de.htwg.in.wete.backend.repository.ProductSummary;
+import de.htwg.in.wete.backend.repository.SortKey;
+
+/**
+ * Unveränderlicher Stand des Katalogs (Produkte und Rezepte) mit allen
+ * Indizes, die die öffentlichen GET-Endpoints brauchen: nach ID, nach
+ * Kategorie, Rezepte nach Produkt und je Sortierfeld sortierte Listen für
+ * die Keyset-Pagination.
+ *
+ * Produkte und Rezepte sind losgelöste Kopien der Entities; sie werden nach
+ * dem Bau nie verändert und dürfen daher ohne Sperren von beliebig vielen
+ * Threads gelesen (serialisiert) werden. Änderungen erzeugen einen neuen
+ * Snapshot ({@link CatalogReadModel}).
+ */
+public final class CatalogSnapshot {
+
+    private static final SortKey[] RECIPE_SORT_KEYS = {SortKey.ID, SortKey.TITLE};
+
+    private final long version;
+    private final Map<Long, Product> products;
+    private final Map<Long, ProductSummary> summaries;
+    private final Map<Long, Recipe> recipes;
+    private final Map<Long, Long> productIdByRecipe;
+    private final Map<Long, List<Recipe>> recipesByProduct;
+    private final Map<SortKey, List<ProductSummary>> sortedProducts;
+    private final Map<Category, Map<SortKey, List<ProductSummary>>> sortedProductsByCategory;
+    private final Map<SortKey, List<Recipe>> sortedRecipes;
+
+    private CatalogSnapshot(long version, Map<Long, Product> products, Map<Long, ProductSummary> summaries,
+            Map<Long, Recipe> recipes, Map<Long, Long> productIdByRecipe, Map<Long, List<Recipe>> recipesByProduct,
+            Map<SortKey, List<ProductSummary>> sortedProducts,
+            Map<Category, Map<SortKey, List<ProductSummary>>> sortedProductsByCategory,
+            Map<SortKey, List<Recipe>> sortedRecipes) {
+        this.version = version;
+        this.products = products;
+        this.summaries = summaries;
+        this.recipes = recipes;
+        this.productIdByRecipe = productIdByRecipe;
+        this.recipesByProduct = recipesByProduct;
+        this.sortedProducts = sortedProducts;
+        this.sortedProductsByCategory = sortedProductsByCategory;
+        this.sortedRecipes = sortedRecipes;
+    }
+
+    /**
+     * Baut einen Snapshot aus Kopien ({@link #copyOf(Product)}, {@link #copyOf(Recipe)}).
+     * Die Rezeptlisten der Produkte werden hier aus {@code productIdByRecipe}
+     * zusammengestellt, Rezepte ohne (bekanntes) Produkt gehören zu keinem.
+     */
+    public static CatalogSnapshot build(long version, Collection<Product> productCopies,
+            Collection<Recipe> recipeCopies, Map<Long, Long> productIdByRecipe) {
+        Map<Long, List<Recipe>> grouped = new HashMap<>();
+        Map<Long, Recipe> recipes = new HashMap<>();
+        for (Recipe recipe : recipeCopies) {
+            recipes.put(recipe.getId(), recipe);
+            Long productId = productIdByRecipe.get(recipe.getId());
+            if (productId != null) {
+                grouped.computeIfAbsent(productId, id -> new ArrayList<>()).add(recipe);
+            }
+        }
+
+        Map<Long, Product> products = new HashMap<>();
+        Map<Long, ProductSummary> summaries = new HashMap<>();
+        Map<Long, List<Recipe>> recipesByProduct = new HashMap<>();
+        for (Product base : productCopies) {
+            List<Recipe> own = grouped.getOrDefault(base.getId(), List.of());
+            List<Recipe> sorted = own.stream().sorted(Comparator.comparing(Recipe::getId)).toList();
+            Product product = copyOf(base);
+            product.setRecipes(sorted);
+            products.put(product.getId(), product);
+            recipesByProduct.put(product.getId(), sorted);
+            summaries.put(product.getId(), new ProductSummary(product.getId(), product.getTitle(),
+                    product.getCategory(), product.getPriceOrNull(), product.getImageUrl(), sorted.size()));
+        }
+
+        Map<SortKey, List<ProductSummary>> sortedProducts = new EnumMap<>(SortKey.class);
+        Map<Category, Map<SortKey, List<ProductSummary>>> byCategory = new EnumMap<>(Category.class);
+        for (SortKey key : SortKey.values()) {
+            List<ProductSummary> all = KeysetLists.sorted(summaries.values(), key, summary -> sortValue(summary, key),
+                    ProductSummary::id);
+            sortedProducts.put(key, all);
+            for (ProductSummary summary : all) {
+                if (summary.category() != null) {
+                    byCategory.computeIfAbsent(summary.category(), c -> new EnumMap<>(SortKey.class))
+                            .computeIfAbsent(key, k -> new ArrayList<>())
+                            .add(summary);
+                }
+            }
+        }
+        byCategory.values().forEach(lists -> lists.replaceAll((key, list) -> List.copyOf(list)));
+
+        Map<SortKey, List<Recipe>> sortedRecipes = new EnumMap<>(SortKey.class);
+        for (SortKey key : RECIPE_SORT_KEYS) {
+            sortedRecipes.put(key, KeysetLists.sorted(recipes.values(), key, recipe -> sortValue(recipe, key),
+                    Recipe::getId));
+        }
+
+        return new CatalogSnapshot(version, Map.copyOf(products), Map.copyOf(summaries), Map.copyOf(recipes),
+                Map.copyOf(productIdByRecipe), Map.copyOf(recipesByProduct), sortedProducts, byCategory,
+                sortedRecipes);
+    }
+
+    /**
+     * Losgelöste Kopie eines Produkts ohne Rezepte.
+     */
+    public static Product copyOf(Product source) {
+        Product copy = new Product();
+        copy.setId(source.getId());
+        copy.setTitle(source.getTitle());
+        copy.setDescription(source.getDescription());
+        copy.setCategory(source.getCategory());
+        copy.setPriceOrNull(source.getPriceOrNull());
+        copy.setImageUrl(source.getImageUrl());
+        copy.setImageUrlDetails(source.getImageUrlDetails());
+        copy.setIngredients(source.getIngredients());
+        copy.setVersion(source.getVersion());
+        copy.setUpdatedAt(source.getUpdatedAt());
+        copy.setRecipes(List.of());
+        return copy;
+    }
+
+    /**
+     * Losgelöste Kopie eines Rezepts ohne Produkt-Referenz.
+     */
+    public static Recipe copyOf(Recipe source) {
+        Recipe copy = new Recipe(source.getTitle(), source.getText(), source.getPdfUrl(), source.getYoutubeUrl());
+        copy.setId(source.getId());
+        copy.setVersion(source.getVersion());
+        copy.setUpdatedAt(source.getUpdatedAt());
+        return copy;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int productCount() {
+        return products.size();
+    }
+
+    public int recipeCount() {
+        return recipes.size();
+    }
+
+    /** Alle Produkte nach ID (Basis für den nächsten Snapshot). */
+    Map<Long, Product> productMap() {
+        return products;
+    }
+
+    /** Alle Rezepte nach ID (Basis für den nächsten Snapshot). */
+    Map<Long, Recipe> recipeMap() {
+        return recipes;
+    }
+
+    Map<Long, Long> productIdByRecipe() {
+        return productIdByRecipe;
+    }
+
+    public Optional<Product> product(long id) {
+        return Optional.ofNullable(products.get(id));
+    }
+
+    public Optional<Recipe> recipe(long id) {
+        return Optional.ofNullable(recipes.get(id));
+    }
+
+    /**
+     * Rezepte des Produkts (aufsteigend nach ID), leer wenn es das Produkt nicht gibt.
+     */
+    public Optional<List<Recipe>> recipesOfProduct(long productId) {
+        return Optional.ofNullable(recipesByProduct.get(productId));
+    }
+
+    /**
+     * Seite von Produkt-Zusammenfassungen, optional gefiltert nach Kategorie und
+     * Titelteil (ohne Groß-/Kleinschreibung), Reihenfolge nach {@link KeysetLists}.
+     */
+    public KeysetPage<ProductSummary> productSummaries(Category category, String name, KeysetCursor cursor,
+            int limit) {
+        Predicate<ProductSummary> filter = summary -> true;
+        if (name != null) {
+            String needle = name.toLowerCase(Locale.ROOT);
+            filter = summary -> summary.title() != null
+                    && summary.title().toLowerCase(Locale.ROOT).contains(needle);
+        }
+        return summaryPage(category, filter, cursor, limit);
+    }
+
+    /**
+     * Wie {@link #productSummaries(Category, String, KeysetCursor, int)}, aber
+     * nur die Produkte mit den IDs {@code ids} (z.B. Treffer eines Suchindex).
+     */
+    public KeysetPage<ProductSummary> productSummaries(Category category, Set<Long> ids, KeysetCursor cursor,
+            int limit) {
+        return summaryPage(category, summary -> ids.contains(summary.id()), cursor, limit);
+    }
+
+    /**
+     * Wie {@link #productSummaries(Category, String, KeysetCursor, int)}, aber die
+     * vollständigen Produkte samt Rezepten.
+     */
+    public KeysetPage<Product> products(Category category, String name, KeysetCursor cursor, int limit) {
+        return withProducts(productSummaries(category, name, cursor, limit));
+    }
+
+    /**
+     * Wie {@link #productSummaries(Category, Set, KeysetCursor, int)}, aber die
+     * vollständigen Produkte samt Rezepten.
+     */
+    public KeysetPage<Product> products(Category category, Set<Long> ids, KeysetCursor cursor, int limit) {
+        return withProducts(productSummaries(category, ids, cursor, limit));
+    }
+
+    private KeysetPage<ProductSummary> summaryPage(Category category, Predicate<ProductSummary> filter,
+            KeysetCursor cursor, int limit) {
+        SortKey key = cursor.key();
+        List<ProductSummary> sorted = category == null
+                ? sortedProducts.get(key)
+                : sortedProductsByCategory.getOrDefault(category, Map.of()).getOrDefault(key, List.of());
+        return KeysetLists.page(sorted, cursor, limit, filter, summary -> sortValue(summary, key),
+                ProductSummary::id);
+    }
+
+    private KeysetPage<Product> withProducts(KeysetPage<ProductSummary> page) {
+        return new KeysetPage<>(page.items().stream().map(summary -> products.get(summary.id())).toList(),
+                page.size(), page.nextCursor());
+    }
+
+    /**
+     * Zusammenfassungen zu den IDs in genau dieser Reihenfolge; unbekannte IDs fehlen.
+     */
+    public List<ProductSummary> productSummaries(List<Long> ids) {
+        return byIds(ids, summaries::get);
+    }
+
+    /**
+     * Produkte zu den IDs in genau dieser Reihenfolge; unbekannte IDs fehlen.
+     */
+    public List<Product> products(List<Long> ids) {
+        return byIds(ids, products::get);
+    }
+
+    /**
+     * Seite von Rezepten (nach ID oder Titel), Reihenfolge nach {@link KeysetLists}.
+     */
+    public KeysetPage<Recipe> recipes(KeysetCursor cursor, int limit) {
+        SortKey key = cursor.key();
+        List<Recipe> sorted = sortedRecipes.get(key);
+        if (sorted == null) {
+            throw new IllegalArgumentException("Rezepte haben keinen Preis");
+        }
+        return KeysetLists.page(sorted, cursor, limit, recipe -> true, recipe -> sortValue(recipe, key),
+                Recipe::getId);
+    }
+
+    private static <T> List<T> byIds(List<Long> ids, Function<Long, T> lookup) {
+        return ids.stream().map(lookup).filter(Objects::nonNull).toList();
+    }
+
+    private static Object sortValue(ProductSummary summary, SortKey key) {
+        return switch (key) {
+            case ID -> summary.id();
+            case TITLE -> summary.title();
+            case PRICE -> summary.priceOrNull();
+        };
+    }
+
+    private static Object sortValue(Recipe recipe, SortKey key) {
+        return key == SortKey.TITLE ? recipe.getTitle() : recipe.getId();
+    }
+}
@@ -0,0 +1,36 @@
+package de.htwg.in.wete.backend.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Service;
+
+/**
+ * Katalogweiter Versionszähler.
+ *
+ * Wird nach jeder Katalogänderung ({@link CatalogChangedEvent}) erhöht - vom
+ * {@link CatalogReadModel}, nachdem der neue Snapshot veröffentlicht ist - und dient
+ * als Basis für die ETags der Listen-Endpoints und als Gültigkeit der
+ * Einträge im {@link CatalogResponseCache}. Der Startzeitpunkt ist Teil des
+ * ETags, damit nach einem Neustart keine alten ETags mehr passen.
+ */
+@Service
+public class CatalogVersion {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+
+    public long current() {
+        return version.get();
+    }
+
+    public long increment() {
+        return version.incrementAndGet();
+    }
+
+    /**
+     * Starker ETag für eine Listen-Antwort in der angegebenen Katalogversion.
+     */
+    public String listETag(long catalogVersion, boolean gzip) {
+        return "\"catalog-" + epoch + "-" + catalogVersion + (gzip ? "-gzip\"" : "\"");
+    }
+}
@@ -0,0 +1,97 @@
+package de.htwg.in.wete.backend.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Liest CSV nach RFC 4180 Datensatz für Datensatz (Felder in "..." dürfen
+ * Kommas, verdoppelte Anführungszeichen und Zeilenumbrüche enthalten).
+ * Puffert nie mehr als einen Datensatz, höchstens {@code maxRecordChars} Zeichen.
+ */
+final class CsvRecordReader {
+
+    private final Reader reader;
+    private final int maxRecordChars;
+    private final StringBuilder field = new StringBuilder();
+    private int peeked = -2;
+
+    /** @param reader sollte gepuffert sein, es wird zeichenweise gelesen */
+    CsvRecordReader(Reader reader, int maxRecordChars) {
+        this.reader = reader;
+        this.maxRecordChars = maxRecordChars;
+    }
+
+    /**
+     * Nächster Datensatz, null am Ende der Eingabe. Leerzeilen werden übersprungen.
+     *
+     * @throws IllegalArgumentException bei nicht geschlossenem Anführungszeichen
+     * @throws CatalogImportService.LimitExceededException bei zu langem Datensatz
+     *         (z.B. ein Anführungszeichen, das erst viel später schließt)
+     */
+    List<String> next() throws IOException {
+        int c = read();
+        while (c == '\r' || c == '\n') {
+            c = read();
+        }
+        if (c < 0) {
+            return null;
+        }
+        List<String> record = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        int length = 0;
+        while (true) {
+            if (++length > maxRecordChars) {
+                throw new CatalogImportService.LimitExceededException(
+                        "CSV-Datensatz länger als " + maxRecordChars + " Zeichen");
+            }
+            if (quoted) {
+                if (c < 0) {
+                    throw new IllegalArgumentException("Nicht geschlossenes Anführungszeichen");
+                }
+                if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                record.add(field.toString());
+                field.setLength(0);
+            } else if (c < 0 || c == '\n' || c == '\r') {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                record.add(field.toString());
+                return record;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (peeked != -2) {
+            int c = peeked;
+            peeked = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private int peek() throws IOException {
+        if (peeked == -2) {
+            peeked = reader.read();
+        }
+        return peeked;
+    }
+}
@@ -0,0 +1,54 @@
+package de.htwg.in.wete.backend.service;
+
+import de.htwg.in.wete.backend.model.Product;
+import de.htwg.in.wete.backend.model.Recipe;
+
+/**
+ * Hilfsmethoden für starke ETags auf Basis der Entity-Version (@Version).
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static String of(Product product) {
+        return "\"p" + product.getId() + "-v" + product.getVersion() + "\"";
+    }
+
+    public static String of(Recipe recipe) {
+        return "\"r" + recipe.getId() + "-v" + recipe.getVersion() + "\"";
+    }
+
+    /**
+     * If-None-Match: schwacher Vergleich, unterstützt Listen ("a", "b") und "*".
+     */
+    public static boolean noneMatchHits(String ifNoneMatch, String etag) {
+        return matches(ifNoneMatch, etag, true);
+    }
+
+    /**
+     * If-Match: starker Vergleich, unterstützt Listen und "*".
+     */
+    public static boolean ifMatchHits(String ifMatch, String etag) {
+        return matches(ifMatch, etag, false);
+    }
+
+    private static boolean matches(String header, String etag, boolean weak) {
+        if (header == null || etag == null) {
+            return false;
+        }
+        for (String candidate : header.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                if (!weak) {
+                    continue;
+                }
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,160 @@
+package de.htwg.in.wete.backend.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import de.htwg.in.wete.backend.model.Favorite;
+import de.htwg.in.wete.backend.model.Recipe;
+import de.htwg.in.wete.backend.model.User;
+import de.htwg.in.wete.backend.repository.FavoriteRepository;
+import de.htwg.in.wete.backend.repository.RecipeRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Fügt mehrere Favoriten eines Users in einer Transaktion hinzu bzw. entfernt
+ * sie (POST /api/favorites/batch).
+ *
+ * Unabhängig von der Anzahl der IDs: eine IN-Query prüft, welche Rezepte es
+ * gibt, eine zweite, welche davon schon Favoriten sind. Neue Favoriten werden
+ * per JDBC-Batch eingefügt (hibernate.jdbc.batch_size, Rezepte nur als
+ * Referenz ohne SELECT), entfernte mit einem einzigen DELETE ... IN gelöscht.
+ */
+@Service
+public class FavoriteBatchService {
+
+    public enum Status {
+        ADDED,
+        ALREADY_FAVORITE,
+        REMOVED,
+        NOT_FAVORITE,
+        NOT_FOUND
+    }
+
+    public enum Action {
+        ADD,
+        REMOVE
+    }
+
+    /** Ergebnis für eine Rezept-ID */
+    public record ItemResult(Long recipeId, Action action, Status status) {
+    }
+
+    public record BatchResult(List<ItemResult> results, int added, int removed) {
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final FavoriteRepository favoriteRepository;
+    private final RecipeRepository recipeRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public FavoriteBatchService(FavoriteRepository favoriteRepository, RecipeRepository recipeRepository,
+            ApplicationEventPublisher eventPublisher) {
+        this.favoriteRepository = favoriteRepository;
+        this.recipeRepository = recipeRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * @param add    Rezept-IDs, die Favoriten werden sollen (Duplikate werden ignoriert)
+     * @param remove Rezept-IDs, die keine Favoriten mehr sein sollen
+     * @throws IllegalArgumentException bei null-IDs oder einer ID in beiden Listen
+     *         (vor jeder Änderung, die Transaktion des Aufrufers bleibt gültig)
+     */
+    @Transactional(noRollbackFor = IllegalArgumentException.class)
+    public BatchResult apply(User user, Collection<Long> add, Collection<Long> remove) {
+        BatchResult result = write(user, add, remove);
+        for (ItemResult item : result.results()) {
+            if (item.status() == Status.ADDED || item.status() == Status.REMOVED) {
+                eventPublisher.publishEvent(new FavoriteChangedEvent(user.getOauthId(), item.recipeId(),
+                        item.status() == Status.ADDED));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Wie {@link #apply(User, Collection, Collection)}, aber ohne
+     * {@link FavoriteChangedEvent}s - für Aufrufer, die die Änderungen schon
+     * selbst veröffentlicht haben (Write-Behind). {@code user} darf eine
+     * Referenz ohne geladene Daten sein.
+     */
+    @Transactional(noRollbackFor = IllegalArgumentException.class)
+    public BatchResult write(User user, Collection<Long> add, Collection<Long> remove) {
+        Set<Long> toAdd = distinct(add);
+        Set<Long> toRemove = distinct(remove);
+        for (Long recipeId : toAdd) {
+            if (toRemove.contains(recipeId)) {
+                throw new IllegalArgumentException("Rezept-ID " + recipeId + " ist in add und remove enthalten");
+            }
+        }
+        Set<Long> all = new HashSet<>(toAdd);
+        all.addAll(toRemove);
+        if (all.isEmpty()) {
+            return new BatchResult(List.of(), 0, 0);
+        }
+
+        Set<Long> recipes = new HashSet<>(recipeRepository.findExistingIds(all));
+        Set<Long> favorites = new HashSet<>(favoriteRepository.findRecipeIdsByUserAndRecipeIdIn(user, all));
+
+        List<ItemResult> results = new ArrayList<>(all.size());
+        int added = 0;
+        for (Long recipeId : toAdd) {
+            Status status;
+            if (!recipes.contains(recipeId)) {
+                status = Status.NOT_FOUND;
+            } else if (favorites.contains(recipeId)) {
+                status = Status.ALREADY_FAVORITE;
+            } else {
+                entityManager.persist(new Favorite(user, entityManager.getReference(Recipe.class, recipeId)));
+                added++;
+                status = Status.ADDED;
+            }
+            results.add(new ItemResult(recipeId, Action.ADD, status));
+        }
+
+        List<Long> removed = new ArrayList<>();
+        for (Long recipeId : toRemove) {
+            Status status;
+            if (favorites.contains(recipeId)) {
+                removed.add(recipeId);
+                status = Status.REMOVED;
+            } else {
+                status = recipes.contains(recipeId) ? Status.NOT_FAVORITE : Status.NOT_FOUND;
+            }
+            results.add(new ItemResult(recipeId, Action.REMOVE, status));
+        }
+
+        // INSERTs jetzt als Batch abschicken, danach ein DELETE für alle entfernten
+        entityManager.flush();
+        if (!removed.isEmpty()) {
+            favoriteRepository.deleteByUserAndRecipeIdIn(user, removed);
+        }
+        return new BatchResult(results, added, removed.size());
+    }
+
+    private static Set<Long> distinct(Collection<Long> recipeIds) {
+        Set<Long> result = new LinkedHashSet<>();
+        if (recipeIds == null) {
+            return result;
+        }
+        for (Long recipeId : recipeIds) {
+            if (recipeId == null) {
+                throw new IllegalArgumentException("Rezept-IDs dürfen nicht null sein");
+            }
+            result.add(recipeId);
+        }
+        return result;
+    }
+}
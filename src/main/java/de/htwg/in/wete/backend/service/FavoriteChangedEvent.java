@@ -0,0 +1,10 @@
+package de.htwg.in.wete.backend.service;
+
+/**
+ * Wird veröffentlicht, wenn ein User ein Rezept zu seinen Favoriten hinzugefügt
+ * ({@code added = true}) oder daraus entfernt hat.
+ *
+ * Listener reagieren mit @TransactionalEventListener erst nach dem Commit.
+ */
+public record FavoriteChangedEvent(String oauthId, Long recipeId, boolean added) {
+}
@@ -0,0 +1,153 @@
+package de.htwg.in.wete.backend.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.htwg.in.wete.backend.repository.FavoriteRepository;
+import de.htwg.in.wete.backend.repository.FavoriteRepository.AdminFavoriteView;
+
+/**
+ * Export aller Favoriten für Admins als NDJSON oder CSV.
+ *
+ * Die Zeilen kommen als Stream direkt aus einer einzigen Join-Query und
+ * werden sofort geschrieben - der Speicherbedarf ist unabhängig von der
+ * Anzahl der Favoriten. Läuft in einer eigenen Read-only-Transaktion, weil
+ * ein {@code StreamingResponseBody} außerhalb des Request-Threads schreibt.
+ */
+@Service
+public class FavoriteExportService {
+
+    /** Spalten in Export-Reihenfolge (gleiche Namen wie AdminFavoriteDTO) */
+    static final String[] COLUMNS = {
+        "id", "userId", "userName", "userEmail", "recipeId", "recipeTitle", "productId", "productTitle", "createdAt"
+    };
+
+    /** Nach so vielen Zeilen wird geflusht, damit der Client früh Daten sieht */
+    private static final int FLUSH_EVERY = 1000;
+
+    private final FavoriteRepository favoriteRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    public FavoriteExportService(FavoriteRepository favoriteRepository, TransactionTemplate transactionTemplate,
+            ObjectMapper objectMapper) {
+        this.favoriteRepository = favoriteRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    /**
+     * Schreibt alle Favoriten (neueste zuerst) und liefert die Anzahl Zeilen.
+     */
+    public long export(Format format, OutputStream out) {
+        Long rows = readOnlyTransaction.execute(status -> {
+            try (Stream<AdminFavoriteView> views = favoriteRepository.streamAllAdminViews()) {
+                return format == Format.CSV ? writeCsv(views.iterator(), out) : writeNdjson(views.iterator(), out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return rows != null ? rows : 0;
+    }
+
+    private long writeNdjson(Iterator<AdminFavoriteView> views, OutputStream out) throws IOException {
+        long rows = 0;
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            while (views.hasNext()) {
+                json.writeStartObject();
+                for (Map.Entry<String, Object> field : values(views.next()).entrySet()) {
+                    json.writeFieldName(field.getKey());
+                    Object value = field.getValue();
+                    if (value instanceof Long number) {
+                        json.writeNumber(number);
+                    } else if (value != null) {
+                        json.writeString(value.toString());
+                    } else {
+                        json.writeNull();
+                    }
+                }
+                json.writeEndObject();
+                json.writeRaw('\n');
+                if (++rows % FLUSH_EVERY == 0) {
+                    json.flush();
+                }
+            }
+        }
+        return rows;
+    }
+
+    private long writeCsv(Iterator<AdminFavoriteView> views, OutputStream out) throws IOException {
+        long rows = 0;
+        Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        csv.write(String.join(",", COLUMNS));
+        csv.write("\r\n");
+        while (views.hasNext()) {
+            boolean first = true;
+            for (Object value : values(views.next()).values()) {
+                if (!first) {
+                    csv.write(',');
+                }
+                first = false;
+                if (value instanceof String text) {
+                    csv.write(csvField(text));
+                } else if (value != null) {
+                    csv.write(value.toString());
+                }
+            }
+            csv.write("\r\n");
+            if (++rows % FLUSH_EVERY == 0) {
+                csv.flush();
+            }
+        }
+        csv.flush();
+        return rows;
+    }
+
+    private static Map<String, Object> values(AdminFavoriteView view) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put(COLUMNS[0], view.getId());
+        values.put(COLUMNS[1], view.getUserId());
+        values.put(COLUMNS[2], view.getUserName());
+        values.put(COLUMNS[3], view.getUserEmail());
+        values.put(COLUMNS[4], view.getRecipeId());
+        values.put(COLUMNS[5], view.getRecipeTitle());
+        values.put(COLUMNS[6], view.getProductId());
+        values.put(COLUMNS[7], view.getProductTitle());
+        values.put(COLUMNS[8], view.getCreatedAt());
+        return values;
+    }
+
+    /**
+     * RFC 4180: Felder mit Komma, Anführungszeichen oder Zeilenumbruch in "..."
+     * mit verdoppelten Anführungszeichen. Führende =, +, -, @ werden mit '
+     * entschärft, damit Tabellenkalkulationen sie nicht als Formel ausführen.
+     */
+    static String csvField(String value) {
+        String safe = !value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0 ? "'" + value : value;
+        if (safe.indexOf(',') < 0 && safe.indexOf('"') < 0 && safe.indexOf('\n') < 0 && safe.indexOf('\r') < 0) {
+            return safe;
+        }
+        return '"' + safe.replace("\"", "\"\"") + '"';
+    }
+}
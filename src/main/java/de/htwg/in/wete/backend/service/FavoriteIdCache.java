@@ -0,0 +1,146 @@
+package de.htwg.in.wete.backend.service;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import de.htwg.in.wete.backend.repository.FavoriteRepository;
+
+/**
+ * Hält pro User die Menge seiner Favoriten-Rezept-IDs als komprimierte
+ * Roaring-Bitmap im Speicher.
+ *
+ * Die Bitmap wird beim ersten Zugriff eines Users einmal aus der Datenbank
+ * geladen und danach über {@link FavoriteChangedEvent}s aktuell gehalten.
+ * Änderungen erzeugen eine neue Bitmap (Copy-on-Write), Leser sehen daher
+ * immer einen konsistenten Stand und brauchen keine Sperren. Geladen wird
+ * außerhalb der Cache-Sperre ({@link CallerRunsLoads}); Änderungen, die
+ * während des Ladens eintreffen, werden an das laufende Laden angehängt.
+ */
+@Service
+public class FavoriteIdCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FavoriteIdCache.class);
+
+    private final FavoriteRepository favoriteRepository;
+    private final FavoriteWriteBehind writeBehind;
+    private final AsyncCache<String, Roaring64Bitmap> favorites;
+
+    public FavoriteIdCache(FavoriteRepository favoriteRepository, FavoriteWriteBehind writeBehind,
+            @Value("${casellese.favorites.id-cache.max-users:50000}") long maxUsers,
+            @Value("${casellese.favorites.id-cache.idle-minutes:60}") long idleMinutes) {
+        this.favoriteRepository = favoriteRepository;
+        this.writeBehind = writeBehind;
+        this.favorites = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(idleMinutes, TimeUnit.MINUTES)
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Alle Favoriten-Rezept-IDs des Users (aufsteigend sortiert).
+     */
+    public long[] ids(String oauthId) {
+        return bitmap(oauthId).toArray();
+    }
+
+    public boolean contains(String oauthId, long recipeId) {
+        return bitmap(oauthId).contains(recipeId);
+    }
+
+    /**
+     * Filtert die übergebenen Rezept-IDs auf die Favoriten des Users
+     * (Reihenfolge wie übergeben, ohne Duplikate).
+     */
+    public List<Long> filterFavorites(String oauthId, Collection<Long> recipeIds) {
+        Roaring64Bitmap bitmap = bitmap(oauthId);
+        return recipeIds.stream()
+                .filter(id -> id != null && bitmap.contains(id))
+                .distinct()
+                .toList();
+    }
+
+    public long count(String oauthId) {
+        return bitmap(oauthId).getLongCardinality();
+    }
+
+    public void evict(String oauthId) {
+        favorites.synchronous().invalidate(oauthId);
+    }
+
+    public void evictAll() {
+        favorites.synchronous().invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFavoriteChanged(FavoriteChangedEvent event) {
+        // Nur bereits geladene User aktualisieren, alle anderen werden bei Bedarf frisch geladen
+        favorites.asMap().computeIfPresent(event.oauthId(), (oauthId, future) -> future.thenApply(current -> {
+            Roaring64Bitmap copy = current.clone();
+            if (event.added()) {
+                copy.addLong(event.recipeId());
+            } else {
+                copy.removeLong(event.recipeId());
+            }
+            copy.runOptimize();
+            return copy;
+        }));
+    }
+
+    /**
+     * Gelöschte Rezepte (und Katalog-Neuladen) können Favoriten mitnehmen:
+     * dann alle Bitmaps verwerfen, das ist selten.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.isReload()
+                || (event.change() == CatalogChangedEvent.Change.DELETED && event.recipe() != null)) {
+            favorites.synchronous().invalidateAll();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats stats = favorites.synchronous().stats();
+        long bytes = favorites.synchronous().asMap().values().stream()
+                .mapToLong(Roaring64Bitmap::getLongSizeInBytes)
+                .sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("users", favorites.synchronous().estimatedSize());
+        result.put("bitmapBytes", bytes);
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        return result;
+    }
+
+    private Roaring64Bitmap bitmap(String oauthId) {
+        return CallerRunsLoads.get(favorites, oauthId, this::load);
+    }
+
+    private Roaring64Bitmap load(String oauthId) {
+        LOG.debug("Loading favorite ids for user {}", oauthId);
+        List<Long> recipeIds = favoriteRepository.findRecipeIdsByUserOauthId(oauthId);
+        Roaring64Bitmap bitmap = new Roaring64Bitmap();
+        for (Long recipeId : recipeIds) {
+            bitmap.addLong(recipeId);
+        }
+        // Noch nicht geschriebene Toggles (Write-Behind) gehören zum aktuellen Stand
+        writeBehind.applyPending(oauthId, bitmap);
+        bitmap.runOptimize();
+        return bitmap;
+    }
+}
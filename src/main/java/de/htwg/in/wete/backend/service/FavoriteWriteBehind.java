@@ -0,0 +1,423 @@
+package de.htwg.in.wete.backend.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import de.htwg.in.wete.backend.config.ReadWriteRoutingDataSource;
+import de.htwg.in.wete.backend.model.User;
+import de.htwg.in.wete.backend.service.FavoriteBatchService.Action;
+import de.htwg.in.wete.backend.service.FavoriteBatchService.BatchResult;
+import de.htwg.in.wete.backend.service.FavoriteBatchService.ItemResult;
+import de.htwg.in.wete.backend.service.FavoriteBatchService.Status;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Optionaler Write-Behind-Modus für Favoriten-Toggles
+ * ({@code casellese.favorites.write-behind.enabled}).
+ *
+ * Ein Toggle ändert nur den Zustand im Speicher: der gewünschte Status pro
+ * (User, Rezept) landet in einer Map, und das {@link FavoriteChangedEvent}
+ * wird sofort veröffentlicht (ID-Cache, Popularität usw. sind damit aktuell).
+ * Mehrfaches Umschalten desselben Paars überschreibt nur den Eintrag; ein
+ * Hintergrund-Flush schreibt die Netto-Änderungen in Batches über
+ * {@link FavoriteBatchService#write}, unveränderte Paare gar nicht.
+ *
+ * Die Map ist auf {@code max-pending} Paare begrenzt; ist sie voll, wartet
+ * {@link #awaitCapacity} bis zu {@code offer-timeout-ms} auf einen Flush und
+ * weist sonst mit {@link UnavailableException} ab. Beim Herunterfahren wird
+ * alles geschrieben. Liest ein Pfad Favoriten aus der Datenbank, schreibt er
+ * vorher die offenen Änderungen dieses Users ({@link #flushUser(String)}).
+ *
+ * Warten und Flushen nur ohne eigene Transaktion bzw. Connection aufrufen:
+ * der Flush braucht selbst eine Connection, ein wartender Request mit
+ * Connection kann den Pool sonst leerlaufen lassen.
+ */
+@Service
+public class FavoriteWriteBehind {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FavoriteWriteBehind.class);
+
+    private static final int STRIPES = 64;
+
+    private record Key(String oauthId, long recipeId) {
+    }
+
+    /**
+     * Offene Änderungen können gerade nicht angenommen oder geschrieben
+     * werden (volle Warteschlange, Datenbank nicht erreichbar): 503.
+     */
+    public static class UnavailableException extends IllegalStateException {
+
+        public UnavailableException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Offene Änderung: {@code persisted} ist der Stand in der Datenbank,
+     * {@code desired} der Stand nach allen Toggles.
+     */
+    private record Pending(long userId, boolean persisted, boolean desired) {
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final FavoriteBatchService favoriteBatchService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TaskExecutor taskExecutor;
+    private final TransactionTemplate flushTransaction;
+    // Nur mit Lese-Replikat: Read-your-writes für die geschriebenen User
+    private final ObjectProvider<ReadWriteRoutingDataSource> routingDataSource;
+    private final int maxPending;
+    private final int batchSize;
+    private final long offerTimeoutMillis;
+
+    private volatile boolean enabled;
+    private volatile boolean closed;
+
+    private final ConcurrentHashMap<Key, Pending> pending = new ConcurrentHashMap<>();
+    // Reihenfolge von Entscheidung und Event pro Paar
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ReentrantLock capacityLock = new ReentrantLock();
+    private final Condition notFull = capacityLock.newCondition();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+
+    private final LongAdder toggles = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private volatile long lastFlushMillis = -1;
+
+    public FavoriteWriteBehind(FavoriteBatchService favoriteBatchService, ApplicationEventPublisher eventPublisher,
+            TransactionTemplate transactionTemplate, ObjectProvider<ReadWriteRoutingDataSource> routingDataSource,
+            @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+            @Value("${casellese.favorites.write-behind.enabled:false}") boolean enabled,
+            @Value("${casellese.favorites.write-behind.max-pending:10000}") int maxPending,
+            @Value("${casellese.favorites.write-behind.batch-size:500}") int batchSize,
+            @Value("${casellese.favorites.write-behind.offer-timeout-ms:1000}") long offerTimeoutMillis) {
+        this.favoriteBatchService = favoriteBatchService;
+        this.eventPublisher = eventPublisher;
+        this.taskExecutor = taskExecutor;
+        // Eigene Transaktion: ein Flush darf nicht mit dem Request zurückgerollt werden
+        this.flushTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.flushTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.routingDataSource = routingDataSource;
+        this.enabled = enabled;
+        this.maxPending = Math.max(1, maxPending);
+        this.batchSize = Math.max(1, batchSize);
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /** true, wenn Toggles über die Warteschlange laufen sollen */
+    public boolean isEnabled() {
+        return enabled && !closed;
+    }
+
+    /**
+     * Schaltet den Modus um; beim Ausschalten wird alles Offene geschrieben.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            drain();
+        }
+    }
+
+    /**
+     * Schaltet den Favoriten-Status um und liefert den neuen Status. Läuft
+     * ohne Transaktion, damit das Event sofort (und pro Paar in
+     * Entscheidungsreihenfolge) bei den Listenern ankommt.
+     *
+     * @param userId  ID des (existierenden) Users
+     * @param current aktueller Status, falls keine Änderung offen ist
+     *                (z.B. aus dem {@link FavoriteIdCache})
+     * @throws UnavailableException wenn die Warteschlange voll ist; gewartet
+     *                              wird vorher mit {@link #awaitCapacity}
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean toggle(String oauthId, long userId, long recipeId, BooleanSupplier current) {
+        Key key = new Key(oauthId, recipeId);
+        if (!pending.containsKey(key) && pending.size() >= maxPending) {
+            requestFlush();
+            rejected.increment();
+            throw new UnavailableException("Zu viele ausstehende Favoriten-Änderungen");
+        }
+        ReentrantLock stripe = stripes[Math.floorMod(key.hashCode(), STRIPES)];
+        stripe.lock();
+        try {
+            Pending existing = pending.get(key);
+            boolean desired = !(existing != null ? existing.desired() : current.getAsBoolean());
+            pending.compute(key, (k, entry) -> entry == null
+                    // Zwischen get und compute geschrieben: Datenbank hat jetzt den bisherigen Wunsch
+                    ? new Pending(userId, !desired, desired)
+                    : new Pending(entry.userId(), entry.persisted(), desired));
+            if (existing != null) {
+                coalesced.increment();
+            }
+            toggles.increment();
+            eventPublisher.publishEvent(new FavoriteChangedEvent(oauthId, recipeId, desired));
+            if (pending.size() >= batchSize) {
+                requestFlush();
+            }
+            return desired;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Überträgt offene Änderungen des Users auf eine frisch aus der Datenbank
+     * geladene Favoriten-Bitmap.
+     */
+    public void applyPending(String oauthId, Roaring64Bitmap bitmap) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        pending.forEach((key, change) -> {
+            if (key.oauthId().equals(oauthId)) {
+                if (change.desired()) {
+                    bitmap.addLong(key.recipeId());
+                } else {
+                    bitmap.removeLong(key.recipeId());
+                }
+            }
+        });
+    }
+
+    /**
+     * Liefert alle offenen Änderungen als Event mit dem gewünschten Status,
+     * z.B. für den Abgleich der Favoriten-Zähler mit der Datenbank.
+     */
+    public void forEachPending(Consumer<FavoriteChangedEvent> action) {
+        pending.forEach((key, change) ->
+                action.accept(new FavoriteChangedEvent(key.oauthId(), key.recipeId(), change.desired())));
+    }
+
+    /**
+     * Schreibt alle offenen Änderungen des Users sofort (vor Datenbank-Lesern
+     * und synchronen Schreibpfaden, auch nach dem Abschalten).
+     *
+     * @throws UnavailableException wenn der Flush fehlschlägt; der Aufrufer
+     *                              würde sonst einen veralteten Stand lesen
+     */
+    public void flushUser(String oauthId) {
+        if (!pending.isEmpty() && flush(key -> key.oauthId().equals(oauthId), Integer.MAX_VALUE) < 0) {
+            throw new UnavailableException("Offene Favoriten-Änderungen konnten nicht geschrieben werden");
+        }
+    }
+
+    /**
+     * Wartet bis zu {@code offer-timeout-ms}, bis für ein neues Paar Platz in
+     * der Warteschlange ist. Vor jedem Datenbankzugriff des Requests aufrufen.
+     *
+     * @throws UnavailableException wenn die Warteschlange voll bleibt
+     */
+    public void awaitCapacity(String oauthId, long recipeId) {
+        if (pending.size() < maxPending || pending.containsKey(new Key(oauthId, recipeId))) {
+            return;
+        }
+        requestFlush();
+        long remaining = TimeUnit.MILLISECONDS.toNanos(offerTimeoutMillis);
+        capacityLock.lock();
+        try {
+            while (pending.size() >= maxPending) {
+                if (remaining <= 0) {
+                    rejected.increment();
+                    throw new UnavailableException("Zu viele ausstehende Favoriten-Änderungen");
+                }
+                remaining = notFull.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UnavailableException("Unterbrochen beim Warten auf die Favoriten-Warteschlange");
+        } finally {
+            capacityLock.unlock();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${casellese.favorites.write-behind.flush-interval-ms:50}",
+            fixedDelayString = "${casellese.favorites.write-behind.flush-interval-ms:50}")
+    public void scheduledFlush() {
+        // Volle Batches direkt nacheinander, damit sich unter Last nichts staut
+        int flushed;
+        do {
+            flushed = pending.isEmpty() ? 0 : flush(key -> true, batchSize);
+        } while (flushed == batchSize);
+    }
+
+    /**
+     * Beim Herunterfahren: keine neuen Toggles mehr annehmen, alles Offene schreiben.
+     */
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        drain();
+    }
+
+    /**
+     * Schreibt alles Offene. Bricht ab, wenn die Datenbank wiederholt nicht
+     * erreichbar ist.
+     */
+    public void drain() {
+        int failures = 0;
+        while (!pending.isEmpty() && failures < 3) {
+            if (flush(key -> true, batchSize) < 0) {
+                failures++;
+            }
+        }
+        if (!pending.isEmpty()) {
+            LOG.error("Write-behind drain left {} favorite changes unwritten", pending.size());
+        }
+    }
+
+    private void requestFlush() {
+        if (flushQueued.compareAndSet(false, true)) {
+            taskExecutor.execute(() -> {
+                flushQueued.set(false);
+                scheduledFlush();
+            });
+        }
+    }
+
+    /**
+     * Schreibt bis zu {@code limit} offene Änderungen in einer Transaktion.
+     *
+     * @return Anzahl erledigter Einträge, -1 bei einem Fehler
+     */
+    private int flush(Predicate<Key> filter, int limit) {
+        flushLock.lock();
+        try {
+            Map<Key, Pending> batch = new LinkedHashMap<>();
+            for (Map.Entry<Key, Pending> entry : pending.entrySet()) {
+                if (batch.size() >= limit) {
+                    break;
+                }
+                if (!filter.test(entry.getKey())) {
+                    continue;
+                }
+                if (entry.getValue().desired() == entry.getValue().persisted()) {
+                    // Netto keine Änderung (gerade umgeschaltet und zurück)
+                    if (pending.remove(entry.getKey(), entry.getValue())) {
+                        skipped.increment();
+                    }
+                } else {
+                    batch.put(entry.getKey(), entry.getValue());
+                }
+            }
+            if (batch.isEmpty()) {
+                return 0;
+            }
+
+            long start = System.nanoTime();
+            List<Key> notFound = new ArrayList<>();
+            try {
+                flushTransaction.executeWithoutResult(status -> write(batch, notFound));
+            } catch (RuntimeException e) {
+                failedFlushes.increment();
+                LOG.warn("Write-behind flush of {} favorite changes failed, will retry", batch.size(), e);
+                return -1;
+            }
+
+            batch.forEach((key, flushed) -> pending.computeIfPresent(key, (k, current) -> current == flushed
+                    ? null
+                    // Inzwischen erneut umgeschaltet: Datenbank hat jetzt den geschriebenen Stand
+                    : new Pending(current.userId(), flushed.desired(), current.desired())));
+            // Der Flush läuft ohne SecurityContext: Fenster für die eigentlichen Schreiber öffnen
+            routingDataSource.ifAvailable(routing -> batch.keySet().forEach(key -> routing.markWritten(key.oauthId())));
+            // Rezept inzwischen gelöscht: Zustand im Speicher korrigieren
+            for (Key key : notFound) {
+                eventPublisher.publishEvent(new FavoriteChangedEvent(key.oauthId(), key.recipeId(), false));
+            }
+            written.add(batch.size());
+            flushes.increment();
+            lastFlushMillis = (System.nanoTime() - start) / 1_000_000;
+            signalNotFull();
+            return batch.size();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void write(Map<Key, Pending> batch, List<Key> notFound) {
+        Map<Long, List<Long>> adds = new LinkedHashMap<>();
+        Map<Long, List<Long>> removes = new LinkedHashMap<>();
+        Map<Long, String> oauthIds = new LinkedHashMap<>();
+        batch.forEach((key, change) -> {
+            (change.desired() ? adds : removes)
+                    .computeIfAbsent(change.userId(), id -> new ArrayList<>())
+                    .add(key.recipeId());
+            oauthIds.put(change.userId(), key.oauthId());
+        });
+        for (Long userId : oauthIds.keySet()) {
+            User user = entityManager.getReference(User.class, userId);
+            BatchResult result = favoriteBatchService.write(user,
+                    adds.getOrDefault(userId, List.of()), removes.getOrDefault(userId, List.of()));
+            for (ItemResult item : result.results()) {
+                if (item.action() == Action.ADD && item.status() == Status.NOT_FOUND) {
+                    notFound.add(new Key(oauthIds.get(userId), item.recipeId()));
+                }
+            }
+        }
+    }
+
+    private void signalNotFull() {
+        capacityLock.lock();
+        try {
+            notFull.signalAll();
+        } finally {
+            capacityLock.unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", isEnabled());
+        result.put("pending", pending.size());
+        result.put("maxPending", maxPending);
+        result.put("toggles", toggles.sum());
+        result.put("coalesced", coalesced.sum());
+        result.put("written", written.sum());
+        result.put("skipped", skipped.sum());
+        result.put("flushes", flushes.sum());
+        result.put("failedFlushes", failedFlushes.sum());
+        result.put("rejected", rejected.sum());
+        result.put("lastFlushMillis", lastFlushMillis);
+        return result;
+    }
+}
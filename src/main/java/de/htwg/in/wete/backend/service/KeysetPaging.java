@@ -0,0 +1,87 @@
+package de.htwg.in.wete.backend.service;
+
+import java.util.Locale;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import de.htwg.in.wete.backend.repository.KeysetCursor;
+import de.htwg.in.wete.backend.repository.SortKey;
+
+/**
+ * Gemeinsame Regeln für die Listen-Endpoints (/api/product, /api/recipes,
+ * /api/users): Seitengrößen, Sortierparameter und Cursor-Token.
+ *
+ * Mit {@code sort}, {@code size} oder {@code cursor} antwortet ein Endpoint
+ * seitenweise ({@link de.htwg.in.wete.backend.repository.KeysetPage}), ohne
+ * diese Parameter wie bisher mit einer Liste - dann aber höchstens
+ * {@code unpaged-limit} Einträge.
+ */
+@Service
+public class KeysetPaging {
+
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int unpagedLimit;
+
+    public KeysetPaging(@Value("${casellese.paging.default-page-size:20}") int defaultPageSize,
+            @Value("${casellese.paging.max-page-size:100}") int maxPageSize,
+            @Value("${casellese.paging.unpaged-limit:1000}") int unpagedLimit) {
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.unpagedLimit = unpagedLimit;
+    }
+
+    public boolean isPaged(String sort, Integer size, String cursor) {
+        return sort != null || size != null || cursor != null;
+    }
+
+    public int unpagedLimit() {
+        return unpagedLimit;
+    }
+
+    /**
+     * @throws IllegalArgumentException wenn size außerhalb 1..max-page-size liegt
+     */
+    public int pageSize(Integer size) {
+        if (size == null) {
+            return defaultPageSize;
+        }
+        if (size < 1 || size > maxPageSize) {
+            throw new IllegalArgumentException("size muss zwischen 1 und " + maxPageSize + " liegen");
+        }
+        return size;
+    }
+
+    /**
+     * Startposition aus einem Cursor-Token oder, ohne Token, aus {@code sort}
+     * ("title", "price,desc"; Standard: ID aufsteigend).
+     *
+     * @throws IllegalArgumentException bei ungültigem Token oder nicht erlaubtem Sortierfeld
+     */
+    public KeysetCursor start(String sort, String cursor, Set<SortKey> allowed) {
+        KeysetCursor start;
+        if (cursor != null) {
+            start = KeysetCursor.decode(cursor)
+                    .orElseThrow(() -> new IllegalArgumentException("Cursor ungültig"));
+        } else if (sort != null) {
+            String[] parts = sort.split(",", 2);
+            boolean descending = parts.length == 2 && "desc".equalsIgnoreCase(parts[1].trim());
+            if (parts.length == 2 && !descending && !"asc".equalsIgnoreCase(parts[1].trim())) {
+                throw new IllegalArgumentException("Sortierrichtung muss asc oder desc sein");
+            }
+            try {
+                start = KeysetCursor.first(SortKey.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), descending);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unbekanntes Sortierfeld: " + parts[0]);
+            }
+        } else {
+            start = KeysetCursor.first(SortKey.ID, false);
+        }
+        if (!allowed.contains(start.key())) {
+            throw new IllegalArgumentException("Sortierung nach " + start.key().getProperty() + " nicht möglich");
+        }
+        return start;
+    }
+}
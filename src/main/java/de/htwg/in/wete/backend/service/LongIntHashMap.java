@@ -0,0 +1,152 @@
+package de.htwg.in.wete.backend.service;
+
+/**
+ * Hash-Map von {@code long} auf {@code int} ohne Boxing (offene Adressierung,
+ * lineares Sondieren). Schlüssel müssen ungleich 0 sein, 0 markiert freie
+ * Plätze. Einträge mit Wert 0 werden entfernt. Nicht thread-sicher.
+ */
+public final class LongIntHashMap {
+
+    /** Callback für {@link #forEach(EntryConsumer)} */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, int value);
+    }
+
+    private static final int MIN_CAPACITY = 4;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    public LongIntHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, expectedSize * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Wert zu {@code key}, 0 wenn nicht vorhanden */
+    public int get(long key) {
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Addiert {@code delta} zum Wert von {@code key} und liefert den neuen Wert;
+     * ergibt sich 0, wird der Eintrag entfernt.
+     */
+    public int addTo(long key, int delta) {
+        if (key == 0) {
+            throw new IllegalArgumentException("Schlüssel 0 ist reserviert");
+        }
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                int value = values[i] + delta;
+                if (value == 0) {
+                    removeAt(i);
+                } else {
+                    values[i] = value;
+                }
+                return value;
+            }
+            i = (i + 1) & mask;
+        }
+        if (delta == 0) {
+            return 0;
+        }
+        keys[i] = key;
+        values[i] = delta;
+        if (++size * 4 > keys.length * 3) {
+            resize(keys.length << 1);
+        }
+        return delta;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    /** Addiert alle Einträge von {@code other} */
+    public void addAll(LongIntHashMap other) {
+        other.forEach(this::addTo);
+    }
+
+    /** Speicher der beiden Arrays in Bytes */
+    public long sizeInBytes() {
+        return 16 + 8L * keys.length + 16 + 4L * values.length;
+    }
+
+    /**
+     * Entfernt durch Zurückschieben der Folgeeinträge, damit keine
+     * Grabsteine die Sondierketten verlängern.
+     */
+    private void removeAt(int index) {
+        int mask = keys.length - 1;
+        int gap = index;
+        int i = (index + 1) & mask;
+        while (keys[i] != 0) {
+            int home = slot(keys[i], mask);
+            // Eintrag darf in die Lücke, wenn die Lücke zwischen seinem Heimplatz und ihm liegt
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[gap] = 0;
+        values[gap] = 0;
+        size--;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[capacity];
+        values = new int[capacity];
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != 0) {
+                int i = slot(oldKeys[j], mask);
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    @Override
+    public String toString() {
+        return "LongIntHashMap{size=" + size + ", capacity=" + keys.length + "}";
+    }
+}
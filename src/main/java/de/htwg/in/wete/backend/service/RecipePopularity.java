@@ -0,0 +1,352 @@
+package de.htwg.in.wete.backend.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import de.htwg.in.wete.backend.config.ReadWriteRoutingDataSource;
+import de.htwg.in.wete.backend.model.Recipe;
+import de.htwg.in.wete.backend.repository.FavoriteRepository;
+import de.htwg.in.wete.backend.repository.RecipeRepository;
+
+/**
+ * Favoriten-Zähler pro Rezept im Speicher, Grundlage von GET /api/recipes/popular.
+ *
+ * Die Zähler sind {@link LongAdder}s (gestreift, ohne Konflikte bei parallelen
+ * Toggles) und werden über {@link FavoriteChangedEvent}s aus add, remove und
+ * toggle fortgeschrieben. Beim Start und danach periodisch werden sie mit einer
+ * einzigen Aggregat-Query ({@link FavoriteRepository#countFavoritesPerRecipe()})
+ * abgeglichen; das korrigiert Änderungen, die am Controller vorbei gingen.
+ * Events während des Abgleichs werden pro Favorit gegen den Stand im
+ * Snapshot der Query verrechnet, damit nichts doppelt zählt. Noch nicht
+ * geschriebene Toggles aus {@link FavoriteWriteBehind} sind schon gezählt und
+ * gehen deshalb wie solche Events in den Abgleich ein.
+ * Rezepttitel werden ebenfalls im Speicher gehalten, die Rangliste braucht
+ * daher keine Datenbank.
+ */
+@Service
+public class RecipePopularity {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RecipePopularity.class);
+
+    /** Meiste Favoriten zuerst, bei Gleichstand ältere (kleinere) Rezept-ID */
+    private static final Comparator<PopularRecipe> RANKING = Comparator.comparingLong(PopularRecipe::favorites)
+            .reversed()
+            .thenComparingLong(PopularRecipe::recipeId);
+
+    /** Ein Eintrag der Rangliste */
+    public record PopularRecipe(long recipeId, String title, long favorites) {
+    }
+
+    private record Pair(String oauthId, long recipeId) {
+    }
+
+    /** Was während eines Abgleichs geändert wird, gilt auch für den frischen Stand */
+    private static final class Changes {
+        // Letzter Status pro Favorit; Events sind absolut, das letzte gilt
+        final ConcurrentHashMap<Pair, Boolean> favorites = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<Long, String> titles = new ConcurrentHashMap<>();
+        final Set<Long> deleted = ConcurrentHashMap.newKeySet();
+    }
+
+    private final FavoriteRepository favoriteRepository;
+    private final RecipeRepository recipeRepository;
+    private final FavoriteWriteBehind writeBehind;
+    private final TransactionTemplate reconcileTransaction;
+    private final TaskExecutor taskExecutor;
+
+    private volatile ConcurrentHashMap<Long, LongAdder> counters = new ConcurrentHashMap<>();
+    private volatile ConcurrentHashMap<Long, String> titles = new ConcurrentHashMap<>();
+
+    // Änderungen während eines Abgleichs, werden auf den frischen DB-Stand angewendet
+    private Changes pending;
+    // Lesesperre für Updates (parallel), Schreibsperre nur für Start und Austausch beim Abgleich
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final ReentrantLock reconcileLock = new ReentrantLock();
+    private final AtomicBoolean reconcileQueued = new AtomicBoolean();
+
+    private volatile long lastReconcileMillis = -1;
+    private volatile long lastDrift;
+    private volatile long reconciles;
+
+    public RecipePopularity(FavoriteRepository favoriteRepository, RecipeRepository recipeRepository,
+            FavoriteWriteBehind writeBehind, TransactionTemplate transactionTemplate,
+            @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+        this.favoriteRepository = favoriteRepository;
+        this.recipeRepository = recipeRepository;
+        this.writeBehind = writeBehind;
+        // Aggregat und Stand der währenddessen geänderten Favoriten aus demselben Snapshot
+        this.reconcileTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.reconcileTransaction.setReadOnly(true);
+        this.reconcileTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * Die {@code limit} Rezepte mit den meisten Favoriten (mindestens einer),
+     * per Min-Heap der Größe {@code limit} in O(n log limit).
+     */
+    public List<PopularRecipe> top(int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        Map<Long, String> currentTitles = titles;
+        PriorityQueue<PopularRecipe> heap = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        counters.forEach((recipeId, counter) -> {
+            long favorites = counter.sum();
+            String title = currentTitles.get(recipeId);
+            if (favorites <= 0 || title == null) {
+                return;
+            }
+            PopularRecipe candidate = new PopularRecipe(recipeId, title, favorites);
+            if (heap.size() < limit) {
+                heap.add(candidate);
+            } else if (RANKING.compare(candidate, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(candidate);
+            }
+        });
+        List<PopularRecipe> result = new ArrayList<>(heap);
+        result.sort(RANKING);
+        return result;
+    }
+
+    public long favorites(long recipeId) {
+        LongAdder counter = counters.get(recipeId);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /**
+     * Titel des Rezepts aus dem Speicher, null wenn unbekannt (z.B. gelöscht).
+     */
+    public String title(long recipeId) {
+        return titles.get(recipeId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFavoriteChanged(FavoriteChangedEvent event) {
+        swapLock.readLock().lock();
+        try {
+            counters.computeIfAbsent(event.recipeId(), id -> new LongAdder()).add(event.added() ? 1 : -1);
+            if (pending != null && event.oauthId() != null) {
+                pending.favorites.put(new Pair(event.oauthId(), event.recipeId()), event.added());
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.isReload()) {
+            requestReconcile();
+            return;
+        }
+        Recipe recipe = event.recipe();
+        if (recipe == null || recipe.getId() == null) {
+            return;
+        }
+        if (event.change() == CatalogChangedEvent.Change.DELETED) {
+            // Exklusiv, damit ein laufender Abgleich das Rezept nicht zurückbringt
+            swapLock.writeLock().lock();
+            try {
+                titles.remove(recipe.getId());
+                counters.remove(recipe.getId());
+                if (pending != null) {
+                    pending.deleted.add(recipe.getId());
+                }
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        } else {
+            swapLock.readLock().lock();
+            try {
+                titles.put(recipe.getId(), recipe.getTitle());
+                if (pending != null) {
+                    pending.titles.put(recipe.getId(), recipe.getTitle());
+                }
+            } finally {
+                swapLock.readLock().unlock();
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void requestReconcile() {
+        if (reconcileQueued.compareAndSet(false, true)) {
+            taskExecutor.execute(() -> {
+                reconcileQueued.set(false);
+                reconcile();
+            });
+        }
+    }
+
+    @Scheduled(initialDelayString = "${casellese.popularity.reconcile-interval-ms:300000}",
+            fixedDelayString = "${casellese.popularity.reconcile-interval-ms:300000}")
+    public void scheduledReconcile() {
+        reconcile();
+    }
+
+    /**
+     * Lädt alle Zähler und Titel neu aus der Datenbank und tauscht sie aus.
+     * Updates, die während der Query eintreffen, gehen nicht verloren und
+     * werden nicht doppelt gezählt, wenn der Snapshot sie schon enthält.
+     */
+    public void reconcile() {
+        reconcileLock.lock();
+        try {
+            long start = System.nanoTime();
+            Changes changes = new Changes();
+            swapLock.writeLock().lock();
+            try {
+                pending = changes;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            // Per Event gezählt, aber noch nicht in der Tabelle; spätere Events gewinnen
+            writeBehind.forEachPending(event -> changes.favorites
+                    .putIfAbsent(new Pair(event.oauthId(), event.recipeId()), event.added()));
+
+            ConcurrentHashMap<Long, LongAdder> freshCounters = new ConcurrentHashMap<>();
+            ConcurrentHashMap<Long, String> freshTitles = new ConcurrentHashMap<>();
+            long drift;
+            try {
+                // Primär: das Replikat hinkt den Events hinterher
+                drift = ReadWriteRoutingDataSource.onPrimary(() -> reconcileTransaction.execute(status -> {
+                    favoriteRepository.countFavoritesPerRecipe().forEach(count -> {
+                        LongAdder counter = new LongAdder();
+                        counter.add(count.getFavorites());
+                        freshCounters.put(count.getRecipeId(), counter);
+                    });
+                    recipeRepository.findAllTitles()
+                            .forEach(recipe -> freshTitles.put(recipe.getId(), recipe.getTitle()));
+
+                    Set<Pair> inSnapshot = new HashSet<>();
+                    Set<Pair> looked = new HashSet<>(changes.favorites.keySet());
+                    loadFavorites(looked, inSnapshot);
+                    swapLock.writeLock().lock();
+                    try {
+                        // Erst nach der ersten Abfrage eingetroffen (meist keine)
+                        Set<Pair> late = new HashSet<>(changes.favorites.keySet());
+                        late.removeAll(looked);
+                        loadFavorites(late, inSnapshot);
+                        return swap(changes, inSnapshot, freshCounters, freshTitles);
+                    } finally {
+                        swapLock.writeLock().unlock();
+                    }
+                }));
+            } catch (RuntimeException e) {
+                LOG.warn("Popularity reconcile failed, keeping in-memory counters", e);
+                swapLock.writeLock().lock();
+                try {
+                    if (pending == changes) {
+                        pending = null;
+                    }
+                } finally {
+                    swapLock.writeLock().unlock();
+                }
+                return;
+            }
+
+            lastDrift = drift;
+            reconciles++;
+            lastReconcileMillis = (System.nanoTime() - start) / 1_000_000;
+            if (drift != 0) {
+                LOG.info("Popularity counters reconciled: {} recipes, drift {} in {} ms",
+                        freshCounters.size(), drift, lastReconcileMillis);
+            }
+        } finally {
+            reconcileLock.unlock();
+        }
+    }
+
+    /**
+     * Wendet die Änderungen seit Beginn des Abgleichs auf den DB-Stand an und
+     * tauscht ihn ein; nur unter der Schreibsperre aufrufen.
+     *
+     * @return Drift zwischen altem und neuem Stand
+     */
+    private long swap(Changes changes, Set<Pair> inSnapshot, ConcurrentHashMap<Long, LongAdder> freshCounters,
+            ConcurrentHashMap<Long, String> freshTitles) {
+        changes.favorites.forEach((pair, added) -> {
+            long delta = (added ? 1 : 0) - (inSnapshot.contains(pair) ? 1 : 0);
+            if (delta != 0) {
+                freshCounters.computeIfAbsent(pair.recipeId(), id -> new LongAdder()).add(delta);
+            }
+        });
+        freshTitles.putAll(changes.titles);
+        changes.deleted.forEach(recipeId -> {
+            freshCounters.remove(recipeId);
+            freshTitles.remove(recipeId);
+        });
+        long drift = drift(counters, freshCounters);
+        counters = freshCounters;
+        titles = freshTitles;
+        pending = null;
+        return drift;
+    }
+
+    /**
+     * Trägt ein, welche der Paare im aktuellen Snapshot Favoriten sind.
+     */
+    private void loadFavorites(Set<Pair> pairs, Set<Pair> inSnapshot) {
+        if (pairs.isEmpty()) {
+            return;
+        }
+        Set<String> oauthIds = new HashSet<>();
+        Set<Long> recipeIds = new HashSet<>();
+        pairs.forEach(pair -> {
+            oauthIds.add(pair.oauthId());
+            recipeIds.add(pair.recipeId());
+        });
+        favoriteRepository.findUserRecipesIn(oauthIds, recipeIds).forEach(favorite -> {
+            Pair pair = new Pair(favorite.getOauthId(), favorite.getRecipeId());
+            if (pairs.contains(pair)) {
+                inSnapshot.add(pair);
+            }
+        });
+    }
+
+    /**
+     * Summe der absoluten Abweichungen zwischen altem und neuem Stand.
+     */
+    private static long drift(Map<Long, LongAdder> before, Map<Long, LongAdder> after) {
+        Map<Long, Long> differences = new HashMap<>();
+        before.forEach((id, counter) -> differences.merge(id, counter.sum(), Long::sum));
+        after.forEach((id, counter) -> differences.merge(id, -counter.sum(), Long::sum));
+        return differences.values().stream().mapToLong(Math::abs).sum();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("recipes", counters.size());
+        result.put("favorites", counters.values().stream().mapToLong(LongAdder::sum).sum());
+        result.put("reconciles", reconciles);
+        result.put("lastDrift", lastDrift);
+        result.put("lastReconcileMillis", lastReconcileMillis);
+        return result;
+    }
+}
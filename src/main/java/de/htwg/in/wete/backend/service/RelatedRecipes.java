@@ -0,0 +1,452 @@
+package de.htwg.in.wete.backend.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import de.htwg.in.wete.backend.model.Recipe;
+import de.htwg.in.wete.backend.repository.FavoriteRepository;
+
+/**
+ * "Wer dieses Rezept favorisiert hat, mag auch ..." für GET /api/recipes/{id}/related.
+ *
+ * Grundlage ist eine dünn besetzte Co-Occurrence-Matrix: pro Rezept eine
+ * {@link LongIntHashMap} Nachbar-Rezept -> Anzahl User, die beide favorisiert
+ * haben. Der Aufbau aus der kompletten Favoriten-Tabelle zählt die Paare per
+ * Fork/Join parallel. Danach wird die Matrix bei jedem {@link FavoriteChangedEvent}
+ * fortgeschrieben; dafür merkt sie sich die Favoriten jedes Users als Bitmap.
+ *
+ * Die besten {@code top-k} Nachbarn pro Rezept liegen fertig sortiert vor,
+ * eine Anfrage ist nur ein Map-Lookup ohne Sperre. Favoriten-Änderungen sind
+ * der häufigste Schreibzugriff: sie landen nur in einer Warteschlange, die ein
+ * einzelner Hintergrund-Task unter der Sperre abarbeitet; der Request-Thread
+ * wartet nie auf die Matrix. Paare und Top-K-Einträge werden in ein long
+ * gepackt; Favoriten auf Rezept-IDs außerhalb von 0..2^32-1 werden daher
+ * übersprungen (und in {@link #stats()} gezählt) statt die Matrix zu verfälschen.
+ */
+@Service
+public class RelatedRecipes {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RelatedRecipes.class);
+
+    /** Users pro Fork/Join-Teilaufgabe beim Zählen der Paare */
+    private static final int USERS_PER_TASK = 256;
+
+    /** Größte Rezept-ID, die in die unteren 32 Bit eines Pakets passt */
+    private static final long MAX_RECIPE_ID = 0xFFFFFFFFL;
+
+    /** Ein ähnliches Rezept und wie viele User beide Rezepte favorisiert haben */
+    public record Related(long recipeId, String title, int together) {
+    }
+
+    /** Favoriten-Änderung oder gelöschtes Rezept ({@code favorite == null}) */
+    private record Update(FavoriteChangedEvent favorite, long deletedRecipeId) {
+    }
+
+    /** Fertig sortierte Nachbarn eines Rezepts (parallele Arrays) */
+    private record Neighbors(long[] recipeIds, int[] together) {
+
+        static final Neighbors NONE = new Neighbors(new long[0], new int[0]);
+
+        long sizeInBytes() {
+            return 16 + 2 * 16 + 12L * recipeIds.length;
+        }
+    }
+
+    private final FavoriteRepository favoriteRepository;
+    private final RecipePopularity popularity;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor taskExecutor;
+    private final int topK;
+
+    // Nur unter writeLock verändert
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private Map<String, Roaring64Bitmap> favoritesByUser = new HashMap<>();
+    private Map<Long, LongIntHashMap> matrix = new HashMap<>();
+    // Während eines Neuaufbaus angewendete Änderungen, null ohne Neuaufbau
+    private List<Update> duringRebuild;
+
+    private final ConcurrentLinkedQueue<Update> updates = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainQueued = new AtomicBoolean();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    // Lesen ohne Sperre
+    private volatile ConcurrentHashMap<Long, Neighbors> neighbors = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+    private volatile long lastRebuildMillis = -1;
+    private final LongAdder skippedFavorites = new LongAdder();
+
+    public RelatedRecipes(FavoriteRepository favoriteRepository, RecipePopularity popularity,
+            TransactionTemplate transactionTemplate,
+            @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+            @Value("${casellese.related.top-k:20}") int topK) {
+        this.favoriteRepository = favoriteRepository;
+        this.popularity = popularity;
+        this.transactionTemplate = transactionTemplate;
+        this.taskExecutor = taskExecutor;
+        this.topK = topK;
+    }
+
+    public int topK() {
+        return topK;
+    }
+
+    /**
+     * Bis zu {@code limit} Rezepte, die am häufigsten zusammen mit
+     * {@code recipeId} favorisiert wurden (meiste gemeinsame User zuerst).
+     */
+    public List<Related> related(long recipeId, int limit) {
+        Neighbors current = neighbors.getOrDefault(recipeId, Neighbors.NONE);
+        List<Related> result = new ArrayList<>(Math.min(limit, current.recipeIds().length));
+        for (int i = 0; i < current.recipeIds().length && result.size() < limit; i++) {
+            String title = popularity.title(current.recipeIds()[i]);
+            if (title != null) {
+                result.add(new Related(current.recipeIds()[i], title, current.together()[i]));
+            }
+        }
+        return result;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void requestRebuild() {
+        if (rebuildQueued.compareAndSet(false, true)) {
+            taskExecutor.execute(() -> {
+                rebuildQueued.set(false);
+                rebuild();
+            });
+        }
+    }
+
+    /**
+     * Baut die Matrix aus der kompletten Favoriten-Tabelle neu auf. Gelesen
+     * und gerechnet wird ohne Sperre; Änderungen laufen währenddessen weiter
+     * auf der alten Matrix und werden nach dem Tausch auf der neuen
+     * nachgespielt. Bereits enthaltene Favoriten ändern dabei nichts, und
+     * die letzte Änderung eines Paars gewinnt.
+     */
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            writeLock.lock();
+            try {
+                duringRebuild = new ArrayList<>();
+            } finally {
+                writeLock.unlock();
+            }
+
+            long start = System.nanoTime();
+            Map<String, Roaring64Bitmap> users = new LinkedHashMap<>();
+            transactionTemplate.executeWithoutResult(status -> favoriteRepository.findAllUserRecipes()
+                    .forEach(row -> {
+                        if (packable(row.getRecipeId())) {
+                            users.computeIfAbsent(row.getOauthId(), id -> new Roaring64Bitmap())
+                                    .addLong(row.getRecipeId());
+                        } else {
+                            skippedFavorites.increment();
+                        }
+                    }));
+
+            long[][] baskets = users.values().stream().map(Roaring64Bitmap::toArray).toArray(long[][]::new);
+            LongIntHashMap pairs = ForkJoinPool.commonPool().invoke(new PairCounts(baskets, 0, baskets.length));
+
+            Map<Long, LongIntHashMap> rows = new HashMap<>();
+            pairs.forEach((pair, count) -> {
+                long first = pair >>> 32;
+                long second = pair & 0xFFFFFFFFL;
+                rows.computeIfAbsent(first, id -> new LongIntHashMap()).addTo(second, count);
+                rows.computeIfAbsent(second, id -> new LongIntHashMap()).addTo(first, count);
+            });
+            ConcurrentHashMap<Long, Neighbors> fresh = new ConcurrentHashMap<>(rows.size() * 4 / 3 + 1);
+            rows.entrySet().parallelStream()
+                    .forEach(entry -> fresh.put(entry.getKey(), topNeighbors(entry.getValue())));
+
+            writeLock.lock();
+            try {
+                drainLocked();
+                favoritesByUser = users;
+                matrix = rows;
+                neighbors = fresh;
+                List<Update> replay = duringRebuild;
+                duringRebuild = null;
+                replay.forEach(this::apply);
+                lastRebuildMillis = (System.nanoTime() - start) / 1_000_000;
+                LOG.info("Related matrix built: {} users, {} recipes, {} pairs, ~{} KB in {} ms ({} replayed)",
+                        users.size(), rows.size(), pairs.size(), memoryBytes() / 1024, lastRebuildMillis,
+                        replay.size());
+            } finally {
+                writeLock.unlock();
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Related matrix rebuild failed, keeping previous matrix", e);
+            writeLock.lock();
+            try {
+                duringRebuild = null;
+            } finally {
+                writeLock.unlock();
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFavoriteChanged(FavoriteChangedEvent event) {
+        enqueue(new Update(event, 0));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.isReload()) {
+            requestRebuild();
+            return;
+        }
+        Recipe recipe = event.recipe();
+        if (event.change() == CatalogChangedEvent.Change.DELETED && recipe != null && recipe.getId() != null) {
+            enqueue(new Update(null, recipe.getId()));
+        }
+    }
+
+    /**
+     * Wendet alle bisher eingereihten Änderungen sofort an (sonst erledigt
+     * das der Hintergrund-Task).
+     */
+    public void applyQueued() {
+        writeLock.lock();
+        try {
+            drainLocked();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void enqueue(Update update) {
+        updates.add(update);
+        if (drainQueued.compareAndSet(false, true)) {
+            taskExecutor.execute(() -> {
+                drainQueued.set(false);
+                applyQueued();
+            });
+        }
+    }
+
+    // Nur unter writeLock
+    private void drainLocked() {
+        Update update;
+        while ((update = updates.poll()) != null) {
+            apply(update);
+            if (duringRebuild != null) {
+                duringRebuild.add(update);
+            }
+        }
+    }
+
+    // Nur unter writeLock
+    private void apply(Update update) {
+        if (update.favorite() != null) {
+            applyFavorite(update.favorite());
+        } else {
+            applyRecipeDeleted(update.deletedRecipeId());
+        }
+    }
+
+    private void applyFavorite(FavoriteChangedEvent event) {
+        long recipeId = event.recipeId();
+        if (!packable(recipeId)) {
+            skippedFavorites.increment();
+            LOG.warn("Recipe id {} does not fit the related matrix, favorite skipped", recipeId);
+            return;
+        }
+        Roaring64Bitmap favorites = event.added()
+                ? favoritesByUser.computeIfAbsent(event.oauthId(), id -> new Roaring64Bitmap())
+                : favoritesByUser.get(event.oauthId());
+        if (favorites == null || favorites.contains(recipeId) == event.added()) {
+            // Schon bekannt (z.B. im Neuaufbau enthalten)
+            return;
+        }
+        if (event.added()) {
+            favorites.addLong(recipeId);
+        } else {
+            favorites.removeLong(recipeId);
+        }
+        int delta = event.added() ? 1 : -1;
+        LongIterator others = favorites.getLongIterator();
+        while (others.hasNext()) {
+            long other = others.next();
+            if (other != recipeId) {
+                addPair(recipeId, other, delta);
+                refresh(other);
+            }
+        }
+        refresh(recipeId);
+        if (favorites.isEmpty()) {
+            favoritesByUser.remove(event.oauthId());
+        }
+    }
+
+    private void applyRecipeDeleted(long recipeId) {
+        favoritesByUser.values().forEach(favorites -> favorites.removeLong(recipeId));
+        LongIntHashMap row = matrix.remove(recipeId);
+        neighbors.remove(recipeId);
+        if (row != null) {
+            // Die Matrix ist symmetrisch: die Gegenrichtung um denselben Wert verringern
+            row.forEach((other, count) -> {
+                addTo(other, recipeId, -count);
+                refresh(other);
+            });
+        }
+    }
+
+    /**
+     * Ob die ID in 32 Bit passt; größere würden beim Packen von Paaren und
+     * Top-K-Einträgen in die andere Hälfte überlaufen.
+     */
+    private static boolean packable(long recipeId) {
+        return recipeId >= 0 && recipeId <= MAX_RECIPE_ID;
+    }
+
+    private void addPair(long first, long second, int delta) {
+        addTo(first, second, delta);
+        addTo(second, first, delta);
+    }
+
+    private void addTo(long recipeId, long other, int delta) {
+        LongIntHashMap row = matrix.computeIfAbsent(recipeId, id -> new LongIntHashMap());
+        row.addTo(other, delta);
+        if (row.isEmpty()) {
+            matrix.remove(recipeId);
+        }
+    }
+
+    private void refresh(long recipeId) {
+        LongIntHashMap row = matrix.get(recipeId);
+        if (row == null) {
+            neighbors.remove(recipeId);
+        } else {
+            neighbors.put(recipeId, topNeighbors(row));
+        }
+    }
+
+    /**
+     * Die {@code topK} Nachbarn mit den meisten gemeinsamen Usern, bei
+     * Gleichstand kleinere ID zuerst. Sortiert wird ein long[] aus
+     * (Anzahl << 32 | ~ID), ohne Boxing.
+     */
+    private Neighbors topNeighbors(LongIntHashMap row) {
+        long[] packed = new long[row.size()];
+        int[] index = {0};
+        row.forEach((other, count) -> packed[index[0]++] = ((long) count << 32) | (0xFFFFFFFFL - other));
+        Arrays.sort(packed);
+        int size = Math.min(topK, packed.length);
+        long[] recipeIds = new long[size];
+        int[] together = new int[size];
+        for (int i = 0; i < size; i++) {
+            long value = packed[packed.length - 1 - i];
+            together[i] = (int) (value >>> 32);
+            recipeIds[i] = 0xFFFFFFFFL - (value & 0xFFFFFFFFL);
+        }
+        return new Neighbors(recipeIds, together);
+    }
+
+    /** Geschätzter Speicher von Matrix, Top-K-Listen und User-Bitmaps (Sperre gehalten) */
+    private long memoryBytes() {
+        long bytes = 0;
+        for (LongIntHashMap row : matrix.values()) {
+            bytes += row.sizeInBytes() + 48;
+        }
+        for (Neighbors top : neighbors.values()) {
+            bytes += top.sizeInBytes() + 48;
+        }
+        for (Map.Entry<String, Roaring64Bitmap> user : favoritesByUser.entrySet()) {
+            bytes += user.getValue().getLongSizeInBytes() + 40 + 2L * user.getKey().length();
+        }
+        return bytes;
+    }
+
+    public Map<String, Object> stats() {
+        writeLock.lock();
+        try {
+            long entries = matrix.values().stream().mapToLong(LongIntHashMap::size).sum();
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("users", favoritesByUser.size());
+            result.put("recipes", matrix.size());
+            result.put("pairs", entries / 2);
+            result.put("estimatedBytes", memoryBytes());
+            result.put("queuedUpdates", updates.size());
+            result.put("lastRebuildMillis", lastRebuildMillis);
+            result.put("skippedFavorites", skippedFavorites.sum());
+            return result;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Zählt Rezept-Paare (kleinere ID in den oberen 32 Bit, nur IDs mit
+     * {@link #packable}) über einen Bereich von Users; teilt sich rekursiv, bis höchstens {@link #USERS_PER_TASK}
+     * Users übrig sind.
+     */
+    private static final class PairCounts extends RecursiveTask<LongIntHashMap> {
+
+        private final long[][] baskets;
+        private final int from;
+        private final int to;
+
+        PairCounts(long[][] baskets, int from, int to) {
+            this.baskets = baskets;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected LongIntHashMap compute() {
+            if (to - from <= USERS_PER_TASK) {
+                LongIntHashMap pairs = new LongIntHashMap();
+                for (int u = from; u < to; u++) {
+                    // Bitmap.toArray() ist aufsteigend sortiert
+                    long[] recipeIds = baskets[u];
+                    for (int i = 0; i < recipeIds.length; i++) {
+                        for (int j = i + 1; j < recipeIds.length; j++) {
+                            pairs.addTo((recipeIds[i] << 32) | recipeIds[j], 1);
+                        }
+                    }
+                }
+                return pairs;
+            }
+            int middle = (from + to) >>> 1;
+            PairCounts left = new PairCounts(baskets, from, middle);
+            left.fork();
+            LongIntHashMap right = new PairCounts(baskets, middle, to).compute();
+            LongIntHashMap joined = left.join();
+            if (joined.size() < right.size()) {
+                right.addAll(joined);
+                return right;
+            }
+            joined.addAll(right);
+            return joined;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package de.htwg.in.wete.backend.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import de.htwg.in.wete.backend.config.SecondLevelCacheConfig;
+import de.htwg.in.wete.backend.model.CacheRegions;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Liefert die Trefferquoten der Hibernate Second-Level-Cache-Regionen
+ * (für GET /api/admin/stats), sofern die Statistiken eingeschaltet sind.
+ */
+@Service
+public class SecondLevelCacheStats {
+
+    private final Statistics statistics;
+
+    public SecondLevelCacheStats(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", statistics.isStatisticsEnabled());
+        if (!statistics.isStatisticsEnabled()) {
+            // Ohne casellese.jpa.statistics.enabled wären alle Zähler 0
+            return result;
+        }
+        result.put("queryCacheHits", statistics.getQueryCacheHitCount());
+        result.put("queryCacheMisses", statistics.getQueryCacheMissCount());
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String region : SecondLevelCacheConfig.REGIONS) {
+            CacheRegionStatistics regionStats = isQueryRegion(region)
+                    ? statistics.getQueryRegionStatistics(region)
+                    : statistics.getDomainDataRegionStatistics(region);
+            if (regionStats != null) {
+                regions.put(region, regionStats(regionStats));
+            }
+        }
+        result.put("regions", regions);
+        return result;
+    }
+
+    private static boolean isQueryRegion(String region) {
+        return CacheRegions.USER_BY_OAUTH_ID.equals(region)
+                || CacheRegions.QUERY_RESULTS.equals(region)
+                || CacheRegions.UPDATE_TIMESTAMPS.equals(region);
+    }
+
+    private static Map<String, Object> regionStats(CacheRegionStatistics regionStats) {
+        long hits = regionStats.getHitCount();
+        long misses = regionStats.getMissCount();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("hits", hits);
+        result.put("misses", misses);
+        result.put("puts", regionStats.getPutCount());
+        result.put("hitRate", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        return result;
+    }
+}
@@ -0,0 +1,220 @@
+package de.htwg.in.wete.backend.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Zeitlich abklingende Favoriten-Scores pro Rezept für "Trending"-Ranglisten.
+ *
+ * Jedes Rezept hat einen Ringpuffer aus {@link #SLOTS} Minuten-Buckets. Ein
+ * Bucket ist ein einziges {@code long} (Minute in den oberen, Zähler in den
+ * unteren 32 Bit) und wird per CAS fortgeschrieben - ohne Sperren. Wird ein
+ * Bucket für eine neue Minute wiederverwendet, fließt sein alter Zähler in je
+ * einen exponentiell abklingenden Wert pro {@link Window} ein. Der Speicher pro
+ * Rezept ist damit konstant, egal wie viele Ereignisse eintreffen.
+ *
+ * Score eines Fensters = Summe aller Ereignisse (+1 hinzugefügt, -1 entfernt),
+ * gewichtet mit 2^(-Alter / Halbwertszeit); die Halbwertszeit ist ein Viertel
+ * des Fensters (ein Ereignis, das ein Fenster alt ist, zählt noch 1/16; nach
+ * acht Fenstern gar nicht mehr).
+ */
+public final class TrendingCounters {
+
+    /** Minuten-Buckets pro Rezept (die letzte Stunde in voller Auflösung) */
+    public static final int SLOTS = 60;
+
+    /** Grobe Größe eines Rezept-Eintrags inkl. Map-Knoten, für Statistiken */
+    static final long BYTES_PER_RECIPE = 16 + 16 + SLOTS * 8L
+            + Window.values().length * (16 + 32) + 16 + 48;
+
+    public enum Window {
+        HOUR(60),
+        DAY(24 * 60),
+        WEEK(7 * 24 * 60);
+
+        private final int minutes;
+        // Gewichte pro Alter in Minuten für 32 Halbwertszeiten, danach (< 2^-32) zählt nichts mehr
+        private final double[] weights;
+
+        Window(int minutes) {
+            this.minutes = minutes;
+            double halfLifeMinutes = minutes / 4.0;
+            this.weights = new double[8 * minutes];
+            for (int age = 0; age < weights.length; age++) {
+                weights[age] = Math.pow(0.5, age / halfLifeMinutes);
+            }
+        }
+
+        public int minutes() {
+            return minutes;
+        }
+
+        double weight(long ageMinutes) {
+            if (ageMinutes <= 0) {
+                return 1.0;
+            }
+            return ageMinutes < weights.length ? weights[(int) ageMinutes] : 0.0;
+        }
+
+        /**
+         * "hour", "day" oder "week" (Groß-/Kleinschreibung egal)
+         *
+         * @throws IllegalArgumentException bei unbekanntem Fenster
+         */
+        public static Window parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unbekanntes Zeitfenster: " + value
+                        + " (erlaubt: hour, day, week)");
+            }
+        }
+    }
+
+    /** Ein Rezept mit seinem Score in einem Fenster */
+    public record Score(long recipeId, double score) {
+    }
+
+    private static final Comparator<Score> RANKING = Comparator.comparingDouble(Score::score)
+            .reversed()
+            .thenComparingLong(Score::recipeId);
+
+    private final ConcurrentHashMap<Long, RecipeBuckets> recipes = new ConcurrentHashMap<>();
+
+    /**
+     * Verbucht ein Ereignis ({@code delta} +1/-1) in Minute {@code minute}
+     * (Minuten seit Epoch).
+     */
+    public void record(long recipeId, int delta, long minute) {
+        recipes.computeIfAbsent(recipeId, id -> new RecipeBuckets()).record(delta, minute);
+    }
+
+    public void remove(long recipeId) {
+        recipes.remove(recipeId);
+    }
+
+    public int size() {
+        return recipes.size();
+    }
+
+    public long estimatedBytes() {
+        return recipes.size() * BYTES_PER_RECIPE;
+    }
+
+    public double score(long recipeId, Window window, long nowMinute) {
+        RecipeBuckets buckets = recipes.get(recipeId);
+        return buckets == null ? 0 : buckets.score(window, nowMinute);
+    }
+
+    /**
+     * Die {@code limit} Rezepte mit dem höchsten positiven Score, per Min-Heap.
+     */
+    public List<Score> top(Window window, int limit, long nowMinute) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        PriorityQueue<Score> heap = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        recipes.forEach((recipeId, buckets) -> {
+            double score = buckets.score(window, nowMinute);
+            if (score < 1e-9) {
+                return;
+            }
+            Score candidate = new Score(recipeId, score);
+            if (heap.size() < limit) {
+                heap.add(candidate);
+            } else if (RANKING.compare(candidate, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(candidate);
+            }
+        });
+        List<Score> result = new ArrayList<>(heap);
+        result.sort(RANKING);
+        return result;
+    }
+
+    private static long pack(long minute, int count) {
+        return (minute << 32) | (count & 0xFFFFFFFFL);
+    }
+
+    private static long minuteOf(long bucket) {
+        return bucket >>> 32;
+    }
+
+    private static int countOf(long bucket) {
+        return (int) bucket;
+    }
+
+    /** Abgeklungener Stand eines Fensters, bezogen auf {@code minute} */
+    private record Decayed(double score, long minute) {
+
+        static final Decayed ZERO = new Decayed(0, 0);
+
+        double at(Window window, long now) {
+            return score * window.weight(now - minute);
+        }
+    }
+
+    private static final class RecipeBuckets {
+
+        private final AtomicLongArray slots = new AtomicLongArray(SLOTS);
+        @SuppressWarnings("unchecked")
+        private final AtomicReference<Decayed>[] decayed = new AtomicReference[Window.values().length];
+
+        RecipeBuckets() {
+            for (int i = 0; i < decayed.length; i++) {
+                decayed[i] = new AtomicReference<>(Decayed.ZERO);
+            }
+        }
+
+        void record(int delta, long minute) {
+            int slot = (int) (minute % SLOTS);
+            while (true) {
+                long bucket = slots.get(slot);
+                long bucketMinute = minuteOf(bucket);
+                if (bucketMinute == minute) {
+                    if (slots.compareAndSet(slot, bucket, pack(minute, countOf(bucket) + delta))) {
+                        return;
+                    }
+                } else if (bucketMinute > minute) {
+                    // Verspätetes Ereignis, der Bucket gehört schon einer neueren Minute
+                    fold(delta, minute);
+                    return;
+                } else if (slots.compareAndSet(slot, bucket, pack(minute, delta))) {
+                    // Nur der Thread mit dem erfolgreichen CAS übernimmt den alten Zähler
+                    if (countOf(bucket) != 0) {
+                        fold(countOf(bucket), bucketMinute);
+                    }
+                    return;
+                }
+            }
+        }
+
+        private void fold(int count, long minute) {
+            for (Window window : Window.values()) {
+                decayed[window.ordinal()].updateAndGet(current -> {
+                    long reference = Math.max(current.minute(), minute);
+                    return new Decayed(current.at(window, reference)
+                            + count * window.weight(reference - minute), reference);
+                });
+            }
+        }
+
+        double score(Window window, long now) {
+            double score = decayed[window.ordinal()].get().at(window, now);
+            for (int slot = 0; slot < SLOTS; slot++) {
+                long bucket = slots.get(slot);
+                int count = countOf(bucket);
+                if (count != 0) {
+                    score += count * window.weight(now - minuteOf(bucket));
+                }
+            }
+            return score;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package de.htwg.in.wete.backend.service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import de.htwg.in.wete.backend.service.TrendingCounters.Window;
+
+/**
+ * "Trending"-Rezepte der letzten Stunde / des letzten Tages / der letzten Woche
+ * für GET /api/recipes/trending.
+ *
+ * Favoriten-Änderungen aus dem FavoriteController landen als +1/-1 in den
+ * {@link TrendingCounters}. Die Rangliste pro Fenster wird höchstens alle
+ * {@code refresh-millis} im Hintergrund neu berechnet (0 = bei jeder Anfrage,
+ * für Tests); Anfragen lesen nur eine fertige Liste. Titel kommen aus
+ * {@link RecipePopularity}.
+ */
+@Service
+public class TrendingRecipes {
+
+    /** Ein Eintrag der Rangliste, Score auf zwei Nachkommastellen gerundet */
+    public record TrendingRecipe(long recipeId, String title, double score) {
+    }
+
+    private record Ranking(long computedAtMillis, List<TrendingRecipe> entries) {
+    }
+
+    private final TrendingCounters counters = new TrendingCounters();
+    private final RecipePopularity popularity;
+    private final TaskExecutor taskExecutor;
+    private final long refreshMillis;
+    private final int maxLimit;
+
+    private final Map<Window, Ranking> rankings = new ConcurrentHashMap<>();
+    private final Map<Window, AtomicBoolean> refreshing = new EnumMap<>(Window.class);
+    private final LongAdder events = new LongAdder();
+    private volatile long lastComputeMicros = -1;
+
+    public TrendingRecipes(RecipePopularity popularity,
+            @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+            @Value("${casellese.trending.refresh-millis:1000}") long refreshMillis,
+            @Value("${casellese.trending.max-limit:100}") int maxLimit) {
+        this.popularity = popularity;
+        this.taskExecutor = taskExecutor;
+        this.refreshMillis = refreshMillis;
+        this.maxLimit = maxLimit;
+        for (Window window : Window.values()) {
+            refreshing.put(window, new AtomicBoolean());
+        }
+    }
+
+    public int maxLimit() {
+        return maxLimit;
+    }
+
+    /**
+     * Die {@code limit} (höchstens max-limit) Rezepte mit dem höchsten Score im Fenster.
+     */
+    public List<TrendingRecipe> top(Window window, int limit) {
+        long now = System.currentTimeMillis();
+        Ranking ranking = rankings.get(window);
+        if (ranking == null || refreshMillis <= 0) {
+            ranking = compute(window, now);
+        } else if (now - ranking.computedAtMillis() >= refreshMillis) {
+            // Neu berechnet wird im Hintergrund, bis dahin gilt die bisherige Liste
+            AtomicBoolean flag = refreshing.get(window);
+            if (flag.compareAndSet(false, true)) {
+                taskExecutor.execute(() -> {
+                    try {
+                        compute(window, System.currentTimeMillis());
+                    } finally {
+                        flag.set(false);
+                    }
+                });
+            }
+        }
+        List<TrendingRecipe> entries = ranking.entries();
+        return entries.subList(0, Math.min(limit, entries.size()));
+    }
+
+    private Ranking compute(Window window, long nowMillis) {
+        long start = System.nanoTime();
+        List<TrendingRecipe> entries = new ArrayList<>();
+        // Etwas mehr holen, falls Rezepte ohne Titel (gelöscht) herausfallen
+        for (TrendingCounters.Score score : counters.top(window, maxLimit * 2, minute(nowMillis))) {
+            String title = popularity.title(score.recipeId());
+            if (title != null && entries.size() < maxLimit) {
+                entries.add(new TrendingRecipe(score.recipeId(), title, Math.round(score.score() * 100) / 100.0));
+            }
+        }
+        Ranking ranking = new Ranking(nowMillis, List.copyOf(entries));
+        rankings.put(window, ranking);
+        lastComputeMicros = (System.nanoTime() - start) / 1000;
+        return ranking;
+    }
+
+    private static long minute(long millis) {
+        return millis / 60_000;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFavoriteChanged(FavoriteChangedEvent event) {
+        counters.record(event.recipeId(), event.added() ? 1 : -1, minute(System.currentTimeMillis()));
+        events.increment();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.change() == CatalogChangedEvent.Change.DELETED && event.recipe() != null) {
+            counters.remove(event.recipe().getId());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("recipes", counters.size());
+        result.put("events", events.sum());
+        result.put("estimatedBytes", counters.estimatedBytes());
+        result.put("lastComputeMicros", lastComputeMicros);
+        return result;
+    }
+}
@@ -0,0 +1,227 @@
+package de.htwg.in.wete.backend.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import de.htwg.in.wete.backend.model.Role;
+import de.htwg.in.wete.backend.model.User;
+import de.htwg.in.wete.backend.repository.UserRepository;
+
+/**
+ * Zentrale Auflösung JWT → User inklusive Anlage beim ersten Login.
+ *
+ * Die aufgelöste User-ID wird pro oauthId in einem begrenzten, ablaufenden
+ * Cache gehalten; danach kostet ein Request nur noch findById (meist ein
+ * Treffer im Second-Level-Cache). Gleichzeitige erste Requests desselben
+ * Users (das Frontend feuert beim Login mehrere Aufrufe parallel) teilen sich
+ * eine laufende Anlage. Die Anlage selbst ist ein einziges Upsert-Statement
+ * ({@link UserRepository#insertOrLinkByOauthId(User)}), das auch die
+ * Verknüpfung per Email übernimmt.
+ *
+ * Aufrufer in einer laufenden Transaktion warten nicht auf die Anlage eines
+ * anderen Requests: sie halten bereits eine Connection, während die Anlage
+ * eventuell erst eine braucht. Sie führen das Upsert selbst aus, das ist auch
+ * parallel sicher.
+ */
+@Service
+public class UserProvisioningService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UserProvisioningService.class);
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final UserRepository userRepository;
+    private final UserRoleService userRoleService;
+    private final FavoriteIdCache favoriteIdCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<String, Long> userIds;
+
+    // Laufende Anlagen pro oauthId
+    private final ConcurrentHashMap<String, Flight> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder upserts = new LongAdder();
+    private final LongAdder linkedByEmail = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    private record Flight(Thread leader, CompletableFuture<Long> userId) {
+    }
+
+    public UserProvisioningService(UserRepository userRepository, UserRoleService userRoleService,
+            FavoriteIdCache favoriteIdCache, TransactionTemplate transactionTemplate,
+            @Value("${casellese.security.user-id-cache.max-size:10000}") long maxSize,
+            @Value("${casellese.security.user-id-cache.ttl-seconds:3600}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.userRoleService = userRoleService;
+        this.favoriteIdCache = favoriteIdCache;
+        this.transactionTemplate = transactionTemplate;
+        this.userIds = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Liefert den User zum JWT und legt ihn beim ersten Login an.
+     */
+    public User findOrCreate(Jwt jwt) {
+        String oauthId = jwt.getSubject();
+        if (oauthId == null) {
+            throw new IllegalArgumentException("JWT enthält keinen 'sub'-Claim");
+        }
+        for (int attempt = 1; ; attempt++) {
+            Long userId = userIds.getIfPresent(oauthId);
+            if (userId == null) {
+                userId = resolve(jwt);
+            }
+            // Gelöschter User oder oauthId inzwischen an einem anderen User: neu auflösen
+            Optional<User> user = userRepository.findById(userId)
+                    .filter(candidate -> oauthId.equals(candidate.getOauthId()));
+            if (user.isPresent()) {
+                return user.get();
+            }
+            userIds.invalidate(oauthId);
+            if (attempt == MAX_ATTEMPTS) {
+                throw new IllegalStateException("User " + oauthId + " konnte nicht aufgelöst werden");
+            }
+        }
+    }
+
+    /**
+     * Entfernt den Cache-Eintrag für eine oauthId.
+     */
+    public void evict(String oauthId) {
+        if (oauthId != null) {
+            userIds.invalidate(oauthId);
+        }
+    }
+
+    public void evictAll() {
+        userIds.invalidateAll();
+    }
+
+    /**
+     * Cache-Statistik; "upserts" zählt die tatsächlichen Anlage-Statements,
+     * "coalesced" die Requests, die auf eine laufende Anlage gewartet haben.
+     */
+    public Map<String, Object> stats() {
+        CacheStats stats = userIds.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", userIds.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("upserts", upserts.sum());
+        result.put("linkedByEmail", linkedByEmail.sum());
+        result.put("coalesced", coalesced.sum());
+        result.put("inFlight", inFlight.size());
+        return result;
+    }
+
+    /**
+     * Single-Flight: der erste Request einer oauthId lädt bzw. legt an, alle
+     * weiteren warten auf dessen Ergebnis.
+     */
+    private Long resolve(Jwt jwt) {
+        String oauthId = jwt.getSubject();
+        boolean inTransaction = TransactionSynchronizationManager.isActualTransactionActive();
+        Flight own = new Flight(Thread.currentThread(), new CompletableFuture<>());
+        Flight running = inFlight.putIfAbsent(oauthId, own);
+        if (running != null && !inTransaction && running.leader() != Thread.currentThread()) {
+            coalesced.increment();
+            try {
+                return running.userId().join();
+            } catch (CompletionException e) {
+                // Anlage des anderen Requests fehlgeschlagen oder zurückgerollt: selbst versuchen
+                LOG.debug("Shared provisioning of {} failed, retrying", oauthId, e.getCause());
+                return load(jwt);
+            }
+        }
+        if (running != null) {
+            return load(jwt);
+        }
+
+        try {
+            Long userId = transactionTemplate.execute(status -> load(jwt));
+            if (inTransaction) {
+                // Erst nach dem Commit der äußeren Transaktion ist der User für andere sichtbar
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status == STATUS_COMMITTED) {
+                            land(oauthId, own, userId);
+                        } else {
+                            inFlight.remove(oauthId, own);
+                            own.userId().completeExceptionally(
+                                    new IllegalStateException("Anlage von " + oauthId + " zurückgerollt"));
+                        }
+                    }
+                });
+            } else {
+                land(oauthId, own, userId);
+            }
+            return userId;
+        } catch (RuntimeException e) {
+            inFlight.remove(oauthId, own);
+            own.userId().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void land(String oauthId, Flight flight, Long userId) {
+        userIds.put(oauthId, userId);
+        inFlight.remove(oauthId, flight);
+        flight.userId().complete(userId);
+    }
+
+    /**
+     * Bestehenden User per oauthId (Query-Cache) finden, sonst mit einem
+     * Upsert anlegen bzw. per Email verknüpfen.
+     */
+    private Long load(Jwt jwt) {
+        String oauthId = jwt.getSubject();
+        Optional<User> existing = userRepository.findByOauthId(oauthId);
+        if (existing.isPresent()) {
+            return existing.get().getId();
+        }
+
+        User candidate = new User();
+        candidate.setOauthId(oauthId);
+        candidate.setName(jwt.getClaimAsString("name"));
+        candidate.setEmail(jwt.getClaimAsString("email"));
+        candidate.setRole(Role.REGULAR);
+        long userId = userRepository.insertOrLinkByOauthId(candidate);
+        upserts.increment();
+        LOG.info("Provisioned user {} for oauthId {}", userId, oauthId);
+
+        // Kein Entity-Listener bei nativem SQL: "User unbekannt" aus dem Rollen-Cache entfernen
+        userRoleService.evict(oauthId);
+        if (candidate.getId() == null) {
+            // Bestehender User (per Email verknüpft) hat jetzt eine andere oauthId
+            linkedByEmail.increment();
+            userRoleService.evictAll();
+        }
+        // Evtl. leer gecachte Favoriten unter der neuen oauthId verwerfen
+        favoriteIdCache.evict(oauthId);
+        return userId;
+    }
+}
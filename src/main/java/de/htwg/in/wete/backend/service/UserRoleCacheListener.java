@@ -0,0 +1,35 @@
+package de.htwg.in.wete.backend.service;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import de.htwg.in.wete.backend.model.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA Entity-Listener, der den Rollen-Cache bei jeder User-Änderung invalidiert
+ * (auch bei Änderungen über DataLoader oder direkt über das Repository).
+ *
+ * Bei Updates kann sich die oauthId selbst ändern (Email-Zuordnung beim ersten Login),
+ * daher wird dort der komplette Cache geleert. User-Änderungen sind selten.
+ */
+public class UserRoleCacheListener {
+
+    // ObjectProvider: der Listener wird beim Aufbau der EntityManagerFactory erzeugt,
+    // der Service hängt selbst (über das UserRepository) von ihr ab.
+    @Autowired
+    private ObjectProvider<UserRoleService> userRoleService;
+
+    @PostPersist
+    public void afterPersist(User user) {
+        userRoleService.ifAvailable(service -> service.evict(user.getOauthId()));
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void afterChange(User user) {
+        userRoleService.ifAvailable(UserRoleService::evictAll);
+    }
+}
@@ -0,0 +1,109 @@
+package de.htwg.in.wete.backend.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import de.htwg.in.wete.backend.model.Role;
+import de.htwg.in.wete.backend.model.User;
+import de.htwg.in.wete.backend.repository.UserRepository;
+
+/**
+ * Zentrale Auflösung JWT-Subject → Rolle.
+ *
+ * Alle Admin-Prüfungen der Controller und der JwtAuthenticationConverter laufen
+ * über diesen Service. Die Rolle wird in einem begrenzten, ablaufenden Cache
+ * gehalten, damit nicht jede schreibende Anfrage einen zusätzlichen
+ * findByOauthId-Roundtrip zur Datenbank kostet.
+ *
+ * Auch "User existiert nicht" wird gecached (als Optional.empty()). Änderungen
+ * an Usern invalidieren den Eintrag über {@link #evict(String)}. Der
+ * DB-Lookup läuft außerhalb der Cache-Sperre ({@link CallerRunsLoads}).
+ */
+@Service
+public class UserRoleService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UserRoleService.class);
+
+    private final UserRepository userRepository;
+    private final AsyncCache<String, Optional<Role>> roles;
+    private final LongAdder dbLookups = new LongAdder();
+
+    public UserRoleService(UserRepository userRepository,
+            @Value("${casellese.security.role-cache.max-size:10000}") long maxSize,
+            @Value("${casellese.security.role-cache.ttl-seconds:600}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.roles = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Liefert die Rolle des Users mit der angegebenen oauthId (leer, falls unbekannt).
+     */
+    public Optional<Role> resolveRole(String oauthId) {
+        if (oauthId == null) {
+            return Optional.empty();
+        }
+        return CallerRunsLoads.get(roles, oauthId, this::loadRole);
+    }
+
+    /**
+     * Prüft ob der User aus dem JWT die ADMIN-Rolle hat.
+     */
+    public boolean isAdmin(Jwt jwt) {
+        if (jwt == null || jwt.getSubject() == null) {
+            return false;
+        }
+        return resolveRole(jwt.getSubject()).map(role -> role == Role.ADMIN).orElse(false);
+    }
+
+    /**
+     * Entfernt den Cache-Eintrag für eine oauthId (nach Rollen- oder User-Änderungen).
+     */
+    public void evict(String oauthId) {
+        if (oauthId != null) {
+            roles.synchronous().invalidate(oauthId);
+        }
+    }
+
+    public void evictAll() {
+        roles.synchronous().invalidateAll();
+    }
+
+    /**
+     * Hit/Miss-Statistik des Rollen-Caches. "dbLookups" zählt die tatsächlichen
+     * findByOauthId-Aufrufe.
+     */
+    public Map<String, Object> stats() {
+        CacheStats stats = roles.synchronous().stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", roles.synchronous().estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("dbLookups", dbLookups.sum());
+        result.put("evictions", stats.evictionCount());
+        return result;
+    }
+
+    private Optional<Role> loadRole(String oauthId) {
+        LOG.debug("Role cache miss for oauthId {}", oauthId);
+        dbLookups.increment();
+        return userRepository.findByOauthId(oauthId).map(User::getRole);
+    }
+}
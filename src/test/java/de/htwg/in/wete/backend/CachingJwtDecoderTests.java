@@ -0,0 +1,209 @@
+package de.htwg.in.wete.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+import de.htwg.in.wete.backend.config.CachingJwtDecoder;
+import de.htwg.in.wete.backend.config.JwkSetCache;
+import de.htwg.in.wete.backend.config.SecurityConfig;
+
+/**
+ * Tests für den Cache validierter JWTs und das im Hintergrund geladene JWKS:
+ * lokales Schlüsselpaar und ein JWKS-Ersatz statt Auth0.
+ */
+class CachingJwtDecoderTests {
+
+    private static final String ISSUER = "https://test.auth0.com/";
+    private static final String AUDIENCE = "https://test-api";
+
+    private RSAKey firstKey;
+    private final AtomicReference<String> jwksDocument = new AtomicReference<>();
+    private final AtomicInteger jwksFetches = new AtomicInteger();
+    private final AtomicInteger verifications = new AtomicInteger();
+    private final MutableClock clock = new MutableClock(Instant.now());
+    private JwkSetCache jwkSetCache;
+    private CachingJwtDecoder decoder;
+
+    /**
+     * Uhr, die der Test vorstellen kann.
+     */
+    private static final class MutableClock extends Clock {
+
+        private volatile Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws JOSEException {
+        firstKey = new RSAKeyGenerator(2048).keyID("key-1").generate();
+        publish(firstKey);
+        jwkSetCache = new JwkSetCache(() -> {
+            jwksFetches.incrementAndGet();
+            try {
+                return JWKSet.parse(jwksDocument.get());
+            } catch (ParseException e) {
+                throw new IllegalStateException(e);
+            }
+        }, Duration.ofSeconds(30));
+        JwtDecoder verifying = SecurityConfig.verifyingDecoder(jwkSetCache, ISSUER, AUDIENCE);
+        decoder = new CachingJwtDecoder(token -> {
+            verifications.incrementAndGet();
+            return verifying.decode(token);
+        }, 1_000, clock);
+        jwkSetCache.onKeysRemoved(decoder::invalidateAll);
+    }
+
+    private void publish(RSAKey... keys) {
+        jwksDocument.set(new JWKSet(Arrays.stream(keys).<JWK>map(RSAKey::toPublicJWK).toList()).toString());
+    }
+
+    static String token(RSAKey key, String subject, String audience, Instant expiresAt) throws JOSEException {
+        SignedJWT jwt = new SignedJWT(
+                new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).type(JOSEObjectType.JWT).build(),
+                new JWTClaimsSet.Builder()
+                        .subject(subject)
+                        .issuer(ISSUER)
+                        .audience(audience)
+                        .issueTime(new Date())
+                        .expirationTime(Date.from(expiresAt))
+                        .build());
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+
+    @Test
+    void repeatedToken_isVerifiedOnlyOnce() throws Exception {
+        jwkSetCache.refresh();
+        String token = token(firstKey, "auth0|jwt-user", AUDIENCE, Instant.now().plusSeconds(600));
+
+        Jwt first = decoder.decode(token);
+        for (int i = 0; i < 100; i++) {
+            assertSame(first, decoder.decode(token));
+        }
+        assertEquals("auth0|jwt-user", first.getSubject());
+        assertEquals(1, verifications.get());
+        assertEquals(100L, decoder.stats().get("hits"));
+        // Schlüssel kamen aus dem Prefetch, kein Request hat das JWKS geladen
+        assertEquals(1, jwksFetches.get());
+    }
+
+    @Test
+    void cachedToken_expiresWithItsExpClaim() throws Exception {
+        String token = token(firstKey, "auth0|jwt-user", AUDIENCE, clock.instant().plusSeconds(120));
+        decoder.decode(token);
+        clock.advance(Duration.ofSeconds(119));
+        decoder.decode(token);
+        assertEquals(1, verifications.get());
+
+        clock.advance(Duration.ofSeconds(2));
+        decoder.decode(token);
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void invalidTokens_areRejectedAndNeverCached() throws Exception {
+        String valid = token(firstKey, "auth0|jwt-user", AUDIENCE, Instant.now().plusSeconds(600));
+        String tampered = valid.substring(0, valid.length() - 4) + (valid.endsWith("AAAA") ? "BBBB" : "AAAA");
+        String otherAudience = token(firstKey, "auth0|jwt-user", "https://other-api", Instant.now().plusSeconds(600));
+        String expired = token(firstKey, "auth0|jwt-user", AUDIENCE, Instant.now().minusSeconds(600));
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(JwtException.class, () -> decoder.decode(tampered));
+            assertThrows(JwtException.class, () -> decoder.decode(otherAudience));
+            assertThrows(JwtException.class, () -> decoder.decode(expired));
+        }
+        assertEquals(6, verifications.get());
+        assertEquals(6L, decoder.stats().get("rejected"));
+        assertEquals(0L, decoder.stats().get("size"));
+    }
+
+    @Test
+    void unknownKeyId_refetchesOnceAndRemovedKeysInvalidateCache() throws Exception {
+        jwkSetCache.refresh();
+        String oldToken = token(firstKey, "auth0|jwt-user", AUDIENCE, Instant.now().plusSeconds(600));
+        decoder.decode(oldToken);
+
+        // Rotation beim Tenant: neuer Schlüssel kommt hinzu
+        RSAKey secondKey = new RSAKeyGenerator(2048).keyID("key-2").generate();
+        publish(firstKey, secondKey);
+        assertEquals("auth0|rotated", decoder.decode(
+                token(secondKey, "auth0|rotated", AUDIENCE, Instant.now().plusSeconds(600))).getSubject());
+        assertEquals(2, jwksFetches.get());
+
+        // Gefälschte Key-IDs lösen innerhalb des Mindestabstands keinen weiteren Abruf aus
+        RSAKey forged = new RSAKeyGenerator(2048).keyID("forged").generate();
+        for (int i = 0; i < 10; i++) {
+            String forgedToken = token(forged, "auth0|attacker", AUDIENCE, Instant.now().plusSeconds(600));
+            assertThrows(JwtException.class, () -> decoder.decode(forgedToken));
+        }
+        assertEquals(2, jwksFetches.get());
+
+        // Alter Schlüssel zurückgezogen: bereits validierte Tokens damit gelten nicht mehr
+        publish(secondKey);
+        jwkSetCache.refresh();
+        assertThrows(JwtException.class, () -> decoder.decode(oldToken));
+    }
+
+    @Test
+    void failedRefresh_keepsKnownKeys() throws Exception {
+        jwkSetCache.refresh();
+        jwksDocument.set("kein json");
+        jwkSetCache.refresh();
+
+        assertEquals(1L, jwkSetCache.stats().get("failedFetches"));
+        assertEquals(1, jwkSetCache.stats().get("keys"));
+        decoder.decode(token(firstKey, "auth0|jwt-user", AUDIENCE, Instant.now().plusSeconds(600)));
+    }
+}
@@ -0,0 +1,72 @@
+package de.htwg.in.wete.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import de.htwg.in.wete.backend.repository.ProductRepository;
+import de.htwg.in.wete.backend.repository.RecipeRepository;
+import de.htwg.in.wete.backend.service.CatalogImportService;
+import de.htwg.in.wete.backend.service.CatalogImportService.Format;
+import de.htwg.in.wete.backend.service.CatalogImportService.ImportResult;
+
+/**
+ * Lasttest für den Katalog-Import: 60.000 NDJSON-Zeilen (Produkt mit je
+ * einem Rezept) gegen H2. Ziel sind mehr als 50.000 Zeilen pro Minute.
+ * Läuft nur mit {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class CatalogImportBenchmarkTests {
+
+    private static final int ROWS = 60_000;
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @AfterEach
+    public void tearDown() {
+        recipeRepository.deleteAllInBatch();
+        productRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void sixtyThousandRows() {
+        StringBuilder ndjson = new StringBuilder(ROWS * 200);
+        String[] categories = {"BROT", "SALAMI", "KAESE"};
+        for (int i = 0; i < ROWS; i++) {
+            ndjson.append("{\"title\":\"Produkt ").append(i)
+                    .append("\",\"category\":\"").append(categories[i % 3])
+                    .append("\",\"price\":").append(i % 50)
+                    .append(",\"description\":\"Beschreibung für Produkt ").append(i)
+                    .append("\",\"recipes\":[{\"title\":\"Rezept ").append(i)
+                    .append("\",\"text\":\"Zubereitung in drei Schritten\"}]}\n");
+        }
+        byte[] input = ndjson.toString().getBytes(StandardCharsets.UTF_8);
+
+        ImportResult result = catalogImportService.importCatalog(Format.NDJSON, new ByteArrayInputStream(input));
+
+        System.out.printf("Catalog import: %d rows (%d KiB), %d products, %d recipes in %d ms = %,d rows/min%n",
+                result.rows(), input.length / 1024, result.products(), result.recipes(), result.millis(),
+                result.rowsPerMinute());
+        assertEquals(ROWS, result.products());
+        assertEquals(ROWS, recipeRepository.count());
+        assertTrue(result.rowsPerMinute() > 50_000, "expected > 50k rows/min but was " + result.rowsPerMinute());
+    }
+}
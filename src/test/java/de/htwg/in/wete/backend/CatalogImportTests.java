@@ -0,0 +1,211 @@
+package de.htwg.in.wete.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+import de.htwg.in.wete.backend.model.Category;
+import de.htwg.in.wete.backend.model.Product;
+import de.htwg.in.wete.backend.model.Recipe;
+import de.htwg.in.wete.backend.model.Role;
+import de.htwg.in.wete.backend.model.User;
+import de.htwg.in.wete.backend.repository.FavoriteRepository;
+import de.htwg.in.wete.backend.repository.ProductRepository;
+import de.htwg.in.wete.backend.repository.RecipeRepository;
+import de.htwg.in.wete.backend.repository.UserRepository;
+import de.htwg.in.wete.backend.service.CatalogVersion;
+
+/**
+ * Tests für den Katalog-Import POST /api/admin/import (NDJSON und CSV).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CatalogImportTests {
+
+    private static final String ADMIN = "auth0|import-admin";
+    private static final String REGULAR = "auth0|import-regular";
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    public void setUp(WebApplicationContext webApplicationContext) {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .apply(springSecurity())
+                .build();
+        favoriteRepository.deleteAll();
+        recipeRepository.deleteAll();
+        productRepository.deleteAll();
+
+        User admin = userRepository.findByOauthId(ADMIN).orElseGet(User::new);
+        admin.setName("Import Admin");
+        admin.setOauthId(ADMIN);
+        admin.setRole(Role.ADMIN);
+        userRepository.save(admin);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        recipeRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void ndjson_importsValidRowsAndReportsInvalidOnes() throws Exception {
+        String ndjson = String.join("\n",
+                "{\"title\":\"Caciocavallo\",\"category\":\"KAESE\",\"price\":12.5,"
+                        + "\"recipes\":[{\"title\":\"Caciocavallo impiccato\",\"text\":\"Am Spieß\"},"
+                        + "{\"title\":\"Pasta al forno\"}]}",
+                "{\"title\":\"\",\"category\":\"BROT\"}",
+                "{\"title\":\"Kaputt\",",
+                "",
+                "{\"title\":\"Pane casereccio\",\"category\":\"BROT\"}",
+                "{\"title\":\"Soppressata\",\"category\":\"SALAMI\",\"recipes\":[{\"title\":\"x\"}]}",
+                "{\"title\":\"Salsiccia\",\"category\":\"SALAMI\",\"price\":-1}");
+        long versionBefore = catalogVersion.current();
+
+        mockMvc.perform(post("/api/admin/import")
+                .with(jwt().jwt(jwt -> jwt.claim("sub", ADMIN)))
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(6))
+                .andExpect(jsonPath("$.products").value(2))
+                .andExpect(jsonPath("$.recipes").value(2))
+                .andExpect(jsonPath("$.failedRows").value(4))
+                .andExpect(jsonPath("$.errors.length()").value(4))
+                .andExpect(jsonPath("$.errors[0].row").value(2))
+                .andExpect(jsonPath("$.errors[1].row").value(3))
+                .andExpect(jsonPath("$.errors[2].row").value(6))
+                .andExpect(jsonPath("$.errors[2].messages[0]").value(
+                        "recipes[0].title: Rezept-Titel muss zwischen 2 und 200 Zeichen lang sein"))
+                .andExpect(jsonPath("$.errors[3].row").value(7));
+
+        List<Product> products = productRepository.findAll();
+        products.sort(Comparator.comparing(Product::getTitle));
+        assertEquals(List.of("Caciocavallo", "Pane casereccio"), products.stream().map(Product::getTitle).toList());
+        Integer recipesOfCaciocavallo = transactionTemplate.execute(status ->
+                productRepository.findById(products.get(0).getId()).orElseThrow().getRecipes().size());
+        assertEquals(2, recipesOfCaciocavallo);
+        // Ein RELOADED-Event statt eines Events pro Produkt und Rezept
+        assertEquals(versionBefore + 1, catalogVersion.current());
+
+        mockMvc.perform(get("/api/admin/import").with(jwt().jwt(jwt -> jwt.claim("sub", ADMIN))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("DONE"))
+                .andExpect(jsonPath("$.rows").value(6));
+    }
+
+    @Test
+    void csv_groupsRecipesByProductAndHandlesQuotes() throws Exception {
+        String csv = "title,category,price,description,recipeTitle,recipeText\r\n"
+                + "Caciocavallo,KAESE,12.5,\"Gereift, mild\",Caciocavallo impiccato,\"Zeile 1\nZeile 2\"\r\n"
+                + "Caciocavallo,,,,Pasta al forno,\"Mit \"\"Käse\"\"\"\r\n"
+                + "Pane casereccio,BROT,3,,,\r\n"
+                + "Salsiccia,WURST,4,,,\r\n";
+
+        mockMvc.perform(post("/api/admin/import")
+                .param("format", "csv")
+                .with(jwt().jwt(jwt -> jwt.claim("sub", ADMIN)))
+                .contentType(new MediaType("text", "csv"))
+                .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(4))
+                .andExpect(jsonPath("$.products").value(2))
+                .andExpect(jsonPath("$.recipes").value(2))
+                .andExpect(jsonPath("$.failedRows").value(1))
+                .andExpect(jsonPath("$.errors[0].row").value(4))
+                .andExpect(jsonPath("$.errors[0].messages[0]").value("Zeile 4: unbekannte Kategorie WURST"));
+
+        List<Recipe> recipes = recipeRepository.findAll();
+        recipes.sort(Comparator.comparing(Recipe::getTitle));
+        assertEquals("Zeile 1\nZeile 2", recipes.get(0).getText());
+        assertEquals("Mit \"Käse\"", recipes.get(1).getText());
+        Product cheese = productRepository.findAll().stream()
+                .filter(product -> product.getTitle().equals("Caciocavallo")).findFirst().orElseThrow();
+        assertEquals("Gereift, mild", cheese.getDescription());
+        assertEquals(Category.KAESE, cheese.getCategory());
+    }
+
+    @Test
+    void csv_rejectsOversizedRecordsAndGroups() throws Exception {
+        String unterminated = "title,description\r\nPane,\"" + "x".repeat(1_000_001);
+        mockMvc.perform(post("/api/admin/import")
+                .param("format", "csv")
+                .with(jwt().jwt(jwt -> jwt.claim("sub", ADMIN)))
+                .content(unterminated))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("CSV-Datensatz länger als 1000000 Zeichen"));
+
+        StringBuilder group = new StringBuilder("title,category,recipeTitle\r\n");
+        for (int i = 0; i <= 1000; i++) {
+            group.append("Caciocavallo,KAESE,Rezept ").append(i).append("\r\n");
+        }
+        mockMvc.perform(post("/api/admin/import")
+                .param("format", "csv")
+                .with(jwt().jwt(jwt -> jwt.claim("sub", ADMIN)))
+                .content(group.toString()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Produkt 'Caciocavallo' ab Zeile 1 hat mehr als 1000 Zeilen"));
+
+        assertEquals(0, productRepository.count());
+    }
+
+    @Test
+    void import_requiresAdminAndKnownFormat() throws Exception {
+        mockMvc.perform(post("/api/admin/import")
+                .with(jwt().jwt(jwt -> jwt.claim("sub", REGULAR)))
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("{\"title\":\"Pane\",\"category\":\"BROT\"}"))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(post("/api/admin/import")
+                .param("format", "xml")
+                .with(jwt().jwt(jwt -> jwt.claim("sub", ADMIN)))
+                .content("<product/>"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/api/admin/import")
+                .param("format", "csv")
+                .with(jwt().jwt(jwt -> jwt.claim("sub", ADMIN)))
+                .content("name,price\r\nPane,3\r\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+
+        assertEquals(0, productRepository.count());
+    }
+}
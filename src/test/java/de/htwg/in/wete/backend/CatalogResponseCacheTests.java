@@ -0,0 +1,132 @@
+package de.htwg.in.wete.backend;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import de.htwg.in.wete.backend.model.Category;
+import de.htwg.in.wete.backend.model.Product;
+import de.htwg.in.wete.backend.model.Role;
+import de.htwg.in.wete.backend.model.User;
+import de.htwg.in.wete.backend.repository.ProductRepository;
+import de.htwg.in.wete.backend.repository.UserRepository;
+import de.htwg.in.wete.backend.service.CatalogResponseCache;
+
+/**
+ * Tests für den vorserialisierten Antwort-Cache der öffentlichen Katalog-Endpoints.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CatalogResponseCacheTests {
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CatalogResponseCache responseCache;
+
+    @BeforeEach
+    public void setUp(WebApplicationContext webApplicationContext) {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .apply(springSecurity())
+                .build();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User adminUser = new User();
+        adminUser.setName("Admin User");
+        adminUser.setEmail("admin@example.com");
+        adminUser.setOauthId("auth0|admin");
+        adminUser.setRole(Role.ADMIN);
+        userRepository.save(adminUser);
+
+        Product product = new Product();
+        product.setTitle("Caciocavallo");
+        product.setCategory(Category.KAESE);
+        product.setPrice(12.99);
+        productRepository.save(product);
+    }
+
+    @Test
+    void secondRequest_isServedFromCache() throws Exception {
+        mockMvc.perform(get("/api/product")).andExpect(status().isOk());
+        long hitsBefore = (long) responseCache.stats().get("hits");
+
+        mockMvc.perform(get("/api/product"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].title").value("Caciocavallo"));
+
+        assertEquals(hitsBefore + 1, (long) responseCache.stats().get("hits"));
+    }
+
+    @Test
+    void gzipVariant_isDeliveredWhenAccepted() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/product").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT_ENCODING)))
+                .andReturn();
+
+        byte[] compressed = result.getResponse().getContentAsByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            String json = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertEquals(true, json.contains("\"title\":\"Caciocavallo\""));
+        }
+    }
+
+    @Test
+    void gzipVariant_respectsCodingNamesAndQuality() throws Exception {
+        for (String accepted : new String[] {"GZIP", "deflate , gzip;q=0.5", "*", "br, *;q=0.1", "x-gzip"}) {
+            mockMvc.perform(get("/api/product").header(HttpHeaders.ACCEPT_ENCODING, accepted))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+        }
+        for (String rejected : new String[] {"gzip;q=0", "deflate, gzip; q=0.0", "x-gzip-foo", "*, gzip;q=0",
+                "identity, *;q=0"}) {
+            mockMvc.perform(get("/api/product").header(HttpHeaders.ACCEPT_ENCODING, rejected))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                    .andExpect(jsonPath("$[0].title").value("Caciocavallo"));
+        }
+    }
+
+    @Test
+    void adminWrite_invalidatesCachedList() throws Exception {
+        mockMvc.perform(get("/api/product"))
+                .andExpect(jsonPath("$.length()").value(1));
+
+        mockMvc.perform(post("/api/product")
+                .with(jwt().jwt(jwt -> jwt.claim("sub", "auth0|admin")))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Salsiccia\",\"category\":\"SALAMI\",\"price\":5.0}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/product"))
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+}
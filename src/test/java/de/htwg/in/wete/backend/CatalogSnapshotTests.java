@@ -0,0 +1,214 @@
+package de.htwg.in.wete.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.htwg.in.wete.backend.model.Category;
+import de.htwg.in.wete.backend.model.Product;
+import de.htwg.in.wete.backend.model.Recipe;
+import de.htwg.in.wete.backend.model.Role;
+import de.htwg.in.wete.backend.model.User;
+import de.htwg.in.wete.backend.repository.ProductRepository;
+import de.htwg.in.wete.backend.repository.RecipeRepository;
+import de.htwg.in.wete.backend.repository.UserRepository;
+import de.htwg.in.wete.backend.service.CatalogReadModel;
+import de.htwg.in.wete.backend.service.CatalogSnapshot;
+import de.htwg.in.wete.backend.service.CatalogVersion;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Tests für den Katalog-Snapshot: öffentliche GETs ohne Datenbankzugriff,
+ * neue Snapshots nach Admin-Änderungen, alte Snapshots bleiben unverändert.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CatalogSnapshotTests {
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CatalogReadModel catalogReadModel;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Product product;
+    private Recipe recipe;
+
+    @BeforeEach
+    public void setUp(WebApplicationContext webApplicationContext) {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .apply(springSecurity())
+                .build();
+        recipeRepository.deleteAll();
+        productRepository.deleteAll();
+
+        User admin = userRepository.findByOauthId("auth0|snapshot-admin").orElseGet(User::new);
+        admin.setName("Snapshot Admin");
+        admin.setOauthId("auth0|snapshot-admin");
+        admin.setRole(Role.ADMIN);
+        userRepository.save(admin);
+
+        product = new Product();
+        product.setTitle("Caciocavallo");
+        product.setCategory(Category.KAESE);
+        product.setPrice(12.5);
+        product = productRepository.save(product);
+        recipe = new Recipe("Caciocavallo impiccato", "Am Faden schmelzen", null);
+        recipe.setProduct(product);
+        recipe = recipeRepository.save(recipe);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        recipeRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void publicGets_areServedWithoutQueries() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // Index-Neuaufbauten im Hintergrund nicht mitzählen
+        long last = -1;
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (statistics.getPrepareStatementCount() != last && System.currentTimeMillis() < deadline) {
+            last = statistics.getPrepareStatementCount();
+            Thread.sleep(300);
+        }
+        long before = statistics.getPrepareStatementCount();
+
+        mockMvc.perform(get("/api/product/" + product.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Caciocavallo"))
+                .andExpect(jsonPath("$.recipes[0].title").value("Caciocavallo impiccato"));
+        mockMvc.perform(get("/api/recipes/" + recipe.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.text").value("Am Faden schmelzen"));
+        mockMvc.perform(get("/api/products/" + product.getId() + "/recipes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(recipe.getId()));
+        mockMvc.perform(get("/api/product").param("category", "KAESE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].recipeCount").value(1));
+        mockMvc.perform(get("/api/recipes").param("sort", "title").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(recipe.getId()));
+        mockMvc.perform(get("/api/product/" + (product.getId() + 1000)))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/products/" + (product.getId() + 1000) + "/recipes"))
+                .andExpect(status().isNotFound());
+
+        assertEquals(0, statistics.getPrepareStatementCount() - before);
+    }
+
+    @Test
+    void adminWrite_publishesNewSnapshotWithNextVersion() throws Exception {
+        CatalogSnapshot old = catalogReadModel.current();
+        assertEquals(catalogVersion.current(), old.version());
+
+        Product changes = new Product();
+        changes.setTitle("Caciocavallo Silano");
+        changes.setCategory(Category.KAESE);
+        mockMvc.perform(put("/api/product/" + product.getId())
+                        .with(jwt().jwt(jwt -> jwt.claim("sub", "auth0|snapshot-admin")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(changes)))
+                .andExpect(status().isOk());
+
+        CatalogSnapshot current = catalogReadModel.current();
+        assertNotSame(old, current);
+        assertEquals(old.version() + 1, current.version());
+        assertEquals(catalogVersion.current(), current.version());
+        assertEquals(current.version(), catalogReadModel.stats().get("version"));
+        // Direkt danach sieht der Admin seine Änderung, samt der unveränderten Rezepte
+        mockMvc.perform(get("/api/product/" + product.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Caciocavallo Silano"))
+                .andExpect(jsonPath("$.recipes[0].title").value("Caciocavallo impiccato"));
+        // Der alte Snapshot bleibt, wie er war
+        assertEquals("Caciocavallo", old.product(product.getId()).orElseThrow().getTitle());
+    }
+
+    @Test
+    void recipeAndProductChanges_updateAllIndexes() throws Exception {
+        Recipe second = new Recipe("Pasta al forno", "Mit Caciocavallo", null);
+        second.setProduct(product);
+        second = recipeRepository.save(second);
+        CatalogSnapshot snapshot = catalogReadModel.current();
+        assertEquals(2, snapshot.recipesOfProduct(product.getId()).orElseThrow().size());
+        assertEquals(2, snapshot.product(product.getId()).orElseThrow().getRecipes().size());
+
+        recipeRepository.deleteById(recipe.getId());
+        snapshot = catalogReadModel.current();
+        assertTrue(snapshot.recipe(recipe.getId()).isEmpty());
+        assertEquals(1, snapshot.productSummaries(List.of(product.getId())).get(0).recipeCount());
+
+        // Produkt löschen nimmt seine Rezepte mit
+        productRepository.deleteById(product.getId());
+        snapshot = catalogReadModel.current();
+        assertTrue(snapshot.product(product.getId()).isEmpty());
+        assertTrue(snapshot.recipe(second.getId()).isEmpty());
+        mockMvc.perform(get("/api/recipes/" + second.getId()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void productDeleteWithRecipes_rebuildsSnapshotOnce() throws Exception {
+        Recipe second = new Recipe("Pasta al forno", "Mit Caciocavallo", null);
+        second.setProduct(product);
+        recipeRepository.save(second);
+        CatalogSnapshot before = catalogReadModel.current();
+        long updates = (long) catalogReadModel.stats().get("updates");
+
+        mockMvc.perform(delete("/api/product/" + product.getId())
+                        .with(jwt().jwt(jwt -> jwt.claim("sub", "auth0|snapshot-admin"))))
+                .andExpect(status().isNoContent());
+
+        // Ein Snapshot für Produkt und beide Rezepte (eine Transaktion)
+        CatalogSnapshot after = catalogReadModel.current();
+        assertEquals(before.version() + 1, after.version());
+        assertEquals(updates + 1, (long) catalogReadModel.stats().get("updates"));
+        assertTrue(after.product(product.getId()).isEmpty());
+        assertEquals(before.recipeCount() - 2, after.recipeCount());
+    }
+}
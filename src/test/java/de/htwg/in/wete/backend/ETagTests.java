@@ -0,0 +1,130 @@
+package de.htwg.in.wete.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import de.htwg.in.wete.backend.model.Category;
+import de.htwg.in.wete.backend.model.Product;
+import de.htwg.in.wete.backend.model.Role;
+import de.htwg.in.wete.backend.model.User;
+import de.htwg.in.wete.backend.repository.ProductRepository;
+import de.htwg.in.wete.backend.repository.UserRepository;
+
+/**
+ * Tests für ETag / If-None-Match / If-Match auf Produkten und Listen.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ETagTests {
+
+    private static final String UPDATE_PAYLOAD = "{\"title\":\"Neuer Titel\",\"category\":\"KAESE\",\"price\":1.0}";
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Product product;
+
+    @BeforeEach
+    public void setUp(WebApplicationContext webApplicationContext) {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .apply(springSecurity())
+                .build();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User adminUser = new User();
+        adminUser.setName("Admin User");
+        adminUser.setEmail("admin@example.com");
+        adminUser.setOauthId("auth0|admin");
+        adminUser.setRole(Role.ADMIN);
+        userRepository.save(adminUser);
+
+        product = new Product();
+        product.setTitle("Caciocavallo");
+        product.setCategory(Category.KAESE);
+        product.setPrice(12.99);
+        product = productRepository.save(product);
+    }
+
+    @Test
+    void getProductById_withMatchingETag_returnsNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/api/product/" + product.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        mockMvc.perform(get("/api/product/" + product.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void productList_withMatchingETag_returnsNotModifiedUntilCatalogChanges() throws Exception {
+        String etag = mockMvc.perform(get("/api/product"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/product").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(put("/api/product/" + product.getId())
+                .with(jwt().jwt(jwt -> jwt.claim("sub", "auth0|admin")))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(UPDATE_PAYLOAD))
+                .andExpect(status().isOk());
+
+        String newEtag = mockMvc.perform(get("/api/product").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("Neuer Titel"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, newEtag);
+    }
+
+    @Test
+    void updateProduct_withStaleIfMatch_isRejected() throws Exception {
+        String etag = mockMvc.perform(get("/api/product/" + product.getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Erste Änderung mit aktuellem ETag klappt und liefert einen neuen ETag
+        String newEtag = mockMvc.perform(put("/api/product/" + product.getId())
+                .with(jwt().jwt(jwt -> jwt.claim("sub", "auth0|admin")))
+                .header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(UPDATE_PAYLOAD))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, newEtag);
+
+        // Zweite Änderung mit veraltetem ETag wird abgelehnt
+        mockMvc.perform(put("/api/product/" + product.getId())
+                .with(jwt().jwt(jwt -> jwt.claim("sub", "auth0|admin")))
+                .header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Anderer Titel\",\"category\":\"KAESE\",\"price\":1.0}"))
+                .andExpect(status().isPreconditionFailed());
+
+        assertEquals("Neuer Titel", productRepository.findById(product.getId()).orElseThrow().getTitle());
+    }
+}
@@ -0,0 +1,193 @@
+package de.htwg.in.wete.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.htwg.in.wete.backend.model.Favorite;
+import de.htwg.in.wete.backend.model.Recipe;
+import de.htwg.in.wete.backend.model.User;
+import de.htwg.in.wete.backend.repository.FavoriteRepository;
+import de.htwg.in.wete.backend.repository.RecipeRepository;
+import de.htwg.in.wete.backend.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Tests für POST /api/favorites/batch: Status pro Rezept-ID und eine feste
+ * Anzahl Statements unabhängig von der Anzahl der IDs.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class FavoriteBatchTests {
+
+    private static final String USER = "auth0|batch-user";
+    private static final int RECIPES = 40;
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Statistics statistics;
+    private List<Long> recipeIds;
+
+    @BeforeEach
+    public void setUp(WebApplicationContext webApplicationContext) throws InterruptedException {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .apply(springSecurity())
+                .build();
+        favoriteRepository.deleteAll();
+        recipeRepository.deleteAll();
+
+        User user = userRepository.findByOauthId(USER).orElseGet(User::new);
+        user.setName("Batch User");
+        user.setOauthId(USER);
+        user = userRepository.save(user);
+
+        List<Recipe> recipes = new ArrayList<>();
+        for (int i = 0; i < RECIPES; i++) {
+            recipes.add(new Recipe("Batch-Rezept " + i, "Text", null));
+        }
+        recipeIds = recipeRepository.saveAll(recipes).stream().map(Recipe::getId).toList();
+        // Die ersten beiden sind schon Favoriten
+        favoriteRepository.save(new Favorite(user, recipeRepository.findById(recipeIds.get(0)).orElseThrow()));
+        favoriteRepository.save(new Favorite(user, recipeRepository.findById(recipeIds.get(1)).orElseThrow()));
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        awaitBackgroundRebuilds();
+    }
+
+    /**
+     * Katalogänderungen stoßen Index-Neuaufbauten im Hintergrund an; deren
+     * Queries dürfen nicht mitgezählt werden.
+     */
+    private void awaitBackgroundRebuilds() throws InterruptedException {
+        long last = -1;
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (statistics.getPrepareStatementCount() != last && System.currentTimeMillis() < deadline) {
+            last = statistics.getPrepareStatementCount();
+            Thread.sleep(300);
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        favoriteRepository.deleteAll();
+        recipeRepository.deleteAll();
+    }
+
+    private String body(List<Long> add, List<Long> remove) throws Exception {
+        return objectMapper.writeValueAsString(Map.of("add", add, "remove", remove));
+    }
+
+    @Test
+    void batch_reportsPerItemResults() throws Exception {
+        long missing = recipeIds.get(RECIPES - 1) + 1000;
+        List<Long> add = List.of(recipeIds.get(0), recipeIds.get(2), recipeIds.get(2), missing);
+        List<Long> remove = List.of(recipeIds.get(1), recipeIds.get(3));
+
+        mockMvc.perform(post("/api/favorites/batch")
+                .with(jwt().jwt(jwt -> jwt.claim("sub", USER)))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body(add, remove)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.added").value(1))
+                .andExpect(jsonPath("$.removed").value(1))
+                .andExpect(jsonPath("$.results.length()").value(5))
+                .andExpect(jsonPath("$.results[0].status").value("ALREADY_FAVORITE"))
+                .andExpect(jsonPath("$.results[1].recipeId").value(recipeIds.get(2)))
+                .andExpect(jsonPath("$.results[1].status").value("ADDED"))
+                .andExpect(jsonPath("$.results[2].status").value("NOT_FOUND"))
+                .andExpect(jsonPath("$.results[3].action").value("REMOVE"))
+                .andExpect(jsonPath("$.results[3].status").value("REMOVED"))
+                .andExpect(jsonPath("$.results[4].status").value("NOT_FAVORITE"));
+
+        // Favoriten-ID-Cache wurde über die Events aktualisiert
+        mockMvc.perform(get("/api/favorites/ids").with(jwt().jwt(jwt -> jwt.claim("sub", USER))))
+                .andExpect(jsonPath("$.length()").value(2));
+        Set<Long> stored = new HashSet<>(favoriteRepository.findRecipeIdsByUserOauthId(USER));
+        assertEquals(Set.of(recipeIds.get(0), recipeIds.get(2)), stored);
+    }
+
+    @Test
+    void batch_usesConstantNumberOfStatements() throws Exception {
+        // Warm-up: User-Lookup und Rollen-Cache
+        mockMvc.perform(post("/api/favorites/batch")
+                .with(jwt().jwt(jwt -> jwt.claim("sub", USER)))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body(List.of(), List.of())))
+                .andExpect(status().isOk());
+
+        long before = statistics.getPrepareStatementCount();
+        mockMvc.perform(post("/api/favorites/batch")
+                .with(jwt().jwt(jwt -> jwt.claim("sub", USER)))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body(recipeIds.subList(2, RECIPES), recipeIds.subList(0, 2))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.added").value(RECIPES - 2))
+                .andExpect(jsonPath("$.removed").value(2));
+        long statements = statistics.getPrepareStatementCount() - before;
+
+        // User, IN-Prüfung Rezepte, IN-Prüfung Favoriten, Sequenz, ein Batch-INSERT, ein DELETE
+        assertTrue(statements <= 6, "expected at most 6 statements but was " + statements);
+        assertEquals(RECIPES - 2, favoriteRepository.countByUserOauthId(USER));
+    }
+
+    @Test
+    void batch_rejectsConflictsAndTooManyIds() throws Exception {
+        mockMvc.perform(post("/api/favorites/batch")
+                .with(jwt().jwt(jwt -> jwt.claim("sub", USER)))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body(List.of(recipeIds.get(5)), List.of(recipeIds.get(5)))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+
+        List<Long> tooMany = new ArrayList<>();
+        for (long i = 1; i <= 501; i++) {
+            tooMany.add(i);
+        }
+        mockMvc.perform(post("/api/favorites/batch")
+                .with(jwt().jwt(jwt -> jwt.claim("sub", USER)))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body(tooMany, List.of())))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(2, favoriteRepository.countByUserOauthId(USER));
+    }
+}
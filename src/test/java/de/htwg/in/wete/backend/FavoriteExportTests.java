@@ -0,0 +1,204 @@
+package de.htwg.in.wete.backend;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.htwg.in.wete.backend.model.Category;
+import de.htwg.in.wete.backend.model.Favorite;
+import de.htwg.in.wete.backend.model.Product;
+import de.htwg.in.wete.backend.model.Recipe;
+import de.htwg.in.wete.backend.model.Role;
+import de.htwg.in.wete.backend.model.User;
+import de.htwg.in.wete.backend.repository.FavoriteRepository;
+import de.htwg.in.wete.backend.repository.ProductRepository;
+import de.htwg.in.wete.backend.repository.RecipeRepository;
+import de.htwg.in.wete.backend.repository.UserRepository;
+import de.htwg.in.wete.backend.service.FavoriteExportService;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Tests für den gestreamten Favoriten-Export (NDJSON/CSV) der Admins.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class FavoriteExportTests {
+
+    private static final String ADMIN = "auth0|export-admin";
+    private static final int USERS = 4;
+    private static final int RECIPES = 15;
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FavoriteExportService favoriteExportService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    public void setUp(WebApplicationContext webApplicationContext) {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .apply(springSecurity())
+                .build();
+        favoriteRepository.deleteAll();
+        recipeRepository.deleteAll();
+        productRepository.deleteAll();
+
+        User admin = userRepository.findByOauthId(ADMIN).orElseGet(User::new);
+        admin.setName("Export Admin");
+        admin.setOauthId(ADMIN);
+        admin.setRole(Role.ADMIN);
+        userRepository.save(admin);
+
+        Product product = new Product();
+        product.setTitle("Salsiccia");
+        product.setCategory(Category.SALAMI);
+        product.setPrice(6.5);
+        product = productRepository.save(product);
+
+        List<Recipe> recipes = new ArrayList<>();
+        for (int r = 0; r < RECIPES; r++) {
+            // Jedes zweite Rezept ohne Produkt (LEFT JOIN), Titel mit Komma und Anführungszeichen
+            Recipe recipe = new Recipe("Rezept " + r + ", \"scharf\"", "Text", null);
+            recipe.setProduct(r % 2 == 0 ? product : null);
+            recipes.add(recipeRepository.save(recipe));
+        }
+        for (int u = 0; u < USERS; u++) {
+            String oauthId = "auth0|export-user-" + u;
+            User user = userRepository.findByOauthId(oauthId).orElseGet(User::new);
+            user.setName("=Export User " + u);
+            user.setEmail("export" + u + "@example.com");
+            user.setOauthId(oauthId);
+            user = userRepository.save(user);
+            for (Recipe recipe : recipes) {
+                favoriteRepository.save(new Favorite(user, recipe));
+            }
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        favoriteRepository.deleteAll();
+        recipeRepository.deleteAll();
+    }
+
+    @Test
+    void export_usesSingleQuery() throws InterruptedException {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // Index-Neuaufbauten nach den neuen Rezepten nicht mitzählen
+        long last = -1;
+        while (statistics.getPrepareStatementCount() != last) {
+            last = statistics.getPrepareStatementCount();
+            Thread.sleep(300);
+        }
+        long statementsBefore = statistics.getPrepareStatementCount();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = favoriteExportService.export(FavoriteExportService.Format.CSV, out);
+
+        assertEquals(USERS * RECIPES, rows);
+        assertEquals(1, statistics.getPrepareStatementCount() - statementsBefore);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(1 + USERS * RECIPES, lines.length);
+    }
+
+    @Test
+    void ndjson_streamsOneObjectPerLine() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/favorites/admin/export")
+                        .with(jwt().jwt(jwt -> jwt.claim("sub", ADMIN))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = body.split("\n");
+        assertEquals(USERS * RECIPES, lines.length);
+        int withProduct = 0;
+        for (String line : lines) {
+            JsonNode favorite = objectMapper.readTree(line);
+            if (!favorite.get("productId").isNull()) {
+                assertEquals("Salsiccia", favorite.get("productTitle").asText());
+                withProduct++;
+            }
+        }
+        assertEquals(USERS * ((RECIPES + 1) / 2), withProduct);
+    }
+
+    @Test
+    void csv_escapesFieldsAndFormulas() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/favorites/admin/export").param("format", "csv")
+                        .with(jwt().jwt(jwt -> jwt.claim("sub", ADMIN))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", containsString("favorites.csv")))
+                .andExpect(content().string(startsWith(
+                        "id,userId,userName,userEmail,recipeId,recipeTitle,productId,productTitle,createdAt\r\n")))
+                .andExpect(content().string(containsString(",'=Export User ")))
+                .andExpect(content().string(containsString(",\"Rezept 0, \"\"scharf\"\"\",")));
+    }
+
+    @Test
+    void export_requiresAdminAndKnownFormat() throws Exception {
+        mockMvc.perform(get("/api/favorites/admin/export")
+                        .with(jwt().jwt(jwt -> jwt.claim("sub", "auth0|export-user-0"))))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/favorites/admin/export").param("format", "xml")
+                        .with(jwt().jwt(jwt -> jwt.claim("sub", ADMIN))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void adminList_usesJoinedProjection() throws Exception {
+        mockMvc.perform(get("/api/favorites/admin/all").with(jwt().jwt(jwt -> jwt.claim("sub", ADMIN))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(USERS * RECIPES))
+                .andExpect(jsonPath("$[0].userEmail", containsString("@example.com")));
+    }
+}
@@ -0,0 +1,120 @@
+package de.htwg.in.wete.backend;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import de.htwg.in.wete.backend.model.Recipe;
+import de.htwg.in.wete.backend.model.Role;
+import de.htwg.in.wete.backend.model.User;
+import de.htwg.in.wete.backend.repository.FavoriteRepository;
+import de.htwg.in.wete.backend.repository.RecipeRepository;
+import de.htwg.in.wete.backend.repository.UserRepository;
+import de.htwg.in.wete.backend.service.FavoriteIdCache;
+
+/**
+ * Tests für den Favoriten-ID-Cache: /ids, /check und der Bulk-Check müssen
+ * Änderungen über add/remove/toggle sofort sehen.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class FavoriteIdCacheTests {
+
+    private static final String USER = "auth0|favorite-user";
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FavoriteIdCache favoriteIdCache;
+
+    private Recipe first;
+    private Recipe second;
+
+    @BeforeEach
+    public void setUp(WebApplicationContext webApplicationContext) {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .apply(springSecurity())
+                .build();
+        favoriteRepository.deleteAll();
+        favoriteIdCache.evictAll();
+
+        User user = userRepository.findByOauthId(USER).orElseGet(User::new);
+        user.setName("Favorite User");
+        user.setEmail("favorite@example.com");
+        user.setOauthId(USER);
+        user.setRole(Role.REGULAR);
+        userRepository.save(user);
+
+        first = recipeRepository.save(new Recipe("Pasta al forno", "Im Ofen backen", null));
+        second = recipeRepository.save(new Recipe("Parmigiana", "Schichten und backen", null));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        // Andere Tests löschen Produkte/User, daran dürfen keine Favoriten hängen
+        favoriteRepository.deleteAll();
+        recipeRepository.delete(first);
+        recipeRepository.delete(second);
+    }
+
+    @Test
+    void addAndToggle_areVisibleInIdsAndCheck() throws Exception {
+        // Leeren Stand laden (und cachen)
+        mockMvc.perform(get("/api/favorites/ids").with(jwt().jwt(jwt -> jwt.claim("sub", USER))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", empty()));
+
+        mockMvc.perform(post("/api/favorites/" + first.getId()).with(jwt().jwt(jwt -> jwt.claim("sub", USER))))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/favorites/ids").with(jwt().jwt(jwt -> jwt.claim("sub", USER))))
+                .andExpect(jsonPath("$", contains(first.getId().intValue())));
+        mockMvc.perform(get("/api/favorites/check/" + first.getId()).with(jwt().jwt(jwt -> jwt.claim("sub", USER))))
+                .andExpect(jsonPath("$.isFavorite").value(true));
+
+        // Toggle entfernt den Favoriten wieder
+        mockMvc.perform(post("/api/favorites/toggle/" + first.getId()).with(jwt().jwt(jwt -> jwt.claim("sub", USER))))
+                .andExpect(jsonPath("$.isFavorite").value(false));
+
+        mockMvc.perform(get("/api/favorites/check/" + first.getId()).with(jwt().jwt(jwt -> jwt.claim("sub", USER))))
+                .andExpect(jsonPath("$.isFavorite").value(false));
+        mockMvc.perform(get("/api/favorites/count").with(jwt().jwt(jwt -> jwt.claim("sub", USER))))
+                .andExpect(jsonPath("$.count").value(0));
+    }
+
+    @Test
+    void bulkCheck_returnsOnlyFavorites() throws Exception {
+        mockMvc.perform(post("/api/favorites/toggle/" + second.getId()).with(jwt().jwt(jwt -> jwt.claim("sub", USER))))
+                .andExpect(jsonPath("$.isFavorite").value(true));
+
+        mockMvc.perform(post("/api/favorites/check")
+                .with(jwt().jwt(jwt -> jwt.claim("sub", USER)))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[" + first.getId() + "," + second.getId() + ",999999]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.favoriteIds", contains(second.getId().intValue())));
+    }
+}
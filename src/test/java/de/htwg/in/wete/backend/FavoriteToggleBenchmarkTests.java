@@ -0,0 +1,154 @@
+package de.htwg.in.wete.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import de.htwg.in.wete.backend.model.Recipe;
+import de.htwg.in.wete.backend.model.User;
+import de.htwg.in.wete.backend.repository.FavoriteRepository;
+import de.htwg.in.wete.backend.repository.RecipeRepository;
+import de.htwg.in.wete.backend.repository.UserRepository;
+import de.htwg.in.wete.backend.service.FavoriteIdCache;
+import de.htwg.in.wete.backend.service.FavoriteWriteBehind;
+
+/**
+ * Lasttest: POST /api/favorites/toggle synchron gegen Write-Behind. 16 Threads
+ * schalten zufällige Paare aus 50 Usern x 40 Rezepten um; gemessen wird der
+ * Durchsatz inklusive abschließendem Schreiben aller offenen Änderungen.
+ * Läuft nur mit {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "casellese.favorites.write-behind.flush-interval-ms=50")
+@ActiveProfiles("test")
+class FavoriteToggleBenchmarkTests {
+
+    private static final int THREADS = 16;
+    private static final int TOGGLES_PER_THREAD = 1_000;
+    private static final int USERS = 50;
+    private static final int RECIPES = 40;
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FavoriteWriteBehind writeBehind;
+
+    @Autowired
+    private FavoriteIdCache favoriteIdCache;
+
+    private List<Long> recipeIds;
+
+    @BeforeEach
+    public void setUp(WebApplicationContext webApplicationContext) {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .apply(springSecurity())
+                .build();
+        favoriteRepository.deleteAll();
+        recipeRepository.deleteAll();
+        for (int u = 0; u < USERS; u++) {
+            String oauthId = "auth0|toggle-bench-" + u;
+            User user = userRepository.findByOauthId(oauthId).orElseGet(User::new);
+            user.setName(oauthId);
+            user.setOauthId(oauthId);
+            userRepository.save(user);
+        }
+        recipeIds = new ArrayList<>();
+        for (int r = 0; r < RECIPES; r++) {
+            recipeIds.add(recipeRepository.save(new Recipe("Toggle-Rezept " + r, "Text", null)).getId());
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        writeBehind.setEnabled(false);
+        favoriteRepository.deleteAll();
+        recipeRepository.deleteAll();
+    }
+
+    @Test
+    void synchronousVersusWriteBehind() throws Exception {
+        // Warm-up beider Pfade (JIT, Caches)
+        run(false, 1, 200);
+        run(true, 2, 200);
+
+        double sync = run(false, 3, TOGGLES_PER_THREAD);
+        double writeBehindRate = run(true, 4, TOGGLES_PER_THREAD);
+
+        System.out.printf("Favorite toggles (%d threads, %d users x %d recipes): synchronous %,.0f/s, "
+                + "write-behind %,.0f/s (x%.1f), %s%n", THREADS, USERS, RECIPES, sync, writeBehindRate,
+                writeBehindRate / sync, writeBehind.stats());
+    }
+
+    /**
+     * Führt alle Toggles aus und liefert Toggles pro Sekunde; prüft danach,
+     * dass Datenbank und ID-Cache übereinstimmen.
+     */
+    private double run(boolean writeBehindEnabled, long seed, int perThread) throws Exception {
+        writeBehind.setEnabled(writeBehindEnabled);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                SplittableRandom random = new SplittableRandom(seed * 1000 + t);
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        String oauthId = "auth0|toggle-bench-" + random.nextInt(USERS);
+                        Long recipeId = recipeIds.get(random.nextInt(RECIPES));
+                        mockMvc.perform(post("/api/favorites/toggle/" + recipeId)
+                                .with(jwt().jwt(jwt -> jwt.claim("sub", oauthId))));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            // Alles Offene gehört zur Messung
+            writeBehind.drain();
+        } finally {
+            executor.shutdown();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        for (int u = 0; u < USERS; u++) {
+            String oauthId = "auth0|toggle-bench-" + u;
+            Set<Long> cached = new HashSet<>();
+            for (long id : favoriteIdCache.ids(oauthId)) {
+                cached.add(id);
+            }
+            assertEquals(new HashSet<>(favoriteRepository.findRecipeIdsByUserOauthId(oauthId)), cached);
+        }
+        return THREADS * perThread / seconds;
+    }
+}
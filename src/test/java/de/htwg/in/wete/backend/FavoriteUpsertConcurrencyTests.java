@@ -0,0 +1,208 @@
+package de.htwg.in.wete.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.jayway.jsonpath.JsonPath;
+
+import de.htwg.in.wete.backend.model.Recipe;
+import de.htwg.in.wete.backend.model.User;
+import de.htwg.in.wete.backend.repository.FavoriteRepository;
+import de.htwg.in.wete.backend.repository.RecipeRepository;
+import de.htwg.in.wete.backend.repository.UserRepository;
+import de.htwg.in.wete.backend.service.RecipePopularity;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Stresstest für add/remove/toggle per nativem Upsert: 64 Threads auf
+ * dasselbe Paar (User, Rezept) - keine Fehler, genau eine Zeile, Events nur
+ * bei echten Änderungen.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class FavoriteUpsertConcurrencyTests {
+
+    private static final String USER = "auth0|upsert-user";
+    private static final int THREADS = 64;
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RecipePopularity popularity;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long recipeId;
+
+    @BeforeEach
+    public void setUp(WebApplicationContext webApplicationContext) {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .apply(springSecurity())
+                .build();
+        favoriteRepository.deleteAll();
+        recipeRepository.deleteAll();
+
+        User user = userRepository.findByOauthId(USER).orElseGet(User::new);
+        user.setName("Upsert User");
+        user.setOauthId(USER);
+        userRepository.save(user);
+        recipeId = recipeRepository.save(new Recipe("Cavatelli al sugo", "Text", null)).getId();
+        popularity.reconcile();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        favoriteRepository.deleteAll();
+        recipeRepository.deleteAll();
+    }
+
+    /**
+     * Führt {@code perThread} Requests in jedem von {@link #THREADS} Threads
+     * gleichzeitig aus und zählt die HTTP-Status (Request-Builder sind nicht
+     * thread-sicher, daher einer pro Request).
+     */
+    private Map<Integer, AtomicInteger> hammer(Supplier<RequestBuilder> request, int perThread) throws Exception {
+        Map<Integer, AtomicInteger> statuses = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        int status = mockMvc.perform(request.get()).andReturn().getResponse().getStatus();
+                        statuses.computeIfAbsent(status, s -> new AtomicInteger()).incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return statuses;
+    }
+
+    private static int count(Map<Integer, AtomicInteger> statuses, int status) {
+        AtomicInteger count = statuses.get(status);
+        return count == null ? 0 : count.get();
+    }
+
+    @Test
+    void concurrentAdds_insertExactlyOnce() throws Exception {
+        Map<Integer, AtomicInteger> statuses = hammer(() -> post("/api/favorites/" + recipeId)
+                .with(jwt().jwt(jwt -> jwt.claim("sub", USER))), 4);
+
+        assertEquals(1, count(statuses, 201), "statuses " + statuses);
+        assertEquals(THREADS * 4 - 1, count(statuses, 200), "statuses " + statuses);
+        assertEquals(1, favoriteRepository.countByUserOauthId(USER));
+        assertEquals(1, popularity.favorites(recipeId));
+    }
+
+    @Test
+    void duplicateAdd_returnsExistingFavoriteWithId() throws Exception {
+        String body = mockMvc.perform(post("/api/favorites/" + recipeId)
+                .with(jwt().jwt(jwt -> jwt.claim("sub", USER))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long id = JsonPath.parse(body).read("$.id", Long.class);
+
+        mockMvc.perform(post("/api/favorites/" + recipeId)
+                .with(jwt().jwt(jwt -> jwt.claim("sub", USER))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(id));
+    }
+
+    @Test
+    void concurrentToggles_neverFailAndEventsMatchRows() throws Exception {
+        Map<Integer, AtomicInteger> statuses = hammer(() -> post("/api/favorites/toggle/" + recipeId)
+                .with(jwt().jwt(jwt -> jwt.claim("sub", USER))), 5);
+
+        assertEquals(THREADS * 5, count(statuses, 200), "statuses " + statuses);
+        long rows = favoriteRepository.countByUserOauthId(USER);
+        assertTrue(rows <= 1);
+        // Jede echte Änderung genau ein Event: der Zähler entspricht dem Datenbankstand
+        assertEquals(rows, popularity.favorites(recipeId));
+    }
+
+    @Test
+    void concurrentRemoves_deleteExactlyOnce() throws Exception {
+        mockMvc.perform(post("/api/favorites/" + recipeId)
+                .with(jwt().jwt(jwt -> jwt.claim("sub", USER))))
+                .andExpect(status().isCreated());
+
+        Map<Integer, AtomicInteger> statuses = hammer(() -> delete("/api/favorites/" + recipeId)
+                .with(jwt().jwt(jwt -> jwt.claim("sub", USER))), 1);
+
+        assertEquals(1, count(statuses, 200), "statuses " + statuses);
+        assertEquals(THREADS - 1, count(statuses, 404), "statuses " + statuses);
+        assertEquals(0, favoriteRepository.countByUserOauthId(USER));
+        assertEquals(0, popularity.favorites(recipeId));
+    }
+
+    @Test
+    void toggle_usesOneStatementToRemoveAndNoSelectToAdd() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // Warm-up: User-Lookup, Rollen- und Rezept-Cache
+        mockMvc.perform(post("/api/favorites/toggle/" + recipeId).with(jwt().jwt(jwt -> jwt.claim("sub", USER))))
+                .andExpect(jsonPath("$.isFavorite").value(true));
+
+        long before = statistics.getPrepareStatementCount();
+        mockMvc.perform(post("/api/favorites/toggle/" + recipeId).with(jwt().jwt(jwt -> jwt.claim("sub", USER))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.isFavorite").value(false));
+        assertEquals(1, statistics.getPrepareStatementCount() - before);
+
+        before = statistics.getPrepareStatementCount();
+        mockMvc.perform(post("/api/favorites/toggle/" + recipeId).with(jwt().jwt(jwt -> jwt.claim("sub", USER))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.isFavorite").value(true));
+        long statements = statistics.getPrepareStatementCount() - before;
+        // DELETE (0 Zeilen), User, Upsert - ggf. plus ein Sequenz-Aufruf pro 50 IDs
+        assertTrue(statements <= 4, "expected at most 4 statements but was " + statements);
+        assertEquals(1, favoriteRepository.countByUserOauthId(USER));
+    }
+}
@@ -0,0 +1,171 @@
+package de.htwg.in.wete.backend;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import de.htwg.in.wete.backend.model.Category;
+import de.htwg.in.wete.backend.model.Favorite;
+import de.htwg.in.wete.backend.model.Product;
+import de.htwg.in.wete.backend.model.Recipe;
+import de.htwg.in.wete.backend.model.User;
+import de.htwg.in.wete.backend.repository.FavoriteRepository;
+import de.htwg.in.wete.backend.repository.ProductRepository;
+import de.htwg.in.wete.backend.repository.RecipeRepository;
+import de.htwg.in.wete.backend.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Tests für GET /api/favorites als Join-Projektion: die Anzahl der Statements
+ * hängt nicht von der Anzahl der Favoriten ab.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class FavoriteViewTests {
+
+    private static final String MANY = "auth0|favorites-many";
+    private static final String FEW = "auth0|favorites-few";
+    private static final int RECIPES = 500;
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp(WebApplicationContext webApplicationContext) throws InterruptedException {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .apply(springSecurity())
+                .build();
+        favoriteRepository.deleteAll();
+        recipeRepository.deleteAll();
+        productRepository.deleteAll();
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Product product = new Product();
+            product.setTitle("Produkt " + i);
+            product.setCategory(Category.KAESE);
+            product.setImageUrl("/img/" + i + ".png");
+            products.add(product);
+        }
+        products = productRepository.saveAll(products);
+
+        // Jedes zweite Rezept ohne Produkt (LEFT JOIN)
+        List<Recipe> recipes = new ArrayList<>();
+        for (int i = 0; i < RECIPES; i++) {
+            Recipe recipe = new Recipe("Rezept " + i, "Text " + i, null);
+            if (i % 2 == 0) {
+                recipe.setProduct(products.get(i % products.size()));
+            }
+            recipes.add(recipe);
+        }
+        recipes = recipeRepository.saveAll(recipes);
+
+        User many = user(MANY);
+        User few = user(FEW);
+        List<Favorite> favorites = new ArrayList<>();
+        for (Recipe recipe : recipes) {
+            favorites.add(new Favorite(many, recipe));
+        }
+        favorites.add(new Favorite(few, recipes.get(0)));
+        favoriteRepository.saveAll(favorites);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManagerFactory.getCache().evictAll();
+        awaitBackgroundRebuilds();
+    }
+
+    private User user(String oauthId) {
+        User user = userRepository.findByOauthId(oauthId).orElseGet(User::new);
+        user.setName(oauthId);
+        user.setOauthId(oauthId);
+        return userRepository.save(user);
+    }
+
+    /**
+     * Katalogänderungen stoßen Index-Neuaufbauten im Hintergrund an; deren
+     * Queries dürfen nicht mitgezählt werden.
+     */
+    private void awaitBackgroundRebuilds() throws InterruptedException {
+        long last = -1;
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (statistics.getPrepareStatementCount() != last && System.currentTimeMillis() < deadline) {
+            last = statistics.getPrepareStatementCount();
+            Thread.sleep(300);
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        favoriteRepository.deleteAll();
+        recipeRepository.deleteAll();
+    }
+
+    private long statementsForFavorites(String oauthId, int expected) throws Exception {
+        long before = statistics.getPrepareStatementCount();
+        mockMvc.perform(get("/api/favorites").with(jwt().jwt(jwt -> jwt.claim("sub", oauthId))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(expected));
+        return statistics.getPrepareStatementCount() - before;
+    }
+
+    @Test
+    void getFavorites_statementCountIndependentOfFavoriteCount() throws Exception {
+        // Erster Aufruf je User wärmt Rollen-/User-Caches auf
+        statementsForFavorites(FEW, 1);
+        statementsForFavorites(MANY, RECIPES);
+
+        long few = statementsForFavorites(FEW, 1);
+        long many = statementsForFavorites(MANY, RECIPES);
+
+        assertEquals(1, many, "500 Favoriten sollen mit einer Query geladen werden");
+        assertEquals(few, many);
+    }
+
+    @Test
+    void getFavorites_containsRecipeAndOptionalProduct() throws Exception {
+        mockMvc.perform(get("/api/favorites").with(jwt().jwt(jwt -> jwt.claim("sub", FEW))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].recipeTitle").value("Rezept 0"))
+                .andExpect(jsonPath("$[0].recipeText").value("Text 0"))
+                .andExpect(jsonPath("$[0].productTitle").value("Produkt 0"))
+                .andExpect(jsonPath("$[0].productImageUrl").value("/img/0.png"))
+                .andExpect(jsonPath("$[0].createdAt").isNotEmpty());
+
+        mockMvc.perform(get("/api/favorites").with(jwt().jwt(jwt -> jwt.claim("sub", MANY))))
+                .andExpect(jsonPath("$[?(@.recipeTitle == 'Rezept 1')].productId").value(contains((Object) null)));
+    }
+}
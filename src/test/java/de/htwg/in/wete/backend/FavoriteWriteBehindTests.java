@@ -0,0 +1,223 @@
+package de.htwg.in.wete.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+import de.htwg.in.wete.backend.config.ReadWriteRoutingDataSource;
+import de.htwg.in.wete.backend.model.Recipe;
+import de.htwg.in.wete.backend.model.User;
+import de.htwg.in.wete.backend.repository.FavoriteRepository;
+import de.htwg.in.wete.backend.repository.RecipeRepository;
+import de.htwg.in.wete.backend.repository.UserRepository;
+import de.htwg.in.wete.backend.service.FavoriteBatchService;
+import de.htwg.in.wete.backend.service.FavoriteWriteBehind;
+import de.htwg.in.wete.backend.service.RecipePopularity;
+
+/**
+ * Tests für den Write-Behind-Modus der Favoriten-Toggles: Zustand sofort im
+ * Speicher, Netto-Änderungen erst beim Flush in der Datenbank.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class FavoriteWriteBehindTests {
+
+    private static final String USER = "auth0|write-behind-user";
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FavoriteWriteBehind writeBehind;
+
+    @Autowired
+    private FavoriteBatchService favoriteBatchService;
+
+    @Autowired
+    private RecipePopularity popularity;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectProvider<ReadWriteRoutingDataSource> routingDataSource;
+
+    private Long userId;
+    private List<Long> recipeIds;
+
+    @BeforeEach
+    public void setUp(WebApplicationContext webApplicationContext) {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .apply(springSecurity())
+                .build();
+        favoriteRepository.deleteAll();
+        recipeRepository.deleteAll();
+
+        User user = userRepository.findByOauthId(USER).orElseGet(User::new);
+        user.setName("Write-Behind User");
+        user.setOauthId(USER);
+        userId = userRepository.save(user).getId();
+        recipeIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            recipeIds.add(recipeRepository.save(new Recipe("Write-Behind-Rezept " + i, "Text", null)).getId());
+        }
+        popularity.reconcile();
+        writeBehind.setEnabled(true);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        writeBehind.setEnabled(false);
+        favoriteRepository.deleteAll();
+        recipeRepository.deleteAll();
+    }
+
+    private void toggle(Long recipeId, boolean expected) throws Exception {
+        mockMvc.perform(post("/api/favorites/toggle/" + recipeId)
+                .with(jwt().jwt(jwt -> jwt.claim("sub", USER))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.isFavorite").value(expected));
+    }
+
+    @Test
+    void toggles_areVisibleImmediatelyAndCoalescedOnFlush() throws Exception {
+        toggle(recipeIds.get(0), true);
+        toggle(recipeIds.get(0), false);
+        toggle(recipeIds.get(0), true);
+        toggle(recipeIds.get(1), true);
+        toggle(recipeIds.get(1), false);
+
+        // Lesen aus dem Speicher sieht den neuen Stand sofort
+        mockMvc.perform(get("/api/favorites/ids").with(jwt().jwt(jwt -> jwt.claim("sub", USER))))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0]").value(recipeIds.get(0)));
+        assertEquals(1, popularity.favorites(recipeIds.get(0)));
+        assertEquals(0, popularity.favorites(recipeIds.get(1)));
+
+        long writtenBefore = (Long) writeBehind.stats().get("written");
+        writeBehind.drain();
+        assertEquals(List.of(recipeIds.get(0)), favoriteRepository.findRecipeIdsByUserOauthId(USER));
+        // Fünf Toggles, aber nur eine Netto-Änderung geschrieben
+        assertEquals(writtenBefore + 1, (Long) writeBehind.stats().get("written"));
+        assertEquals(0, writeBehind.stats().get("pending"));
+    }
+
+    @Test
+    void reconcile_keepsPendingTogglesCounted() throws Exception {
+        toggle(recipeIds.get(0), true);
+        toggle(recipeIds.get(1), true);
+        writeBehind.drain();
+        toggle(recipeIds.get(1), false);
+
+        // Abgleich vor dem Flush: Tabelle und Zähler weichen noch ab
+        popularity.reconcile();
+        assertEquals(1, popularity.favorites(recipeIds.get(0)));
+        assertEquals(0, popularity.favorites(recipeIds.get(1)));
+
+        writeBehind.drain();
+        popularity.reconcile();
+        assertEquals(1, popularity.favorites(recipeIds.get(0)));
+        assertEquals(0, popularity.favorites(recipeIds.get(1)));
+    }
+
+    @Test
+    void databaseReads_flushPendingChangesOfTheUser() throws Exception {
+        toggle(recipeIds.get(2), true);
+
+        mockMvc.perform(get("/api/favorites").with(jwt().jwt(jwt -> jwt.claim("sub", USER))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].recipeId").value(recipeIds.get(2)));
+
+        // Synchroner Schreibpfad sieht den geschriebenen Stand
+        mockMvc.perform(delete("/api/favorites/" + recipeIds.get(2))
+                .with(jwt().jwt(jwt -> jwt.claim("sub", USER))))
+                .andExpect(status().isOk());
+        toggle(recipeIds.get(2), true);
+    }
+
+    @Test
+    void fullQueue_rejectsNewPairsAfterTimeout() {
+        FavoriteWriteBehind small = new FavoriteWriteBehind(favoriteBatchService, eventPublisher,
+                transactionTemplate, routingDataSource, new SyncTaskExecutor() {
+                    @Override
+                    public void execute(Runnable task) {
+                        // Kein Flush: simuliert eine blockierte Datenbank
+                    }
+                }, true, 2, 500, 50);
+
+        assertTrue(small.toggle(USER, userId, recipeIds.get(0), () -> false));
+        assertTrue(small.toggle(USER, userId, recipeIds.get(1), () -> false));
+        // Bereits offene Paare werden weiter zusammengefasst
+        small.awaitCapacity(USER, recipeIds.get(1));
+        assertFalse(small.toggle(USER, userId, recipeIds.get(1), () -> false));
+        // Gewartet wird vor dem Toggle, der Toggle selbst weist sofort ab
+        assertThrows(FavoriteWriteBehind.UnavailableException.class,
+                () -> small.awaitCapacity(USER, recipeIds.get(2)));
+        assertThrows(FavoriteWriteBehind.UnavailableException.class,
+                () -> small.toggle(USER, userId, recipeIds.get(2), () -> false));
+        assertEquals(2L, small.stats().get("rejected"));
+    }
+
+    @Test
+    void failedFlushOfUser_isReportedToTheCaller() {
+        PlatformTransactionManager unreachable = new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                throw new CannotCreateTransactionException("Datenbank nicht erreichbar");
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+        FavoriteWriteBehind broken = new FavoriteWriteBehind(favoriteBatchService, eventPublisher,
+                new TransactionTemplate(unreachable), routingDataSource, new SyncTaskExecutor(), true, 10, 500, 50);
+
+        assertTrue(broken.toggle(USER, userId, recipeIds.get(0), () -> false));
+        assertThrows(FavoriteWriteBehind.UnavailableException.class, () -> broken.flushUser(USER));
+        // Die Änderung bleibt offen und wird später erneut versucht
+        assertEquals(1, broken.stats().get("pending"));
+    }
+}
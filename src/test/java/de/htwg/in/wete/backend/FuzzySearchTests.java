@@ -0,0 +1,136 @@
+package de.htwg.in.wete.backend;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import de.htwg.in.wete.backend.model.Category;
+import de.htwg.in.wete.backend.model.Product;
+import de.htwg.in.wete.backend.repository.ProductRepository;
+import de.htwg.in.wete.backend.repository.RecipeRepository;
+import de.htwg.in.wete.backend.search.FullTextIndex;
+import de.htwg.in.wete.backend.search.FuzzyIndex;
+import de.htwg.in.wete.backend.search.GermanAnalyzer;
+import de.htwg.in.wete.backend.search.SymSpellDictionary;
+
+/**
+ * Tests für die tippfehlertolerante Produktsuche und "Meinten Sie ...".
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class FuzzySearchTests {
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private FuzzyIndex fuzzyIndex;
+
+    @Autowired
+    private FullTextIndex fullTextIndex;
+
+    @BeforeEach
+    public void setUp(WebApplicationContext webApplicationContext) {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        recipeRepository.deleteAll();
+        productRepository.deleteAll();
+
+        Product salami = new Product();
+        salami.setTitle("Salami Napoli");
+        salami.setCategory(Category.SALAMI);
+        salami.setPrice(8.49);
+        salami.setIngredients("Schweinefleisch, Salz, Pfeffer");
+        productRepository.save(salami);
+
+        Product cheese = new Product();
+        cheese.setTitle("Pecorino Käse");
+        cheese.setCategory(Category.KAESE);
+        cheese.setPrice(11.99);
+        cheese.setIngredients("Schafsmilch, Lab, Salz");
+        productRepository.save(cheese);
+
+        fuzzyIndex.rebuild();
+        fullTextIndex.rebuild();
+    }
+
+    @Test
+    void normalize_treatsUmlautsAndTranscriptionsAlike() {
+        assertEquals(GermanAnalyzer.normalize("käse"), GermanAnalyzer.normalize("kaese"));
+        assertEquals(GermanAnalyzer.normalize("soße"), GermanAnalyzer.normalize("sosse"));
+        assertEquals(GermanAnalyzer.normalize("müller"), GermanAnalyzer.normalize("mueller"));
+        assertEquals("quelle", GermanAnalyzer.normalize("quelle"));
+    }
+
+    @Test
+    void dictionary_findsTyposWithinDistance() {
+        SymSpellDictionary dictionary = SymSpellDictionary.build(
+                java.util.Map.of("salami", 5L, "salat", 2L, "pecorino", 1L), 2, 7);
+
+        List<SymSpellDictionary.Match> matches = dictionary.lookup("salmi", 2);
+        assertEquals("salami", matches.get(0).term());
+        assertEquals(1, matches.get(0).distance());
+
+        assertEquals("pecorino", dictionary.lookup("pecornio", 2).get(0).term());
+        assertTrue(dictionary.lookup("mozzarella", 2).isEmpty());
+        assertEquals(1, dictionary.lookup("salat", 0).size());
+    }
+
+    @Test
+    void productSearch_fallsBackToFuzzyMatches() throws Exception {
+        mockMvc.perform(get("/api/product").param("name", "salmi"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].title").value("Salami Napoli"));
+
+        mockMvc.perform(get("/api/product").param("name", "Kaese"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].title").value("Pecorino Käse"));
+
+        // Zutaten zählen ebenfalls, Kategorie filtert weiter
+        mockMvc.perform(get("/api/product").param("name", "schafmilch").param("category", "SALAMI"))
+                .andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(get("/api/product").param("name", "schafmilch"))
+                .andExpect(jsonPath("$[0].title").value("Pecorino Käse"));
+    }
+
+    @Test
+    void pagedProductSearch_findsTheSameProducts() throws Exception {
+        mockMvc.perform(get("/api/product").param("name", "salmi").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].title").value("Salami Napoli"));
+
+        mockMvc.perform(get("/api/product").param("name", "Käse").param("sort", "title"))
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].title").value("Pecorino Käse"));
+    }
+
+    @Test
+    void search_suggestsCorrectionWithoutHits() throws Exception {
+        mockMvc.perform(get("/api/search").param("q", "pekorino napli"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(0))
+                .andExpect(jsonPath("$.didYouMean", hasItem("pecorino napoli")));
+
+        mockMvc.perform(get("/api/search").param("q", "salami"))
+                .andExpect(jsonPath("$.didYouMean.length()").value(0));
+    }
+}
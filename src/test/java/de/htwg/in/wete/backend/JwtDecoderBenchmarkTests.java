@@ -0,0 +1,72 @@
+package de.htwg.in.wete.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+
+import de.htwg.in.wete.backend.config.CachingJwtDecoder;
+import de.htwg.in.wete.backend.config.JwkSetCache;
+import de.htwg.in.wete.backend.config.SecurityConfig;
+
+/**
+ * Lasttest: volle RS256-Prüfung gegen den Cache validierter JWTs. 500
+ * verschiedene Tokens (Sessions), jedes wird wie von der SPA viele Male
+ * geschickt. Lokales Schlüsselpaar, JWKS-Ersatz im Speicher.
+ * Läuft nur mit {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+class JwtDecoderBenchmarkTests {
+
+    private static final int TOKENS = 500;
+    private static final int DECODES = 200_000;
+
+    @Test
+    void verifyingVersusCaching() throws Exception {
+        RSAKey key = new RSAKeyGenerator(2048).keyID("bench").generate();
+        JWKSet jwks = JWKSet.parse(new JWKSet(key.toPublicJWK()).toString());
+        JwkSetCache jwkSetCache = new JwkSetCache(() -> jwks, Duration.ofSeconds(30));
+        jwkSetCache.refresh();
+
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < TOKENS; i++) {
+            tokens.add(CachingJwtDecoderTests.token(key, "auth0|bench-" + i, "https://test-api",
+                    Instant.now().plusSeconds(3600)));
+        }
+        JwtDecoder verifying = SecurityConfig.verifyingDecoder(jwkSetCache, "https://test.auth0.com/",
+                "https://test-api");
+        CachingJwtDecoder caching = new CachingJwtDecoder(verifying, 10_000);
+
+        // Warm-up (JIT)
+        run(verifying, tokens, 5_000);
+        run(caching, tokens, 5_000);
+
+        double verifyingRate = run(verifying, tokens, DECODES / 20);
+        double cachingRate = run(caching, tokens, DECODES);
+
+        System.out.printf("JWT decode (%d tokens): verifying %,.0f/s, cached %,.0f/s (x%.0f), %s, jwks %s%n",
+                TOKENS, verifyingRate, cachingRate, cachingRate / verifyingRate, caching.stats(),
+                jwkSetCache.stats());
+        assertEquals((long) TOKENS, caching.stats().get("verifications"));
+        assertTrue(cachingRate > verifyingRate * 10, "cache should be at least 10x faster");
+    }
+
+    private static double run(JwtDecoder decoder, List<String> tokens, int decodes) {
+        long start = System.nanoTime();
+        for (int i = 0; i < decodes; i++) {
+            decoder.decode(tokens.get(i % tokens.size()));
+        }
+        return decodes / ((System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,212 @@
+package de.htwg.in.wete.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.htwg.in.wete.backend.model.Category;
+import de.htwg.in.wete.backend.model.Product;
+import de.htwg.in.wete.backend.model.Recipe;
+import de.htwg.in.wete.backend.model.Role;
+import de.htwg.in.wete.backend.model.User;
+import de.htwg.in.wete.backend.repository.KeysetCursor;
+import de.htwg.in.wete.backend.repository.ProductRepository;
+import de.htwg.in.wete.backend.repository.RecipeRepository;
+import de.htwg.in.wete.backend.repository.SortKey;
+import de.htwg.in.wete.backend.repository.UserRepository;
+import de.htwg.in.wete.backend.service.CatalogReadModel;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Tests für die Keyset-Pagination der Listen-Endpoints.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class KeysetPaginationTests {
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CatalogReadModel catalogReadModel;
+
+    private final List<Product> products = new ArrayList<>();
+    private final Map<Long, Double> prices = new HashMap<>();
+
+    @BeforeEach
+    public void setUp(WebApplicationContext webApplicationContext) {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .apply(springSecurity())
+                .build();
+        recipeRepository.deleteAll();
+        productRepository.deleteAll();
+        products.clear();
+
+        // Doppelte Titel/Preise und Produkte ohne Preis prüfen den Tie-Breaker
+        prices.clear();
+        for (int i = 0; i < 23; i++) {
+            Product product = new Product();
+            product.setTitle("Produkt " + (char) ('A' + i % 7));
+            product.setCategory(i % 2 == 0 ? Category.KAESE : Category.BROT);
+            product.setPrice(i % 4);
+            product = productRepository.save(product);
+            products.add(product);
+            prices.put(product.getId(), product.getPrice());
+            if (i % 5 == 0) {
+                // Preis ist optional, der Setter kennt aber nur double
+                jdbcTemplate.update("UPDATE product SET price = NULL WHERE id = ?", product.getId());
+                prices.put(product.getId(), null);
+            }
+        }
+        entityManagerFactory.getCache().evictAll();
+        // Die JDBC-Änderung ging an der Anwendung vorbei: Snapshot neu laden
+        catalogReadModel.reload();
+        for (int i = 0; i < 7; i++) {
+            recipeRepository.save(new Recipe("Rezept " + (7 - i), "Text", null));
+        }
+
+        User admin = userRepository.findByOauthId("auth0|paging-admin").orElseGet(User::new);
+        admin.setName("Paging Admin");
+        admin.setOauthId("auth0|paging-admin");
+        admin.setRole(Role.ADMIN);
+        userRepository.save(admin);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        recipeRepository.deleteAll();
+    }
+
+    @Test
+    void products_pagesCoverAllRowsInSortOrder() throws Exception {
+        Comparator<Product> byId = Comparator.comparing(Product::getId);
+        Comparator<Product> byTitle = Comparator.comparing(Product::getTitle).thenComparing(byId);
+        Comparator<Product> byPrice = Comparator.comparing((Product p) -> prices.get(p.getId()),
+                Comparator.nullsFirst(Comparator.<Double>naturalOrder())).thenComparing(byId);
+
+        assertEquals(ids(products, byId), readAll(c -> page(get("/api/product").param("size", "5"), c)));
+        assertEquals(ids(products, byTitle), readAll(c -> page(get("/api/product").param("sort", "title").param("size", "4"), c)));
+        assertEquals(ids(products, byPrice), readAll(c -> page(get("/api/product").param("sort", "price").param("size", "3"), c)));
+        assertEquals(ids(products, byPrice.reversed()),
+                readAll(c -> page(get("/api/product").param("sort", "price,desc").param("size", "3"), c)));
+
+        List<Product> cheese = products.stream().filter(p -> p.getCategory() == Category.KAESE).toList();
+        assertEquals(ids(cheese, byTitle.reversed()), readAll(c -> page(get("/api/product")
+                .param("category", "KAESE").param("sort", "title,desc").param("size", "5"), c)));
+    }
+
+    @Test
+    void productSummaries_showMissingPriceAsZeroLikeProducts() throws Exception {
+        Product withoutPrice = products.get(0);
+        mockMvc.perform(get("/api/product").param("sort", "price").param("size", "1"))
+                .andExpect(jsonPath("$.items[0].id").value(withoutPrice.getId()))
+                .andExpect(jsonPath("$.items[0].price").value(0.0))
+                .andExpect(jsonPath("$.items[0].priceOrNull").doesNotExist());
+        mockMvc.perform(get("/api/product"))
+                .andExpect(jsonPath("$[?(@.id == " + withoutPrice.getId() + ")].price").value(0.0));
+    }
+
+    @Test
+    void recipesAndUsers_arePaged() throws Exception {
+        List<Long> titles = readAll(c -> page(get("/api/recipes").param("sort", "title").param("size", "3"), c));
+        assertEquals(7, titles.size());
+        assertEquals("Rezept 1", recipeRepository.findById(titles.get(0)).orElseThrow().getTitle());
+
+        List<Long> users = readAll(c -> page(get("/api/users").param("size", "1")
+                .with(jwt().jwt(j -> j.subject("auth0|paging-admin"))), c));
+        assertTrue(users.size() >= 1);
+        assertEquals(users.stream().sorted().toList(), users);
+    }
+
+    @Test
+    void unpagedCalls_keepReturningPlainList() throws Exception {
+        mockMvc.perform(get("/api/product"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(23));
+        mockMvc.perform(get("/api/recipes"))
+                .andExpect(jsonPath("$.length()").value(7));
+    }
+
+    @Test
+    void invalidParameters_areRejected() throws Exception {
+        mockMvc.perform(get("/api/product").param("size", "101")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/product").param("size", "0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/product").param("sort", "description")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/product").param("cursor", "kaputt")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/recipes").param("sort", "price")).andExpect(status().isBadRequest());
+
+        String priceCursor = KeysetCursor.first(SortKey.PRICE, false).after(1.0, 1).encode();
+        mockMvc.perform(get("/api/recipes").param("cursor", priceCursor)).andExpect(status().isBadRequest());
+    }
+
+    private static MockHttpServletRequestBuilder page(MockHttpServletRequestBuilder request, String cursor) {
+        return cursor == null ? request : request.param("cursor", cursor);
+    }
+
+    /**
+     * Folgt den nextCursor-Tokens bis zur letzten Seite und sammelt die IDs.
+     */
+    private List<Long> readAll(Function<String, MockHttpServletRequestBuilder> request) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        for (int pages = 0; pages < 100; pages++) {
+            String body = mockMvc.perform(request.apply(cursor))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode page = objectMapper.readTree(body);
+            page.get("items").forEach(item -> ids.add(item.get("id").asLong()));
+            JsonNode next = page.get("nextCursor");
+            if (next == null || next.isNull()) {
+                return ids;
+            }
+            cursor = next.asText();
+        }
+        throw new AssertionError("Zu viele Seiten");
+    }
+
+    private static List<Long> ids(List<Product> list, Comparator<Product> order) {
+        return list.stream().sorted(order).map(Product::getId).toList();
+    }
+}
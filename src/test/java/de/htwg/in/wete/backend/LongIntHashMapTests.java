@@ -0,0 +1,55 @@
+package de.htwg.in.wete.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import de.htwg.in.wete.backend.service.LongIntHashMap;
+
+/**
+ * Tests für die primitive Map der Co-Occurrence-Matrix.
+ */
+class LongIntHashMapTests {
+
+    @Test
+    void randomOperations_matchHashMap() {
+        Random random = new Random(7);
+        LongIntHashMap map = new LongIntHashMap();
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            // Wenige Schlüssel, damit Einträge oft auf 0 fallen und entfernt werden
+            long key = 1 + random.nextInt(2_000);
+            int delta = random.nextInt(5) - 2;
+            int value = map.addTo(key, delta);
+            expected.merge(key, delta, Integer::sum);
+            expected.remove(key, 0);
+            assertEquals(expected.getOrDefault(key, 0), value);
+        }
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value, map.get(key)));
+
+        Map<Long, Integer> iterated = new HashMap<>();
+        map.forEach(iterated::put);
+        assertEquals(expected, iterated);
+    }
+
+    @Test
+    void addAll_mergesAndKeyZeroIsReserved() {
+        LongIntHashMap first = new LongIntHashMap();
+        first.addTo(1L << 32 | 2, 3);
+        LongIntHashMap second = new LongIntHashMap(100);
+        second.addTo(1L << 32 | 2, -3);
+        second.addTo(5, 1);
+        first.addAll(second);
+
+        assertEquals(1, first.size());
+        assertEquals(1, first.get(5));
+        assertEquals(0, first.get(1L << 32 | 2));
+        assertThrows(IllegalArgumentException.class, () -> first.addTo(0, 1));
+    }
+}
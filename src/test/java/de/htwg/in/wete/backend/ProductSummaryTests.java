@@ -0,0 +1,136 @@
+package de.htwg.in.wete.backend;
+
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import de.htwg.in.wete.backend.model.Category;
+import de.htwg.in.wete.backend.model.Product;
+import de.htwg.in.wete.backend.model.Recipe;
+import de.htwg.in.wete.backend.repository.ProductRepository;
+import de.htwg.in.wete.backend.repository.RecipeRepository;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Tests für die Produktliste als ProductSummary (keine Rezepte) und
+ * expand=recipes; beides kommt aus dem Katalog-Snapshot ohne Query.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductSummaryTests {
+
+    private static final int PRODUCTS = 30;
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp(WebApplicationContext webApplicationContext) throws InterruptedException {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        recipeRepository.deleteAll();
+        productRepository.deleteAll();
+
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product();
+            product.setTitle("Produkt " + i);
+            product.setCategory(Category.BROT);
+            product.setPrice(2.5);
+            product.setDescription("Lange Beschreibung");
+            product = productRepository.save(product);
+            for (int r = 0; r < 2; r++) {
+                Recipe recipe = new Recipe("Rezept " + i + "/" + r, "Sehr langer Rezepttext", null);
+                recipe.setProduct(product);
+                recipeRepository.save(recipe);
+            }
+        }
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManagerFactory.getCache().evictAll();
+        awaitBackgroundRebuilds();
+    }
+
+    /**
+     * Katalogänderungen stoßen Index-Neuaufbauten im Hintergrund an; deren
+     * Queries dürfen nicht mitgezählt werden.
+     */
+    private void awaitBackgroundRebuilds() throws InterruptedException {
+        long last = -1;
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (statistics.getPrepareStatementCount() != last && System.currentTimeMillis() < deadline) {
+            last = statistics.getPrepareStatementCount();
+            Thread.sleep(300);
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        recipeRepository.deleteAll();
+    }
+
+    @Test
+    void listing_returnsSummariesWithoutQuery() throws Exception {
+        long before = statistics.getPrepareStatementCount();
+
+        mockMvc.perform(get("/api/product"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(PRODUCTS))
+                .andExpect(jsonPath("$[*].recipeCount", everyItem(is(2))))
+                .andExpect(jsonPath("$[0].recipes").doesNotExist())
+                .andExpect(jsonPath("$[0].description").doesNotExist());
+
+        assertEquals(0, statistics.getPrepareStatementCount() - before);
+    }
+
+    @Test
+    void pagedListing_returnsSummariesWithoutQuery() throws Exception {
+        long before = statistics.getPrepareStatementCount();
+
+        mockMvc.perform(get("/api/product").param("sort", "title").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(10))
+                .andExpect(jsonPath("$.items[0].recipeCount").value(2))
+                .andExpect(jsonPath("$.items[0].category").value("BROT"));
+
+        assertEquals(0, statistics.getPrepareStatementCount() - before);
+    }
+
+    @Test
+    void expandRecipes_batchFetchesCollections() throws Exception {
+        long before = statistics.getPrepareStatementCount();
+
+        mockMvc.perform(get("/api/product").param("expand", "recipes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(PRODUCTS))
+                .andExpect(jsonPath("$[0].recipes.length()").value(2))
+                .andExpect(jsonPath("$[0].recipes[0].text").value("Sehr langer Rezepttext"));
+
+        // Produkte samt Rezeptlisten aus dem Snapshot
+        assertEquals(0, statistics.getPrepareStatementCount() - before);
+
+        mockMvc.perform(get("/api/product").param("expand", "everything"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,105 @@
+package de.htwg.in.wete.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import de.htwg.in.wete.backend.model.Category;
+import de.htwg.in.wete.backend.model.Product;
+import de.htwg.in.wete.backend.repository.ProductRepository;
+import de.htwg.in.wete.backend.search.ProductTitleIndex;
+
+/**
+ * Tests für den N-Gramm-Index über Produkttitel: gleiche Treffer wie die
+ * LIKE-Abfrage der Datenbank, inkrementelle Pflege bei Produktänderungen.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductTitleIndexTests {
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductTitleIndex productTitleIndex;
+
+    @BeforeEach
+    public void setUp(WebApplicationContext webApplicationContext) {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        productRepository.deleteAll();
+
+        save("Caciocavallo Silano", Category.KAESE);
+        save("Pecorino Romano", Category.KAESE);
+        save("Salame Napoli", Category.SALAMI);
+        save("Pane di Altamura", Category.BROT);
+        save("Friselle", Category.BROT);
+
+        productTitleIndex.rebuild();
+    }
+
+    @Test
+    void search_matchesDatabaseLikeQuery() {
+        for (String query : List.of("", "a", "ca", "CAC", "cacio", "o r", "rom", "ano", "xyz", "ALTAMURA")) {
+            assertEquals(ids(productRepository.findByTitleContainingIgnoreCase(query)),
+                    productTitleIndex.search(query, null).orElseThrow(), "Query '" + query + "'");
+            for (Category category : Category.values()) {
+                assertEquals(ids(productRepository.findByTitleContainingIgnoreCaseAndCategory(query, category)),
+                        productTitleIndex.search(query, category).orElseThrow(),
+                        "Query '" + query + "' in " + category);
+            }
+        }
+    }
+
+    @Test
+    void productEndpoint_usesIndex() throws Exception {
+        long queriesBefore = (long) productTitleIndex.stats().get("queries");
+
+        mockMvc.perform(get("/api/product").param("name", "ano").param("category", "KAESE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].title").value("Caciocavallo Silano"))
+                .andExpect(jsonPath("$[1].title").value("Pecorino Romano"));
+
+        assertEquals(queriesBefore + 1, (long) productTitleIndex.stats().get("queries"));
+    }
+
+    @Test
+    void productWrites_updateIndexIncrementally() {
+        Product product = save("Provolone", Category.KAESE);
+        assertEquals(List.of(product.getId()), productTitleIndex.search("provo", Category.KAESE).orElseThrow());
+
+        product.setTitle("Scamorza");
+        product = productRepository.save(product);
+        assertTrue(productTitleIndex.search("provo", null).orElseThrow().isEmpty());
+        assertEquals(List.of(product.getId()), productTitleIndex.search("scamo", null).orElseThrow());
+
+        productRepository.delete(product);
+        assertTrue(productTitleIndex.search("scamo", null).orElseThrow().isEmpty());
+    }
+
+    private Product save(String title, Category category) {
+        Product product = new Product();
+        product.setTitle(title);
+        product.setCategory(category);
+        product.setPrice(1.0);
+        return productRepository.save(product);
+    }
+
+    private static List<Long> ids(List<Product> products) {
+        return products.stream().map(Product::getId).sorted().toList();
+    }
+}
@@ -0,0 +1,249 @@
+package de.htwg.in.wete.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import de.htwg.in.wete.backend.config.ReadWriteRoutingDataSource;
+import de.htwg.in.wete.backend.model.Category;
+import de.htwg.in.wete.backend.model.Product;
+import de.htwg.in.wete.backend.model.Recipe;
+import de.htwg.in.wete.backend.model.User;
+import de.htwg.in.wete.backend.repository.FavoriteRepository;
+import de.htwg.in.wete.backend.repository.ProductRepository;
+import de.htwg.in.wete.backend.repository.RecipeRepository;
+import de.htwg.in.wete.backend.repository.UserRepository;
+import de.htwg.in.wete.backend.service.CatalogReadModel;
+import de.htwg.in.wete.backend.service.FavoriteWriteBehind;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Tests für das Lese-Replikat mit zwei H2-Datenbanken. Die "Replikation" ist
+ * ein Abzug der primären Datenbank ({@link #replicate}); was danach primär
+ * geschrieben wird, fehlt im Replikat wie bei einer Replikationsverzögerung.
+ */
+@SpringBootTest(properties = {
+        "casellese.datasource.replica.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:rw-primary;DB_CLOSE_DELAY=-1",
+        "casellese.datasource.replica.jdbc-url=jdbc:h2:mem:rw-replica;DB_CLOSE_DELAY=-1",
+        "casellese.datasource.read-your-writes-ms=" + ReadReplicaRoutingTests.WINDOW_MILLIS
+})
+@ActiveProfiles("test")
+class ReadReplicaRoutingTests {
+
+    static final long WINDOW_MILLIS = 500;
+
+    private static final String WRITER = "auth0|replica-writer";
+    private static final String READER = "auth0|replica-reader";
+    private static final String REQUEST_USER = "auth0|replica-request";
+    private static final String FAVORITE_USER = "auth0|replica-favorite";
+
+    /**
+     * Replikat vor den Ladevorgängen beim Start mit dem Schema versorgen.
+     */
+    @TestConfiguration
+    static class ReplicaSchema {
+
+        @Autowired
+        @Qualifier("primaryDataSource")
+        private DataSource primary;
+
+        @Autowired
+        @Qualifier("replicaDataSource")
+        private DataSource replica;
+
+        @EventListener(ContextRefreshedEvent.class)
+        public void copySchema() {
+            replicate(primary, replica);
+        }
+    }
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FavoriteWriteBehind writeBehind;
+
+    @Autowired
+    private CatalogReadModel catalogReadModel;
+
+    @Autowired
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primary;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replica;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    public void setUp() {
+        favoriteRepository.deleteAll();
+        recipeRepository.deleteAll();
+        productRepository.deleteAll();
+        save("Caciocavallo");
+        replicate(primary, replica);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        writeBehind.setEnabled(false);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactions_readFromReplica_writesGoToPrimary() {
+        long replicaBefore = (long) routingDataSource.stats().get("replicaConnections");
+        as(WRITER);
+        save("Provolone");
+
+        as(READER);
+        assertEquals(1, productRepository.count());
+        assertEquals(List.of("Caciocavallo"), productRepository.findAll().stream().map(Product::getTitle).toList());
+        // Transaktionen ohne readOnly lesen immer von der primären DB
+        as(WRITER);
+        assertEquals(2L, (long) transactionTemplate.execute(status -> productRepository.count()));
+
+        assertEquals(2, count(primary));
+        assertEquals(1, count(replica));
+        assertTrue((long) routingDataSource.stats().get("replicaConnections") > replicaBefore);
+    }
+
+    @Test
+    void readYourWrites_ownReadsGoToPrimaryWithinWindow() throws InterruptedException {
+        as(WRITER);
+        save("Provolone");
+        long readYourWritesBefore = (long) routingDataSource.stats().get("readYourWrites");
+
+        assertEquals(2, productRepository.count());
+        assertEquals(readYourWritesBefore + 1, (long) routingDataSource.stats().get("readYourWrites"));
+        // Andere User sehen das Replikat
+        as(READER);
+        assertEquals(1, productRepository.count());
+
+        Thread.sleep(WINDOW_MILLIS + 300);
+        as(WRITER);
+        assertEquals(1, productRepository.count());
+    }
+
+    @Test
+    void openEntityManager_writeAfterReplicaReadGoesToPrimary() {
+        // Wie Open-in-View: ein EntityManager für den ganzen Request
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+        try {
+            as(REQUEST_USER);
+            assertEquals(1, productRepository.count());
+            save("Provolone");
+            Recipe recipe = new Recipe("Provola alla piastra", "In der Pfanne", null);
+            recipeRepository.save(recipe);
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            entityManager.close();
+        }
+
+        assertEquals(2, count(primary));
+        assertEquals(1, count(replica));
+        assertEquals(0, new JdbcTemplate(replica).queryForObject("SELECT COUNT(*) FROM recipe", Long.class));
+    }
+
+    @Test
+    void writeBehindFlush_opensReadYourWritesWindowForUser() {
+        User user = userRepository.findByOauthId(FAVORITE_USER).orElseGet(() -> {
+            User created = new User();
+            created.setOauthId(FAVORITE_USER);
+            created.setName("Replica Favorite");
+            created.setEmail("replica-favorite@example.com");
+            return userRepository.save(created);
+        });
+        Recipe recipe = recipeRepository.save(new Recipe("Caciocavallo impiccato", "Am Haken schmelzen", null));
+        replicate(primary, replica);
+
+        // Toggle ohne Connection, Flush im Hintergrund ohne SecurityContext
+        writeBehind.setEnabled(true);
+        writeBehind.toggle(FAVORITE_USER, user.getId(), recipe.getId(), () -> false);
+        SecurityContextHolder.clearContext();
+        writeBehind.drain();
+
+        as(FAVORITE_USER);
+        assertEquals(List.of(recipe.getId()), favoriteRepository.findViewsByUserOauthId(FAVORITE_USER).stream()
+                .map(FavoriteRepository.FavoriteView::getRecipeId).toList());
+        assertEquals(0, new JdbcTemplate(replica).queryForObject("SELECT COUNT(*) FROM favorite", Long.class));
+    }
+
+    @Test
+    void catalogSnapshotReload_readsFromPrimary() {
+        as(WRITER);
+        save("Provolone");
+
+        as(READER);
+        catalogReadModel.reload();
+        assertEquals(2, catalogReadModel.current().productCount());
+        assertEquals(1, count(replica));
+    }
+
+    private void save(String title) {
+        Product product = new Product();
+        product.setTitle(title);
+        product.setCategory(Category.KAESE);
+        productRepository.save(product);
+    }
+
+    private static void as(String user) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(user, null));
+    }
+
+    private static long count(DataSource dataSource) {
+        return new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM product", Long.class);
+    }
+
+    /**
+     * Ersetzt das Replikat durch einen Abzug der primären Datenbank.
+     */
+    private static void replicate(DataSource primary, DataSource replica) {
+        List<String> script = new JdbcTemplate(primary).queryForList("SCRIPT", String.class);
+        JdbcTemplate target = new JdbcTemplate(replica);
+        target.execute("DROP ALL OBJECTS");
+        script.stream()
+                .filter(statement -> !statement.startsWith("--"))
+                .forEach(target::execute);
+    }
+}
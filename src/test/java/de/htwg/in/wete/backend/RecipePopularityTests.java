@@ -0,0 +1,220 @@
+package de.htwg.in.wete.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import de.htwg.in.wete.backend.model.Favorite;
+import de.htwg.in.wete.backend.model.Recipe;
+import de.htwg.in.wete.backend.model.User;
+import de.htwg.in.wete.backend.repository.FavoriteRepository;
+import de.htwg.in.wete.backend.repository.RecipeRepository;
+import de.htwg.in.wete.backend.repository.UserRepository;
+import de.htwg.in.wete.backend.service.RecipePopularity;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Tests für die Favoriten-Zähler im Speicher und GET /api/recipes/popular.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RecipePopularityTests {
+
+    private static final String[] USERS = {"auth0|popular-a", "auth0|popular-b", "auth0|popular-c"};
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RecipePopularity popularity;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Recipe pasta;
+    private Recipe pizza;
+    private Recipe salad;
+
+    @BeforeEach
+    public void setUp(WebApplicationContext webApplicationContext) {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .apply(springSecurity())
+                .build();
+        favoriteRepository.deleteAll();
+        recipeRepository.deleteAll();
+
+        for (String oauthId : USERS) {
+            User user = userRepository.findByOauthId(oauthId).orElseGet(User::new);
+            user.setName(oauthId);
+            user.setOauthId(oauthId);
+            userRepository.save(user);
+        }
+        pasta = recipeRepository.save(new Recipe("Pasta e ceci", "Kichererbsen", null));
+        pizza = recipeRepository.save(new Recipe("Pizza rianata", "Mit Oregano", null));
+        salad = recipeRepository.save(new Recipe("Insalata di arance", "Orangen", null));
+        popularity.reconcile();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        favoriteRepository.deleteAll();
+        recipeRepository.deleteAll();
+        popularity.reconcile();
+    }
+
+    private void favor(String oauthId, Recipe recipe) throws Exception {
+        mockMvc.perform(post("/api/favorites/" + recipe.getId()).with(jwt().jwt(jwt -> jwt.claim("sub", oauthId))))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void popular_followsAddRemoveAndToggleWithoutDatabase() throws Exception {
+        favor(USERS[0], pizza);
+        favor(USERS[1], pizza);
+        favor(USERS[2], pizza);
+        favor(USERS[0], pasta);
+        mockMvc.perform(post("/api/favorites/toggle/" + pasta.getId())
+                .with(jwt().jwt(jwt -> jwt.claim("sub", USERS[1]))))
+                .andExpect(jsonPath("$.isFavorite").value(true));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long before = statistics.getPrepareStatementCount();
+        mockMvc.perform(get("/api/recipes/popular").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].recipeId").value(pizza.getId()))
+                .andExpect(jsonPath("$[0].title").value("Pizza rianata"))
+                .andExpect(jsonPath("$[0].favorites").value(3))
+                .andExpect(jsonPath("$[1].recipeId").value(pasta.getId()))
+                .andExpect(jsonPath("$[1].favorites").value(2));
+        assertEquals(0, statistics.getPrepareStatementCount() - before);
+
+        mockMvc.perform(delete("/api/favorites/" + pizza.getId())
+                .with(jwt().jwt(jwt -> jwt.claim("sub", USERS[0]))))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/favorites/toggle/" + pizza.getId())
+                .with(jwt().jwt(jwt -> jwt.claim("sub", USERS[1]))))
+                .andExpect(jsonPath("$.isFavorite").value(false));
+
+        // Gleichstand 2:1 -> pasta vorne; salad ohne Favoriten taucht nicht auf
+        mockMvc.perform(get("/api/recipes/popular"))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].recipeId").value(pasta.getId()))
+                .andExpect(jsonPath("$[1].recipeId").value(pizza.getId()))
+                .andExpect(jsonPath("$[1].favorites").value(1));
+        assertEquals(0, popularity.favorites(salad.getId()));
+    }
+
+    @Test
+    void reconcile_correctsChangesBypassingTheController() throws Exception {
+        User user = userRepository.findByOauthId(USERS[0]).orElseThrow();
+        favoriteRepository.save(new Favorite(user, salad));
+        assertEquals(0, popularity.favorites(salad.getId()));
+
+        popularity.reconcile();
+
+        assertEquals(1, popularity.favorites(salad.getId()));
+        mockMvc.perform(get("/api/recipes/popular"))
+                .andExpect(jsonPath("$[0].recipeId").value(salad.getId()))
+                .andExpect(jsonPath("$[0].favorites").value(1));
+    }
+
+    @Test
+    void trending_ranksRecentFavoritesPerWindow() throws Exception {
+        favor(USERS[0], salad);
+        favor(USERS[1], salad);
+        favor(USERS[0], pizza);
+        mockMvc.perform(delete("/api/favorites/" + pizza.getId())
+                .with(jwt().jwt(jwt -> jwt.claim("sub", USERS[0]))))
+                .andExpect(status().isOk());
+
+        for (String window : new String[] {"hour", "day", "week"}) {
+            mockMvc.perform(get("/api/recipes/trending").param("window", window))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].recipeId").value(salad.getId()))
+                    .andExpect(jsonPath("$[0].title").value("Insalata di arance"))
+                    .andExpect(jsonPath("$[0].score").value(2.0))
+                    .andExpect(jsonPath("$[?(@.recipeId == " + pizza.getId() + ")]").isEmpty());
+        }
+
+        mockMvc.perform(get("/api/recipes/trending").param("window", "month"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void reconcile_concurrentTogglesAreCountedOnce() throws Exception {
+        Recipe[] recipes = {pasta, pizza, salad};
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(USERS.length + 1);
+        try {
+            Future<?> reconciler = executor.submit(() -> {
+                while (running.get()) {
+                    popularity.reconcile();
+                }
+            });
+            List<Future<?>> togglers = new ArrayList<>();
+            for (String oauthId : USERS) {
+                togglers.add(executor.submit(() -> {
+                    for (int i = 0; i < 30; i++) {
+                        Recipe recipe = recipes[i % recipes.length];
+                        mockMvc.perform(post("/api/favorites/toggle/" + recipe.getId())
+                                .with(jwt().jwt(jwt -> jwt.claim("sub", oauthId))))
+                                .andExpect(status().isOk());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> toggler : togglers) {
+                toggler.get();
+            }
+            running.set(false);
+            reconciler.get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (Recipe recipe : recipes) {
+            long expected = favoriteRepository.findAll().stream()
+                    .filter(favorite -> favorite.getRecipe().getId().equals(recipe.getId()))
+                    .count();
+            assertEquals(expected, popularity.favorites(recipe.getId()), recipe.getTitle());
+        }
+    }
+
+    @Test
+    void popular_rejectsInvalidLimit() throws Exception {
+        mockMvc.perform(get("/api/recipes/popular").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/recipes/popular").param("limit", "1000"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,206 @@
+package de.htwg.in.wete.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+import de.htwg.in.wete.backend.model.Favorite;
+import de.htwg.in.wete.backend.model.Recipe;
+import de.htwg.in.wete.backend.model.User;
+import de.htwg.in.wete.backend.repository.FavoriteRepository;
+import de.htwg.in.wete.backend.repository.RecipeRepository;
+import de.htwg.in.wete.backend.repository.UserRepository;
+import de.htwg.in.wete.backend.service.FavoriteChangedEvent;
+import de.htwg.in.wete.backend.service.RecipePopularity;
+import de.htwg.in.wete.backend.service.RelatedRecipes;
+
+/**
+ * Tests für GET /api/recipes/{id}/related: Aufbau aus der Favoriten-Tabelle
+ * und inkrementelle Updates über add/remove.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RelatedRecipesTests {
+
+    private static final String[] USERS = {"auth0|related-a", "auth0|related-b", "auth0|related-c"};
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RecipePopularity popularity;
+
+    @Autowired
+    private RelatedRecipes relatedRecipes;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Recipe caponata;
+    private Recipe arancini;
+    private Recipe cannoli;
+    private Recipe granita;
+
+    @BeforeEach
+    public void setUp(WebApplicationContext webApplicationContext) {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .apply(springSecurity())
+                .build();
+        favoriteRepository.deleteAll();
+        recipeRepository.deleteAll();
+
+        User[] users = new User[USERS.length];
+        for (int i = 0; i < USERS.length; i++) {
+            User user = userRepository.findByOauthId(USERS[i]).orElseGet(User::new);
+            user.setName(USERS[i]);
+            user.setOauthId(USERS[i]);
+            users[i] = userRepository.save(user);
+        }
+        caponata = recipeRepository.save(new Recipe("Caponata", "Auberginen", null));
+        arancini = recipeRepository.save(new Recipe("Arancini", "Reisbällchen", null));
+        cannoli = recipeRepository.save(new Recipe("Cannoli", "Ricotta", null));
+        granita = recipeRepository.save(new Recipe("Granita", "Zitrone", null));
+
+        // Caponata + Arancini: 2 User gemeinsam, Caponata + Cannoli: 1 User
+        favoriteRepository.save(new Favorite(users[0], caponata));
+        favoriteRepository.save(new Favorite(users[0], arancini));
+        favoriteRepository.save(new Favorite(users[0], cannoli));
+        favoriteRepository.save(new Favorite(users[1], caponata));
+        favoriteRepository.save(new Favorite(users[1], arancini));
+        favoriteRepository.save(new Favorite(users[2], granita));
+
+        popularity.reconcile();
+        relatedRecipes.rebuild();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        favoriteRepository.deleteAll();
+        recipeRepository.deleteAll();
+        relatedRecipes.rebuild();
+    }
+
+    @Test
+    void related_isBuiltFromFavoriteTable() throws Exception {
+        mockMvc.perform(get("/api/recipes/" + caponata.getId() + "/related"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].recipeId").value(arancini.getId()))
+                .andExpect(jsonPath("$[0].title").value("Arancini"))
+                .andExpect(jsonPath("$[0].together").value(2))
+                .andExpect(jsonPath("$[1].recipeId").value(cannoli.getId()))
+                .andExpect(jsonPath("$[1].together").value(1));
+
+        mockMvc.perform(get("/api/recipes/" + granita.getId() + "/related"))
+                .andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(get("/api/recipes/" + caponata.getId() + "/related").param("limit", "1"))
+                .andExpect(jsonPath("$.length()").value(1));
+        mockMvc.perform(get("/api/recipes/" + caponata.getId() + "/related").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+
+        Map<String, Object> stats = relatedRecipes.stats();
+        assertTrue(((Number) stats.get("estimatedBytes")).longValue() > 0);
+    }
+
+    @Test
+    void related_updatesIncrementallyOnFavoriteChanges() throws Exception {
+        // User c mag jetzt auch Caponata und Cannoli -> Cannoli zieht mit Arancini gleich
+        mockMvc.perform(post("/api/favorites/" + caponata.getId())
+                .with(jwt().jwt(jwt -> jwt.claim("sub", USERS[2]))))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/api/favorites/toggle/" + cannoli.getId())
+                .with(jwt().jwt(jwt -> jwt.claim("sub", USERS[2]))))
+                .andExpect(jsonPath("$.isFavorite").value(true));
+        // Änderungen werden im Hintergrund angewendet
+        relatedRecipes.applyQueued();
+
+        mockMvc.perform(get("/api/recipes/" + caponata.getId() + "/related"))
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].together").value(2))
+                .andExpect(jsonPath("$[1].together").value(2))
+                .andExpect(jsonPath("$[2].recipeId").value(granita.getId()));
+        mockMvc.perform(get("/api/recipes/" + granita.getId() + "/related"))
+                .andExpect(jsonPath("$.length()").value(2));
+
+        // User a entfernt Arancini -> Cannoli (2) vor Arancini (1)
+        mockMvc.perform(delete("/api/favorites/" + arancini.getId())
+                .with(jwt().jwt(jwt -> jwt.claim("sub", USERS[0]))))
+                .andExpect(status().isOk());
+        relatedRecipes.applyQueued();
+
+        mockMvc.perform(get("/api/recipes/" + caponata.getId() + "/related"))
+                .andExpect(jsonPath("$[0].recipeId").value(cannoli.getId()))
+                .andExpect(jsonPath("$[0].together").value(2))
+                .andExpect(jsonPath("$[1].recipeId").value(arancini.getId()))
+                .andExpect(jsonPath("$[1].together").value(1));
+    }
+
+    @Test
+    void recipeIdsBeyond32Bit_areSkipped() {
+        long skipped = (Long) relatedRecipes.stats().get("skippedFavorites");
+        // Würde gepackt als Cannoli mit together = -1 zurückkommen
+        long tooLarge = (1L << 32) + cannoli.getId();
+        relatedRecipes.onFavoriteChanged(new FavoriteChangedEvent(USERS[2], tooLarge, true));
+        relatedRecipes.applyQueued();
+
+        assertEquals(List.of(), relatedRecipes.related(granita.getId(), 10));
+        assertEquals(skipped + 1, (Long) relatedRecipes.stats().get("skippedFavorites"));
+    }
+
+    @Test
+    void changesDuringRebuild_areReplayedOnTheNewMatrix() {
+        RelatedRecipes[] related = new RelatedRecipes[1];
+        // Die Abfrage des Neuaufbaus sieht den Favoriten noch nicht, das Event kommt mittendrin
+        FavoriteRepository slowRead = (FavoriteRepository) Proxy.newProxyInstance(
+                FavoriteRepository.class.getClassLoader(), new Class<?>[] {FavoriteRepository.class},
+                (proxy, method, args) -> {
+                    try {
+                        Object result = method.invoke(favoriteRepository, args);
+                        if (method.getName().equals("findAllUserRecipes")) {
+                            related[0].onFavoriteChanged(new FavoriteChangedEvent(USERS[2], caponata.getId(), true));
+                        }
+                        return result;
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        related[0] = new RelatedRecipes(slowRead, popularity, transactionTemplate, new SyncTaskExecutor(), 20);
+
+        related[0].rebuild();
+
+        // Granita + Caponata (User c) kommt zu den drei Paaren aus der Tabelle dazu
+        assertEquals(4L, related[0].stats().get("pairs"));
+        assertEquals(List.of(granita.getId()),
+                related[0].related(caponata.getId(), 10).stream()
+                        .filter(r -> r.together() == 1 && r.recipeId() == granita.getId())
+                        .map(RelatedRecipes.Related::recipeId).toList());
+    }
+}
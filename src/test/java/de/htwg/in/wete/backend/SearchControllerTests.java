@@ -0,0 +1,120 @@
+package de.htwg.in.wete.backend;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.htwg.in.wete.backend.model.Category;
+import de.htwg.in.wete.backend.model.Product;
+import de.htwg.in.wete.backend.model.Recipe;
+import de.htwg.in.wete.backend.repository.ProductRepository;
+import de.htwg.in.wete.backend.repository.RecipeRepository;
+import de.htwg.in.wete.backend.search.FullTextIndex;
+
+/**
+ * Tests für die Volltextsuche /api/search (BM25, Snippets, Cursor-Paging).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SearchControllerTests {
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private FullTextIndex fullTextIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    public void setUp(WebApplicationContext webApplicationContext) {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        recipeRepository.deleteAll();
+        productRepository.deleteAll();
+
+        Product product = new Product();
+        product.setTitle("Caciocavallo");
+        product.setCategory(Category.KAESE);
+        product.setPrice(12.99);
+        product.setDescription("Birnenförmiger Käse aus Kuhmilch, passt zu Tomaten.");
+        product.setIngredients("Kuhmilch, Lab, Salz");
+        productRepository.save(product);
+
+        recipeRepository.save(new Recipe("Tomatensoße", "Tomaten kochen, pürieren und mit Basilikum abschmecken.", null));
+        recipeRepository.save(new Recipe("Bruschetta mit Tomate",
+                "Brot rösten, mit Knoblauch einreiben und mit gewürfelter Tomate belegen.", null));
+
+        fullTextIndex.rebuild();
+    }
+
+    @Test
+    void search_ranksTitleMatchesFirstAndHighlightsSnippet() throws Exception {
+        mockMvc.perform(get("/api/search").param("q", "Tomaten"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2 + 1))
+                .andExpect(jsonPath("$.results[0].type").value("recipe"))
+                .andExpect(jsonPath("$.results[2].type").value("product"))
+                .andExpect(jsonPath("$.results[2].snippet", containsString("<mark>Tomaten</mark>")))
+                .andExpect(jsonPath("$.nextCursor", nullValue()));
+    }
+
+    @Test
+    void search_findsIngredientsWithUmlautFolding() throws Exception {
+        mockMvc.perform(get("/api/search").param("q", "kuhmilch").param("type", "product"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.results[0].title").value("Caciocavallo"));
+
+        mockMvc.perform(get("/api/search").param("q", "rosten"))
+                .andExpect(jsonPath("$.results[0].snippet", containsString("<mark>rösten</mark>")));
+    }
+
+    @Test
+    void paging_usesCursorWithoutRerunningQuery() throws Exception {
+        String body = mockMvc.perform(get("/api/search").param("q", "tomate").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results.length()").value(2))
+                .andReturn().getResponse().getContentAsString();
+        JsonNode firstPage = objectMapper.readTree(body);
+        String cursor = firstPage.get("nextCursor").asText();
+
+        // Neue Treffer ändern eine bereits berechnete Rangliste nicht mehr
+        recipeRepository.save(new Recipe("Tomatensalat", "Tomaten schneiden.", null));
+
+        mockMvc.perform(get("/api/search").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.results.length()").value(1))
+                .andExpect(jsonPath("$.nextCursor", nullValue()));
+
+        // Eine neue Suche sieht den neuen Treffer (inkrementell indexiert)
+        mockMvc.perform(get("/api/search").param("q", "tomate"))
+                .andExpect(jsonPath("$.total").value(4));
+    }
+
+    @Test
+    void invalidRequests_areRejected() throws Exception {
+        mockMvc.perform(get("/api/search")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/search").param("q", "x").param("type", "wein")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/search").param("cursor", "abc.0.5")).andExpect(status().isBadRequest());
+    }
+}
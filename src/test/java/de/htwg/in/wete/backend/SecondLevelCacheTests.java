@@ -0,0 +1,113 @@
+package de.htwg.in.wete.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import de.htwg.in.wete.backend.model.CacheRegions;
+import de.htwg.in.wete.backend.model.Category;
+import de.htwg.in.wete.backend.model.Product;
+import de.htwg.in.wete.backend.model.Recipe;
+import de.htwg.in.wete.backend.model.Role;
+import de.htwg.in.wete.backend.model.User;
+import de.htwg.in.wete.backend.repository.ProductRepository;
+import de.htwg.in.wete.backend.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Tests für den Hibernate Second-Level-Cache (Entities, Product.recipes, Query-Cache).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SecondLevelCacheTests {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Product product;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+
+        product = new Product();
+        product.setTitle("Caciocavallo");
+        product.setCategory(Category.KAESE);
+        product.setPrice(12.99);
+        product.addRecipe(new Recipe("Caciocavallo impiccato", "Am Faden über der Glut schmelzen", null));
+        product = productRepository.save(product);
+    }
+
+    @Test
+    void findById_isServedFromSecondLevelCache() {
+        productRepository.findById(product.getId()).orElseThrow();
+        long hitsBefore = statistics.getDomainDataRegionStatistics(CacheRegions.PRODUCT).getHitCount();
+
+        productRepository.findById(product.getId()).orElseThrow();
+
+        long hitsAfter = statistics.getDomainDataRegionStatistics(CacheRegions.PRODUCT).getHitCount();
+        assertEquals(hitsBefore + 1, hitsAfter);
+    }
+
+    @Test
+    void addAndRemoveRecipe_invalidateCachedCollection() {
+        assertEquals(1, recipeCount());
+        // Zweiter Zugriff kommt aus dem Collection-Cache
+        assertEquals(1, recipeCount());
+        assertTrue(statistics.getDomainDataRegionStatistics(CacheRegions.PRODUCT_RECIPES).getHitCount() > 0);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Product managed = productRepository.findById(product.getId()).orElseThrow();
+            managed.addRecipe(new Recipe("Pasta al forno", "Mit Caciocavallo überbacken", null));
+        });
+        assertEquals(2, recipeCount());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Product managed = productRepository.findById(product.getId()).orElseThrow();
+            managed.removeRecipe(managed.getRecipes().get(0));
+        });
+        assertEquals(1, recipeCount());
+    }
+
+    @Test
+    void findByOauthId_usesQueryCache() {
+        User user = new User();
+        user.setName("Cached User");
+        user.setOauthId("auth0|l2-user");
+        user.setRole(Role.REGULAR);
+        userRepository.save(user);
+
+        userRepository.findByOauthId("auth0|l2-user").orElseThrow();
+        long hitsBefore = statistics.getQueryRegionStatistics(CacheRegions.USER_BY_OAUTH_ID).getHitCount();
+
+        userRepository.findByOauthId("auth0|l2-user").orElseThrow();
+
+        long hitsAfter = statistics.getQueryRegionStatistics(CacheRegions.USER_BY_OAUTH_ID).getHitCount();
+        assertEquals(hitsBefore + 1, hitsAfter);
+    }
+
+    private int recipeCount() {
+        return transactionTemplate.execute(status ->
+                productRepository.findById(product.getId()).orElseThrow().getRecipes().size());
+    }
+}
@@ -0,0 +1,121 @@
+package de.htwg.in.wete.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import de.htwg.in.wete.backend.model.Category;
+import de.htwg.in.wete.backend.model.Favorite;
+import de.htwg.in.wete.backend.model.Product;
+import de.htwg.in.wete.backend.model.Recipe;
+import de.htwg.in.wete.backend.model.User;
+import de.htwg.in.wete.backend.repository.FavoriteRepository;
+import de.htwg.in.wete.backend.repository.ProductRepository;
+import de.htwg.in.wete.backend.repository.RecipeRepository;
+import de.htwg.in.wete.backend.repository.UserRepository;
+import de.htwg.in.wete.backend.search.SuggestIndex;
+
+/**
+ * Tests für die Autovervollständigung /api/suggest.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SuggestControllerTests {
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SuggestIndex suggestIndex;
+
+    @BeforeEach
+    public void setUp(WebApplicationContext webApplicationContext) {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        favoriteRepository.deleteAll();
+        recipeRepository.deleteAll();
+        productRepository.deleteAll();
+
+        Product cheese = new Product();
+        cheese.setTitle("Caciocavallo Silano");
+        cheese.setCategory(Category.KAESE);
+        cheese.setPrice(12.99);
+        productRepository.save(cheese);
+
+        recipeRepository.save(new Recipe("Käsespätzle", "Spätzle mit Käse", null));
+        Recipe popular = recipeRepository.save(new Recipe("Cacio e pepe", "Pasta mit Pecorino", null));
+
+        User user = userRepository.findByOauthId("auth0|suggest-user").orElseGet(User::new);
+        user.setName("Suggest User");
+        user.setOauthId("auth0|suggest-user");
+        user = userRepository.save(user);
+        favoriteRepository.save(new Favorite(user, popular));
+
+        suggestIndex.rebuild();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        favoriteRepository.deleteAll();
+        recipeRepository.deleteAll();
+    }
+
+    @Test
+    void suggest_ranksByPopularity() throws Exception {
+        mockMvc.perform(get("/api/suggest").param("q", "CAC"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].title").value("Cacio e pepe"))
+                .andExpect(jsonPath("$[0].type").value("recipe"))
+                .andExpect(jsonPath("$[1].title").value("Caciocavallo Silano"))
+                .andExpect(jsonPath("$[1].type").value("product"));
+
+        mockMvc.perform(get("/api/suggest").param("q", "cac").param("limit", "1"))
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void suggest_matchesWordStartsAndFoldsUmlauts() throws Exception {
+        mockMvc.perform(get("/api/suggest").param("q", "sil"))
+                .andExpect(jsonPath("$[0].title").value("Caciocavallo Silano"));
+
+        mockMvc.perform(get("/api/suggest").param("q", "kases"))
+                .andExpect(jsonPath("$[0].title").value("Käsespätzle"));
+
+        mockMvc.perform(get("/api/suggest").param("q", "xyz"))
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void catalogWrite_rebuildsTrieInBackground() throws Exception {
+        recipeRepository.save(new Recipe("Pane cotto", "Brotsuppe", null));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (suggestIndex.suggest("pane", 10).isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals("Pane cotto", suggestIndex.suggest("pane", 10).get(0).title());
+        assertTrue(suggestIndex.suggest("pan", 10).size() >= 1);
+    }
+}
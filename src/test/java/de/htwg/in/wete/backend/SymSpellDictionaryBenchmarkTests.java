@@ -0,0 +1,107 @@
+package de.htwg.in.wete.backend;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import de.htwg.in.wete.backend.search.GermanAnalyzer;
+import de.htwg.in.wete.backend.search.SymSpellDictionary;
+
+/**
+ * Benchmark für das SymSpell-Wörterbuch mit 100.000 synthetischen
+ * Produkttiteln: Aufbauzeit, Speicherbedarf und p50/p99-Latenz für Abfragen
+ * mit ein bis zwei Tippfehlern. Läuft nur mit {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+class SymSpellDictionaryBenchmarkTests {
+
+    private static final int TITLES = 100_000;
+    private static final int LOOKUPS = 20_000;
+
+    private static final String[] SYLLABLES = {
+            "ca", "cio", "ca", "val", "lo", "sa", "la", "mi", "pe", "co", "ri", "no", "mor", "ta",
+            "del", "la", "pro", "sciut", "to", "kä", "se", "brot", "tom", "ma", "ten", "wurst",
+            "öl", "fen", "chel", "pa", "ne", "gras", "so", "spe", "zia", "le", "ßen", "dol", "ce" };
+
+    @Test
+    void lookupLatencyWith100kTitles() {
+        Random random = new Random(42);
+        Map<String, Long> frequencies = new HashMap<>();
+        for (int i = 0; i < TITLES; i++) {
+            StringBuilder title = new StringBuilder();
+            int words = 2 + random.nextInt(3);
+            for (int w = 0; w < words; w++) {
+                title.append(word(random)).append(' ');
+            }
+            for (String word : GermanAnalyzer.words(title.toString())) {
+                frequencies.merge(word, 1L, Long::sum);
+            }
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long usedBefore = runtime.totalMemory() - runtime.freeMemory();
+        long start = System.nanoTime();
+        SymSpellDictionary dictionary = SymSpellDictionary.build(frequencies, 2, 7);
+        long buildMillis = (System.nanoTime() - start) / 1_000_000;
+        System.gc();
+        long usedAfter = runtime.totalMemory() - runtime.freeMemory();
+
+        List<String> terms = List.copyOf(frequencies.keySet());
+        long[] latencies = new long[LOOKUPS];
+        int found = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            String query = typo(terms.get(random.nextInt(terms.size())), random);
+            long t = System.nanoTime();
+            List<SymSpellDictionary.Match> matches = dictionary.lookup(query, 2);
+            latencies[i] = System.nanoTime() - t;
+            if (!matches.isEmpty()) {
+                found++;
+            }
+        }
+        Arrays.sort(latencies);
+
+        System.out.printf("SymSpell: %d titles, %d terms, %d deletes, build %d ms, ~%d MB%n",
+                TITLES, dictionary.size(), dictionary.deleteCount(), buildMillis,
+                Math.max(0, usedAfter - usedBefore) / (1024 * 1024));
+        System.out.printf("SymSpell lookup: p50 %d us, p99 %d us, max %d us, %d/%d corrected%n",
+                latencies[LOOKUPS / 2] / 1000, latencies[LOOKUPS * 99 / 100] / 1000,
+                latencies[LOOKUPS - 1] / 1000, found, LOOKUPS);
+
+        assertFalse(dictionary.lookup(terms.get(0), 0).isEmpty());
+        assertTrue(found > LOOKUPS * 9 / 10);
+    }
+
+    private static String word(Random random) {
+        StringBuilder word = new StringBuilder();
+        int syllables = 2 + random.nextInt(3);
+        for (int s = 0; s < syllables; s++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+
+    /** Ein oder zwei zufällige Tippfehler (Ersetzen, Löschen, Einfügen) */
+    private static String typo(String term, Random random) {
+        StringBuilder typo = new StringBuilder(term);
+        int edits = 1 + random.nextInt(2);
+        for (int e = 0; e < edits && typo.length() > 1; e++) {
+            int position = random.nextInt(typo.length());
+            char letter = (char) ('a' + random.nextInt(26));
+            switch (random.nextInt(3)) {
+                case 0 -> typo.setCharAt(position, letter);
+                case 1 -> typo.deleteCharAt(position);
+                default -> typo.insert(position, letter);
+            }
+        }
+        return typo.toString();
+    }
+}
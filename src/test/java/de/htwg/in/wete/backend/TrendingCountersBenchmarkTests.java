@@ -0,0 +1,84 @@
+package de.htwg.in.wete.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import de.htwg.in.wete.backend.service.TrendingCounters;
+import de.htwg.in.wete.backend.service.TrendingCounters.Window;
+
+/**
+ * Lasttest für die Trending-Zähler: 8 Threads schicken zusammen 16 Millionen
+ * synthetische Favoriten-Ereignisse über simulierte drei Tage an 10.000
+ * Rezepte (Rezept 0 ist "viral"). Gemessen werden Durchsatz, Speicher und
+ * p50/p99 der Ranglisten-Berechnung. Läuft nur mit {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+class TrendingCountersBenchmarkTests {
+
+    private static final int THREADS = 8;
+    private static final int EVENTS_PER_THREAD = 2_000_000;
+    private static final int RECIPES = 10_000;
+    private static final long START_MINUTE = 29_000_000;
+    private static final int MINUTES = 3 * 24 * 60;
+    private static final int QUERIES = 200;
+
+    @Test
+    void millionsOfEvents() throws Exception {
+        TrendingCounters counters = new TrendingCounters();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                long seed = t;
+                futures.add(executor.submit(() -> {
+                    SplittableRandom random = new SplittableRandom(seed);
+                    for (int i = 0; i < EVENTS_PER_THREAD; i++) {
+                        long minute = START_MINUTE + (long) i * MINUTES / EVENTS_PER_THREAD;
+                        boolean lastHour = minute >= START_MINUTE + MINUTES - 60;
+                        long recipe = lastHour && random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(RECIPES - 1);
+                        counters.record(recipe, random.nextInt(5) == 0 ? -1 : 1, minute);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        long ingestNanos = System.nanoTime() - start;
+        long events = (long) THREADS * EVENTS_PER_THREAD;
+
+        long now = START_MINUTE + MINUTES - 1;
+        for (int i = 0; i < 20; i++) {
+            counters.top(Window.HOUR, 100, now);
+        }
+        long[] latencies = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            long queryStart = System.nanoTime();
+            counters.top(Window.values()[i % 3], 100, now);
+            latencies[i] = System.nanoTime() - queryStart;
+        }
+        Arrays.sort(latencies);
+
+        System.out.printf("Trending: %,d events in %d ms (%,.0f events/s), %,d recipes, ~%,d KB%n",
+                events, ingestNanos / 1_000_000, events * 1e9 / ingestNanos, counters.size(),
+                counters.estimatedBytes() / 1024);
+        System.out.printf("Trending top-100 over %,d recipes: p50 %.3f ms, p99 %.3f ms%n", RECIPES,
+                latencies[QUERIES / 2] / 1e6, latencies[QUERIES * 99 / 100] / 1e6);
+
+        assertEquals(RECIPES, counters.size());
+        assertEquals(0, counters.top(Window.HOUR, 1, now).get(0).recipeId());
+    }
+}
@@ -0,0 +1,114 @@
+package de.htwg.in.wete.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import de.htwg.in.wete.backend.service.TrendingCounters;
+import de.htwg.in.wete.backend.service.TrendingCounters.Window;
+
+/**
+ * Tests für die Minuten-Ringpuffer mit exponentiellem Abklingen.
+ */
+class TrendingCountersTests {
+
+    private static final long NOW = 29_000_000;
+
+    @Test
+    void score_decaysWithHalfLifeOfAQuarterWindow() {
+        TrendingCounters counters = new TrendingCounters();
+        counters.record(1, 1, NOW);
+        counters.record(1, 1, NOW);
+        counters.record(1, -1, NOW);
+
+        assertEquals(1.0, counters.score(1, Window.HOUR, NOW), 1e-9);
+        assertEquals(0.5, counters.score(1, Window.HOUR, NOW + 15), 1e-9);
+        assertEquals(0.5, counters.score(1, Window.DAY, NOW + 6 * 60), 1e-9);
+        assertEquals(1.0 / 16, counters.score(1, Window.WEEK, NOW + 7 * 24 * 60), 1e-9);
+    }
+
+    @Test
+    void recycledBucketsFoldIntoDecayedScore() {
+        TrendingCounters counters = new TrendingCounters();
+        // Über drei Stunden jede Minute ein Ereignis: jeder Bucket wird mehrfach wiederverwendet
+        for (long minute = NOW; minute < NOW + 180; minute++) {
+            counters.record(7, 1, minute);
+        }
+        long now = NOW + 179;
+        double expected = 0;
+        for (long minute = NOW; minute <= now; minute++) {
+            expected += Math.pow(0.5, (now - minute) / (24 * 60 / 4.0));
+        }
+        assertEquals(expected, counters.score(7, Window.DAY, now), 1e-6);
+
+        // Verspätetes Ereignis (Bucket gehört schon einer neueren Minute)
+        counters.record(7, 1, NOW);
+        assertEquals(expected + Math.pow(0.5, 179 / (24 * 60 / 4.0)), counters.score(7, Window.DAY, now), 1e-6);
+    }
+
+    @Test
+    void top_ranksByWindowAndSkipsNonPositiveScores() {
+        TrendingCounters counters = new TrendingCounters();
+        // Rezept 1: vor zwei Tagen sehr beliebt, Rezept 2: gerade eben ein paar Favoriten
+        for (int i = 0; i < 100; i++) {
+            counters.record(1, 1, NOW - 2 * 24 * 60);
+        }
+        for (int i = 0; i < 3; i++) {
+            counters.record(2, 1, NOW);
+        }
+        counters.record(3, 1, NOW);
+        counters.record(3, -1, NOW);
+
+        // Rezept 1 ist im Stundenfenster abgeklungen, Rezept 3 steht netto bei 0
+        List<TrendingCounters.Score> hour = counters.top(Window.HOUR, 10, NOW);
+        assertEquals(1, hour.size());
+        assertEquals(2, hour.get(0).recipeId());
+
+        List<TrendingCounters.Score> week = counters.top(Window.WEEK, 1, NOW);
+        assertEquals(1, week.size());
+        assertEquals(1, week.get(0).recipeId());
+    }
+
+    @Test
+    void concurrentRecords_loseNoEvents() throws Exception {
+        TrendingCounters counters = new TrendingCounters();
+        int threads = 8;
+        int perThread = 100_000;
+        long later = NOW + TrendingCounters.SLOTS;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    // Zweite Hälfte fällt in denselben Bucket eine Stunde später: Umschreiben,
+                    // Einfalten und verspätete Ereignisse laufen parallel
+                    for (int i = 0; i < perThread; i++) {
+                        counters.record(42, 1, i < perThread / 2 ? NOW : later);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        double half = threads * perThread / 2.0;
+        double expected = half + half * Math.pow(0.5, TrendingCounters.SLOTS / (7 * 24 * 60 / 4.0));
+        assertEquals(expected, counters.score(42, Window.WEEK, later), 1e-6);
+    }
+
+    @Test
+    void parse_acceptsKnownWindowsOnly() {
+        assertEquals(Window.HOUR, Window.parse("Hour"));
+        assertEquals(Window.WEEK, Window.parse(" week "));
+        assertThrows(IllegalArgumentException.class, () -> Window.parse("month"));
+    }
+}
@@ -0,0 +1,205 @@
+package de.htwg.in.wete.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.htwg.in.wete.backend.model.Recipe;
+import de.htwg.in.wete.backend.model.Role;
+import de.htwg.in.wete.backend.model.User;
+import de.htwg.in.wete.backend.repository.FavoriteRepository;
+import de.htwg.in.wete.backend.repository.RecipeRepository;
+import de.htwg.in.wete.backend.repository.UserRepository;
+import de.htwg.in.wete.backend.service.UserProvisioningService;
+import de.htwg.in.wete.backend.service.UserRoleService;
+
+/**
+ * Tests für die User-Anlage beim ersten Login: parallele erste Requests
+ * desselben Users legen genau einen User an.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class UserProvisioningTests {
+
+    private static final int REQUESTS = 100;
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private UserProvisioningService provisioningService;
+
+    @Autowired
+    private UserRoleService userRoleService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final List<String> oauthIds = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp(WebApplicationContext webApplicationContext) {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .apply(springSecurity())
+                .build();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        favoriteRepository.deleteAll();
+        recipeRepository.deleteAll();
+        for (String oauthId : oauthIds) {
+            userRepository.findByOauthId(oauthId).ifPresent(userRepository::delete);
+        }
+    }
+
+    private String newOauthId(String prefix) {
+        String oauthId = "auth0|" + prefix + "-" + System.nanoTime();
+        oauthIds.add(oauthId);
+        return oauthId;
+    }
+
+    /**
+     * Startet alle Requests gleichzeitig (Request-Builder sind nicht
+     * thread-sicher, daher einer pro Request).
+     */
+    private List<MockHttpServletResponse> concurrently(IntFunction<RequestBuilder> request) throws Exception {
+        List<MockHttpServletResponse> responses = new ArrayList<>();
+        Set<Throwable> failures = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+        try {
+            List<Future<MockHttpServletResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        return mockMvc.perform(request.apply(index)).andReturn().getResponse();
+                    } catch (Exception e) {
+                        failures.add(e);
+                        throw e;
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<MockHttpServletResponse> future : futures) {
+                responses.add(future.get(60, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(failures.isEmpty(), "failures " + failures);
+        return responses;
+    }
+
+    @Test
+    void hundredConcurrentFirstLogins_createOneUserWithOneUpsert() throws Exception {
+        String oauthId = newOauthId("first-login");
+        long upsertsBefore = (Long) provisioningService.stats().get("upserts");
+
+        List<MockHttpServletResponse> responses = concurrently(i -> get("/api/profile")
+                .with(jwt().jwt(jwt -> jwt
+                        .claim("sub", oauthId)
+                        .claim("name", "Neuer User")
+                        .claim("email", oauthId.substring(6) + "@example.com"))));
+
+        Set<Long> ids = new HashSet<>();
+        for (MockHttpServletResponse response : responses) {
+            assertEquals(200, response.getStatus(), response.getContentAsString());
+            ids.add(objectMapper.readValue(response.getContentAsString(), User.class).getId());
+        }
+        Long userId = userRepository.findByOauthId(oauthId).orElseThrow().getId();
+        assertEquals(Set.of(userId), ids);
+        assertEquals(1, userRepository.findAll().stream()
+                .filter(user -> oauthId.equals(user.getOauthId())).count());
+        // Alle anderen Requests haben die laufende Anlage geteilt oder die gecachte ID genutzt
+        assertEquals(upsertsBefore + 1, (Long) provisioningService.stats().get("upserts"));
+    }
+
+    @Test
+    void concurrentFirstRequestsInsideTransactions_createOneUser() throws Exception {
+        String oauthId = newOauthId("first-favorite");
+        Long recipeId = recipeRepository.save(new Recipe("Pasta e fagioli", "Text", null)).getId();
+
+        // Hälfte Login, Hälfte Favorit hinzufügen (transaktional, nicht zusammengefasst)
+        List<MockHttpServletResponse> responses = concurrently(i -> i % 2 == 0
+                ? get("/api/profile").with(jwt().jwt(jwt -> jwt.claim("sub", oauthId)))
+                : post("/api/favorites/" + recipeId).with(jwt().jwt(jwt -> jwt.claim("sub", oauthId))));
+
+        for (MockHttpServletResponse response : responses) {
+            assertTrue(response.getStatus() == 200 || response.getStatus() == 201,
+                    response.getStatus() + " " + response.getContentAsString());
+        }
+        assertEquals(1, userRepository.findAll().stream()
+                .filter(user -> oauthId.equals(user.getOauthId())).count());
+        assertEquals(1, favoriteRepository.countByUserOauthId(oauthId));
+    }
+
+    @Test
+    void firstLogin_linksExistingUserByEmail() throws Exception {
+        String placeholder = newOauthId("placeholder");
+        String oauthId = newOauthId("linked");
+        User existing = new User();
+        existing.setName("Vom DataLoader");
+        existing.setEmail(placeholder.substring(6) + "@example.com");
+        existing.setOauthId(placeholder);
+        existing.setRole(Role.ADMIN);
+        existing = userRepository.save(existing);
+        // Rollen-Cache kennt die neue oauthId noch nicht
+        assertTrue(userRoleService.resolveRole(oauthId).isEmpty());
+
+        mockMvc.perform(get("/api/profile")
+                .with(jwt().jwt(jwt -> jwt
+                        .claim("sub", oauthId)
+                        .claim("name", "Anderer Name")
+                        .claim("email", placeholder.substring(6) + "@example.com"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(existing.getId()))
+                .andExpect(jsonPath("$.oauthId").value(oauthId))
+                .andExpect(jsonPath("$.name").value("Vom DataLoader"))
+                .andExpect(jsonPath("$.role").value("ADMIN"));
+
+        assertEquals(Role.ADMIN, userRoleService.resolveRole(oauthId).orElseThrow());
+        assertTrue(userRepository.findByOauthId(placeholder).isEmpty());
+    }
+}
@@ -0,0 +1,126 @@
+package de.htwg.in.wete.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import de.htwg.in.wete.backend.model.Role;
+import de.htwg.in.wete.backend.model.User;
+import de.htwg.in.wete.backend.repository.ProductRepository;
+import de.htwg.in.wete.backend.repository.UserRepository;
+import de.htwg.in.wete.backend.service.UserRoleService;
+
+/**
+ * Tests für den Rollen-Cache: Admin-Prüfungen dürfen nach dem ersten Zugriff
+ * nicht mehr die Datenbank treffen, Rollenänderungen müssen sofort greifen.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class UserRoleCacheTests {
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRoleService userRoleService;
+
+    private User admin;
+    private User regular;
+
+    @BeforeEach
+    public void setUp(WebApplicationContext webApplicationContext) {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .apply(springSecurity())
+                .build();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+        userRoleService.evictAll();
+
+        admin = new User();
+        admin.setName("Admin User");
+        admin.setEmail("admin@example.com");
+        admin.setOauthId("auth0|cache-admin");
+        admin.setRole(Role.ADMIN);
+        admin = userRepository.save(admin);
+
+        regular = new User();
+        regular.setName("Regular User");
+        regular.setEmail("regular@example.com");
+        regular.setOauthId("auth0|cache-regular");
+        regular.setRole(Role.REGULAR);
+        regular = userRepository.save(regular);
+    }
+
+    @Test
+    void repeatedAdminChecks_hitDatabaseOnlyOnce() throws Exception {
+        long lookupsBefore = (long) userRoleService.stats().get("dbLookups");
+
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(post("/api/product")
+                    .with(jwt().jwt(jwt -> jwt.claim("sub", "auth0|cache-admin")))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"title\":\"Käse " + i + "\",\"category\":\"KAESE\",\"price\":1.0}"))
+                    .andExpect(status().isOk());
+        }
+
+        long lookupsAfter = (long) userRoleService.stats().get("dbLookups");
+        assertEquals(1, lookupsAfter - lookupsBefore, "Nur der erste Admin-Check darf die DB treffen");
+    }
+
+    @Test
+    void updateUser_invalidatesCachedRoleImmediately() throws Exception {
+        String payload = "{\"title\":\"Neues Brot\",\"category\":\"BROT\",\"price\":2.0}";
+
+        // Regulärer User ist kein Admin (Rolle wird dabei gecached)
+        mockMvc.perform(post("/api/product")
+                .with(jwt().jwt(jwt -> jwt.claim("sub", "auth0|cache-regular")))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(payload))
+                .andExpect(status().isForbidden());
+
+        // Admin befördert den User
+        mockMvc.perform(put("/api/users/" + regular.getId())
+                .with(jwt().jwt(jwt -> jwt.claim("sub", "auth0|cache-admin")))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"role\":\"ADMIN\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.role").value("ADMIN"));
+
+        // Neue Rolle gilt sofort
+        mockMvc.perform(post("/api/product")
+                .with(jwt().jwt(jwt -> jwt.claim("sub", "auth0|cache-regular")))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(payload))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void adminStats_requireAdminRole() throws Exception {
+        mockMvc.perform(get("/api/admin/stats")
+                .with(jwt().jwt(jwt -> jwt.claim("sub", "auth0|cache-regular"))))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(get("/api/admin/stats")
+                .with(jwt().jwt(jwt -> jwt.claim("sub", "auth0|cache-admin"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.roleCache.hits").exists())
+                .andExpect(jsonPath("$.roleCache.misses").exists());
+    }
+}
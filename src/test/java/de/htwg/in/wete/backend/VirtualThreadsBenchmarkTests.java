@@ -0,0 +1,197 @@
+package de.htwg.in.wete.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import de.htwg.in.wete.backend.model.Recipe;
+import de.htwg.in.wete.backend.repository.RecipeRepository;
+
+/**
+ * Lasttest: Plattform-Threads (Tomcat-Pool) gegen virtuelle Threads bei 1000
+ * gleichzeitigen HTTP-Clients gegen H2. Die Anwendung wird pro Modus mit
+ * eigener In-Memory-Datenbank gestartet, gemessen werden Durchsatz und
+ * Latenz-Perzentile für
+ * <ul>
+ * <li>GET /api/recipes/{id} (reine H2-Abfrage, CPU-gebunden) und</li>
+ * <li>GET /api/benchmark/io (Abfrage plus {@value #IO_MILLIS} ms Wartezeit in
+ * der Transaktion, wie ein Roundtrip zu einer entfernten Datenbank).</li>
+ * </ul>
+ * Der DB-Pool ist groß genug, damit nur das Thread-Modell begrenzt.
+ * Läuft nur mit {@code mvn -Pbenchmark test}; gepinnte virtuelle Threads
+ * meldet dort {@code -Djdk.tracePinnedThreads}.
+ */
+@Tag("benchmark")
+class VirtualThreadsBenchmarkTests {
+
+    private static final int CLIENTS = 1000;
+    private static final int REQUESTS_PER_CLIENT = 20;
+    private static final int RECIPES = 100;
+    private static final long IO_MILLIS = 50;
+
+    /**
+     * Simulierter DB-Roundtrip: hält die Connection wie eine echte Abfrage.
+     * Nur in den hier gestarteten Anwendungen registriert.
+     */
+    @RestController
+    static class IoEndpoint {
+
+        private final RecipeRepository recipeRepository;
+        private final TransactionTemplate transactionTemplate;
+        private final LongAdder onVirtualThreads = new LongAdder();
+
+        IoEndpoint(RecipeRepository recipeRepository, TransactionTemplate transactionTemplate) {
+            this.recipeRepository = recipeRepository;
+            this.transactionTemplate = transactionTemplate;
+        }
+
+        @GetMapping("/api/benchmark/io")
+        Long io() {
+            if (Thread.currentThread().isVirtual()) {
+                onVirtualThreads.increment();
+            }
+            return transactionTemplate.execute(status -> {
+                long count = recipeRepository.count();
+                try {
+                    Thread.sleep(IO_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return count;
+            });
+        }
+    }
+
+    private record Result(double throughput, long p50Micros, long p99Micros, long maxMicros, long errors) {
+
+        @Override
+        public String toString() {
+            return String.format("%,8.0f req/s  p50 %,7.1f ms  p99 %,7.1f ms  max %,7.1f ms  errors %d",
+                    throughput, p50Micros / 1e3, p99Micros / 1e3, maxMicros / 1e3, errors);
+        }
+    }
+
+    @Test
+    void platformVersusVirtualThreads() throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (boolean virtual : new boolean[] {false, true}) {
+            String mode = virtual ? "virtual " : "platform";
+            try (ConfigurableApplicationContext app = start(virtual)) {
+                String base = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+                RecipeRepository recipes = app.getBean(RecipeRepository.class);
+                List<Long> ids = new ArrayList<>();
+                for (int i = 0; i < RECIPES; i++) {
+                    ids.add(recipes.save(new Recipe("Rezept " + i, "Text " + i, null)).getId());
+                }
+                IntFunction<String> recipe = i -> base + "/api/recipes/" + ids.get(i % ids.size());
+                IntFunction<String> io = i -> base + "/api/benchmark/io";
+
+                // Warm-up (JIT, Connections)
+                run(recipe, 200, 10);
+                run(io, 200, 2);
+
+                Result recipeResult = run(recipe, CLIENTS, REQUESTS_PER_CLIENT);
+                Result ioResult = run(io, CLIENTS, REQUESTS_PER_CLIENT);
+                lines.add(mode + "  /api/recipes/{id}   " + recipeResult);
+                lines.add(mode + "  /api/benchmark/io   " + ioResult);
+                assertEquals(0, recipeResult.errors(), mode + " recipe errors");
+                assertEquals(0, ioResult.errors(), mode + " io errors");
+                // Der Modus ist wirklich aktiv: alle oder keine Requests auf virtuellen Threads
+                assertEquals(virtual ? CLIENTS * REQUESTS_PER_CLIENT + 200 * 2 : 0,
+                        app.getBean(IoEndpoint.class).onVirtualThreads.sum());
+            }
+        }
+        System.out.printf("Threads, %d Clients x %d Requests, %d CPUs:%n%s%n", CLIENTS, REQUESTS_PER_CLIENT,
+                Runtime.getRuntime().availableProcessors(), String.join("\n", lines));
+    }
+
+    private static ConfigurableApplicationContext start(boolean virtual) {
+        // Als Argumente, damit sie application.properties überschreiben
+        return new SpringApplicationBuilder(BackendApplication.class, IoEndpoint.class)
+                .profiles("test")
+                .run(
+                        "--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtual,
+                        "--spring.datasource.url=jdbc:h2:mem:threads-" + virtual + ";DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.hikari.maximum-pool-size=" + CLIENTS,
+                        "--spring.datasource.hikari.minimum-idle=10",
+                        "--spring.jmx.enabled=false");
+    }
+
+    /**
+     * Jeder Client ist ein eigener (virtueller) Thread und schickt seine
+     * Requests nacheinander über eine Keep-Alive-Verbindung.
+     */
+    private static Result run(IntFunction<String> url, int clients, int requestsPerClient) throws Exception {
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        long[] latencies = new long[clients * requestsPerClient];
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        long begin;
+        long elapsed;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                int client = c;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int r = 0; r < requestsPerClient; r++) {
+                        int index = client * requestsPerClient + r;
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(url.apply(index)))
+                                .timeout(Duration.ofSeconds(60))
+                                .build();
+                        long t0 = System.nanoTime();
+                        try {
+                            HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (IOException e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[index] = (System.nanoTime() - t0) / 1000;
+                    }
+                    return null;
+                }));
+            }
+            begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            elapsed = System.nanoTime() - begin;
+        }
+        Arrays.sort(latencies);
+        return new Result(latencies.length / (elapsed / 1e9),
+                latencies[latencies.length / 2],
+                latencies[(int) Math.ceil(latencies.length * 0.99) - 1],
+                latencies[latencies.length - 1],
+                errors.get());
+    }
+}